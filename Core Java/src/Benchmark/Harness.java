@@ -0,0 +1,90 @@
+package Benchmark;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+
+/**
+ * Minimal main()-driven benchmark harness used by the *Benchmark classes in this module.
+ * The module has no build file, so there is no JMH on the classpath; this gives warm-up
+ * iterations, a result sink against dead-code elimination, and a rough heap measurement.
+ */
+public final class Harness {
+    // results are folded in here so the JIT can not drop the measured work
+    private static volatile long sink;
+
+    private Harness() {
+    }
+
+    public static void consume(long value) {
+        sink ^= value;
+    }
+
+    public static void consume(double value) {
+        sink ^= Double.doubleToRawLongBits(value);
+    }
+
+    public static void consume(Object value) {
+        sink ^= System.identityHashCode(value);
+    }
+
+    /**
+     * Runs body warmups times untimed, then iterations times timed.
+     * Prints and returns the best time in milliseconds (least disturbed by GC and scheduling).
+     */
+    public static double run(String label, int warmups, int iterations, Runnable body) {
+        for (int i = 0; i < warmups; i++) {
+            body.run();
+        }
+        long[] samples = new long[iterations];
+        for (int i = 0; i < iterations; i++) {
+            long start = System.nanoTime();
+            body.run();
+            samples[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(samples);
+        double bestMs = samples[0] / 1e6;
+        double medianMs = samples[iterations / 2] / 1e6;
+        System.out.printf("%-45s best %10.3f ms   median %10.3f ms%n", label, bestMs, medianMs);
+        return bestMs;
+    }
+
+    /**
+     * Heap in use after a few forced collections. Good enough to compare footprints that differ
+     * by whole multiples, not for byte-exact numbers.
+     */
+    public static long usedHeap() {
+        Runtime rt = Runtime.getRuntime();
+        long used = Long.MAX_VALUE;
+        for (int i = 0; i < 4; i++) {
+            System.gc();
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            used = Math.min(used, rt.totalMemory() - rt.freeMemory());
+        }
+        return used;
+    }
+
+    /**
+     * Bytes the calling thread has allocated so far (HotSpot's extension of ThreadMXBean). The difference
+     * around a loop, divided by its operations, is what JMH's -prof gc reports as gc.alloc.rate.norm.
+     */
+    public static long threadAllocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean()).getCurrentThreadAllocatedBytes();
+    }
+
+    public static void printFootprint(String label, long bytes, long elements) {
+        System.out.printf("%-45s %10.1f MB   %6.2f bytes/element%n",
+                label, bytes / (1024.0 * 1024.0), (double) bytes / elements);
+    }
+
+    public static int intArg(String[] args, int index, int defaultValue) {
+        return args.length > index ? Integer.parseInt(args[index]) : defaultValue;
+    }
+
+    public static long longArg(String[] args, int index, long defaultValue) {
+        return args.length > index ? Long.parseLong(args[index]) : defaultValue;
+    }
+}
@@ -0,0 +1,58 @@
+package Benchmark;
+
+import java.util.SplittableRandom;
+
+/**
+ * Zipf-distributed integers in [0, items), rank 0 being the most popular (Gray et al., as used by YCSB).
+ * A skew of 0.99 approximates typical cache and key-value workloads.
+ */
+public final class ZipfianGenerator {
+    private final int items;
+    private final double theta;
+    private final double alpha;
+    private final double zetaN;
+    private final double eta;
+    private final SplittableRandom random;
+
+    public ZipfianGenerator(int items, double theta, long seed) {
+        if (items < 2) {
+            throw new IllegalArgumentException("Need at least 2 items: " + items);
+        }
+        this.items = items;
+        this.theta = theta;
+        this.random = new SplittableRandom(seed);
+        this.zetaN = zeta(items, theta);
+        double zeta2 = zeta(2, theta);
+        this.alpha = 1.0 / (1.0 - theta);
+        this.eta = (1 - Math.pow(2.0 / items, 1 - theta)) / (1 - zeta2 / zetaN);
+    }
+
+    public int next() {
+        double u = random.nextDouble();
+        double uz = u * zetaN;
+        if (uz < 1.0) {
+            return 0;
+        }
+        if (uz < 1.0 + Math.pow(0.5, theta)) {
+            return 1;
+        }
+        return (int) (items * Math.pow(eta * u - eta + 1, alpha));
+    }
+
+    // a pre-generated trace keeps the generator's cost out of the timed loop
+    public int[] trace(int length) {
+        int[] keys = new int[length];
+        for (int i = 0; i < length; i++) {
+            keys[i] = next();
+        }
+        return keys;
+    }
+
+    private static double zeta(int n, double theta) {
+        double sum = 0;
+        for (int i = 1; i <= n; i++) {
+            sum += 1 / Math.pow(i, theta);
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,718 @@
+package Collection.Cache;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Concurrent cache bounded by entry count or total weight, with W-TinyLFU eviction.
+ * <p>
+ * LinkedHashMap(accessOrder = true) + removeEldestEntry gives an LRU cache, but every get() relinks the
+ * entry, so under concurrency the whole map has to sit behind one lock. Here the entries live in a
+ * ConcurrentHashMap and reads never block:
+ * <ul>
+ *     <li>a hit is recorded in a lossy, striped {@link ReadBuffer}; writes go to a write queue</li>
+ *     <li>whichever thread wins tryLock() replays both buffers into the eviction policy ("maintenance"); a writer
+ *     that finds WRITE_BUFFER_MAX tasks queued waits for the lock and drains them itself, so writers can not
+ *     outrun the policy and grow the cache far past its bound</li>
+ *     <li>the policy is W-TinyLFU: a small LRU admission window (1% of the capacity) in front of a segmented LRU
+ *     main space (probation + protected, 80% protected). When the cache is full, the entry leaving the window
+ *     only gets into the main space if the {@link FrequencySketch} says it is used more often than the
+ *     probation victim it would replace. This keeps one-hit wonders and scans from flushing popular entries.</li>
+ * </ul>
+ * Entries can also expire a fixed time after their last write and/or last access. Expired entries are never
+ * returned and are cleaned up by maintenance.
+ */
+public final class BoundedCache<K, V> {
+
+    @FunctionalInterface
+    public interface Weigher<K, V> {
+        int weigh(K key, V value);
+    }
+
+    private static final int WINDOW = 0;
+    private static final int PROBATION = 1;
+    private static final int PROTECTED = 2;
+    private static final int WRITE_BUFFER_MAX = 128 * Runtime.getRuntime().availableProcessors();
+
+    private static final class Node<K, V> {
+        final K key;
+        volatile V value;
+        volatile int weight;
+        volatile long writeTime;
+        volatile long accessTime;
+
+        // guarded by evictionLock
+        boolean inPolicy;
+        boolean dead;
+        int queue;
+        int policyWeight;
+        Node<K, V> prev;
+        Node<K, V> next;
+        Node<K, V> prevWrite;
+        Node<K, V> nextWrite;
+
+        Node(K key, V value, int weight, long now) {
+            this.key = key;
+            this.value = value;
+            this.weight = weight;
+            this.writeTime = now;
+            this.accessTime = now;
+        }
+    }
+
+    // Doubly linked list through Node.prev/next; each node is in at most one of the three access-order lists.
+    private static final class AccessOrderDeque<K, V> {
+        Node<K, V> head;
+        Node<K, V> tail;
+        int count;
+
+        void addLast(Node<K, V> node) {
+            node.prev = tail;
+            node.next = null;
+            if (tail == null) {
+                head = node;
+            } else {
+                tail.next = node;
+            }
+            tail = node;
+            count++;
+        }
+
+        void unlink(Node<K, V> node) {
+            if (node.prev == null) {
+                head = node.next;
+            } else {
+                node.prev.next = node.next;
+            }
+            if (node.next == null) {
+                tail = node.prev;
+            } else {
+                node.next.prev = node.prev;
+            }
+            node.prev = null;
+            node.next = null;
+            count--;
+        }
+
+        void moveToBack(Node<K, V> node) {
+            if (node != tail) {
+                unlink(node);
+                addLast(node);
+            }
+        }
+    }
+
+    private final ConcurrentHashMap<K, Node<K, V>> data;
+    private final long maximumWeight;
+    private final long windowMaximum;
+    private final long protectedMaximum;
+    private final Weigher<? super K, ? super V> weigher;
+    private final long expireAfterWriteNanos;
+    private final long expireAfterAccessNanos;
+    private final LongSupplier ticker;
+    private final boolean weighted;
+    private final boolean expires;
+    private final Function<? super K, ? extends V> loader;
+
+    private final ReadBuffer<Node<K, V>> readBuffer = new ReadBuffer<>();
+    private final Queue<Runnable> writeBuffer = new ConcurrentLinkedQueue<>();
+    // tasks in writeBuffer; ConcurrentLinkedQueue.size() walks the queue
+    private final AtomicInteger pendingWrites = new AtomicInteger();
+    private final ReentrantLock evictionLock = new ReentrantLock();
+
+    // guarded by evictionLock
+    private final FrequencySketch sketch;
+    private final AccessOrderDeque<K, V> window = new AccessOrderDeque<>();
+    private final AccessOrderDeque<K, V> probation = new AccessOrderDeque<>();
+    private final AccessOrderDeque<K, V> protectedQueue = new AccessOrderDeque<>();
+    private Node<K, V> writeOrderHead;
+    private Node<K, V> writeOrderTail;
+    private long weightedSize;
+    private long windowWeight;
+    private long protectedWeight;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder loadSuccesses = new LongAdder();
+    private final LongAdder loadFailures = new LongAdder();
+    private final LongAdder loadTime = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder evictionWeight = new LongAdder();
+
+    private BoundedCache(Builder<K, V> builder, Function<? super K, ? extends V> loader) {
+        this.maximumWeight = builder.maximumWeight;
+        this.weigher = builder.weigher;
+        this.expireAfterWriteNanos = builder.expireAfterWriteNanos;
+        this.expireAfterAccessNanos = builder.expireAfterAccessNanos;
+        this.ticker = builder.ticker;
+        this.weighted = builder.weighted;
+        this.expires = expireAfterWriteNanos > 0 || expireAfterAccessNanos > 0;
+        this.loader = loader;
+        this.data = new ConcurrentHashMap<>(builder.initialCapacity);
+        this.windowMaximum = Math.max(1, maximumWeight / 100);
+        this.protectedMaximum = (long) ((maximumWeight - windowMaximum) * 0.8);
+        // the sketch is sized by entry count: a weight says nothing about it, so weighted caches start at
+        // initialCapacity and grow the sketch as entries are added
+        this.sketch = new FrequencySketch(weighted ? builder.initialCapacity : maximumWeight);
+    }
+
+    public static <K, V> Builder<K, V> newBuilder() {
+        return new Builder<>();
+    }
+
+    public V getIfPresent(K key) {
+        Node<K, V> node = data.get(key);
+        if (node == null) {
+            misses.increment();
+            return null;
+        }
+        long now = now();
+        if (isExpired(node, now)) {
+            misses.increment();
+            scheduleDrain();
+            return null;
+        }
+        V value = node.value;
+        onHit(node, now);
+        return value;
+    }
+
+    /**
+     * Returns the cached value, loading it with the builder's loader on a miss.
+     */
+    public V get(K key) {
+        if (loader == null) {
+            throw new IllegalStateException("No loader configured, use build(loader) or get(key, mappingFunction)");
+        }
+        return get(key, loader);
+    }
+
+    /**
+     * Returns the cached value or computes it with mappingFunction. Concurrent callers for the same key wait for a
+     * single load. A null result is not cached; an exception from the function is counted as a load failure
+     * and rethrown.
+     */
+    public V get(K key, Function<? super K, ? extends V> mappingFunction) {
+        Objects.requireNonNull(mappingFunction);
+        Node<K, V> node = data.get(key);
+        long now = now();
+        if (node != null && !isExpired(node, now)) {
+            V value = node.value;
+            onHit(node, now);
+            return value;
+        }
+
+        Object[] replaced = new Object[2];
+        Node<K, V> result = data.compute(key, (k, current) -> {
+            long time = now();
+            if (current != null && !isExpired(current, time)) {
+                return current;
+            }
+            V value = load(k, mappingFunction);
+            replaced[0] = current;
+            if (value == null) {
+                return null;
+            }
+            Node<K, V> created = new Node<>(k, value, weigh(k, value), time);
+            replaced[1] = created;
+            return created;
+        });
+        afterLoad(replaced);
+        if (result == null) {
+            misses.increment();
+            return null;
+        }
+        if (replaced[1] == result) {
+            misses.increment();
+        } else {
+            onHit(result, now);
+        }
+        return result.value;
+    }
+
+    public void put(K key, V value) {
+        Objects.requireNonNull(key);
+        Objects.requireNonNull(value);
+        int weight = weigh(key, value);
+        long now = now();
+        Object[] changed = new Object[2];
+        data.compute(key, (k, current) -> {
+            if (current == null) {
+                Node<K, V> created = new Node<>(k, value, weight, now);
+                changed[0] = created;
+                return created;
+            }
+            // update in place: the node keeps its place in the policy, only value/weight/timestamps change
+            current.value = value;
+            current.weight = weight;
+            current.writeTime = now;
+            current.accessTime = now;
+            changed[1] = current;
+            return current;
+        });
+        @SuppressWarnings("unchecked")
+        Node<K, V> added = (Node<K, V>) changed[0];
+        @SuppressWarnings("unchecked")
+        Node<K, V> updated = (Node<K, V>) changed[1];
+        if (added != null) {
+            afterWrite(() -> onAdd(added));
+        } else {
+            afterWrite(() -> onUpdate(updated));
+        }
+    }
+
+    public V remove(K key) {
+        Node<K, V> node = data.remove(key);
+        if (node == null) {
+            return null;
+        }
+        afterWrite(() -> onRemove(node));
+        return isExpired(node, now()) ? null : node.value;
+    }
+
+    public void invalidateAll() {
+        evictionLock.lock();
+        try {
+            maintenance();
+            data.clear();
+            for (AccessOrderDeque<K, V> deque : List.of(window, probation, protectedQueue)) {
+                while (deque.head != null) {
+                    onRemove(deque.head);
+                }
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    // number of mappings, including expired ones not yet cleaned up
+    public long estimatedSize() {
+        return data.size();
+    }
+
+    public long weightedSize() {
+        evictionLock.lock();
+        try {
+            return weightedSize;
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    // runs pending maintenance now: replays buffers, expires and evicts
+    public void cleanUp() {
+        evictionLock.lock();
+        try {
+            maintenance();
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    public CacheStats stats() {
+        return new CacheStats(hits.sum(), misses.sum(), loadSuccesses.sum(), loadFailures.sum(),
+                loadTime.sum(), evictions.sum(), evictionWeight.sum());
+    }
+
+    private V load(K key, Function<? super K, ? extends V> mappingFunction) {
+        long start = System.nanoTime();
+        try {
+            V value = mappingFunction.apply(key);
+            loadTime.add(System.nanoTime() - start);
+            if (value == null) {
+                loadFailures.increment();
+            } else {
+                loadSuccesses.increment();
+            }
+            return value;
+        } catch (RuntimeException | Error e) {
+            loadTime.add(System.nanoTime() - start);
+            loadFailures.increment();
+            throw e;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void afterLoad(Object[] replaced) {
+        Node<K, V> old = (Node<K, V>) replaced[0];
+        Node<K, V> created = (Node<K, V>) replaced[1];
+        if (old == null && created == null) {
+            return;
+        }
+        afterWrite(() -> {
+            if (old != null) {
+                onRemove(old);
+            }
+            if (created != null) {
+                onAdd(created);
+            }
+        });
+    }
+
+    private int weigh(K key, V value) {
+        int weight = weigher.weigh(key, value);
+        if (weight < 0) {
+            throw new IllegalArgumentException("Negative weight " + weight + " for key " + key);
+        }
+        return weight;
+    }
+
+    // the clock is only read when something can expire, System.nanoTime() is not free on the hit path
+    private long now() {
+        return expires ? ticker.getAsLong() : 0L;
+    }
+
+    private boolean isExpired(Node<K, V> node, long now) {
+        return (expireAfterWriteNanos > 0 && now - node.writeTime >= expireAfterWriteNanos)
+                || (expireAfterAccessNanos > 0 && now - node.accessTime >= expireAfterAccessNanos);
+    }
+
+    private void onHit(Node<K, V> node, long now) {
+        hits.increment();
+        if (expireAfterAccessNanos > 0) {
+            node.accessTime = now;
+        }
+        if (readBuffer.offer(node) == ReadBuffer.FULL) {
+            scheduleDrain();
+        }
+    }
+
+    private void afterWrite(Runnable task) {
+        writeBuffer.offer(task);
+        if (pendingWrites.incrementAndGet() <= WRITE_BUFFER_MAX) {
+            scheduleDrain();
+            return;
+        }
+        // back-pressure: the lock holder is not keeping up, so wait for it and help drain
+        evictionLock.lock();
+        try {
+            maintenance();
+        } finally {
+            evictionLock.unlock();
+        }
+        scheduleDrain();
+    }
+
+    /*
+     * Whoever gets the lock drains; everyone else moves on. The holder re-checks the write queue after
+     * unlocking, so a task queued while the lock was held is never stranded.
+     */
+    private void scheduleDrain() {
+        do {
+            if (!evictionLock.tryLock()) {
+                return;
+            }
+            try {
+                maintenance();
+            } finally {
+                evictionLock.unlock();
+            }
+        } while (!writeBuffer.isEmpty());
+    }
+
+    // guarded by evictionLock
+    private void maintenance() {
+        readBuffer.drainTo(this::onAccess);
+        Runnable task;
+        while ((task = writeBuffer.poll()) != null) {
+            pendingWrites.decrementAndGet();
+            task.run();
+        }
+        expireEntries();
+        evictEntries();
+    }
+
+    private void onAdd(Node<K, V> node) {
+        if (node.dead) {
+            // removed before its add was replayed
+            return;
+        }
+        node.inPolicy = true;
+        node.queue = WINDOW;
+        node.policyWeight = node.weight;
+        window.addLast(node);
+        windowWeight += node.policyWeight;
+        weightedSize += node.policyWeight;
+        if (expireAfterWriteNanos > 0) {
+            linkWriteOrder(node);
+        }
+        if (weighted) {
+            sketch.ensureCapacity(data.size());
+        }
+        sketch.increment(node.key);
+    }
+
+    private void onUpdate(Node<K, V> node) {
+        if (!node.inPolicy) {
+            return;
+        }
+        // the node's current weight, not the one of the put that queued this task: concurrent puts to one
+        // key may be replayed in a different order than they wrote the node
+        int newWeight = node.weight;
+        int delta = newWeight - node.policyWeight;
+        node.policyWeight = newWeight;
+        weightedSize += delta;
+        if (node.queue == WINDOW) {
+            windowWeight += delta;
+        } else if (node.queue == PROTECTED) {
+            protectedWeight += delta;
+        }
+        if (expireAfterWriteNanos > 0) {
+            unlinkWriteOrder(node);
+            linkWriteOrder(node);
+        }
+        onAccess(node);
+    }
+
+    private void onRemove(Node<K, V> node) {
+        if (node.inPolicy) {
+            unlinkFromPolicy(node);
+        }
+        node.dead = true;
+    }
+
+    private void onAccess(Node<K, V> node) {
+        if (!node.inPolicy) {
+            return;
+        }
+        sketch.increment(node.key);
+        if (node.queue == WINDOW) {
+            window.moveToBack(node);
+        } else if (node.queue == PROBATION) {
+            // second hit while in the main space: promote to protected
+            probation.unlink(node);
+            node.queue = PROTECTED;
+            protectedQueue.addLast(node);
+            protectedWeight += node.policyWeight;
+            while (protectedWeight > protectedMaximum && protectedQueue.head != null) {
+                Node<K, V> demoted = protectedQueue.head;
+                protectedQueue.unlink(demoted);
+                protectedWeight -= demoted.policyWeight;
+                demoted.queue = PROBATION;
+                probation.addLast(demoted);
+            }
+        } else {
+            protectedQueue.moveToBack(node);
+        }
+    }
+
+    private void expireEntries() {
+        long now = now();
+        if (expireAfterAccessNanos > 0) {
+            expireAccessOrder(window, now);
+            expireAccessOrder(probation, now);
+            expireAccessOrder(protectedQueue, now);
+        }
+        if (expireAfterWriteNanos > 0) {
+            while (writeOrderHead != null && isExpired(writeOrderHead, now)) {
+                evict(writeOrderHead, true);
+            }
+        }
+    }
+
+    private void expireAccessOrder(AccessOrderDeque<K, V> deque, long now) {
+        while (deque.head != null && isExpired(deque.head, now)) {
+            evict(deque.head, true);
+        }
+    }
+
+    private void evictEntries() {
+        // 1. overflow of the admission window moves to the tail of probation and becomes a candidate
+        int candidates = 0;
+        while (windowWeight > windowMaximum && window.head != null) {
+            Node<K, V> node = window.head;
+            window.unlink(node);
+            windowWeight -= node.policyWeight;
+            node.queue = PROBATION;
+            probation.addLast(node);
+            candidates++;
+        }
+
+        // 2. while over capacity, candidate (probation tail) duels victim (probation head) on frequency
+        while (weightedSize > maximumWeight) {
+            Node<K, V> victim = probation.head;
+            Node<K, V> candidate = candidates > 0 ? probation.tail : null;
+            if (victim == null) {
+                victim = protectedQueue.head != null ? protectedQueue.head : window.head;
+                if (victim == null) {
+                    break;
+                }
+                evict(victim, false);
+                continue;
+            }
+            boolean victimIsCandidate = probation.count <= candidates;
+            Node<K, V> loser;
+            if (candidate == null || victim == candidate) {
+                loser = victim;
+            } else if (candidate.policyWeight > maximumWeight) {
+                loser = candidate;
+            } else {
+                loser = sketch.frequency(candidate.key) > sketch.frequency(victim.key) ? victim : candidate;
+            }
+            if (loser == candidate || (loser == victim && victimIsCandidate)) {
+                candidates--;
+            }
+            evict(loser, false);
+        }
+    }
+
+    /*
+     * Removes node from the map and the policy. An expired node that was rewritten by put() in the
+     * meantime is not expired any more; it stays and just moves to the back of its lists.
+     */
+    private void evict(Node<K, V> node, boolean expired) {
+        long now = now();
+        boolean[] removed = new boolean[1];
+        data.computeIfPresent(node.key, (k, current) -> {
+            if (current == node && (!expired || isExpired(current, now))) {
+                removed[0] = true;
+                return null;
+            }
+            return current;
+        });
+        if (!removed[0] && data.get(node.key) == node) {
+            if (expireAfterWriteNanos > 0) {
+                unlinkWriteOrder(node);
+                linkWriteOrder(node);
+            }
+            accessDeque(node).moveToBack(node);
+            return;
+        }
+        // either evicted here or already removed by remove(), whose pending task will find it unlinked
+        unlinkFromPolicy(node);
+        node.dead = true;
+        if (removed[0]) {
+            evictions.increment();
+            evictionWeight.add(node.policyWeight);
+        }
+    }
+
+    private AccessOrderDeque<K, V> accessDeque(Node<K, V> node) {
+        return node.queue == WINDOW ? window : node.queue == PROBATION ? probation : protectedQueue;
+    }
+
+    private void unlinkFromPolicy(Node<K, V> node) {
+        accessDeque(node).unlink(node);
+        if (node.queue == WINDOW) {
+            windowWeight -= node.policyWeight;
+        } else if (node.queue == PROTECTED) {
+            protectedWeight -= node.policyWeight;
+        }
+        weightedSize -= node.policyWeight;
+        if (expireAfterWriteNanos > 0) {
+            unlinkWriteOrder(node);
+        }
+        node.inPolicy = false;
+    }
+
+    private void linkWriteOrder(Node<K, V> node) {
+        node.prevWrite = writeOrderTail;
+        node.nextWrite = null;
+        if (writeOrderTail == null) {
+            writeOrderHead = node;
+        } else {
+            writeOrderTail.nextWrite = node;
+        }
+        writeOrderTail = node;
+    }
+
+    private void unlinkWriteOrder(Node<K, V> node) {
+        if (node.prevWrite == null) {
+            writeOrderHead = node.nextWrite;
+        } else {
+            node.prevWrite.nextWrite = node.nextWrite;
+        }
+        if (node.nextWrite == null) {
+            writeOrderTail = node.prevWrite;
+        } else {
+            node.nextWrite.prevWrite = node.prevWrite;
+        }
+        node.prevWrite = null;
+        node.nextWrite = null;
+    }
+
+    public static final class Builder<K, V> {
+        private long maximumWeight = -1;
+        private Weigher<? super K, ? super V> weigher = (k, v) -> 1;
+        private boolean weighted;
+        private int initialCapacity = 16;
+        private long expireAfterWriteNanos;
+        private long expireAfterAccessNanos;
+        private LongSupplier ticker = System::nanoTime;
+
+        private Builder() {
+        }
+
+        public Builder<K, V> maximumSize(long maximumSize) {
+            if (weighted) {
+                throw new IllegalStateException("maximumSize can not be combined with a weigher");
+            }
+            checkPositive(maximumSize, "maximumSize");
+            this.maximumWeight = maximumSize;
+            return this;
+        }
+
+        public Builder<K, V> maximumWeight(long maximumWeight, Weigher<? super K, ? super V> weigher) {
+            checkPositive(maximumWeight, "maximumWeight");
+            this.maximumWeight = maximumWeight;
+            this.weigher = Objects.requireNonNull(weigher);
+            this.weighted = true;
+            return this;
+        }
+
+        public Builder<K, V> initialCapacity(int initialCapacity) {
+            checkPositive(initialCapacity, "initialCapacity");
+            this.initialCapacity = initialCapacity;
+            return this;
+        }
+
+        public Builder<K, V> expireAfterWrite(Duration duration) {
+            this.expireAfterWriteNanos = checkDuration(duration);
+            return this;
+        }
+
+        public Builder<K, V> expireAfterAccess(Duration duration) {
+            this.expireAfterAccessNanos = checkDuration(duration);
+            return this;
+        }
+
+        // time source in nanoseconds, handy for deterministic expiry in demos
+        public Builder<K, V> ticker(LongSupplier ticker) {
+            this.ticker = Objects.requireNonNull(ticker);
+            return this;
+        }
+
+        public BoundedCache<K, V> build() {
+            return build(null);
+        }
+
+        public BoundedCache<K, V> build(Function<? super K, ? extends V> loader) {
+            if (maximumWeight < 0) {
+                throw new IllegalStateException("maximumSize or maximumWeight is required");
+            }
+            return new BoundedCache<>(this, loader);
+        }
+
+        private static void checkPositive(long value, String name) {
+            if (value <= 0) {
+                throw new IllegalArgumentException(name + " must be positive: " + value);
+            }
+        }
+
+        private static long checkDuration(Duration duration) {
+            if (duration.isNegative() || duration.isZero()) {
+                throw new IllegalArgumentException("Duration must be positive: " + duration);
+            }
+            return duration.toNanos();
+        }
+    }
+}
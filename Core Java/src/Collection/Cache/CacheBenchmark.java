@@ -0,0 +1,137 @@
+package Collection.Cache;
+
+import Benchmark.Harness;
+import Benchmark.ZipfianGenerator;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * BoundedCache vs a synchronized access-order LinkedHashMap (the LinkedHashMapEx LRU trick), read-through
+ * workload with Zipfian keys, 1 to 64 threads.
+ * Usage: java Collection.Cache.CacheBenchmark [maximumSize] [keySpace] [seconds per run]
+ */
+public class CacheBenchmark {
+
+    interface ReadThroughCache {
+        Integer get(Integer key);
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        int maximumSize = Harness.intArg(args, 0, 10_000);
+        int keySpace = Harness.intArg(args, 1, 1_000_000);
+        int seconds = Harness.intArg(args, 2, 2);
+        int[] threadCounts = {1, 2, 4, 8, 16, 32, 64};
+
+        // one trace per thread, generated up front
+        int[][] traces = new int[64][];
+        for (int t = 0; t < traces.length; t++) {
+            traces[t] = new ZipfianGenerator(keySpace, 0.99, t).trace(1 << 20);
+        }
+
+        System.out.printf("maximumSize=%d keySpace=%d zipf=0.99%n", maximumSize, keySpace);
+        System.out.printf("%-28s %8s %14s %10s%n", "cache", "threads", "ops/s", "hit rate");
+        for (int threads : threadCounts) {
+            run("synchronized LinkedHashMap", threads, seconds, traces, lruCache(maximumSize));
+            run("BoundedCache (W-TinyLFU)", threads, seconds, traces, boundedCache(maximumSize));
+        }
+    }
+
+    private static Result lruCache(int maximumSize) {
+        Map<Integer, Integer> map = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Integer> eldest) {
+                return size() > maximumSize;
+            }
+        });
+        Result result = new Result();
+        result.cache = key -> {
+            Integer value = map.get(key);
+            if (value == null) {
+                result.misses.increment();
+                value = key;
+                map.put(key, value);
+            } else {
+                result.hits.increment();
+            }
+            return value;
+        };
+        return result;
+    }
+
+    private static Result boundedCache(int maximumSize) {
+        BoundedCache<Integer, Integer> cache = BoundedCache.<Integer, Integer>newBuilder()
+                .maximumSize(maximumSize)
+                .build(key -> key);
+        Result result = new Result();
+        result.cache = cache::get;
+        result.stats = cache;
+        return result;
+    }
+
+    static final class Result {
+        ReadThroughCache cache;
+        BoundedCache<?, ?> stats;
+        final LongAdder hits = new LongAdder();
+        final LongAdder misses = new LongAdder();
+    }
+
+    private static void run(String label, int threads, int seconds, int[][] traces, Result result)
+            throws InterruptedException {
+        LongAdder ops = new LongAdder();
+        CountDownLatch start = new CountDownLatch(1);
+        long deadline = System.nanoTime() + 1_000_000_000L * (seconds + 1);
+        long measureFrom = System.nanoTime() + 1_000_000_000L; // first second is warm-up
+        long[] measured = new long[threads];
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            int id = t;
+            int[] trace = traces[t];
+            workers[t] = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                int mask = trace.length - 1;
+                long count = 0;
+                long sum = 0;
+                int i = 0;
+                boolean warm = false;
+                while (true) {
+                    // check the clock every 1024 operations
+                    for (int j = 0; j < 1024; j++) {
+                        sum += result.cache.get(trace[i++ & mask]);
+                    }
+                    long now = System.nanoTime();
+                    if (!warm && now >= measureFrom) {
+                        warm = true;
+                        count = 0;
+                    } else {
+                        count += 1024;
+                    }
+                    if (now >= deadline) {
+                        break;
+                    }
+                }
+                measured[id] = count;
+                Harness.consume(sum);
+            });
+            workers[t].start();
+        }
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        for (long c : measured) {
+            ops.add(c);
+        }
+        double hitRate = result.stats != null
+                ? result.stats.stats().getHitRate()
+                : (double) result.hits.sum() / (result.hits.sum() + result.misses.sum());
+        System.out.printf("%-28s %8d %14.0f %10.4f%n", label, threads, ops.sum() / (double) seconds, hitRate);
+    }
+}
@@ -0,0 +1,53 @@
+package Collection.Cache;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class CacheEx {
+    public static void main(String[] args) {
+        // Size-bounded cache with a loader
+        BoundedCache<Integer, String> cache = BoundedCache.<Integer, String>newBuilder()
+                .maximumSize(100)
+                .build(key -> "value-" + key);
+
+        System.out.println("get(1): " + cache.get(1));   // miss, loads
+        System.out.println("get(1): " + cache.get(1));   // hit
+        cache.put(2, "Banana");
+        System.out.println("getIfPresent(2): " + cache.getIfPresent(2));
+        System.out.println("getIfPresent(3): " + cache.getIfPresent(3)); // miss, no load
+
+        // A hot key survives a scan of one-hit wonders thanks to TinyLFU admission
+        for (int i = 0; i < 50; i++) {
+            cache.get(1);
+        }
+        for (int i = 1000; i < 2000; i++) {
+            cache.get(i);
+        }
+        cache.cleanUp();
+        System.out.println("Hot key 1 still cached after scan: " + (cache.getIfPresent(1) != null));
+        System.out.println("Size: " + cache.estimatedSize() + " " + cache.stats());
+
+        // Weight-bounded cache: total String length at most 20
+        BoundedCache<String, String> weighted = BoundedCache.<String, String>newBuilder()
+                .maximumWeight(20, (key, value) -> value.length())
+                .build();
+        weighted.put("a", "0123456789");
+        weighted.put("b", "0123456789");
+        weighted.put("c", "0123456789");
+        weighted.cleanUp();
+        System.out.println("Weighted size: " + weighted.weightedSize() + " entries: " + weighted.estimatedSize());
+
+        // Expiry with a manual clock
+        AtomicLong clock = new AtomicLong();
+        BoundedCache<String, String> expiring = BoundedCache.<String, String>newBuilder()
+                .maximumSize(10)
+                .expireAfterWrite(Duration.ofSeconds(10))
+                .ticker(clock::get)
+                .build();
+        expiring.put("session", "token");
+        clock.addAndGet(Duration.ofSeconds(5).toNanos());
+        System.out.println("After 5s: " + expiring.getIfPresent("session"));
+        clock.addAndGet(Duration.ofSeconds(6).toNanos());
+        System.out.println("After 11s: " + expiring.getIfPresent("session"));
+    }
+}
@@ -0,0 +1,101 @@
+package Collection.Cache;
+
+/**
+ * Count-Min sketch with 4-bit counters, the popularity estimate behind TinyLFU admission.
+ * <p>
+ * Each key maps to four counters (one per row) packed sixteen to a long; the estimate is the
+ * smallest of the four. After sampleSize increments every counter is halved so that old
+ * popularity fades out. The table holds one long per expected entry; a weighted cache, whose entry count
+ * is not known up front, starts small and grows it with ensureCapacity(). Not thread safe, BoundedCache
+ * only touches it under its eviction lock.
+ */
+final class FrequencySketch {
+    private static final long RESET_MASK = 0x7777777777777777L;
+    private static final int MAX_COUNT = 15;
+
+    private static final int MAXIMUM_LENGTH = 1 << 26;
+
+    private long[] table;
+    private int tableMask;
+    private int sampleSize;
+    private int size;
+
+    FrequencySketch(long expectedSize) {
+        allocate(tableLength(expectedSize));
+    }
+
+    /**
+     * Grows the table to fit expectedSize entries. The counts gathered so far are dropped, like after a
+     * reset; with doubling that happens a handful of times while a cache fills.
+     */
+    void ensureCapacity(long expectedSize) {
+        int length = tableLength(expectedSize);
+        if (length > table.length) {
+            allocate(length);
+        }
+    }
+
+    private static int tableLength(long expectedSize) {
+        int capacity = (int) Math.min(Math.max(expectedSize, 16), MAXIMUM_LENGTH);
+        return Integer.highestOneBit(capacity - 1) << 1;
+    }
+
+    private void allocate(int length) {
+        table = new long[length];
+        tableMask = length - 1;
+        sampleSize = 10 * length;
+        size = 0;
+    }
+
+    int frequency(Object key) {
+        long hash = hash(key);
+        int frequency = MAX_COUNT;
+        for (int i = 0; i < 4; i++) {
+            int h = (int) (hash >>> (i << 4)) * 0x9E3779B9;
+            int index = (h ^ (h >>> 16)) & tableMask;
+            int shift = counterShift(hash, i);
+            frequency = Math.min(frequency, (int) ((table[index] >>> shift) & 0xfL));
+        }
+        return frequency;
+    }
+
+    void increment(Object key) {
+        long hash = hash(key);
+        boolean added = false;
+        for (int i = 0; i < 4; i++) {
+            int h = (int) (hash >>> (i << 4)) * 0x9E3779B9;
+            int index = (h ^ (h >>> 16)) & tableMask;
+            int shift = counterShift(hash, i);
+            if (((table[index] >>> shift) & 0xfL) < MAX_COUNT) {
+                table[index] += 1L << shift;
+                added = true;
+            }
+        }
+        if (added && ++size >= sampleSize) {
+            reset();
+        }
+    }
+
+    // halves every counter (and the sample count) so the sketch follows changes in popularity
+    private void reset() {
+        for (int i = 0; i < table.length; i++) {
+            table[i] = (table[i] >>> 1) & RESET_MASK;
+        }
+        size >>>= 1;
+    }
+
+    /*
+     * One 64-bit hash per key; each of the four rows takes a different 16-bit slice of it for the
+     * table index, and a 4-bit slice of the rotated hash to pick one of the 16 nibbles in that long.
+     */
+    private static long hash(Object key) {
+        long h = key.hashCode() * 0x9E3779B97F4A7C15L;
+        h ^= h >>> 29;
+        h *= 0xBF58476D1CE4E5B9L;
+        return h ^ (h >>> 32);
+    }
+
+    private static int counterShift(long hash, int i) {
+        return (int) ((Long.rotateLeft(hash, 17 + (i << 2)) >>> 60) << 2);
+    }
+}
@@ -0,0 +1,81 @@
+package Collection.Cache;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * Striped, lossy ring buffers that record cache hits without taking a lock.
+ * <p>
+ * Readers are spread over stripes by thread id and claim a slot with one CAS. A full stripe or a lost
+ * CAS simply drops the event: missing a few accesses only makes the LRU order slightly less exact,
+ * which is far cheaper than making every reader wait. The single drainer runs under the cache's lock.
+ */
+final class ReadBuffer<E> {
+    static final int SUCCESS = 0;
+    static final int FAILED = 1;
+    static final int FULL = 2;
+
+    private static final int STRIPE_SIZE = 16;
+    private static final int STRIPE_MASK = STRIPE_SIZE - 1;
+
+    private static final class Stripe {
+        final AtomicReferenceArray<Object> slots = new AtomicReferenceArray<>(STRIPE_SIZE);
+        final AtomicLong writes = new AtomicLong();
+        volatile long reads;
+        // keeps the hot counters of neighbouring stripes on different cache lines
+        long p1, p2, p3, p4, p5, p6, p7;
+    }
+
+    private final Stripe[] stripes;
+    private final int mask;
+
+    ReadBuffer() {
+        int count = Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors() * 2 - 1)) << 1;
+        stripes = new Stripe[count];
+        for (int i = 0; i < count; i++) {
+            stripes[i] = new Stripe();
+        }
+        mask = count - 1;
+    }
+
+    int offer(E e) {
+        Stripe stripe = stripes[probe() & mask];
+        long head = stripe.reads;
+        long tail = stripe.writes.get();
+        long size = tail - head;
+        if (size >= STRIPE_SIZE) {
+            return FULL;
+        }
+        if (stripe.writes.compareAndSet(tail, tail + 1)) {
+            stripe.slots.lazySet((int) (tail & STRIPE_MASK), e);
+            return size + 1 >= STRIPE_SIZE ? FULL : SUCCESS;
+        }
+        return FAILED;
+    }
+
+    @SuppressWarnings("unchecked")
+    void drainTo(Consumer<E> consumer) {
+        for (Stripe stripe : stripes) {
+            long head = stripe.reads;
+            long tail = stripe.writes.get();
+            for (; head < tail; head++) {
+                int index = (int) (head & STRIPE_MASK);
+                Object e = stripe.slots.get(index);
+                if (e == null) {
+                    // slot claimed but not yet published, pick it up on the next drain
+                    break;
+                }
+                stripe.slots.lazySet(index, null);
+                consumer.accept((E) e);
+            }
+            stripe.reads = head;
+        }
+    }
+
+    private static int probe() {
+        long id = Thread.currentThread().threadId();
+        int h = (int) (id ^ (id >>> 32)) * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,188 @@
+package Collection;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Relaxed concurrent priority queue (MultiQueue) for many-core schedulers.
+ * <p>
+ * PriorityBlockingQueue keeps one heap behind one lock, so every producer and consumer serializes on it.
+ * A MultiQueue keeps c * threads small heaps, each with its own lock:
+ * <ul>
+ *     <li>offer() locks one random heap (trying another if that lock is busy) and inserts there</li>
+ *     <li>poll() looks at the minimum of two random heaps and takes from the better one</li>
+ * </ul>
+ * poll() therefore does not always return the global minimum, but with high probability returns one of the
+ * smallest O(number of heaps) elements, which is good enough for schedulers and parallel best-first search.
+ * Priorities are primitive longs (smaller is served first); Long.MAX_VALUE is reserved, it marks an empty heap.
+ */
+public class ConcurrentMultiQueue<E> {
+    private static final int DEFAULT_QUEUES_PER_THREAD = 2;
+
+    private static final class Shard {
+        final ReentrantLock lock = new ReentrantLock();
+        long[] priorities = new long[16];
+        Object[] values = new Object[16];
+        int size;
+        // read without the lock by poll() to choose a heap; Long.MAX_VALUE when empty
+        volatile long top = Long.MAX_VALUE;
+        // keeps neighbouring shards' lock words and tops on separate cache lines
+        long p1, p2, p3, p4, p5, p6;
+
+        void offer(long priority, Object value) {
+            if (size == priorities.length) {
+                priorities = Arrays.copyOf(priorities, size * 2);
+                values = Arrays.copyOf(values, size * 2);
+            }
+            int position = size++;
+            while (position > 0) {
+                int parent = (position - 1) >>> 2;
+                if (priority >= priorities[parent]) {
+                    break;
+                }
+                priorities[position] = priorities[parent];
+                values[position] = values[parent];
+                position = parent;
+            }
+            priorities[position] = priority;
+            values[position] = value;
+            top = priorities[0];
+        }
+
+        Object poll() {
+            Object result = values[0];
+            int last = --size;
+            long priority = priorities[last];
+            Object value = values[last];
+            values[last] = null;
+            if (last > 0) {
+                int position = 0;
+                while (true) {
+                    int first = (position << 2) + 1;
+                    if (first >= last) {
+                        break;
+                    }
+                    int end = Math.min(first + 4, last);
+                    int best = first;
+                    for (int child = first + 1; child < end; child++) {
+                        if (priorities[child] < priorities[best]) {
+                            best = child;
+                        }
+                    }
+                    if (priorities[best] >= priority) {
+                        break;
+                    }
+                    priorities[position] = priorities[best];
+                    values[position] = values[best];
+                    position = best;
+                }
+                priorities[position] = priority;
+                values[position] = value;
+            }
+            top = size == 0 ? Long.MAX_VALUE : priorities[0];
+            return result;
+        }
+    }
+
+    private final Shard[] shards;
+    private final LongAdder size = new LongAdder();
+
+    public ConcurrentMultiQueue() {
+        this(Runtime.getRuntime().availableProcessors() * DEFAULT_QUEUES_PER_THREAD);
+    }
+
+    public ConcurrentMultiQueue(int queues) {
+        if (queues < 2) {
+            throw new IllegalArgumentException("Need at least 2 internal queues: " + queues);
+        }
+        shards = new Shard[queues];
+        for (int i = 0; i < queues; i++) {
+            shards[i] = new Shard();
+        }
+    }
+
+    public void offer(long priority, E value) {
+        if (value == null) {
+            throw new NullPointerException();
+        }
+        if (priority == Long.MAX_VALUE) {
+            // poll() would take the heap for empty and could miss the element
+            throw new IllegalArgumentException("Long.MAX_VALUE is reserved, priority must be smaller");
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (true) {
+            Shard shard = shards[random.nextInt(shards.length)];
+            if (shard.lock.tryLock()) {
+                try {
+                    shard.offer(priority, value);
+                } finally {
+                    shard.lock.unlock();
+                }
+                size.increment();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Removes and returns an element with a small (not necessarily the smallest) priority, or null if
+     * the queue is empty.
+     */
+    @SuppressWarnings("unchecked")
+    public E poll() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int attempt = 0; attempt < shards.length; attempt++) {
+            Shard a = shards[random.nextInt(shards.length)];
+            Shard b = shards[random.nextInt(shards.length)];
+            Shard best = b.top < a.top ? b : a;
+            if (best.top == Long.MAX_VALUE) {
+                // both looked empty; give up only once a full sweep agrees
+                if (size.sum() == 0) {
+                    return null;
+                }
+                continue;
+            }
+            if (best.lock.tryLock()) {
+                try {
+                    if (best.size > 0) {
+                        Object value = best.poll();
+                        size.decrement();
+                        return (E) value;
+                    }
+                } finally {
+                    best.lock.unlock();
+                }
+            }
+        }
+        return pollSweep();
+    }
+
+    public boolean isEmpty() {
+        return size.sum() == 0;
+    }
+
+    // approximate while other threads are offering or polling
+    public long size() {
+        return size.sum();
+    }
+
+    // slow path when random picks keep missing: lock every shard in turn
+    @SuppressWarnings("unchecked")
+    private E pollSweep() {
+        for (Shard shard : shards) {
+            shard.lock.lock();
+            try {
+                if (shard.size > 0) {
+                    Object value = shard.poll();
+                    size.decrement();
+                    return (E) value;
+                }
+            } finally {
+                shard.lock.unlock();
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,226 @@
+package Collection;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Min-heap of int handles ordered by primitive long priorities, with O(log n) update and remove by handle.
+ * <p>
+ * java.util.PriorityQueue has no decrease-key and its remove(Object)/contains are linear scans. Here every
+ * element is a caller-chosen handle in [0, n) (a vertex id, a task slot, ...) and the heap keeps a
+ * handle-to-position index, so update(handle, priority) just sifts that one entry.
+ * <p>
+ * The heap is 4-ary: half the height of a binary heap, and the four children of a node sit next to each
+ * other in memory, which makes the extra comparisons in siftDown cheap. Priorities are stored next to the
+ * handles in heap order, so sifting never leaves the two heap arrays. Not thread safe.
+ */
+public class IndexedDaryHeap {
+    private static final int ARITY = 4;
+    private static final int LOG_ARITY = 2;
+    private static final int ABSENT = -1;
+
+    private int[] heap;          // heap position -> handle
+    private long[] priorities;   // heap position -> priority
+    private int[] positions;     // handle -> heap position, or ABSENT
+    private int size;
+
+    public IndexedDaryHeap() {
+        this(16);
+    }
+
+    public IndexedDaryHeap(int handleCapacity) {
+        if (handleCapacity < 0) {
+            throw new IllegalArgumentException("Illegal capacity: " + handleCapacity);
+        }
+        heap = new int[Math.max(handleCapacity, 1)];
+        priorities = new long[heap.length];
+        positions = new int[heap.length];
+        Arrays.fill(positions, ABSENT);
+    }
+
+    public void insert(int handle, long priority) {
+        checkHandle(handle);
+        ensureHandle(handle);
+        if (positions[handle] != ABSENT) {
+            throw new IllegalArgumentException("Handle already in heap: " + handle);
+        }
+        if (size == heap.length) {
+            int newLength = Math.max(heap.length * 2, 16);
+            heap = Arrays.copyOf(heap, newLength);
+            priorities = Arrays.copyOf(priorities, newLength);
+        }
+        siftUp(size++, handle, priority);
+    }
+
+    /**
+     * Sets a new priority for handle, inserting it if absent. Works for both decrease-key and increase-key.
+     */
+    public void update(int handle, long priority) {
+        if (!contains(handle)) {
+            insert(handle, priority);
+            return;
+        }
+        int position = positions[handle];
+        long old = priorities[position];
+        if (priority < old) {
+            siftUp(position, handle, priority);
+        } else if (priority > old) {
+            siftDown(position, handle, priority);
+        }
+    }
+
+    /**
+     * Lowers the priority of handle if the new one is smaller (the Dijkstra relax step).
+     * Returns true if the heap changed; inserts handle if it was absent.
+     */
+    public boolean decreaseKey(int handle, long priority) {
+        if (!contains(handle)) {
+            insert(handle, priority);
+            return true;
+        }
+        int position = positions[handle];
+        if (priority >= priorities[position]) {
+            return false;
+        }
+        siftUp(position, handle, priority);
+        return true;
+    }
+
+    public boolean remove(int handle) {
+        if (!contains(handle)) {
+            return false;
+        }
+        removeAt(positions[handle]);
+        return true;
+    }
+
+    public boolean contains(int handle) {
+        return handle >= 0 && handle < positions.length && positions[handle] != ABSENT;
+    }
+
+    public long priorityOf(int handle) {
+        if (!contains(handle)) {
+            throw new NoSuchElementException("Handle not in heap: " + handle);
+        }
+        return priorities[positions[handle]];
+    }
+
+    public int peek() {
+        checkNotEmpty();
+        return heap[0];
+    }
+
+    public long peekPriority() {
+        checkNotEmpty();
+        return priorities[0];
+    }
+
+    // removes and returns the handle with the smallest priority
+    public int poll() {
+        checkNotEmpty();
+        int handle = heap[0];
+        removeAt(0);
+        return handle;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            positions[heap[i]] = ABSENT;
+        }
+        size = 0;
+    }
+
+    private void removeAt(int position) {
+        int removed = heap[position];
+        positions[removed] = ABSENT;
+        int last = --size;
+        if (position == last) {
+            return;
+        }
+        int movedHandle = heap[last];
+        long movedPriority = priorities[last];
+        if (position > 0 && movedPriority < priorities[parent(position)]) {
+            siftUp(position, movedHandle, movedPriority);
+        } else {
+            siftDown(position, movedHandle, movedPriority);
+        }
+    }
+
+    // hole-based sifting: parents/children are shifted into the hole, the moving entry is written once
+    private void siftUp(int position, int handle, long priority) {
+        while (position > 0) {
+            int parent = parent(position);
+            long parentPriority = priorities[parent];
+            if (priority >= parentPriority) {
+                break;
+            }
+            place(position, heap[parent], parentPriority);
+            position = parent;
+        }
+        place(position, handle, priority);
+    }
+
+    private void siftDown(int position, int handle, long priority) {
+        while (true) {
+            int first = (position << LOG_ARITY) + 1;
+            if (first >= size) {
+                break;
+            }
+            int last = Math.min(first + ARITY, size);
+            int best = first;
+            long bestPriority = priorities[first];
+            for (int child = first + 1; child < last; child++) {
+                long p = priorities[child];
+                if (p < bestPriority) {
+                    best = child;
+                    bestPriority = p;
+                }
+            }
+            if (bestPriority >= priority) {
+                break;
+            }
+            place(position, heap[best], bestPriority);
+            position = best;
+        }
+        place(position, handle, priority);
+    }
+
+    private void place(int position, int handle, long priority) {
+        heap[position] = handle;
+        priorities[position] = priority;
+        positions[handle] = position;
+    }
+
+    private static int parent(int position) {
+        return (position - 1) >>> LOG_ARITY;
+    }
+
+    private void ensureHandle(int handle) {
+        if (handle >= positions.length) {
+            int oldLength = positions.length;
+            int newLength = Math.max(handle + 1, oldLength * 2);
+            positions = Arrays.copyOf(positions, newLength);
+            Arrays.fill(positions, oldLength, newLength, ABSENT);
+        }
+    }
+
+    private static void checkHandle(int handle) {
+        if (handle < 0) {
+            throw new IllegalArgumentException("Handle must not be negative: " + handle);
+        }
+    }
+
+    private void checkNotEmpty() {
+        if (size == 0) {
+            throw new NoSuchElementException("Heap is empty");
+        }
+    }
+}
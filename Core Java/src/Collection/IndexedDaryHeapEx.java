@@ -0,0 +1,78 @@
+package Collection;
+
+import java.util.Arrays;
+
+public class IndexedDaryHeapEx {
+    public static void main(String[] args) throws InterruptedException {
+        // Create an indexed heap; handles are small ints chosen by the caller
+        IndexedDaryHeap heap = new IndexedDaryHeap();
+        heap.insert(0, 30);
+        heap.insert(1, 10);
+        heap.insert(2, 20);
+        heap.insert(3, 40);
+        System.out.println("Min handle: " + heap.peek() + " priority " + heap.peekPriority());
+
+        // decrease-key: O(log n), not possible with java.util.PriorityQueue
+        heap.decreaseKey(3, 5);
+        System.out.println("After decreaseKey(3, 5) min handle: " + heap.peek());
+
+        // remove by handle: O(log n) instead of PriorityQueue.remove(Object) O(n)
+        heap.remove(1);
+        System.out.println("Contains 1: " + heap.contains(1) + " size " + heap.size());
+
+        System.out.print("Polling: ");
+        while (!heap.isEmpty()) {
+            System.out.print(heap.poll() + " ");
+        }
+        System.out.println();
+
+        // Dijkstra on a small graph: edges[u] = {v, weight, v, weight, ...}
+        int[][] edges = {
+                {1, 4, 2, 1},
+                {3, 1},
+                {1, 2, 3, 5},
+                {}
+        };
+        long[] distance = new long[edges.length];
+        Arrays.fill(distance, Long.MAX_VALUE);
+        distance[0] = 0;
+        IndexedDaryHeap frontier = new IndexedDaryHeap(edges.length);
+        frontier.insert(0, 0);
+        while (!frontier.isEmpty()) {
+            int u = frontier.poll();
+            for (int i = 0; i < edges[u].length; i += 2) {
+                int v = edges[u][i];
+                long candidate = distance[u] + edges[u][i + 1];
+                if (candidate < distance[v]) {
+                    distance[v] = candidate;
+                    frontier.decreaseKey(v, candidate);
+                }
+            }
+        }
+        System.out.println("Shortest distances from 0: " + Arrays.toString(distance));
+
+        // ConcurrentMultiQueue: many producers, relaxed ordering
+        ConcurrentMultiQueue<String> tasks = new ConcurrentMultiQueue<>(8);
+        Thread producer1 = new Thread(() -> {
+            for (int i = 0; i < 5; i++) {
+                tasks.offer(i, "task-" + i);
+            }
+        });
+        Thread producer2 = new Thread(() -> {
+            for (int i = 5; i < 10; i++) {
+                tasks.offer(i, "task-" + i);
+            }
+        });
+        producer1.start();
+        producer2.start();
+        producer1.join();
+        producer2.join();
+
+        System.out.print("MultiQueue poll order (approximately by priority): ");
+        String task;
+        while ((task = tasks.poll()) != null) {
+            System.out.print(task + " ");
+        }
+        System.out.println();
+    }
+}
@@ -0,0 +1,359 @@
+package Collection;
+
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Objects;
+import java.util.function.BiFunction;
+import java.util.function.IntFunction;
+
+/**
+ * Open-addressing hash map with primitive int keys, an alternative to HashMap&lt;Integer, V&gt;
+ * that needs no Integer key and no Node object per entry.
+ * <p>
+ * Keys and values live in two parallel arrays and collisions are resolved with linear probing.
+ * remove() uses backward-shift deletion, so there are no tombstones and lookups never slow down
+ * after many deletes. Key 0 marks an empty slot, so the entry for key 0 is stored on the side.
+ * Like HashMap, null values are not stored: a null result from a remapping function removes the entry.
+ * Not thread safe.
+ */
+public class IntObjectHashMap<V> {
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final float DEFAULT_LOAD_FACTOR = 0.5f;
+    private static final int MAX_CAPACITY = 1 << 30;
+
+    private final float loadFactor;
+    private int[] keys;
+    private Object[] values;
+    private int mask;
+    private int size;
+    private int resizeAt;
+    private int modCount;
+
+    private boolean hasZeroKey;
+    private V zeroValue;
+
+    public IntObjectHashMap() {
+        this(DEFAULT_CAPACITY, DEFAULT_LOAD_FACTOR);
+    }
+
+    public IntObjectHashMap(int expectedSize) {
+        this(expectedSize, DEFAULT_LOAD_FACTOR);
+    }
+
+    public IntObjectHashMap(int expectedSize, float loadFactor) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("Illegal size: " + expectedSize);
+        }
+        if (!(loadFactor > 0 && loadFactor < 1)) {
+            throw new IllegalArgumentException("Load factor must be in (0, 1): " + loadFactor);
+        }
+        this.loadFactor = loadFactor;
+        allocate(tableSizeFor(expectedSize, loadFactor));
+    }
+
+    public V get(int key) {
+        if (key == 0) {
+            return zeroValue;
+        }
+        int slot = find(key);
+        return slot < 0 ? null : value(slot);
+    }
+
+    public V getOrDefault(int key, V defaultValue) {
+        V value = get(key);
+        return value == null ? defaultValue : value;
+    }
+
+    public boolean containsKey(int key) {
+        return key == 0 ? hasZeroKey : find(key) >= 0;
+    }
+
+    public V put(int key, V value) {
+        Objects.requireNonNull(value, "value");
+        if (key == 0) {
+            V old = zeroValue;
+            zeroValue = value;
+            if (!hasZeroKey) {
+                hasZeroKey = true;
+                size++;
+            }
+            return old;
+        }
+        int slot = slotFor(key);
+        if (keys[slot] == key) {
+            V old = value(slot);
+            values[slot] = value;
+            return old;
+        }
+        insertAt(slot, key, value);
+        return null;
+    }
+
+    public V putIfAbsent(int key, V value) {
+        V current = get(key);
+        return current != null ? current : put(key, value);
+    }
+
+    public V computeIfAbsent(int key, IntFunction<? extends V> mappingFunction) {
+        if (key == 0) {
+            if (!hasZeroKey) {
+                V value = mappingFunction.apply(key);
+                if (value != null) {
+                    put(0, value);
+                }
+            }
+            return zeroValue;
+        }
+        int slot = slotFor(key);
+        if (keys[slot] == key) {
+            return value(slot);
+        }
+        int expectedModCount = modCount;
+        V value = mappingFunction.apply(key);
+        // same rule as HashMap: the function must not modify this map, the slot found above would be stale
+        if (modCount != expectedModCount) {
+            throw new ConcurrentModificationException();
+        }
+        if (value != null) {
+            insertAt(slot, key, value);
+        }
+        return value;
+    }
+
+    public V computeIfPresent(int key, BiFunction<Integer, ? super V, ? extends V> remappingFunction) {
+        V old = get(key);
+        if (old == null) {
+            return null;
+        }
+        V value = remappingFunction.apply(key, old);
+        if (value == null) {
+            remove(key);
+        } else {
+            put(key, value);
+        }
+        return value;
+    }
+
+    public V compute(int key, BiFunction<Integer, ? super V, ? extends V> remappingFunction) {
+        V old = get(key);
+        V value = remappingFunction.apply(key, old);
+        if (value == null) {
+            if (old != null) {
+                remove(key);
+            }
+        } else {
+            put(key, value);
+        }
+        return value;
+    }
+
+    public V merge(int key, V value, BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
+        Objects.requireNonNull(value, "value");
+        if (key == 0) {
+            V merged = hasZeroKey ? remappingFunction.apply(zeroValue, value) : value;
+            if (merged == null) {
+                remove(0);
+            } else {
+                put(0, merged);
+            }
+            return merged;
+        }
+        int slot = slotFor(key);
+        if (keys[slot] != key) {
+            insertAt(slot, key, value);
+            return value;
+        }
+        int expectedModCount = modCount;
+        V merged = remappingFunction.apply(value(slot), value);
+        if (modCount != expectedModCount) {
+            throw new ConcurrentModificationException();
+        }
+        if (merged == null) {
+            shiftBack(slot);
+            size--;
+        } else {
+            values[slot] = merged;
+        }
+        return merged;
+    }
+
+    public V remove(int key) {
+        if (key == 0) {
+            if (!hasZeroKey) {
+                return null;
+            }
+            V old = zeroValue;
+            zeroValue = null;
+            hasZeroKey = false;
+            size--;
+            return old;
+        }
+        int slot = find(key);
+        if (slot < 0) {
+            return null;
+        }
+        V old = value(slot);
+        shiftBack(slot);
+        size--;
+        return old;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        Arrays.fill(keys, 0);
+        Arrays.fill(values, null);
+        hasZeroKey = false;
+        zeroValue = null;
+        size = 0;
+        modCount++;
+    }
+
+    @FunctionalInterface
+    public interface IntObjectConsumer<V> {
+        void accept(int key, V value);
+    }
+
+    public void forEach(IntObjectConsumer<? super V> action) {
+        if (hasZeroKey) {
+            action.accept(0, zeroValue);
+        }
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != 0) {
+                action.accept(keys[i], value(i));
+            }
+        }
+    }
+
+    public int capacity() {
+        return keys.length;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("{");
+        forEach((k, v) -> {
+            if (sb.length() > 1) {
+                sb.append(", ");
+            }
+            sb.append(k).append('=').append(v);
+        });
+        return sb.append('}').toString();
+    }
+
+    // murmur3 finalizer: spreads sequential keys so linear probing does not form long runs
+    static int mix(int key) {
+        int h = key;
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+
+    static int tableSizeFor(int expectedSize, float loadFactor) {
+        long needed = (long) Math.ceil(Math.max(expectedSize, 1) / (double) loadFactor);
+        if (needed > MAX_CAPACITY) {
+            throw new IllegalArgumentException("Requested size is too large: " + expectedSize);
+        }
+        int capacity = Integer.highestOneBit((int) Math.max(needed, DEFAULT_CAPACITY) - 1) << 1;
+        return Math.max(capacity, DEFAULT_CAPACITY);
+    }
+
+    @SuppressWarnings("unchecked")
+    private V value(int slot) {
+        return (V) values[slot];
+    }
+
+    // slot holding key, or -1
+    private int find(int key) {
+        int slot = mix(key) & mask;
+        while (true) {
+            int k = keys[slot];
+            if (k == key) {
+                return slot;
+            }
+            if (k == 0) {
+                return -1;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    // slot holding key, or the empty slot where it would be inserted
+    private int slotFor(int key) {
+        int slot = mix(key) & mask;
+        while (keys[slot] != key && keys[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void insertAt(int slot, int key, V value) {
+        keys[slot] = key;
+        values[slot] = value;
+        modCount++;
+        if (++size > resizeAt) {
+            rehash(keys.length << 1);
+        }
+    }
+
+    /*
+     * Backward-shift deletion: walk the cluster after the freed slot and pull back every entry whose
+     * home slot is not between the hole and its current position. Leaves the table exactly as if the
+     * removed key had never been inserted.
+     */
+    private void shiftBack(int hole) {
+        modCount++;
+        int slot = hole;
+        while (true) {
+            slot = (slot + 1) & mask;
+            int k = keys[slot];
+            if (k == 0) {
+                break;
+            }
+            int home = mix(k) & mask;
+            if (((slot - home) & mask) >= ((slot - hole) & mask)) {
+                keys[hole] = k;
+                values[hole] = values[slot];
+                hole = slot;
+            }
+        }
+        keys[hole] = 0;
+        values[hole] = null;
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new Object[capacity];
+        mask = capacity - 1;
+        resizeAt = Math.min(capacity - 1, (int) (capacity * loadFactor));
+    }
+
+    private void rehash(int newCapacity) {
+        if (newCapacity > MAX_CAPACITY || newCapacity < 0) {
+            throw new IllegalStateException("Map is full");
+        }
+        int[] oldKeys = keys;
+        Object[] oldValues = values;
+        allocate(newCapacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            int k = oldKeys[i];
+            if (k != 0) {
+                int slot = mix(k) & mask;
+                while (keys[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = k;
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+}
@@ -0,0 +1,1201 @@
+package Collection;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.SortedSet;
+
+/**
+ * In-memory B+tree {@code NavigableMap<Long, V>} with primitive long keys.
+ * <p>
+ * TreeMap is a red-black tree: one Entry object (key, value, three links, color) per mapping and one
+ * pointer dereference per level, about 20 levels for a million keys. A B+tree stores up to
+ * {@code nodeCapacity} keys per node in a plain long[], so a lookup touches ~4 nodes for a million keys
+ * and binary-searches within each one. All mappings live in the leaves, and the leaves are linked in
+ * both directions, so range scans (subMap, floor/ceiling walks, iteration) move along contiguous arrays
+ * instead of walking up and down the tree.
+ * <p>
+ * Besides the boxed NavigableMap API there are primitive methods ({@link #get(long)}, {@link #putLong(long, Object)},
+ * {@link #forEachInRange(long, long, LongObjConsumer)}, ...) that never box a key. Views returned by subMap,
+ * headMap, tailMap and descendingMap are backed by the same tree, as with TreeMap. Null values are permitted.
+ * Not thread safe; iterators are fail-fast.
+ */
+public class LongBPlusTreeMap<V> extends AbstractMap<Long, V> implements NavigableMap<Long, V> {
+    private static final int DEFAULT_NODE_CAPACITY = 64;
+
+    @FunctionalInterface
+    public interface LongObjConsumer<V> {
+        void accept(long key, V value);
+    }
+
+    private abstract static class Node {
+        long[] keys;
+        int size;
+    }
+
+    private static final class Leaf extends Node {
+        Object[] values;
+        Leaf next;
+        Leaf prev;
+
+        Leaf(int capacity) {
+            keys = new long[capacity];
+            values = new Object[capacity];
+        }
+    }
+
+    // keys[i] separates children[i] (keys < keys[i]) from children[i + 1] (keys >= keys[i])
+    private static final class Internal extends Node {
+        Node[] children;
+
+        Internal(int capacity) {
+            keys = new long[capacity];
+            children = new Node[capacity + 1];
+        }
+    }
+
+    /*
+     * The tree itself, shared by a map and all of its views.
+     */
+    private static final class Tree {
+        final int capacity;
+        final int minKeys;
+        Node root;
+        int size;
+        int modCount;
+        Object oldValue;
+
+        Tree(int capacity) {
+            this.capacity = capacity;
+            this.minKeys = capacity / 2;
+            this.root = new Leaf(capacity);
+        }
+
+        Leaf findLeaf(long key) {
+            Node node = root;
+            while (node instanceof Internal internal) {
+                node = internal.children[upperBound(internal.keys, internal.size, key)];
+            }
+            return (Leaf) node;
+        }
+
+        Leaf firstLeaf() {
+            Node node = root;
+            while (node instanceof Internal internal) {
+                node = internal.children[0];
+            }
+            return (Leaf) node;
+        }
+
+        Leaf lastLeaf() {
+            Node node = root;
+            while (node instanceof Internal internal) {
+                node = internal.children[internal.size];
+            }
+            return (Leaf) node;
+        }
+
+        // Cursor helpers: a position is (leaf, index); null leaf means "no such entry".
+
+        Cursor ceiling(long key, boolean inclusive) {
+            Leaf leaf = findLeaf(key);
+            int i = inclusive ? lowerBound(leaf.keys, leaf.size, key) : upperBound(leaf.keys, leaf.size, key);
+            if (i == leaf.size) {
+                leaf = leaf.next;
+                i = 0;
+            }
+            return leaf == null ? null : new Cursor(leaf, i);
+        }
+
+        Cursor floor(long key, boolean inclusive) {
+            Leaf leaf = findLeaf(key);
+            int i = (inclusive ? upperBound(leaf.keys, leaf.size, key) : lowerBound(leaf.keys, leaf.size, key)) - 1;
+            if (i < 0) {
+                leaf = leaf.prev;
+                if (leaf == null) {
+                    return null;
+                }
+                i = leaf.size - 1;
+            }
+            return new Cursor(leaf, i);
+        }
+
+        Cursor first() {
+            Leaf leaf = firstLeaf();
+            return leaf.size == 0 ? null : new Cursor(leaf, 0);
+        }
+
+        Cursor last() {
+            Leaf leaf = lastLeaf();
+            return leaf.size == 0 ? null : new Cursor(leaf, leaf.size - 1);
+        }
+
+        int indexOf(Leaf leaf, long key) {
+            int i = lowerBound(leaf.keys, leaf.size, key);
+            return i < leaf.size && leaf.keys[i] == key ? i : -1;
+        }
+
+        // returns true if a new mapping was added; the previous value is left in oldValue
+        boolean put(long key, Object value) {
+            oldValue = null;
+            int before = size;
+            Split split = insert(root, key, value);
+            if (split != null) {
+                Internal newRoot = new Internal(capacity);
+                newRoot.keys[0] = split.separator;
+                newRoot.children[0] = root;
+                newRoot.children[1] = split.right;
+                newRoot.size = 1;
+                root = newRoot;
+            }
+            return size != before;
+        }
+
+        private record Split(long separator, Node right) {
+        }
+
+        private Split insert(Node node, long key, Object value) {
+            if (node instanceof Leaf leaf) {
+                int i = lowerBound(leaf.keys, leaf.size, key);
+                if (i < leaf.size && leaf.keys[i] == key) {
+                    oldValue = leaf.values[i];
+                    leaf.values[i] = value;
+                    return null;
+                }
+                size++;
+                modCount++;
+                if (leaf.size < capacity) {
+                    insertIntoLeaf(leaf, i, key, value);
+                    return null;
+                }
+                Leaf right = splitLeaf(leaf);
+                if (i <= leaf.size) {
+                    insertIntoLeaf(leaf, i, key, value);
+                } else {
+                    insertIntoLeaf(right, i - leaf.size, key, value);
+                }
+                return new Split(right.keys[0], right);
+            }
+            Internal internal = (Internal) node;
+            int child = upperBound(internal.keys, internal.size, key);
+            Split split = insert(internal.children[child], key, value);
+            if (split == null) {
+                return null;
+            }
+            if (internal.size < capacity) {
+                insertIntoInternal(internal, child, split.separator, split.right);
+                return null;
+            }
+            // full: split around the middle key, which moves up, then insert into the proper half
+            int mid = internal.size / 2;
+            long promoted = internal.keys[mid];
+            Internal right = new Internal(capacity);
+            right.size = internal.size - mid - 1;
+            System.arraycopy(internal.keys, mid + 1, right.keys, 0, right.size);
+            System.arraycopy(internal.children, mid + 1, right.children, 0, right.size + 1);
+            Arrays.fill(internal.children, mid + 1, internal.size + 1, null);
+            internal.size = mid;
+            if (child <= mid) {
+                insertIntoInternal(internal, child, split.separator, split.right);
+            } else {
+                insertIntoInternal(right, child - mid - 1, split.separator, split.right);
+            }
+            return new Split(promoted, right);
+        }
+
+        private static void insertIntoLeaf(Leaf leaf, int i, long key, Object value) {
+            System.arraycopy(leaf.keys, i, leaf.keys, i + 1, leaf.size - i);
+            System.arraycopy(leaf.values, i, leaf.values, i + 1, leaf.size - i);
+            leaf.keys[i] = key;
+            leaf.values[i] = value;
+            leaf.size++;
+        }
+
+        private static void insertIntoInternal(Internal node, int childIndex, long separator, Node right) {
+            System.arraycopy(node.keys, childIndex, node.keys, childIndex + 1, node.size - childIndex);
+            System.arraycopy(node.children, childIndex + 1, node.children, childIndex + 2, node.size - childIndex);
+            node.keys[childIndex] = separator;
+            node.children[childIndex + 1] = right;
+            node.size++;
+        }
+
+        private Leaf splitLeaf(Leaf leaf) {
+            Leaf right = new Leaf(capacity);
+            int mid = leaf.size / 2;
+            right.size = leaf.size - mid;
+            System.arraycopy(leaf.keys, mid, right.keys, 0, right.size);
+            System.arraycopy(leaf.values, mid, right.values, 0, right.size);
+            Arrays.fill(leaf.values, mid, leaf.size, null);
+            leaf.size = mid;
+            right.next = leaf.next;
+            right.prev = leaf;
+            if (leaf.next != null) {
+                leaf.next.prev = right;
+            }
+            leaf.next = right;
+            return right;
+        }
+
+        // returns true if key was present; its value is left in oldValue
+        boolean remove(long key) {
+            oldValue = null;
+            if (!delete(root, key)) {
+                return false;
+            }
+            size--;
+            modCount++;
+            if (root instanceof Internal internal && internal.size == 0) {
+                root = internal.children[0];
+            }
+            return true;
+        }
+
+        private boolean delete(Node node, long key) {
+            if (node instanceof Leaf leaf) {
+                int i = indexOf(leaf, key);
+                if (i < 0) {
+                    return false;
+                }
+                oldValue = leaf.values[i];
+                System.arraycopy(leaf.keys, i + 1, leaf.keys, i, leaf.size - i - 1);
+                System.arraycopy(leaf.values, i + 1, leaf.values, i, leaf.size - i - 1);
+                leaf.values[--leaf.size] = null;
+                return true;
+            }
+            Internal parent = (Internal) node;
+            int child = upperBound(parent.keys, parent.size, key);
+            if (!delete(parent.children[child], key)) {
+                return false;
+            }
+            Node removedFrom = parent.children[child];
+            if (removedFrom.size < minKeys) {
+                rebalance(parent, child);
+            }
+            return true;
+        }
+
+        // child of parent fell below minKeys: borrow one entry from a sibling, or merge with it
+        private void rebalance(Internal parent, int child) {
+            Node node = parent.children[child];
+            Node left = child > 0 ? parent.children[child - 1] : null;
+            Node right = child < parent.size ? parent.children[child + 1] : null;
+            if (left != null && left.size > minKeys) {
+                borrowFromLeft(parent, child, node, left);
+            } else if (right != null && right.size > minKeys) {
+                borrowFromRight(parent, child, node, right);
+            } else if (left != null) {
+                merge(parent, child - 1);
+            } else if (right != null) {
+                merge(parent, child);
+            }
+        }
+
+        private static void borrowFromLeft(Internal parent, int child, Node node, Node left) {
+            if (node instanceof Leaf leaf) {
+                Leaf from = (Leaf) left;
+                insertIntoLeaf(leaf, 0, from.keys[from.size - 1], from.values[from.size - 1]);
+                from.values[--from.size] = null;
+                parent.keys[child - 1] = leaf.keys[0];
+            } else {
+                Internal to = (Internal) node;
+                Internal from = (Internal) left;
+                System.arraycopy(to.keys, 0, to.keys, 1, to.size);
+                System.arraycopy(to.children, 0, to.children, 1, to.size + 1);
+                to.keys[0] = parent.keys[child - 1];
+                to.children[0] = from.children[from.size];
+                to.size++;
+                parent.keys[child - 1] = from.keys[from.size - 1];
+                from.children[from.size] = null;
+                from.size--;
+            }
+        }
+
+        private static void borrowFromRight(Internal parent, int child, Node node, Node right) {
+            if (node instanceof Leaf leaf) {
+                Leaf from = (Leaf) right;
+                leaf.keys[leaf.size] = from.keys[0];
+                leaf.values[leaf.size] = from.values[0];
+                leaf.size++;
+                System.arraycopy(from.keys, 1, from.keys, 0, from.size - 1);
+                System.arraycopy(from.values, 1, from.values, 0, from.size - 1);
+                from.values[--from.size] = null;
+                parent.keys[child] = from.keys[0];
+            } else {
+                Internal to = (Internal) node;
+                Internal from = (Internal) right;
+                to.keys[to.size] = parent.keys[child];
+                to.children[to.size + 1] = from.children[0];
+                to.size++;
+                parent.keys[child] = from.keys[0];
+                System.arraycopy(from.keys, 1, from.keys, 0, from.size - 1);
+                System.arraycopy(from.children, 1, from.children, 0, from.size);
+                from.children[from.size] = null;
+                from.size--;
+            }
+        }
+
+        // merges children[index + 1] into children[index] and drops the separator between them
+        private static void merge(Internal parent, int index) {
+            Node left = parent.children[index];
+            Node right = parent.children[index + 1];
+            if (left instanceof Leaf l) {
+                Leaf r = (Leaf) right;
+                System.arraycopy(r.keys, 0, l.keys, l.size, r.size);
+                System.arraycopy(r.values, 0, l.values, l.size, r.size);
+                l.size += r.size;
+                l.next = r.next;
+                if (r.next != null) {
+                    r.next.prev = l;
+                }
+            } else {
+                Internal l = (Internal) left;
+                Internal r = (Internal) right;
+                l.keys[l.size] = parent.keys[index];
+                System.arraycopy(r.keys, 0, l.keys, l.size + 1, r.size);
+                System.arraycopy(r.children, 0, l.children, l.size + 1, r.size + 1);
+                l.size += r.size + 1;
+            }
+            System.arraycopy(parent.keys, index + 1, parent.keys, index, parent.size - index - 1);
+            System.arraycopy(parent.children, index + 2, parent.children, index + 1, parent.size - index - 1);
+            parent.children[parent.size] = null;
+            parent.size--;
+        }
+
+        void clear() {
+            root = new Leaf(capacity);
+            size = 0;
+            modCount++;
+        }
+    }
+
+    private static final class Cursor {
+        Leaf leaf;
+        int index;
+
+        Cursor(Leaf leaf, int index) {
+            this.leaf = leaf;
+            this.index = index;
+        }
+
+        long key() {
+            return leaf.keys[index];
+        }
+
+        Object value() {
+            return leaf.values[index];
+        }
+
+        boolean advance() {
+            if (++index == leaf.size) {
+                leaf = leaf.next;
+                index = 0;
+            }
+            return leaf != null;
+        }
+
+        boolean retreat() {
+            if (--index < 0) {
+                leaf = leaf.prev;
+                if (leaf == null) {
+                    return false;
+                }
+                index = leaf.size - 1;
+            }
+            return true;
+        }
+    }
+
+    private final Tree tree;
+    // bounds of this view; the root map has neither
+    private final boolean hasFrom;
+    private final long fromKey;
+    private final boolean fromInclusive;
+    private final boolean hasTo;
+    private final long toKey;
+    private final boolean toInclusive;
+    private final boolean descending;
+
+    public LongBPlusTreeMap() {
+        this(DEFAULT_NODE_CAPACITY);
+    }
+
+    /**
+     * @param nodeCapacity maximum keys per node (at least 4); 32-128 keeps a node within a few cache lines
+     */
+    public LongBPlusTreeMap(int nodeCapacity) {
+        if (nodeCapacity < 4) {
+            throw new IllegalArgumentException("Node capacity must be at least 4: " + nodeCapacity);
+        }
+        this.tree = new Tree(nodeCapacity);
+        this.hasFrom = false;
+        this.fromKey = 0;
+        this.fromInclusive = false;
+        this.hasTo = false;
+        this.toKey = 0;
+        this.toInclusive = false;
+        this.descending = false;
+    }
+
+    public LongBPlusTreeMap(Map<? extends Long, ? extends V> map) {
+        this();
+        // straight into the tree: put() can be overridden and this is not fully constructed yet
+        for (Entry<? extends Long, ? extends V> entry : map.entrySet()) {
+            tree.put(entry.getKey(), entry.getValue());
+        }
+    }
+
+    private LongBPlusTreeMap(Tree tree, boolean hasFrom, long fromKey, boolean fromInclusive,
+                             boolean hasTo, long toKey, boolean toInclusive, boolean descending) {
+        if (hasFrom && hasTo && fromKey > toKey) {
+            throw new IllegalArgumentException("fromKey > toKey");
+        }
+        this.tree = tree;
+        this.hasFrom = hasFrom;
+        this.fromKey = fromKey;
+        this.fromInclusive = fromInclusive;
+        this.hasTo = hasTo;
+        this.toKey = toKey;
+        this.toInclusive = toInclusive;
+        this.descending = descending;
+    }
+
+    // ---------------------------------------------------------------- primitive API
+
+    public V get(long key) {
+        if (!inRange(key)) {
+            return null;
+        }
+        Leaf leaf = tree.findLeaf(key);
+        int i = tree.indexOf(leaf, key);
+        return i < 0 ? null : value(leaf.values[i]);
+    }
+
+    public boolean containsKey(long key) {
+        if (!inRange(key)) {
+            return false;
+        }
+        return tree.indexOf(tree.findLeaf(key), key) >= 0;
+    }
+
+    // not an overload of put(Long, V): with V = Long a call like put(1L, 2L) would be ambiguous
+    public V putLong(long key, V value) {
+        if (!inRange(key)) {
+            throw new IllegalArgumentException("Key out of range: " + key);
+        }
+        tree.put(key, value);
+        return value(tree.oldValue);
+    }
+
+    public V remove(long key) {
+        if (!inRange(key)) {
+            return null;
+        }
+        tree.remove(key);
+        return value(tree.oldValue);
+    }
+
+    public long firstLongKey() {
+        Cursor c = descending ? absHighest() : absLowest();
+        if (c == null) {
+            throw new NoSuchElementException();
+        }
+        return c.key();
+    }
+
+    public long lastLongKey() {
+        Cursor c = descending ? absLowest() : absHighest();
+        if (c == null) {
+            throw new NoSuchElementException();
+        }
+        return c.key();
+    }
+
+    // greatest key <= key (in this map's ordering), or absent if there is none
+    public long floorLongKey(long key, long absent) {
+        Cursor c = descending ? absCeiling(key, true) : absFloor(key, true);
+        return c == null ? absent : c.key();
+    }
+
+    // least key >= key (in this map's ordering), or absent if there is none
+    public long ceilingLongKey(long key, long absent) {
+        Cursor c = descending ? absFloor(key, true) : absCeiling(key, true);
+        return c == null ? absent : c.key();
+    }
+
+    /**
+     * Calls action for every mapping with fromInclusive <= key < toExclusive (within this view's bounds),
+     * in ascending key order, walking the linked leaves. Returns the number of mappings visited.
+     */
+    public int forEachInRange(long fromInclusive, long toExclusive, LongObjConsumer<? super V> action) {
+        Cursor c = absCeiling(fromInclusive, true);
+        if (c == null) {
+            return 0;
+        }
+        Leaf leaf = c.leaf;
+        int i = c.index;
+        int count = 0;
+        while (leaf != null) {
+            long[] keys = leaf.keys;
+            Object[] values = leaf.values;
+            for (; i < leaf.size; i++) {
+                long k = keys[i];
+                if (k >= toExclusive || tooHigh(k)) {
+                    return count;
+                }
+                action.accept(k, value(values[i]));
+                count++;
+            }
+            leaf = leaf.next;
+            i = 0;
+        }
+        return count;
+    }
+
+    public int countInRange(long fromInclusive, long toExclusive) {
+        Cursor c = absCeiling(fromInclusive, true);
+        if (c == null) {
+            return 0;
+        }
+        Leaf leaf = c.leaf;
+        int i = c.index;
+        int count = 0;
+        while (leaf != null) {
+            long[] keys = leaf.keys;
+            int n = leaf.size;
+            // whole leaf inside the range: count without looking at each key
+            if (i == 0 && n > 0 && keys[n - 1] < toExclusive && !tooHigh(keys[n - 1])) {
+                count += n;
+            } else {
+                for (; i < n; i++) {
+                    if (keys[i] >= toExclusive || tooHigh(keys[i])) {
+                        return count;
+                    }
+                    count++;
+                }
+            }
+            leaf = leaf.next;
+            i = 0;
+        }
+        return count;
+    }
+
+    // ---------------------------------------------------------------- Map
+
+    @Override
+    public int size() {
+        if (!hasFrom && !hasTo) {
+            return tree.size;
+        }
+        int count = 0;
+        for (Iterator<?> it = new EntryIterator(); it.hasNext(); it.next()) {
+            count++;
+        }
+        return count;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return (!hasFrom && !hasTo) ? tree.size == 0 : absLowest() == null;
+    }
+
+    @Override
+    public V get(Object key) {
+        return key instanceof Long k ? get(k.longValue()) : null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return key instanceof Long k && containsKey(k.longValue());
+    }
+
+    @Override
+    public V put(Long key, V value) {
+        return putLong(key.longValue(), value);
+    }
+
+    @Override
+    public V remove(Object key) {
+        return key instanceof Long k ? remove(k.longValue()) : null;
+    }
+
+    @Override
+    public void clear() {
+        if (!hasFrom && !hasTo) {
+            tree.clear();
+            return;
+        }
+        // a bounded view: collect its keys from the leaves first, removing merges the leaves being walked
+        Cursor c = absLowest();
+        if (c == null) {
+            return;
+        }
+        long[] keys = new long[16];
+        int count = 0;
+        for (Leaf leaf = c.leaf; leaf != null; leaf = leaf.next) {
+            int i = leaf == c.leaf ? c.index : 0;
+            for (; i < leaf.size && !tooHigh(leaf.keys[i]); i++) {
+                if (count == keys.length) {
+                    keys = Arrays.copyOf(keys, count * 2);
+                }
+                keys[count++] = leaf.keys[i];
+            }
+            if (i < leaf.size) {
+                break;
+            }
+        }
+        for (int i = 0; i < count; i++) {
+            tree.remove(keys[i]);
+        }
+    }
+
+    @Override
+    public Set<Entry<Long, V>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<Long, V>> iterator() {
+                return new EntryIterator();
+            }
+
+            @Override
+            public int size() {
+                return LongBPlusTreeMap.this.size();
+            }
+
+            @Override
+            public boolean contains(Object o) {
+                if (!(o instanceof Map.Entry<?, ?> e) || !(e.getKey() instanceof Long k) || !containsKey(k.longValue())) {
+                    return false;
+                }
+                return Objects.equals(get(k.longValue()), e.getValue());
+            }
+
+            @Override
+            public boolean remove(Object o) {
+                if (contains(o)) {
+                    LongBPlusTreeMap.this.remove(((Map.Entry<?, ?>) o).getKey());
+                    return true;
+                }
+                return false;
+            }
+
+            @Override
+            public void clear() {
+                LongBPlusTreeMap.this.clear();
+            }
+        };
+    }
+
+    @Override
+    public Set<Long> keySet() {
+        return navigableKeySet();
+    }
+
+    // ---------------------------------------------------------------- SortedMap / NavigableMap
+
+    @Override
+    public Comparator<? super Long> comparator() {
+        return descending ? Collections.reverseOrder() : null;
+    }
+
+    @Override
+    public Long firstKey() {
+        return firstLongKey();
+    }
+
+    @Override
+    public Long lastKey() {
+        return lastLongKey();
+    }
+
+    @Override
+    public Entry<Long, V> lowerEntry(Long key) {
+        return export(descending ? absCeiling(key, false) : absFloor(key, false));
+    }
+
+    @Override
+    public Long lowerKey(Long key) {
+        return keyOf(lowerEntry(key));
+    }
+
+    @Override
+    public Entry<Long, V> floorEntry(Long key) {
+        return export(descending ? absCeiling(key, true) : absFloor(key, true));
+    }
+
+    @Override
+    public Long floorKey(Long key) {
+        return keyOf(floorEntry(key));
+    }
+
+    @Override
+    public Entry<Long, V> ceilingEntry(Long key) {
+        return export(descending ? absFloor(key, true) : absCeiling(key, true));
+    }
+
+    @Override
+    public Long ceilingKey(Long key) {
+        return keyOf(ceilingEntry(key));
+    }
+
+    @Override
+    public Entry<Long, V> higherEntry(Long key) {
+        return export(descending ? absFloor(key, false) : absCeiling(key, false));
+    }
+
+    @Override
+    public Long higherKey(Long key) {
+        return keyOf(higherEntry(key));
+    }
+
+    @Override
+    public Entry<Long, V> firstEntry() {
+        return export(descending ? absHighest() : absLowest());
+    }
+
+    @Override
+    public Entry<Long, V> lastEntry() {
+        return export(descending ? absLowest() : absHighest());
+    }
+
+    @Override
+    public Entry<Long, V> pollFirstEntry() {
+        Entry<Long, V> e = firstEntry();
+        if (e != null) {
+            tree.remove(e.getKey());
+        }
+        return e;
+    }
+
+    @Override
+    public Entry<Long, V> pollLastEntry() {
+        Entry<Long, V> e = lastEntry();
+        if (e != null) {
+            tree.remove(e.getKey());
+        }
+        return e;
+    }
+
+    @Override
+    public NavigableMap<Long, V> descendingMap() {
+        return new LongBPlusTreeMap<>(tree, hasFrom, fromKey, fromInclusive, hasTo, toKey, toInclusive, !descending);
+    }
+
+    @Override
+    public NavigableSet<Long> navigableKeySet() {
+        return new KeySet(this);
+    }
+
+    @Override
+    public NavigableSet<Long> descendingKeySet() {
+        return new KeySet(descendingMap());
+    }
+
+    @Override
+    public NavigableMap<Long, V> subMap(Long fromKey, boolean fromInclusive, Long toKey, boolean toInclusive) {
+        long from = fromKey;
+        long to = toKey;
+        if (descending) {
+            // a descending view's "from" is the larger key
+            if (from < to) {
+                throw new IllegalArgumentException("fromKey < toKey in descending map");
+            }
+            checkBound(to, toInclusive);
+            checkBound(from, fromInclusive);
+            return new LongBPlusTreeMap<>(tree, true, to, toInclusive, true, from, fromInclusive, true);
+        }
+        if (from > to) {
+            throw new IllegalArgumentException("fromKey > toKey");
+        }
+        checkBound(from, fromInclusive);
+        checkBound(to, toInclusive);
+        return new LongBPlusTreeMap<>(tree, true, from, fromInclusive, true, to, toInclusive, false);
+    }
+
+    @Override
+    public NavigableMap<Long, V> headMap(Long toKey, boolean inclusive) {
+        long to = toKey;
+        checkBound(to, inclusive);
+        if (descending) {
+            return new LongBPlusTreeMap<>(tree, true, to, inclusive, hasTo, this.toKey, this.toInclusive, true);
+        }
+        return new LongBPlusTreeMap<>(tree, hasFrom, this.fromKey, this.fromInclusive, true, to, inclusive, false);
+    }
+
+    @Override
+    public NavigableMap<Long, V> tailMap(Long fromKey, boolean inclusive) {
+        long from = fromKey;
+        checkBound(from, inclusive);
+        if (descending) {
+            return new LongBPlusTreeMap<>(tree, hasFrom, this.fromKey, this.fromInclusive, true, from, inclusive, true);
+        }
+        return new LongBPlusTreeMap<>(tree, true, from, inclusive, hasTo, this.toKey, this.toInclusive, false);
+    }
+
+    @Override
+    public SortedMap<Long, V> subMap(Long fromKey, Long toKey) {
+        return subMap(fromKey, true, toKey, false);
+    }
+
+    @Override
+    public SortedMap<Long, V> headMap(Long toKey) {
+        return headMap(toKey, false);
+    }
+
+    @Override
+    public SortedMap<Long, V> tailMap(Long fromKey) {
+        return tailMap(fromKey, true);
+    }
+
+    // ---------------------------------------------------------------- range helpers (absolute, ascending order)
+
+    private boolean tooLow(long key) {
+        return hasFrom && (key < fromKey || (key == fromKey && !fromInclusive));
+    }
+
+    private boolean tooHigh(long key) {
+        return hasTo && (key > toKey || (key == toKey && !toInclusive));
+    }
+
+    private boolean inRange(long key) {
+        return !tooLow(key) && !tooHigh(key);
+    }
+
+    // a new bound must lie inside this view (an exclusive bound may sit on this view's exclusive edge)
+    private void checkBound(long key, boolean inclusive) {
+        boolean below = hasFrom && (key < fromKey || (key == fromKey && inclusive && !fromInclusive));
+        boolean above = hasTo && (key > toKey || (key == toKey && inclusive && !toInclusive));
+        if (below || above) {
+            throw new IllegalArgumentException("Key out of range: " + key);
+        }
+    }
+
+    private Cursor absLowest() {
+        Cursor c = hasFrom ? tree.ceiling(fromKey, fromInclusive) : tree.first();
+        return c == null || tooHigh(c.key()) ? null : c;
+    }
+
+    private Cursor absHighest() {
+        Cursor c = hasTo ? tree.floor(toKey, toInclusive) : tree.last();
+        return c == null || tooLow(c.key()) ? null : c;
+    }
+
+    private Cursor absCeiling(long key, boolean inclusive) {
+        if (tooLow(key)) {
+            return absLowest();
+        }
+        Cursor c = tree.ceiling(key, inclusive);
+        return c == null || tooHigh(c.key()) ? null : c;
+    }
+
+    private Cursor absFloor(long key, boolean inclusive) {
+        if (tooHigh(key)) {
+            return absHighest();
+        }
+        Cursor c = tree.floor(key, inclusive);
+        return c == null || tooLow(c.key()) ? null : c;
+    }
+
+    private Entry<Long, V> export(Cursor c) {
+        return c == null ? null : new SimpleImmutableEntry<>(c.key(), value(c.value()));
+    }
+
+    private static Long keyOf(Entry<Long, ?> e) {
+        return e == null ? null : e.getKey();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <V> V value(Object o) {
+        return (V) o;
+    }
+
+    // ---------------------------------------------------------------- iteration
+
+    private final class EntryIterator implements Iterator<Entry<Long, V>> {
+        private Cursor next;
+        private boolean hasLast;
+        private long lastKey;
+        private int expectedModCount = tree.modCount;
+
+        EntryIterator() {
+            next = descending ? absHighest() : absLowest();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public Entry<Long, V> next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            if (tree.modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            Leaf leaf = next.leaf;
+            int index = next.index;
+            long key = next.key();
+            lastKey = key;
+            hasLast = true;
+            boolean more = descending ? next.retreat() : next.advance();
+            if (!more || (descending ? tooLow(next.key()) : tooHigh(next.key()))) {
+                next = null;
+            }
+            return new LeafEntry(leaf, index, key);
+        }
+
+        @Override
+        public void remove() {
+            if (!hasLast) {
+                throw new IllegalStateException();
+            }
+            if (tree.modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            tree.remove(lastKey);
+            hasLast = false;
+            expectedModCount = tree.modCount;
+            // nodes may have been merged: find the next position again by key
+            next = descending ? absFloor(lastKey, false) : absCeiling(lastKey, false);
+        }
+    }
+
+    private final class LeafEntry implements Entry<Long, V> {
+        private final Leaf leaf;
+        private final int index;
+        private final long key;
+        private final int modCount = tree.modCount;
+
+        LeafEntry(Leaf leaf, int index, long key) {
+            this.leaf = leaf;
+            this.index = index;
+            this.key = key;
+        }
+
+        @Override
+        public Long getKey() {
+            return key;
+        }
+
+        @Override
+        public V getValue() {
+            return modCount == tree.modCount ? value(leaf.values[index]) : LongBPlusTreeMap.this.get(key);
+        }
+
+        @Override
+        public V setValue(V value) {
+            if (modCount != tree.modCount) {
+                return LongBPlusTreeMap.this.putLong(key, value);
+            }
+            V old = value(leaf.values[index]);
+            leaf.values[index] = value;
+            return old;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Map.Entry<?, ?> e && Objects.equals(getKey(), e.getKey())
+                    && Objects.equals(getValue(), e.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(key) ^ Objects.hashCode(getValue());
+        }
+
+        @Override
+        public String toString() {
+            return key + "=" + getValue();
+        }
+    }
+
+    /*
+     * NavigableSet view of the keys of a NavigableMap<Long, ?>, the same idea as TreeMap.KeySet.
+     */
+    private static final class KeySet extends AbstractSet<Long> implements NavigableSet<Long> {
+        private final NavigableMap<Long, ?> map;
+
+        KeySet(NavigableMap<Long, ?> map) {
+            this.map = map;
+        }
+
+        @Override
+        public Iterator<Long> iterator() {
+            Iterator<? extends Entry<Long, ?>> it = map.entrySet().iterator();
+            return new Iterator<>() {
+                @Override
+                public boolean hasNext() {
+                    return it.hasNext();
+                }
+
+                @Override
+                public Long next() {
+                    return it.next().getKey();
+                }
+
+                @Override
+                public void remove() {
+                    it.remove();
+                }
+            };
+        }
+
+        @Override
+        public Iterator<Long> descendingIterator() {
+            return descendingSet().iterator();
+        }
+
+        @Override
+        public int size() {
+            return map.size();
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return map.isEmpty();
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return map.containsKey(o);
+        }
+
+        @Override
+        public boolean remove(Object o) {
+            if (map.containsKey(o)) {
+                map.remove(o);
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public void clear() {
+            map.clear();
+        }
+
+        @Override
+        public Comparator<? super Long> comparator() {
+            return map.comparator();
+        }
+
+        @Override
+        public Long first() {
+            return map.firstKey();
+        }
+
+        @Override
+        public Long last() {
+            return map.lastKey();
+        }
+
+        @Override
+        public Long lower(Long e) {
+            return map.lowerKey(e);
+        }
+
+        @Override
+        public Long floor(Long e) {
+            return map.floorKey(e);
+        }
+
+        @Override
+        public Long ceiling(Long e) {
+            return map.ceilingKey(e);
+        }
+
+        @Override
+        public Long higher(Long e) {
+            return map.higherKey(e);
+        }
+
+        @Override
+        public Long pollFirst() {
+            return keyOf(map.pollFirstEntry());
+        }
+
+        @Override
+        public Long pollLast() {
+            return keyOf(map.pollLastEntry());
+        }
+
+        @Override
+        public NavigableSet<Long> descendingSet() {
+            return new KeySet(map.descendingMap());
+        }
+
+        @Override
+        public NavigableSet<Long> subSet(Long fromElement, boolean fromInclusive, Long toElement, boolean toInclusive) {
+            return new KeySet(map.subMap(fromElement, fromInclusive, toElement, toInclusive));
+        }
+
+        @Override
+        public NavigableSet<Long> headSet(Long toElement, boolean inclusive) {
+            return new KeySet(map.headMap(toElement, inclusive));
+        }
+
+        @Override
+        public NavigableSet<Long> tailSet(Long fromElement, boolean inclusive) {
+            return new KeySet(map.tailMap(fromElement, inclusive));
+        }
+
+        @Override
+        public SortedSet<Long> subSet(Long fromElement, Long toElement) {
+            return subSet(fromElement, true, toElement, false);
+        }
+
+        @Override
+        public SortedSet<Long> headSet(Long toElement) {
+            return headSet(toElement, false);
+        }
+
+        @Override
+        public SortedSet<Long> tailSet(Long fromElement) {
+            return tailSet(fromElement, true);
+        }
+    }
+
+    // ---------------------------------------------------------------- binary search within a node
+
+    // first index with keys[i] >= key
+    private static int lowerBound(long[] keys, int size, long key) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (keys[mid] < key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // first index with keys[i] > key
+    private static int upperBound(long[] keys, int size, long key) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (keys[mid] <= key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
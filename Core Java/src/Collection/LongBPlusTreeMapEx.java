@@ -0,0 +1,63 @@
+package Collection;
+
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+public class LongBPlusTreeMapEx {
+    public static void main(String[] args) {
+        // Create a B+tree map with long keys
+        LongBPlusTreeMap<String> map = new LongBPlusTreeMap<>();
+
+        // Add key-value pairs (primitive put, no Long boxing)
+        map.putLong(10L, "Ten");
+        map.putLong(20L, "Twenty");
+        map.putLong(30L, "Thirty");
+        map.putLong(40L, "Forty");
+        map.putLong(50L, "Fifty");
+        System.out.println("LongBPlusTreeMap: " + map);
+
+        // Navigation, same as TreeMap
+        System.out.println("floorKey(25): " + map.floorKey(25L));
+        System.out.println("ceilingKey(25): " + map.ceilingKey(25L));
+        System.out.println("higherEntry(30): " + map.higherEntry(30L));
+        System.out.println("First: " + map.firstEntry() + " Last: " + map.lastEntry());
+
+        // Views are backed by the tree
+        NavigableMap<Long, String> sub = map.subMap(20L, true, 40L, true);
+        System.out.println("subMap [20, 40]: " + sub);
+        System.out.println("descendingMap: " + map.descendingMap());
+        System.out.println("headMap(30): " + map.headMap(30L));
+
+        // Primitive range scan over the linked leaves
+        System.out.print("Keys in [15, 45): ");
+        map.forEachInRange(15, 45, (key, value) -> System.out.print(key + "=" + value + " "));
+        System.out.println();
+
+        // Remove and iterate
+        map.remove(30L);
+        for (Map.Entry<Long, String> entry : map.entrySet()) {
+            System.out.println(entry.getKey() + " -> " + entry.getValue());
+        }
+        System.out.println("pollFirstEntry: " + map.pollFirstEntry() + " size " + map.size());
+
+        // Clearing a bounded view removes only the keys inside it, across many small leaves
+        LongBPlusTreeMap<Long> numbers = new LongBPlusTreeMap<>(4);
+        TreeMap<Long, Long> expected = new TreeMap<>();
+        for (long k = 0; k < 1000; k++) {
+            numbers.putLong(k * 3, k);
+            expected.put(k * 3, k);
+        }
+        numbers.subMap(600L, true, 2100L, false).clear();
+        expected.subMap(600L, true, 2100L, false).clear();
+        numbers.headMap(30L, true).entrySet().clear();
+        expected.headMap(30L, true).entrySet().clear();
+        numbers.descendingMap().headMap(2900L, false).keySet().clear();
+        expected.descendingMap().headMap(2900L, false).keySet().clear();
+        if (!numbers.equals(expected) || numbers.size() != expected.size()) {
+            throw new IllegalStateException("view clear() removed the wrong keys");
+        }
+        System.out.println("After clearing three views: " + numbers.size() + " keys left, first " + numbers.firstKey()
+                + ", last " + numbers.lastKey());
+    }
+}
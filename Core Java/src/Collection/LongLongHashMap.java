@@ -0,0 +1,316 @@
+package Collection;
+
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.function.LongBinaryOperator;
+import java.util.function.LongUnaryOperator;
+
+/**
+ * Open-addressing long to long hash map: no boxing of keys or values and no per-entry object.
+ * <p>
+ * Same layout as {@link IntObjectHashMap}: parallel key/value arrays, linear probing and backward-shift
+ * deletion (no tombstones), with key 0 stored on the side. Because values are primitive, a missing key
+ * is reported as {@link #noEntryValue()} (0 unless configured), use containsKey() to tell the two apart.
+ * Not thread safe.
+ */
+public class LongLongHashMap {
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final float DEFAULT_LOAD_FACTOR = 0.5f;
+    private static final int MAX_CAPACITY = 1 << 30;
+
+    private final float loadFactor;
+    private final long noEntryValue;
+    private long[] keys;
+    private long[] values;
+    private int mask;
+    private int size;
+    private int resizeAt;
+    private int modCount;
+
+    private boolean hasZeroKey;
+    private long zeroValue;
+
+    public LongLongHashMap() {
+        this(DEFAULT_CAPACITY, DEFAULT_LOAD_FACTOR, 0L);
+    }
+
+    public LongLongHashMap(int expectedSize) {
+        this(expectedSize, DEFAULT_LOAD_FACTOR, 0L);
+    }
+
+    public LongLongHashMap(int expectedSize, float loadFactor, long noEntryValue) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("Illegal size: " + expectedSize);
+        }
+        if (!(loadFactor > 0 && loadFactor < 1)) {
+            throw new IllegalArgumentException("Load factor must be in (0, 1): " + loadFactor);
+        }
+        this.loadFactor = loadFactor;
+        this.noEntryValue = noEntryValue;
+        allocate(IntObjectHashMap.tableSizeFor(expectedSize, loadFactor));
+    }
+
+    public long noEntryValue() {
+        return noEntryValue;
+    }
+
+    public long get(long key) {
+        return getOrDefault(key, noEntryValue);
+    }
+
+    public long getOrDefault(long key, long defaultValue) {
+        if (key == 0) {
+            return hasZeroKey ? zeroValue : defaultValue;
+        }
+        int slot = find(key);
+        return slot < 0 ? defaultValue : values[slot];
+    }
+
+    public boolean containsKey(long key) {
+        return key == 0 ? hasZeroKey : find(key) >= 0;
+    }
+
+    public long put(long key, long value) {
+        if (key == 0) {
+            long old = hasZeroKey ? zeroValue : noEntryValue;
+            zeroValue = value;
+            if (!hasZeroKey) {
+                hasZeroKey = true;
+                size++;
+            }
+            return old;
+        }
+        int slot = slotFor(key);
+        if (keys[slot] == key) {
+            long old = values[slot];
+            values[slot] = value;
+            return old;
+        }
+        insertAt(slot, key, value);
+        return noEntryValue;
+    }
+
+    public long putIfAbsent(long key, long value) {
+        if (containsKey(key)) {
+            return get(key);
+        }
+        put(key, value);
+        return noEntryValue;
+    }
+
+    public long computeIfAbsent(long key, LongUnaryOperator mappingFunction) {
+        if (key == 0) {
+            if (!hasZeroKey) {
+                put(0, mappingFunction.applyAsLong(0));
+            }
+            return zeroValue;
+        }
+        int slot = slotFor(key);
+        if (keys[slot] == key) {
+            return values[slot];
+        }
+        int expectedModCount = modCount;
+        long value = mappingFunction.applyAsLong(key);
+        if (modCount != expectedModCount) {
+            throw new ConcurrentModificationException();
+        }
+        insertAt(slot, key, value);
+        return value;
+    }
+
+    /**
+     * Stores value if key is absent, otherwise remappingFunction(old, value). Returns the new value.
+     */
+    public long merge(long key, long value, LongBinaryOperator remappingFunction) {
+        if (key == 0) {
+            long merged = hasZeroKey ? remappingFunction.applyAsLong(zeroValue, value) : value;
+            put(0, merged);
+            return merged;
+        }
+        int slot = slotFor(key);
+        if (keys[slot] != key) {
+            insertAt(slot, key, value);
+            return value;
+        }
+        int expectedModCount = modCount;
+        long merged = remappingFunction.applyAsLong(values[slot], value);
+        if (modCount != expectedModCount) {
+            throw new ConcurrentModificationException();
+        }
+        values[slot] = merged;
+        return merged;
+    }
+
+    // counter idiom: merge(key, delta, Long::sum) without the lambda call
+    public long addTo(long key, long delta) {
+        if (key == 0) {
+            if (!hasZeroKey) {
+                hasZeroKey = true;
+                zeroValue = 0;
+                size++;
+            }
+            return zeroValue += delta;
+        }
+        int slot = slotFor(key);
+        if (keys[slot] == key) {
+            return values[slot] += delta;
+        }
+        insertAt(slot, key, delta);
+        return delta;
+    }
+
+    public long remove(long key) {
+        if (key == 0) {
+            if (!hasZeroKey) {
+                return noEntryValue;
+            }
+            hasZeroKey = false;
+            size--;
+            return zeroValue;
+        }
+        int slot = find(key);
+        if (slot < 0) {
+            return noEntryValue;
+        }
+        long old = values[slot];
+        shiftBack(slot);
+        size--;
+        return old;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        Arrays.fill(keys, 0L);
+        hasZeroKey = false;
+        size = 0;
+        modCount++;
+    }
+
+    @FunctionalInterface
+    public interface LongLongConsumer {
+        void accept(long key, long value);
+    }
+
+    public void forEach(LongLongConsumer action) {
+        if (hasZeroKey) {
+            action.accept(0, zeroValue);
+        }
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != 0) {
+                action.accept(keys[i], values[i]);
+            }
+        }
+    }
+
+    public int capacity() {
+        return keys.length;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("{");
+        forEach((k, v) -> {
+            if (sb.length() > 1) {
+                sb.append(", ");
+            }
+            sb.append(k).append('=').append(v);
+        });
+        return sb.append('}').toString();
+    }
+
+    // murmur3 64-bit finalizer
+    static int mix(long key) {
+        long h = key;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return (int) h;
+    }
+
+    private int find(long key) {
+        int slot = mix(key) & mask;
+        while (true) {
+            long k = keys[slot];
+            if (k == key) {
+                return slot;
+            }
+            if (k == 0) {
+                return -1;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    private int slotFor(long key) {
+        int slot = mix(key) & mask;
+        while (keys[slot] != key && keys[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void insertAt(int slot, long key, long value) {
+        keys[slot] = key;
+        values[slot] = value;
+        modCount++;
+        if (++size > resizeAt) {
+            rehash(keys.length << 1);
+        }
+    }
+
+    // see IntObjectHashMap.shiftBack
+    private void shiftBack(int hole) {
+        modCount++;
+        int slot = hole;
+        while (true) {
+            slot = (slot + 1) & mask;
+            long k = keys[slot];
+            if (k == 0) {
+                break;
+            }
+            int home = mix(k) & mask;
+            if (((slot - home) & mask) >= ((slot - hole) & mask)) {
+                keys[hole] = k;
+                values[hole] = values[slot];
+                hole = slot;
+            }
+        }
+        keys[hole] = 0;
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new long[capacity];
+        mask = capacity - 1;
+        resizeAt = Math.min(capacity - 1, (int) (capacity * loadFactor));
+    }
+
+    private void rehash(int newCapacity) {
+        if (newCapacity > MAX_CAPACITY || newCapacity < 0) {
+            throw new IllegalStateException("Map is full");
+        }
+        long[] oldKeys = keys;
+        long[] oldValues = values;
+        allocate(newCapacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            long k = oldKeys[i];
+            if (k != 0) {
+                int slot = mix(k) & mask;
+                while (keys[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = k;
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package Collection;
+
+import Benchmark.Harness;
+
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * LongBPlusTreeMap vs TreeMap vs ConcurrentSkipListMap: inserts, point lookups, floor/ceiling,
+ * and range scans (boxed subMap iteration and the primitive forEachInRange).
+ * Usage: java Collection.OrderedMapBenchmark [keys]   (default 2M)
+ */
+public class OrderedMapBenchmark {
+    private static final Object VALUE = new Object();
+
+    public static void main(String[] args) {
+        int n = Harness.intArg(args, 0, 2_000_000);
+        long[] keys = new SplittableRandom(42).longs(n, 0, Long.MAX_VALUE / 4).toArray();
+        long[] probes = new SplittableRandom(7).longs(1_000_000, 0, Long.MAX_VALUE / 4).toArray();
+        // 10k range queries each spanning about 1000 keys
+        long span = (Long.MAX_VALUE / 4) / n * 1000;
+        System.out.println("---- " + n + " keys ----");
+
+        // footprint first, while nothing else is on the heap
+        long before = Harness.usedHeap();
+        LongBPlusTreeMap<Object> footprintBtree = new LongBPlusTreeMap<>();
+        for (long k : keys) {
+            footprintBtree.putLong(k, VALUE);
+        }
+        Harness.printFootprint("LongBPlusTreeMap bytes/entry", Harness.usedHeap() - before, n);
+        Harness.consume(footprintBtree);
+        footprintBtree = null;
+        before = Harness.usedHeap();
+        TreeMap<Long, Object> footprintTree = new TreeMap<>();
+        for (long k : keys) {
+            footprintTree.put(k, VALUE);
+        }
+        Harness.printFootprint("TreeMap bytes/entry", Harness.usedHeap() - before, n);
+        Harness.consume(footprintTree);
+        footprintTree = null;
+
+        Harness.run("LongBPlusTreeMap put (primitive)", 2, 5, () -> {
+            LongBPlusTreeMap<Object> map = new LongBPlusTreeMap<>();
+            for (long k : keys) {
+                map.putLong(k, VALUE);
+            }
+            Harness.consume(map.size());
+        });
+        Harness.run("TreeMap put", 2, 5, () -> {
+            TreeMap<Long, Object> map = new TreeMap<>();
+            for (long k : keys) {
+                map.put(k, VALUE);
+            }
+            Harness.consume(map.size());
+        });
+        Harness.run("ConcurrentSkipListMap put", 2, 5, () -> {
+            ConcurrentSkipListMap<Long, Object> map = new ConcurrentSkipListMap<>();
+            for (long k : keys) {
+                map.put(k, VALUE);
+            }
+            Harness.consume(map.size());
+        });
+
+        LongBPlusTreeMap<Object> btree = new LongBPlusTreeMap<>();
+        TreeMap<Long, Object> treeMap = new TreeMap<>();
+        ConcurrentSkipListMap<Long, Object> skipList = new ConcurrentSkipListMap<>();
+        for (long k : keys) {
+            btree.putLong(k, VALUE);
+            treeMap.put(k, VALUE);
+            skipList.put(k, VALUE);
+        }
+
+        Harness.run("LongBPlusTreeMap get x1M (50% hits)", 3, 7, () -> {
+            long hits = 0;
+            for (int i = 0; i < probes.length; i++) {
+                long key = (i & 1) == 0 ? keys[i % n] : probes[i];
+                hits += btree.get(key) != null ? 1 : 0;
+            }
+            Harness.consume(hits);
+        });
+        pointLookups("TreeMap get x1M (50% hits)", treeMap, keys, probes);
+        pointLookups("ConcurrentSkipListMap get x1M (50% hits)", skipList, keys, probes);
+
+        Harness.run("LongBPlusTreeMap floorLongKey x1M", 3, 7, () -> {
+            long sum = 0;
+            for (long p : probes) {
+                sum += btree.floorLongKey(p, -1);
+            }
+            Harness.consume(sum);
+        });
+        floors("TreeMap floorKey x1M", treeMap, probes);
+        floors("ConcurrentSkipListMap floorKey x1M", skipList, probes);
+
+        Harness.run("LongBPlusTreeMap forEachInRange x10k", 3, 7, () -> {
+            long[] sum = new long[1];
+            for (int i = 0; i < 10_000; i++) {
+                long from = probes[i];
+                btree.forEachInRange(from, from + span, (k, v) -> sum[0] += k);
+            }
+            Harness.consume(sum[0]);
+        });
+        rangeScans("LongBPlusTreeMap subMap iteration x10k", btree, probes, span);
+        rangeScans("TreeMap subMap iteration x10k", treeMap, probes, span);
+        rangeScans("ConcurrentSkipListMap subMap iteration x10k", skipList, probes, span);
+    }
+
+    private static void pointLookups(String label, Map<Long, Object> map, long[] keys, long[] probes) {
+        int n = keys.length;
+        Harness.run(label, 3, 7, () -> {
+            long hits = 0;
+            for (int i = 0; i < probes.length; i++) {
+                long key = (i & 1) == 0 ? keys[i % n] : probes[i];
+                hits += map.get(key) != null ? 1 : 0;
+            }
+            Harness.consume(hits);
+        });
+    }
+
+    private static void floors(String label, NavigableMap<Long, Object> map, long[] probes) {
+        Harness.run(label, 3, 7, () -> {
+            long sum = 0;
+            for (long p : probes) {
+                Long k = map.floorKey(p);
+                sum += k == null ? -1 : k;
+            }
+            Harness.consume(sum);
+        });
+    }
+
+    private static void rangeScans(String label, NavigableMap<Long, Object> map, long[] probes, long span) {
+        Harness.run(label, 3, 7, () -> {
+            long sum = 0;
+            for (int i = 0; i < 10_000; i++) {
+                long from = probes[i];
+                for (Long k : map.subMap(from, true, from + span, false).keySet()) {
+                    sum += k;
+                }
+            }
+            Harness.consume(sum);
+        });
+    }
+}
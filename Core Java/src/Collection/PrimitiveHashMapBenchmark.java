@@ -0,0 +1,173 @@
+package Collection;
+
+import Benchmark.Harness;
+
+import java.util.HashMap;
+import java.util.Hashtable;
+import java.util.SplittableRandom;
+
+/**
+ * IntObjectHashMap / LongLongHashMap vs HashMap and Hashtable: put, get, merge throughput and bytes per entry.
+ * Usage: java Collection.PrimitiveHashMapBenchmark [entries]   (default 2M)
+ */
+public class PrimitiveHashMapBenchmark {
+    private static final String VALUE = "value";
+
+    public static void main(String[] args) {
+        int n = Harness.intArg(args, 0, 2_000_000);
+        int[] keys = new SplittableRandom(42).ints(n).toArray();
+        // half hits, half misses
+        int[] probes = new int[n];
+        SplittableRandom random = new SplittableRandom(7);
+        for (int i = 0; i < n; i++) {
+            probes[i] = (i & 1) == 0 ? keys[random.nextInt(n)] : random.nextInt();
+        }
+        System.out.println("---- " + n + " entries ----");
+
+        Harness.run("IntObjectHashMap put", 3, 7, () -> {
+            IntObjectHashMap<String> map = new IntObjectHashMap<>();
+            for (int k : keys) {
+                map.put(k, VALUE);
+            }
+            Harness.consume(map.size());
+        });
+        Harness.run("HashMap<Integer,String> put", 3, 7, () -> {
+            HashMap<Integer, String> map = new HashMap<>();
+            for (int k : keys) {
+                map.put(k, VALUE);
+            }
+            Harness.consume(map.size());
+        });
+        Harness.run("Hashtable<Integer,String> put", 3, 7, () -> {
+            Hashtable<Integer, String> map = new Hashtable<>();
+            for (int k : keys) {
+                map.put(k, VALUE);
+            }
+            Harness.consume(map.size());
+        });
+
+        IntObjectHashMap<String> primitive = new IntObjectHashMap<>();
+        HashMap<Integer, String> hashMap = new HashMap<>();
+        Hashtable<Integer, String> hashtable = new Hashtable<>();
+        for (int k : keys) {
+            primitive.put(k, VALUE);
+            hashMap.put(k, VALUE);
+            hashtable.put(k, VALUE);
+        }
+        Harness.run("IntObjectHashMap get", 3, 7, () -> {
+            long hits = 0;
+            for (int p : probes) {
+                hits += primitive.get(p) != null ? 1 : 0;
+            }
+            Harness.consume(hits);
+        });
+        Harness.run("HashMap<Integer,String> get", 3, 7, () -> {
+            long hits = 0;
+            for (int p : probes) {
+                hits += hashMap.get(p) != null ? 1 : 0;
+            }
+            Harness.consume(hits);
+        });
+        Harness.run("Hashtable<Integer,String> get", 3, 7, () -> {
+            long hits = 0;
+            for (int p : probes) {
+                hits += hashtable.get(p) != null ? 1 : 0;
+            }
+            Harness.consume(hits);
+        });
+
+        // counting workload: keys drawn from a smaller domain so merge mostly updates
+        long[] events = new SplittableRandom(11).longs(n, 0, n / 4 + 1).toArray();
+        Harness.run("LongLongHashMap addTo", 3, 7, () -> {
+            LongLongHashMap counts = new LongLongHashMap();
+            for (long e : events) {
+                counts.addTo(e, 1);
+            }
+            Harness.consume(counts.size());
+        });
+        Harness.run("LongLongHashMap merge(Long::sum)", 3, 7, () -> {
+            LongLongHashMap counts = new LongLongHashMap();
+            for (long e : events) {
+                counts.merge(e, 1, Long::sum);
+            }
+            Harness.consume(counts.size());
+        });
+        Harness.run("HashMap<Long,Long> merge(Long::sum)", 3, 7, () -> {
+            HashMap<Long, Long> counts = new HashMap<>();
+            for (long e : events) {
+                counts.merge(e, 1L, Long::sum);
+            }
+            Harness.consume(counts.size());
+        });
+        Harness.run("Hashtable<Long,Long> merge(Long::sum)", 3, 7, () -> {
+            Hashtable<Long, Long> counts = new Hashtable<>();
+            for (long e : events) {
+                counts.merge(e, 1L, Long::sum);
+            }
+            Harness.consume(counts.size());
+        });
+        Harness.run("IntObjectHashMap merge(String)", 3, 7, () -> {
+            IntObjectHashMap<String> map = new IntObjectHashMap<>();
+            for (long e : events) {
+                map.merge((int) e, VALUE, (a, b) -> a);
+            }
+            Harness.consume(map.size());
+        });
+        Harness.run("HashMap<Integer,String> merge(String)", 3, 7, () -> {
+            HashMap<Integer, String> map = new HashMap<>();
+            for (long e : events) {
+                map.merge((int) e, VALUE, (a, b) -> a);
+            }
+            Harness.consume(map.size());
+        });
+
+        printFootprints(n, keys);
+    }
+
+    // All maps share the same value String, so the numbers are the per-entry cost of the map itself.
+    private static void printFootprints(int n, int[] keys) {
+        long before = Harness.usedHeap();
+        IntObjectHashMap<String> primitive = new IntObjectHashMap<>();
+        for (int k : keys) {
+            primitive.put(k, VALUE);
+        }
+        Harness.printFootprint("IntObjectHashMap bytes/entry", Harness.usedHeap() - before, primitive.size());
+        Harness.consume(primitive);
+        primitive = null;
+
+        before = Harness.usedHeap();
+        HashMap<Integer, String> hashMap = new HashMap<>();
+        for (int k : keys) {
+            hashMap.put(k, VALUE);
+        }
+        Harness.printFootprint("HashMap<Integer,String> bytes/entry", Harness.usedHeap() - before, hashMap.size());
+        Harness.consume(hashMap);
+        hashMap = null;
+
+        before = Harness.usedHeap();
+        Hashtable<Integer, String> hashtable = new Hashtable<>();
+        for (int k : keys) {
+            hashtable.put(k, VALUE);
+        }
+        Harness.printFootprint("Hashtable<Integer,String> bytes/entry", Harness.usedHeap() - before, hashtable.size());
+        Harness.consume(hashtable);
+        hashtable = null;
+
+        before = Harness.usedHeap();
+        LongLongHashMap longs = new LongLongHashMap();
+        for (int i = 0; i < n; i++) {
+            longs.put(keys[i], i);
+        }
+        Harness.printFootprint("LongLongHashMap bytes/entry", Harness.usedHeap() - before, longs.size());
+        Harness.consume(longs);
+        longs = null;
+
+        before = Harness.usedHeap();
+        HashMap<Long, Long> boxed = new HashMap<>();
+        for (int i = 0; i < n; i++) {
+            boxed.put((long) keys[i], (long) i);
+        }
+        Harness.printFootprint("HashMap<Long,Long> bytes/entry", Harness.usedHeap() - before, boxed.size());
+        Harness.consume(boxed);
+    }
+}
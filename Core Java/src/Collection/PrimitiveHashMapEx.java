@@ -0,0 +1,44 @@
+package Collection;
+
+public class PrimitiveHashMapEx {
+    public static void main(String[] args) {
+        // Create an IntObjectHashMap (int keys, no Integer boxing)
+        IntObjectHashMap<String> map = new IntObjectHashMap<>();
+
+        // Add key-value pairs
+        map.put(1, "Apple");
+        map.put(2, "Banana");
+        map.put(3, "Cherry");
+        System.out.println("IntObjectHashMap: " + map);
+
+        // Retrieve a value
+        System.out.println("Value for key 2: " + map.get(2));
+
+        // Use computeIfAbsent
+        map.computeIfAbsent(5, key -> "Elderberry");
+        System.out.println("After computeIfAbsent: " + map);
+
+        // Use merge
+        map.merge(3, "Grape", (oldVal, newVal) -> oldVal + ", " + newVal);
+        System.out.println("After merge: " + map);
+
+        // Remove a key (no tombstone is left behind)
+        map.remove(1);
+        System.out.println("After removing key 1: " + map + " size " + map.size());
+
+        // LongLongHashMap as a counter
+        LongLongHashMap counts = new LongLongHashMap();
+        long[] events = {42L, 7L, 42L, 0L, 42L, 7L};
+        for (long e : events) {
+            counts.addTo(e, 1);
+        }
+        System.out.println("Counts: " + counts);
+
+        // merge with a custom function: keep the maximum
+        counts.merge(7L, 10L, Math::max);
+        System.out.println("Count for 7 after merge(max): " + counts.get(7L));
+
+        // Missing keys return the no-entry value
+        System.out.println("Missing key: " + counts.get(99L) + " contains: " + counts.containsKey(99L));
+    }
+}
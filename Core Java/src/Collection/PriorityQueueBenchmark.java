@@ -0,0 +1,227 @@
+package Collection;
+
+import Benchmark.Harness;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Part 1: IndexedDaryHeap vs PriorityQueue on insert/poll and on Dijkstra over a random graph
+ * (decrease-key vs PriorityQueue with lazy duplicates vs PriorityQueue.remove(Object)).
+ * Part 2: ConcurrentMultiQueue vs PriorityBlockingQueue, threads doing offer/poll pairs.
+ * Usage: java Collection.PriorityQueueBenchmark [vertices] [seconds per concurrent run]
+ */
+public class PriorityQueueBenchmark {
+
+    record Entry(int vertex, long distance) {
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        int vertices = Harness.intArg(args, 0, 200_000);
+        int seconds = Harness.intArg(args, 1, 2);
+
+        int n = 1_000_000;
+        long[] keys = new SplittableRandom(1).longs(n, 0, Long.MAX_VALUE / 2).toArray();
+        Harness.run("IndexedDaryHeap insert+poll 1M", 3, 7, () -> {
+            IndexedDaryHeap heap = new IndexedDaryHeap(n);
+            for (int i = 0; i < n; i++) {
+                heap.insert(i, keys[i]);
+            }
+            long sum = 0;
+            while (!heap.isEmpty()) {
+                sum += heap.poll();
+            }
+            Harness.consume(sum);
+        });
+        Harness.run("PriorityQueue<Long> insert+poll 1M", 3, 7, () -> {
+            PriorityQueue<Long> queue = new PriorityQueue<>(n);
+            for (long k : keys) {
+                queue.add(k);
+            }
+            long sum = 0;
+            while (!queue.isEmpty()) {
+                sum += queue.poll();
+            }
+            Harness.consume(sum);
+        });
+
+        int[][] graph = randomGraph(vertices, 8, 42);
+        Harness.run("Dijkstra IndexedDaryHeap decreaseKey", 2, 5, () -> Harness.consume(dijkstraIndexed(graph)[vertices - 1]));
+        Harness.run("Dijkstra PriorityQueue lazy duplicates", 2, 5, () -> Harness.consume(dijkstraLazy(graph)[vertices - 1]));
+        int small = Math.min(vertices, 20_000);
+        int[][] smallGraph = randomGraph(small, 8, 42);
+        Harness.run("Dijkstra " + small + "v IndexedDaryHeap", 2, 5, () -> Harness.consume(dijkstraIndexed(smallGraph)[small - 1]));
+        Harness.run("Dijkstra " + small + "v PriorityQueue.remove(Object)", 1, 3, () -> Harness.consume(dijkstraRemove(smallGraph)[small - 1]));
+
+        System.out.printf("%n%-28s %8s %14s%n", "queue", "threads", "ops/s");
+        for (int threads : new int[]{1, 2, 4, 8, 16, 32, 64}) {
+            concurrent("PriorityBlockingQueue", threads, seconds, new QueueOps() {
+                final PriorityBlockingQueue<Long> queue = new PriorityBlockingQueue<>();
+
+                public void offer(long priority) {
+                    queue.offer(priority);
+                }
+
+                public boolean poll() {
+                    return queue.poll() != null;
+                }
+            });
+            concurrent("ConcurrentMultiQueue", threads, seconds, new QueueOps() {
+                final ConcurrentMultiQueue<Long> queue = new ConcurrentMultiQueue<>(Math.max(4, threads * 2));
+
+                public void offer(long priority) {
+                    queue.offer(priority, priority);
+                }
+
+                public boolean poll() {
+                    return queue.poll() != null;
+                }
+            });
+        }
+    }
+
+    interface QueueOps {
+        void offer(long priority);
+
+        boolean poll();
+    }
+
+    private static void concurrent(String label, int threads, int seconds, QueueOps queue) throws InterruptedException {
+        // pre-fill so polls mostly find work, like a busy scheduler
+        SplittableRandom seed = new SplittableRandom(5);
+        for (int i = 0; i < 100_000; i++) {
+            queue.offer(seed.nextLong(1_000_000));
+        }
+        AtomicLong total = new AtomicLong();
+        CountDownLatch start = new CountDownLatch(1);
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            long threadSeed = t;
+            workers[t] = new Thread(() -> {
+                SplittableRandom random = new SplittableRandom(threadSeed);
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                long ops = 0;
+                while (System.nanoTime() < deadline) {
+                    for (int i = 0; i < 256; i++) {
+                        queue.offer(random.nextLong(1_000_000));
+                        queue.poll();
+                    }
+                    ops += 512;
+                }
+                total.addAndGet(ops);
+            });
+            workers[t].start();
+        }
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        System.out.printf("%-28s %8d %14.0f%n", label, threads, total.get() / (double) seconds);
+    }
+
+    // adjacency as {v, w, v, w, ...} per vertex, plus a path so every vertex is reachable
+    static int[][] randomGraph(int vertices, int degree, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        int[][] graph = new int[vertices][];
+        for (int u = 0; u < vertices; u++) {
+            int[] edges = new int[2 * (degree + 1)];
+            for (int i = 0; i < degree; i++) {
+                edges[2 * i] = random.nextInt(vertices);
+                edges[2 * i + 1] = 1 + random.nextInt(100);
+            }
+            edges[2 * degree] = (u + 1) % vertices;
+            edges[2 * degree + 1] = 1000;
+            graph[u] = edges;
+        }
+        return graph;
+    }
+
+    static long[] dijkstraIndexed(int[][] graph) {
+        long[] distance = new long[graph.length];
+        Arrays.fill(distance, Long.MAX_VALUE);
+        distance[0] = 0;
+        IndexedDaryHeap heap = new IndexedDaryHeap(graph.length);
+        heap.insert(0, 0);
+        while (!heap.isEmpty()) {
+            int u = heap.poll();
+            int[] edges = graph[u];
+            for (int i = 0; i < edges.length; i += 2) {
+                int v = edges[i];
+                long candidate = distance[u] + edges[i + 1];
+                if (candidate < distance[v]) {
+                    distance[v] = candidate;
+                    heap.decreaseKey(v, candidate);
+                }
+            }
+        }
+        return distance;
+    }
+
+    static long[] dijkstraLazy(int[][] graph) {
+        long[] distance = new long[graph.length];
+        Arrays.fill(distance, Long.MAX_VALUE);
+        distance[0] = 0;
+        PriorityQueue<Entry> queue = new PriorityQueue<>((a, b) -> Long.compare(a.distance, b.distance));
+        queue.add(new Entry(0, 0));
+        while (!queue.isEmpty()) {
+            Entry e = queue.poll();
+            if (e.distance > distance[e.vertex]) {
+                continue; // stale duplicate
+            }
+            int[] edges = graph[e.vertex];
+            for (int i = 0; i < edges.length; i += 2) {
+                int v = edges[i];
+                long candidate = e.distance + edges[i + 1];
+                if (candidate < distance[v]) {
+                    distance[v] = candidate;
+                    queue.add(new Entry(v, candidate));
+                }
+            }
+        }
+        return distance;
+    }
+
+    static long[] dijkstraRemove(int[][] graph) {
+        long[] distance = new long[graph.length];
+        Arrays.fill(distance, Long.MAX_VALUE);
+        distance[0] = 0;
+        List<Entry> entries = new ArrayList<>(graph.length);
+        for (int v = 0; v < graph.length; v++) {
+            entries.add(null);
+        }
+        PriorityQueue<Entry> queue = new PriorityQueue<>((a, b) -> Long.compare(a.distance, b.distance));
+        entries.set(0, new Entry(0, 0));
+        queue.add(entries.get(0));
+        while (!queue.isEmpty()) {
+            Entry e = queue.poll();
+            entries.set(e.vertex, null);
+            int[] edges = graph[e.vertex];
+            for (int i = 0; i < edges.length; i += 2) {
+                int v = edges[i];
+                long candidate = e.distance + edges[i + 1];
+                if (candidate < distance[v]) {
+                    distance[v] = candidate;
+                    Entry old = entries.get(v);
+                    if (old != null) {
+                        queue.remove(old); // O(n) scan
+                    }
+                    Entry updated = new Entry(v, candidate);
+                    entries.set(v, updated);
+                    queue.add(updated);
+                }
+            }
+        }
+        return distance;
+    }
+}
@@ -0,0 +1,73 @@
+package CustomSorting;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+
+/**
+ * Throughput of ExternalStudentSorter on generated StudentRecordFormat files, with buffered and with
+ * memory-mapped readers. Input sizes are given in GB; each size needs about three times that much free disk
+ * (input, runs, output).
+ * Usage: java -Xmx2g CustomSorting.ExternalSortBenchmark [sizes in GB, comma separated] [memory budget MB] [parallelism] [temp dir]
+ * e.g.   java -Xmx2g CustomSorting.ExternalSortBenchmark 1,5,10,50 1024 4 /data/tmp
+ */
+public class ExternalSortBenchmark {
+
+    public static void main(String[] args) throws IOException {
+        String[] sizes = (args.length > 0 ? args[0] : "1").split(",");
+        long budget = (args.length > 1 ? Long.parseLong(args[1]) : 512) << 20;
+        int parallelism = args.length > 2 ? Integer.parseInt(args[2]) : Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+        Path directory = args.length > 3 ? Path.of(args[3]) : Path.of(System.getProperty("java.io.tmpdir"));
+
+        System.out.printf("memory budget %d MB, parallelism %d, temp dir %s%n", budget >> 20, parallelism, directory);
+        System.out.printf("%-8s %-9s %12s %6s %7s %10s %10s %10s %12s%n",
+                "input", "readers", "records", "runs", "passes", "runs s", "merge s", "MB/s", "records/s");
+        for (String size : sizes) {
+            long bytes = (long) (Double.parseDouble(size) * (1L << 30));
+            Path input = Files.createTempFile(directory, "students", ".bin");
+            Path output = Files.createTempFile(directory, "sorted", ".bin");
+            try {
+                generate(input, bytes);
+                for (boolean mapped : new boolean[]{false, true}) {
+                    ExternalStudentSorter sorter = ExternalStudentSorter.newBuilder()
+                            .memoryBudget(budget)
+                            .parallelism(parallelism)
+                            .tempDirectory(directory)
+                            .mappedReaders(mapped)
+                            .build();
+                    long start = System.nanoTime();
+                    ExternalStudentSorter.Stats stats = sorter.sort(input, output);
+                    double seconds = (System.nanoTime() - start) / 1e9;
+                    System.out.printf("%-8s %-9s %,12d %6d %7d %10.1f %10.1f %10.1f %,12.0f%n",
+                            size + " GB", mapped ? "mapped" : "buffered", stats.getRecordCount(), stats.getRunCount(),
+                            stats.getMergePasses(), stats.getRunGenerationNanos() / 1e9, stats.getMergeNanos() / 1e9,
+                            Files.size(input) / seconds / (1 << 20), stats.getRecordCount() / seconds);
+                }
+            } finally {
+                Files.deleteIfExists(input);
+                Files.deleteIfExists(output);
+            }
+        }
+    }
+
+    // ~24 bytes per record: random marks in steps of 0.5, names of 6-16 letters
+    private static void generate(Path file, long bytes) throws IOException {
+        SplittableRandom random = new SplittableRandom(42);
+        char[] chars = new char[16];
+        long written = 0;
+        int rollno = 0;
+        try (DataOutputStream out = StudentRecordFormat.openWriter(file, 1 << 20)) {
+            while (written < bytes) {
+                int length = 6 + random.nextInt(11);
+                chars[0] = (char) ('A' + random.nextInt(26));
+                for (int c = 1; c < length; c++) {
+                    chars[c] = (char) ('a' + random.nextInt(26));
+                }
+                StudentComparable student = new StudentComparable(new String(chars, 0, length), random.nextInt(201) / 2.0f, rollno++);
+                written += StudentRecordFormat.write(out, student);
+            }
+        }
+    }
+}
@@ -0,0 +1,444 @@
+package CustomSorting;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Sorts more StudentComparable records than fit in the heap, in their natural (Comparable) order.
+ * Equal records keep their input order.
+ * <ol>
+ *     <li>Run generation: the input is cut into runs that fit the memory budget. Each run is sorted with
+ *     Arrays.sort and spilled to a temp file in StudentRecordFormat. Up to `parallelism` runs are
+ *     sorted and written on worker threads while the caller keeps reading the next one.</li>
+ *     <li>Merge: all runs are merged in one pass with a loser tree (one comparison per tree level per record,
+ *     against ~2 for a binary heap). If there are more than maxFanIn runs, groups of runs are merged into
+ *     bigger runs first.</li>
+ * </ol>
+ * If the whole input fits in one run, nothing is spilled.
+ * <pre>
+ * ExternalStudentSorter sorter = ExternalStudentSorter.newBuilder()
+ *         .memoryBudget(512L &lt;&lt; 20)
+ *         .parallelism(4)
+ *         .build();
+ * sorter.sort(Path.of("students.bin"), Path.of("sorted.bin"));
+ * </pre>
+ */
+public final class ExternalStudentSorter {
+    // rough heap cost of one StudentComparable: object, String, byte[] and the array slot, plus 1 byte per char
+    private static final int ESTIMATED_OBJECT_BYTES = 80;
+    private static final int MIN_IO_BUFFER = 64 << 10;
+    private static final int MAX_IO_BUFFER = 8 << 20;
+
+    private final long memoryBudget;
+    private final int parallelism;
+    private final Path tempDirectory;
+    private final boolean mappedReaders;
+    private final int maxFanIn;
+
+    private ExternalStudentSorter(Builder builder) {
+        this.memoryBudget = builder.memoryBudget;
+        this.parallelism = builder.parallelism;
+        this.tempDirectory = builder.tempDirectory;
+        this.mappedReaders = builder.mappedReaders;
+        this.maxFanIn = builder.maxFanIn;
+    }
+
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    // input and output files in StudentRecordFormat
+    public Stats sort(Path input, Path output) throws IOException {
+        try (StudentRecordFormat.Reader reader = StudentRecordFormat.openReader(input, mappedReaders, MAX_IO_BUFFER);
+             DataOutputStream out = StudentRecordFormat.openWriter(output, MAX_IO_BUFFER)) {
+            return sort(reader, student -> StudentRecordFormat.write(out, student));
+        }
+    }
+
+    public Stats sort(Iterator<StudentComparable> input, Consumer<? super StudentComparable> output) throws IOException {
+        StudentRecordFormat.Reader reader = new StudentRecordFormat.Reader() {
+            @Override
+            public StudentComparable next() {
+                return input.hasNext() ? Objects.requireNonNull(input.next()) : null;
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        return sort(reader, output::accept);
+    }
+
+    private interface Sink {
+        void accept(StudentComparable student) throws IOException;
+    }
+
+    private Stats sort(StudentRecordFormat.Reader input, Sink output) throws IOException {
+        Stats stats = new Stats();
+        Path workDirectory = tempDirectory == null
+                ? Files.createTempDirectory("student-sort")
+                : Files.createTempDirectory(tempDirectory, "student-sort");
+        List<Path> runs = new ArrayList<>();
+        try {
+            long start = System.nanoTime();
+            StudentComparable[] singleRun = generateRuns(input, workDirectory, runs, stats);
+            stats.runGenerationNanos = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            if (singleRun != null) {
+                for (StudentComparable student : singleRun) {
+                    output.accept(student);
+                }
+            } else {
+                merge(runs, workDirectory, output, stats);
+            }
+            stats.mergeNanos = System.nanoTime() - start;
+            return stats;
+        } finally {
+            try (Stream<Path> files = Files.list(workDirectory)) {
+                for (Path file : (Iterable<Path>) files::iterator) {
+                    Files.deleteIfExists(file);
+                }
+            }
+            Files.deleteIfExists(workDirectory);
+        }
+    }
+
+    /**
+     * Fills runs with the spilled run files in input order (the merge relies on that for stability).
+     * Returns the sorted records instead if the whole input fit in the first run.
+     */
+    private StudentComparable[] generateRuns(StudentRecordFormat.Reader input, Path workDirectory,
+                                             List<Path> runs, Stats stats) throws IOException {
+        // one run being filled plus `parallelism` runs being sorted/written share the budget
+        long runBudget = Math.max(1, memoryBudget / (parallelism + 1));
+        ExecutorService workers = Executors.newFixedThreadPool(parallelism);
+        Semaphore inFlight = new Semaphore(parallelism);
+        List<Future<Path>> pending = new ArrayList<>();
+        try {
+            List<StudentComparable> buffer = new ArrayList<>();
+            long bufferBytes = 0;
+            StudentComparable student;
+            while ((student = input.next()) != null) {
+                buffer.add(student);
+                bufferBytes += ESTIMATED_OBJECT_BYTES + student.getName().length();
+                stats.records++;
+                if (bufferBytes >= runBudget) {
+                    pending.add(spill(buffer, workDirectory, workers, inFlight));
+                    buffer = new ArrayList<>();
+                    bufferBytes = 0;
+                }
+            }
+            if (pending.isEmpty()) {
+                StudentComparable[] all = buffer.toArray(new StudentComparable[0]);
+                Arrays.sort(all);
+                return all;
+            }
+            if (!buffer.isEmpty()) {
+                pending.add(spill(buffer, workDirectory, workers, inFlight));
+            }
+            for (Future<Path> run : pending) {
+                runs.add(await(run));
+            }
+            stats.runs = runs.size();
+            for (Path run : runs) {
+                stats.spilledBytes += Files.size(run);
+            }
+            return null;
+        } finally {
+            workers.shutdownNow();
+            awaitTermination(workers);
+        }
+    }
+
+    private Future<Path> spill(List<StudentComparable> buffer, Path workDirectory,
+                               ExecutorService workers, Semaphore inFlight) throws IOException {
+        try {
+            // blocks the reader while `parallelism` runs are still being sorted, which bounds memory
+            inFlight.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for a run to be written", e);
+        }
+        return workers.submit(() -> {
+            try {
+                StudentComparable[] run = buffer.toArray(new StudentComparable[0]);
+                buffer.clear();
+                Arrays.sort(run);
+                Path file = Files.createTempFile(workDirectory, "run", ".bin");
+                try (DataOutputStream out = StudentRecordFormat.openWriter(file, MIN_IO_BUFFER * 16)) {
+                    for (StudentComparable student : run) {
+                        StudentRecordFormat.write(out, student);
+                    }
+                }
+                return file;
+            } finally {
+                inFlight.release();
+            }
+        });
+    }
+
+    private void merge(List<Path> runs, Path workDirectory, Sink output, Stats stats) throws IOException {
+        // intermediate passes while there are too many runs to open at once; consecutive groups keep input order
+        while (runs.size() > maxFanIn) {
+            List<Path> merged = new ArrayList<>();
+            for (int from = 0; from < runs.size(); from += maxFanIn) {
+                List<Path> group = runs.subList(from, Math.min(from + maxFanIn, runs.size()));
+                if (group.size() == 1) {
+                    merged.add(group.get(0));
+                    continue;
+                }
+                Path file = Files.createTempFile(workDirectory, "merged", ".bin");
+                merged.add(file);
+                try (DataOutputStream out = StudentRecordFormat.openWriter(file, MAX_IO_BUFFER)) {
+                    mergeRuns(group, student -> StudentRecordFormat.write(out, student));
+                }
+                for (Path run : group) {
+                    Files.delete(run);
+                }
+            }
+            runs.clear();
+            runs.addAll(merged);
+            stats.mergePasses++;
+        }
+        mergeRuns(runs, output);
+        stats.mergePasses++;
+    }
+
+    private void mergeRuns(List<Path> runs, Sink output) throws IOException {
+        int bufferSize = (int) Math.max(MIN_IO_BUFFER, Math.min(MAX_IO_BUFFER, memoryBudget / (2L * runs.size())));
+        StudentRecordFormat.Reader[] readers = new StudentRecordFormat.Reader[runs.size()];
+        try {
+            for (int i = 0; i < readers.length; i++) {
+                readers[i] = StudentRecordFormat.openReader(runs.get(i), mappedReaders, bufferSize);
+            }
+            LoserTree tree = new LoserTree(readers);
+            StudentComparable student;
+            while ((student = tree.next()) != null) {
+                output.accept(student);
+            }
+        } finally {
+            for (StudentRecordFormat.Reader reader : readers) {
+                if (reader != null) {
+                    reader.close();
+                }
+            }
+        }
+    }
+
+    // after a failure, lets the other runs finish writing so their files can be deleted
+    private static void awaitTermination(ExecutorService workers) throws IOException {
+        try {
+            workers.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for run writers", e);
+        }
+    }
+
+    private static Path await(Future<Path> run) throws IOException {
+        try {
+            return run.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for a run to be written", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException io) {
+                throw io;
+            }
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    /**
+     * Tournament tree over the current head record of every run. Internal node i stores the run that lost
+     * the match played there; the overall winner sits in tree[0]. After the winner is taken, only the path
+     * from its leaf to the root is replayed: log2(k) comparisons, each against a single stored loser.
+     * An exhausted run has a null head, which loses to everything. Ties go to the lower run index, so the
+     * merge is stable.
+     */
+    private static final class LoserTree {
+        private final StudentRecordFormat.Reader[] readers;
+        private final StudentComparable[] heads;
+        private final int[] tree;
+        private final int k;
+
+        LoserTree(StudentRecordFormat.Reader[] readers) throws IOException {
+            this.readers = readers;
+            this.k = readers.length;
+            this.heads = new StudentComparable[k];
+            this.tree = new int[Math.max(k, 1)];
+            for (int i = 0; i < k; i++) {
+                heads[i] = readers[i].next();
+            }
+            if (k > 0) {
+                tree[0] = build(1);
+            }
+        }
+
+        // plays the matches below node and returns the winner; leaves are nodes k .. 2k-1
+        private int build(int node) {
+            if (node >= k) {
+                return node - k;
+            }
+            int left = build(2 * node);
+            int right = build(2 * node + 1);
+            if (beats(left, right)) {
+                tree[node] = right;
+                return left;
+            }
+            tree[node] = left;
+            return right;
+        }
+
+        StudentComparable next() throws IOException {
+            if (k == 0) {
+                return null;
+            }
+            int winner = tree[0];
+            StudentComparable result = heads[winner];
+            if (result == null) {
+                return null;
+            }
+            heads[winner] = readers[winner].next();
+            for (int node = (winner + k) >>> 1; node > 0; node >>>= 1) {
+                if (beats(tree[node], winner)) {
+                    int loser = winner;
+                    winner = tree[node];
+                    tree[node] = loser;
+                }
+            }
+            tree[0] = winner;
+            return result;
+        }
+
+        private boolean beats(int a, int b) {
+            StudentComparable x = heads[a];
+            StudentComparable y = heads[b];
+            if (x == null || y == null) {
+                return y == null && (x != null || a < b);
+            }
+            int comparison = x.compareTo(y);
+            return comparison < 0 || (comparison == 0 && a < b);
+        }
+    }
+
+    /**
+     * Counters of one sort() call.
+     */
+    public static final class Stats {
+        private long records;
+        private int runs;
+        private int mergePasses;
+        private long spilledBytes;
+        private long runGenerationNanos;
+        private long mergeNanos;
+
+        public long getRecordCount() {
+            return records;
+        }
+
+        // 0 if the input fit in memory
+        public int getRunCount() {
+            return runs;
+        }
+
+        public int getMergePasses() {
+            return mergePasses;
+        }
+
+        public long getSpilledBytes() {
+            return spilledBytes;
+        }
+
+        public long getRunGenerationNanos() {
+            return runGenerationNanos;
+        }
+
+        public long getMergeNanos() {
+            return mergeNanos;
+        }
+
+        @Override
+        public String toString() {
+            return "Stats{records=" + records + ", runs=" + runs + ", mergePasses=" + mergePasses
+                    + ", spilledBytes=" + spilledBytes + ", runGeneration=" + runGenerationNanos / 1_000_000
+                    + "ms, merge=" + mergeNanos / 1_000_000 + "ms}";
+        }
+    }
+
+    public static final class Builder {
+        private long memoryBudget = Runtime.getRuntime().maxMemory() / 4;
+        private int parallelism = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+        private Path tempDirectory;
+        private boolean mappedReaders;
+        private int maxFanIn = 256;
+
+        private Builder() {
+        }
+
+        // heap the sort may use for run buffers; default a quarter of -Xmx
+        public Builder memoryBudget(long bytes) {
+            checkPositive(bytes, "memoryBudget");
+            this.memoryBudget = bytes;
+            return this;
+        }
+
+        // number of runs sorted and written concurrently while the next run is read
+        public Builder parallelism(int parallelism) {
+            checkPositive(parallelism, "parallelism");
+            this.parallelism = parallelism;
+            return this;
+        }
+
+        // where spill files go; default java.io.tmpdir
+        public Builder tempDirectory(Path directory) {
+            this.tempDirectory = Objects.requireNonNull(directory);
+            return this;
+        }
+
+        // read files through memory-mapped windows instead of buffered streams
+        public Builder mappedReaders(boolean mapped) {
+            this.mappedReaders = mapped;
+            return this;
+        }
+
+        // most runs merged at once; more runs cost an extra pass over the data
+        public Builder maxFanIn(int maxFanIn) {
+            if (maxFanIn < 2) {
+                throw new IllegalArgumentException("maxFanIn must be at least 2: " + maxFanIn);
+            }
+            this.maxFanIn = maxFanIn;
+            return this;
+        }
+
+        public ExternalStudentSorter build() {
+            return new ExternalStudentSorter(this);
+        }
+
+        private static void checkPositive(long value, String name) {
+            if (value <= 0) {
+                throw new IllegalArgumentException(name + " must be positive: " + value);
+            }
+        }
+    }
+}
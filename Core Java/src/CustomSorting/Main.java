@@ -32,5 +32,21 @@ public class Main {
         for (StudentComparable student : studentComparableList) {
             System.out.println(student);
         }
+
+        System.out.printf("\n");
+
+        // Radix sort engine, same order as StudentComparator (for large lists)
+        ArrayList<StudentComparator> radixList = new ArrayList<>();
+        radixList.add(new StudentComparator("Rudra", 90.0f, 104));
+        radixList.add(new StudentComparator("Preet", 90.0f, 102));
+        radixList.add(new StudentComparator("Prasu", 93.5f, 101));
+        radixList.add(new StudentComparator("Preet", 90.0f, 103));
+
+        new StudentSorter().sort(radixList);
+
+        System.out.println("After Sorting with StudentSorter:");
+        for (StudentComparator student : radixList) {
+            System.out.println(student);
+        }
     }
 }
\ No newline at end of file
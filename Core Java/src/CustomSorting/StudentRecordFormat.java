@@ -0,0 +1,141 @@
+package CustomSorting;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Compact binary encoding of StudentComparable used for ExternalStudentSorter's input, output and spill files.
+ * <p>
+ * One record, big-endian, no header or separators:
+ * <pre>
+ *   float  marks
+ *   int    rollno
+ *   u16    name length in bytes
+ *   byte[] name, UTF-8
+ * </pre>
+ * A file is just records back to back, so files can be concatenated and split at any record boundary.
+ */
+public final class StudentRecordFormat {
+    public static final int MAX_NAME_BYTES = 0xFFFF;
+    public static final int MAX_RECORD_BYTES = 4 + 4 + 2 + MAX_NAME_BYTES;
+
+    private StudentRecordFormat() {
+    }
+
+    // reads records one by one; next() returns null at the end of the input
+    public interface Reader extends Closeable {
+        StudentComparable next() throws IOException;
+    }
+
+    public static DataOutputStream openWriter(Path path, int bufferSize) throws IOException {
+        return new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path), bufferSize));
+    }
+
+    // returns the number of bytes written
+    public static int write(DataOutputStream out, StudentComparable student) throws IOException {
+        byte[] name = student.getName().getBytes(StandardCharsets.UTF_8);
+        if (name.length > MAX_NAME_BYTES) {
+            throw new IllegalArgumentException("Name longer than " + MAX_NAME_BYTES + " bytes: " + name.length);
+        }
+        out.writeFloat(student.getMarks());
+        out.writeInt(student.getRollno());
+        out.writeShort(name.length);
+        out.write(name);
+        return 10 + name.length;
+    }
+
+    /**
+     * Opens path for sequential reading, either through a buffered stream or through read-only memory mapped
+     * windows of the file. Mapping avoids copying every byte from the page cache into a Java buffer, which
+     * matters in the merge phase where many files are read at once.
+     */
+    public static Reader openReader(Path path, boolean mapped, int bufferSize) throws IOException {
+        return mapped ? new MappedReader(path) : new StreamReader(path, bufferSize);
+    }
+
+    private static final class StreamReader implements Reader {
+        private final DataInputStream in;
+
+        StreamReader(Path path, int bufferSize) throws IOException {
+            in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path), bufferSize));
+        }
+
+        @Override
+        public StudentComparable next() throws IOException {
+            int first = in.read();
+            if (first < 0) {
+                return null;
+            }
+            int marksBits = first << 24 | in.readUnsignedByte() << 16 | in.readUnsignedByte() << 8 | in.readUnsignedByte();
+            int rollno = in.readInt();
+            byte[] name = new byte[in.readUnsignedShort()];
+            in.readFully(name);
+            return new StudentComparable(new String(name, StandardCharsets.UTF_8), Float.intBitsToFloat(marksBits), rollno);
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+
+    private static final class MappedReader implements Reader {
+        // files are mapped in windows, so files over 2 GB work and address space stays bounded with many readers
+        private static final long WINDOW_BYTES = 64L << 20;
+
+        private final FileChannel channel;
+        private final long size;
+        private long windowStart;
+        private MappedByteBuffer window;
+
+        MappedReader(Path path) throws IOException {
+            channel = FileChannel.open(path, StandardOpenOption.READ);
+            size = channel.size();
+            map(0);
+        }
+
+        @Override
+        public StudentComparable next() throws IOException {
+            long position = windowStart + window.position();
+            if (position >= size) {
+                return null;
+            }
+            // remap before a record could straddle the end of the window
+            if (window.remaining() < MAX_RECORD_BYTES && windowStart + window.limit() < size) {
+                map(position);
+            }
+            try {
+                float marks = window.getFloat();
+                int rollno = window.getInt();
+                byte[] name = new byte[window.getShort() & 0xFFFF];
+                window.get(name);
+                return new StudentComparable(new String(name, StandardCharsets.UTF_8), marks, rollno);
+            } catch (BufferUnderflowException e) {
+                throw new EOFException("Truncated record at byte " + position);
+            }
+        }
+
+        private void map(long position) throws IOException {
+            windowStart = position;
+            window = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(WINDOW_BYTES, size - position));
+        }
+
+        // the mapping itself is released when the buffer is garbage collected
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package CustomSorting;
+
+import Benchmark.Harness;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * StudentSorter vs List.sort and Arrays.parallelSort with StudentComparator.
+ * Marks are drawn in steps of 0.5 and names from a few thousand values, so there are plenty of ties on the
+ * first and second sort keys, as in real mark sheets.
+ * Usage: java -Xmx4g CustomSorting.StudentSortBenchmark [students]   (default 2M; 10M needs about 3 GB)
+ */
+public class StudentSortBenchmark {
+    private static final StudentComparator COMPARATOR = new StudentComparator(null, 0, 0);
+
+    public static void main(String[] args) {
+        int n = Harness.intArg(args, 0, 2_000_000);
+        StudentComparator[] students = generate(n, 42);
+        System.out.printf("---- %d students, %d cpus ----%n", n, Runtime.getRuntime().availableProcessors());
+
+        StudentComparator[] expected = students.clone();
+        Arrays.sort(expected, COMPARATOR);
+        StudentComparator[] actual = students.clone();
+        new StudentSorter().sort(actual);
+        if (!Arrays.equals(expected, actual)) {
+            throw new AssertionError("StudentSorter order differs from StudentComparator");
+        }
+
+        Harness.run("ArrayList.sort(StudentComparator)", 1, 5, () -> {
+            List<StudentComparator> list = new ArrayList<>(Arrays.asList(students));
+            list.sort(COMPARATOR);
+            Harness.consume(list.get(0));
+        });
+        Harness.run("Arrays.parallelSort(StudentComparator)", 1, 5, () -> {
+            StudentComparator[] copy = students.clone();
+            Arrays.parallelSort(copy, COMPARATOR);
+            Harness.consume(copy[0]);
+        });
+        StudentSorter sorter = new StudentSorter();
+        Harness.run("StudentSorter.sort(List)", 1, 5, () -> {
+            List<StudentComparator> list = new ArrayList<>(Arrays.asList(students));
+            sorter.sort(list);
+            Harness.consume(list.get(0));
+        });
+        Harness.run("StudentSorter.sortedOrder (permutation only)", 1, 5, () -> {
+            int[] order = sorter.sortedOrder(students);
+            Harness.consume(order[0]);
+        });
+    }
+
+    static StudentComparator[] generate(int n, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        String[] names = new String[4096];
+        for (int i = 0; i < names.length; i++) {
+            char[] chars = new char[4 + random.nextInt(7)];
+            chars[0] = (char) ('A' + random.nextInt(26));
+            for (int c = 1; c < chars.length; c++) {
+                chars[c] = (char) ('a' + random.nextInt(26));
+            }
+            names[i] = new String(chars);
+        }
+        StudentComparator[] students = new StudentComparator[n];
+        for (int i = 0; i < n; i++) {
+            float marks = random.nextInt(201) / 2.0f;
+            students[i] = new StudentComparator(names[random.nextInt(names.length)], marks, random.nextInt(n));
+        }
+        return students;
+    }
+}
@@ -0,0 +1,279 @@
+package CustomSorting;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+
+/**
+ * Sorts students in exactly the order of StudentComparator (marks descending, then name, then roll number)
+ * and, like List.sort, keeps equal students in their input order. Meant for millions of rows.
+ * <p>
+ * Instead of calling the comparator O(n log n) times, every student is reduced once to a 64-bit key:
+ * <ul>
+ *     <li>high 32 bits: the marks, as float bits flipped so that unsigned order is Float.compare order, reversed</li>
+ *     <li>low 32 bits: the first two chars of the name</li>
+ * </ul>
+ * (key, index) pairs are then LSD radix sorted, 8 bits per pass, on a ForkJoinPool: each chunk of the
+ * array builds its own histogram, the histograms are turned into per-chunk write offsets, and the
+ * chunks scatter in parallel. Passes where every key has the same digit are skipped (marks in a
+ * narrow range share most exponent bits). LSD radix sort is stable, so no extra work is needed for that.
+ * <p>
+ * Only students whose keys are equal (same marks, same two-letter name prefix) still need the real
+ * comparison; those short runs are sorted with the full name, roll number and original index.
+ */
+public final class StudentSorter {
+    private static final int RADIX_BITS = 8;
+    private static final int RADIX = 1 << RADIX_BITS;
+    private static final int DIGIT_MASK = RADIX - 1;
+    // below this many rows the work is not worth splitting into tasks
+    private static final int PARALLEL_THRESHOLD = 1 << 16;
+    private static final int INSERTION_SORT_THRESHOLD = 16;
+
+    private final ForkJoinPool pool;
+
+    public StudentSorter() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    public StudentSorter(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    // sorts the list in place; same result as students.sort(new StudentComparator(null, 0, 0))
+    public void sort(List<StudentComparator> students) {
+        StudentComparator[] array = students.toArray(new StudentComparator[0]);
+        int[] order = sortedOrder(array);
+        ListIterator<StudentComparator> iterator = students.listIterator();
+        for (int index : order) {
+            iterator.next();
+            iterator.set(array[index]);
+        }
+    }
+
+    public void sort(StudentComparator[] students) {
+        int[] order = sortedOrder(students);
+        StudentComparator[] copy = students.clone();
+        for (int i = 0; i < order.length; i++) {
+            students[i] = copy[order[i]];
+        }
+    }
+
+    /**
+     * Returns the permutation that sorts students: the i-th student in sorted order is students[result[i]].
+     * The array itself is not modified.
+     */
+    public int[] sortedOrder(StudentComparator[] students) {
+        return new Job(students).run();
+    }
+
+    /**
+     * The 64-bit radix key of a student. Unsigned key order agrees with StudentComparator on marks and on
+     * the first two chars of the name; students with equal keys still need the full comparison.
+     */
+    static long sortKey(StudentComparator student) {
+        int bits = Float.floatToIntBits(student.getMarks());
+        // flip the magnitude bits of negative floats: signed int order is now Float.compare order
+        int ascending = bits ^ ((bits >> 31) & Integer.MAX_VALUE);
+        // reverse for descending marks, then flip the sign bit so unsigned order matches
+        int marks = ~ascending ^ Integer.MIN_VALUE;
+        String name = student.getName();
+        // a missing char counts as 0, which never sorts after a real char; full ties are resolved later
+        int prefix = name.isEmpty() ? 0 : name.charAt(0) << 16;
+        if (name.length() > 1) {
+            prefix |= name.charAt(1);
+        }
+        return ((long) marks << 32) | (prefix & 0xFFFF_FFFFL);
+    }
+
+    // state of one sort; the arrays swap roles after every radix pass
+    private final class Job {
+        private final StudentComparator[] students;
+        private final int n;
+        private final int chunks;
+        private long[] keys;
+        private long[] keyBuffer;
+        private int[] order;
+        private int[] orderBuffer;
+        private final int[][] counts;
+
+        Job(StudentComparator[] students) {
+            this.students = students;
+            this.n = students.length;
+            this.chunks = n < PARALLEL_THRESHOLD
+                    ? 1
+                    : Math.max(1, Math.min(pool.getParallelism() * 4, n / PARALLEL_THRESHOLD));
+            this.keys = new long[n];
+            this.keyBuffer = new long[n];
+            this.order = new int[n];
+            this.orderBuffer = new int[n];
+            this.counts = new int[chunks][RADIX];
+        }
+
+        int[] run() {
+            forEachChunk(chunk -> {
+                for (int i = chunkStart(chunk), end = chunkStart(chunk + 1); i < end; i++) {
+                    keys[i] = sortKey(students[i]);
+                    order[i] = i;
+                }
+            });
+            for (int shift = 0; shift < Long.SIZE; shift += RADIX_BITS) {
+                radixPass(shift);
+            }
+            // orderBuffer is free now and serves as merge scratch space
+            forEachChunk(this::sortTiesStartingIn);
+            return order;
+        }
+
+        private void radixPass(int shift) {
+            forEachChunk(chunk -> {
+                int[] count = counts[chunk];
+                Arrays.fill(count, 0);
+                for (int i = chunkStart(chunk), end = chunkStart(chunk + 1); i < end; i++) {
+                    count[(int) (keys[i] >>> shift) & DIGIT_MASK]++;
+                }
+            });
+            if (n == 0 || allSameDigit((int) (keys[0] >>> shift) & DIGIT_MASK)) {
+                return;
+            }
+            // digit-major, chunk-minor offsets: for equal digits earlier chunks write first, which keeps the sort stable
+            int offset = 0;
+            for (int digit = 0; digit < RADIX; digit++) {
+                for (int chunk = 0; chunk < chunks; chunk++) {
+                    int count = counts[chunk][digit];
+                    counts[chunk][digit] = offset;
+                    offset += count;
+                }
+            }
+            forEachChunk(chunk -> {
+                int[] next = counts[chunk];
+                for (int i = chunkStart(chunk), end = chunkStart(chunk + 1); i < end; i++) {
+                    long key = keys[i];
+                    int to = next[(int) (key >>> shift) & DIGIT_MASK]++;
+                    keyBuffer[to] = key;
+                    orderBuffer[to] = order[i];
+                }
+            });
+            long[] swapKeys = keys;
+            keys = keyBuffer;
+            keyBuffer = swapKeys;
+            int[] swapOrder = order;
+            order = orderBuffer;
+            orderBuffer = swapOrder;
+        }
+
+        private boolean allSameDigit(int digit) {
+            int total = 0;
+            for (int chunk = 0; chunk < chunks; chunk++) {
+                total += counts[chunk][digit];
+            }
+            return total == n;
+        }
+
+        // every run of equal keys is handled by the chunk it starts in, even if it runs past the chunk's end
+        private void sortTiesStartingIn(int chunk) {
+            int i = chunkStart(chunk);
+            int end = chunkStart(chunk + 1);
+            while (i < end && i > 0 && keys[i] == keys[i - 1]) {
+                i++;
+            }
+            while (i < end) {
+                int runEnd = i + 1;
+                while (runEnd < n && keys[runEnd] == keys[i]) {
+                    runEnd++;
+                }
+                if (runEnd - i > 1) {
+                    mergeSort(i, runEnd);
+                }
+                i = runEnd;
+            }
+        }
+
+        private void mergeSort(int from, int to) {
+            if (to - from <= INSERTION_SORT_THRESHOLD) {
+                for (int i = from + 1; i < to; i++) {
+                    int current = order[i];
+                    int j = i - 1;
+                    while (j >= from && compareTies(order[j], current) > 0) {
+                        order[j + 1] = order[j];
+                        j--;
+                    }
+                    order[j + 1] = current;
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            mergeSort(from, mid);
+            mergeSort(mid, to);
+            if (compareTies(order[mid - 1], order[mid]) <= 0) {
+                return;
+            }
+            System.arraycopy(order, from, orderBuffer, from, to - from);
+            int left = from;
+            int right = mid;
+            for (int i = from; i < to; i++) {
+                if (right >= to || (left < mid && compareTies(orderBuffer[left], orderBuffer[right]) <= 0)) {
+                    order[i] = orderBuffer[left++];
+                } else {
+                    order[i] = orderBuffer[right++];
+                }
+            }
+        }
+
+        // marks are known to be equal here
+        private int compareTies(int a, int b) {
+            int nameComparison = students[a].getName().compareTo(students[b].getName());
+            if (nameComparison != 0) {
+                return nameComparison;
+            }
+            int rollnoComparison = Integer.compare(students[a].getRollno(), students[b].getRollno());
+            if (rollnoComparison != 0) {
+                return rollnoComparison;
+            }
+            // equal students keep their input order, as with the stable List.sort
+            return Integer.compare(a, b);
+        }
+
+        private int chunkStart(int chunk) {
+            return (int) ((long) n * chunk / chunks);
+        }
+
+        private void forEachChunk(IntConsumer body) {
+            if (chunks == 1) {
+                body.accept(0);
+                return;
+            }
+            List<ChunkTask> tasks = new ArrayList<>(chunks);
+            for (int chunk = 0; chunk < chunks; chunk++) {
+                tasks.add(new ChunkTask(body, chunk));
+            }
+            pool.invoke(new RecursiveAction() {
+                @Override
+                protected void compute() {
+                    invokeAll(tasks);
+                }
+            });
+        }
+    }
+
+    private static final class ChunkTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        // a lambda, not serializable; tasks are never serialized anyway
+        private final transient IntConsumer body;
+        private final int chunk;
+
+        ChunkTask(IntConsumer body, int chunk) {
+            this.body = body;
+            this.chunk = chunk;
+        }
+
+        @Override
+        protected void compute() {
+            body.accept(chunk);
+        }
+    }
+}
@@ -0,0 +1,236 @@
+package Future;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.StructuredTaskScope;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Fan-out/fan-in over independent Callables, every task on its own virtual thread, with a deadline for the
+ * whole call. Calling future.get() on one Future after another waits for the sum of the slow ones, and
+ * without a timeout a hung task stalls the caller forever.
+ * <ul>
+ *     <li>all: every task must succeed; the first failure cancels the others.</li>
+ *     <li>first: the first task to succeed wins and the others are cancelled; fails only if all fail.</li>
+ *     <li>hedged: one task, started again after hedgeAfter (or right away after a failure) while no attempt
+ *     has succeeded, up to maxAttempts; the first success wins. Cuts tail latency when slow responses are
+ *     rare and independent, at the price of some extra requests.</li>
+ * </ul>
+ * Each comes in two flavours. The blocking ones use StructuredTaskScope (a preview API in Java 21, run with
+ * --enable-preview): the subtasks can not outlive the call, and the caller being interrupted cancels them.
+ * The *Async ones return a CompletableFuture for composing further; cancelling it, or its deadline passing,
+ * interrupts the tasks still running.
+ * <p>
+ * Cancelling means interrupting: tasks must react to interruption, as sleeping and blocking I/O on virtual
+ * threads do. When the deadline passes the blocking methods throw TimeoutException, and the async ones
+ * complete with it.
+ */
+public final class FanOut {
+    // virtual threads need no pool sizing and cost nothing while idle, so one executor serves every call
+    private static final ExecutorService VIRTUAL = Executors.newVirtualThreadPerTaskExecutor();
+
+    private FanOut() {
+    }
+
+    // ---- blocking, structured ----
+
+    // results in task order; ExecutionException holds the first failure
+    public static <T> List<T> all(Collection<? extends Callable<? extends T>> tasks, Duration timeout)
+            throws InterruptedException, ExecutionException, TimeoutException {
+        Instant deadline = Instant.now().plus(timeout);
+        try (var scope = new StructuredTaskScope.ShutdownOnFailure()) {
+            List<StructuredTaskScope.Subtask<? extends T>> subtasks = new ArrayList<>(tasks.size());
+            for (Callable<? extends T> task : tasks) {
+                subtasks.add(scope.fork(task));
+            }
+            // on timeout, leaving the try shuts the scope down, which interrupts the subtasks still running
+            scope.joinUntil(deadline);
+            scope.throwIfFailed();
+            List<T> results = new ArrayList<>(subtasks.size());
+            for (StructuredTaskScope.Subtask<? extends T> subtask : subtasks) {
+                results.add(subtask.get());
+            }
+            return results;
+        }
+    }
+
+    // ExecutionException if every task failed
+    public static <T> T first(Collection<? extends Callable<? extends T>> tasks, Duration timeout)
+            throws InterruptedException, ExecutionException, TimeoutException {
+        Instant deadline = Instant.now().plus(timeout);
+        try (var scope = new StructuredTaskScope.ShutdownOnSuccess<T>()) {
+            for (Callable<? extends T> task : tasks) {
+                scope.fork(task);
+            }
+            scope.joinUntil(deadline);
+            return scope.result();
+        }
+    }
+
+    public static <T> T hedged(Callable<? extends T> task, Duration hedgeAfter, int maxAttempts, Duration timeout)
+            throws InterruptedException, ExecutionException, TimeoutException {
+        checkAttempts(maxAttempts);
+        Instant deadline = Instant.now().plus(timeout);
+        try (var scope = new StructuredTaskScope.ShutdownOnSuccess<T>()) {
+            for (int attempt = 1; ; attempt++) {
+                scope.fork(task);
+                Instant hedgeAt = Instant.now().plus(hedgeAfter);
+                boolean last = attempt == maxAttempts || !hedgeAt.isBefore(deadline);
+                try {
+                    // returns when an attempt succeeded (the scope shuts down) or all attempts so far failed
+                    scope.joinUntil(last ? deadline : hedgeAt);
+                    if (scope.isShutdown() || last) {
+                        return scope.result();
+                    }
+                } catch (TimeoutException e) {
+                    if (last) {
+                        throw e;
+                    }
+                }
+            }
+        }
+    }
+
+    // ---- CompletableFuture ----
+
+    public static <T> CompletableFuture<List<T>> allAsync(Collection<? extends Callable<? extends T>> tasks,
+                                                          Duration timeout) {
+        CompletableFuture<List<T>> result = new CompletableFuture<>();
+        List<Future<?>> running = new ArrayList<>(tasks.size());
+        Object[] values = new Object[tasks.size()];
+        AtomicInteger remaining = new AtomicInteger(tasks.size());
+        int index = 0;
+        for (Callable<? extends T> task : tasks) {
+            int slot = index++;
+            running.add(VIRTUAL.submit(() -> {
+                try {
+                    values[slot] = task.call();
+                    if (remaining.decrementAndGet() == 0) {
+                        result.complete(toList(values));
+                    }
+                } catch (Throwable e) {
+                    result.completeExceptionally(e);
+                }
+            }));
+        }
+        if (tasks.isEmpty()) {
+            result.complete(List.of());
+        }
+        return withDeadline(result, running, timeout);
+    }
+
+    public static <T> CompletableFuture<T> firstAsync(Collection<? extends Callable<? extends T>> tasks,
+                                                      Duration timeout) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        List<Future<?>> running = new ArrayList<>(tasks.size());
+        Failures failures = new Failures(tasks.size());
+        for (Callable<? extends T> task : tasks) {
+            running.add(VIRTUAL.submit(() -> attempt(task, result, failures)));
+        }
+        if (tasks.isEmpty()) {
+            result.completeExceptionally(new IllegalArgumentException("No tasks"));
+        }
+        return withDeadline(result, running, timeout);
+    }
+
+    public static <T> CompletableFuture<T> hedgedAsync(Callable<? extends T> task, Duration hedgeAfter,
+                                                       int maxAttempts, Duration timeout) {
+        checkAttempts(maxAttempts);
+        CompletableFuture<T> result = new CompletableFuture<>();
+        // guarded by itself; attempts started after the result completed are cancelled right away
+        List<Future<?>> running = new ArrayList<>(maxAttempts);
+        Failures failures = new Failures(maxAttempts);
+        AtomicInteger started = new AtomicInteger();
+        Runnable[] launch = new Runnable[1];
+        launch[0] = () -> {
+            if (result.isDone() || started.incrementAndGet() > maxAttempts) {
+                return;
+            }
+            Future<?> attempt = VIRTUAL.submit(() -> {
+                if (!attempt(task, result, failures)) {
+                    // failed: hedge now instead of waiting for the timer
+                    launch[0].run();
+                }
+            });
+            synchronized (running) {
+                running.add(attempt);
+            }
+            if (result.isDone()) {
+                attempt.cancel(true);
+            }
+            CompletableFuture.delayedExecutor(hedgeAfter.toNanos(), TimeUnit.NANOSECONDS, VIRTUAL).execute(launch[0]);
+        };
+        launch[0].run();
+        result.whenComplete((value, failure) -> {
+            synchronized (running) {
+                running.forEach(future -> future.cancel(true));
+            }
+        });
+        return result.orTimeout(timeout.toNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    // ---- helpers ----
+
+    // runs one candidate for result; returns false if it failed
+    private static <T> boolean attempt(Callable<? extends T> task, CompletableFuture<T> result, Failures failures) {
+        try {
+            result.complete(task.call());
+            return true;
+        } catch (Throwable e) {
+            failures.add(e, result);
+            return false;
+        }
+    }
+
+    // fails result with the first failure (later ones suppressed) once `expected` candidates have failed
+    private static final class Failures {
+        private final int expected;
+        private final AtomicReference<Throwable> first = new AtomicReference<>();
+        private final AtomicInteger count = new AtomicInteger();
+
+        Failures(int expected) {
+            this.expected = expected;
+        }
+
+        void add(Throwable failure, CompletableFuture<?> result) {
+            // a task may throw the same instance every time; a Throwable can not suppress itself
+            if (!first.compareAndSet(null, failure) && first.get() != failure) {
+                first.get().addSuppressed(failure);
+            }
+            if (count.incrementAndGet() == expected) {
+                result.completeExceptionally(first.get());
+            }
+        }
+    }
+
+    // the deadline completes result with a TimeoutException; however result completes, running tasks are interrupted
+    private static <R> CompletableFuture<R> withDeadline(CompletableFuture<R> result, List<Future<?>> running,
+                                                         Duration timeout) {
+        result.whenComplete((value, failure) -> running.forEach(future -> future.cancel(true)));
+        return result.orTimeout(timeout.toNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> List<T> toList(Object[] values) {
+        return (List<T>) Arrays.asList(values);
+    }
+
+    private static void checkAttempts(int maxAttempts) {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("maxAttempts must be at least 1: " + maxAttempts);
+        }
+    }
+}
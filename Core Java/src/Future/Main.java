@@ -1,10 +1,13 @@
 package Future;
 
+import java.time.Duration;
+import java.util.List;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.TimeoutException;
 
 public class Main {
     public static void main(String[] args) {
@@ -35,5 +38,33 @@ public class Main {
         } finally {
             executor.shutdown();
         }
+
+        fanOut();
+    }
+
+    // the same kind of tasks through FanOut: all at once, with a deadline, and a hung task gets interrupted
+    private static void fanOut() {
+        Callable<Integer> fast = () -> {
+            Thread.sleep(100);
+            return 1;
+        };
+        Callable<Integer> hung = () -> {
+            try {
+                Thread.sleep(Long.MAX_VALUE);
+                return 2;
+            } catch (InterruptedException e) {
+                System.out.println("Hung task interrupted.");
+                throw e;
+            }
+        };
+        try {
+            System.out.println("All results: " + FanOut.all(List.of(fast, fast, fast), Duration.ofSeconds(1)));
+            System.out.println("First result: " + FanOut.first(List.of(fast, hung), Duration.ofSeconds(1)));
+            FanOut.all(List.of(fast, hung), Duration.ofMillis(500));
+        } catch (TimeoutException e) {
+            System.out.println("Deadline passed, remaining tasks cancelled.");
+        } catch (InterruptedException | ExecutionException e) {
+            System.out.println(e.getMessage());
+        }
     }
 }
\ No newline at end of file
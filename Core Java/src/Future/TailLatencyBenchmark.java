@@ -0,0 +1,181 @@
+package Future;
+
+import Benchmark.Harness;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Latency of one request that needs `calls` independent I/O-like calls, each a sleep with a heavy-tailed
+ * duration: 90% take 2-8 ms, the rest follow a Pareto distribution from 20 ms (alpha 1.2, capped at 2 s), so
+ * a call now and then takes hundreds of ms. Every attempt draws a fresh duration, as a retry to another
+ * replica would. Modes:
+ * <ul>
+ *     <li>serial: call after call in the requesting thread</li>
+ *     <li>submit+get: submit all calls to a fixed pool, then get() them in order, as Main does; no deadline</li>
+ *     <li>all: FanOut.all with the request deadline</li>
+ *     <li>all+hedged: FanOut.all over FanOut.hedged calls (backup after hedgeMillis, at most 3 attempts)</li>
+ *     <li>all+first2: FanOut.all over FanOut.first of two replicas of each call</li>
+ *     <li>allAsync: FanOut.allAsync with the request deadline</li>
+ *     <li>hedgedAsync: CompletableFuture.allOf over FanOut.hedgedAsync calls</li>
+ * </ul>
+ * `clients` virtual threads send the requests concurrently. For each mode it prints p50/p99/p99.9/max request
+ * latency, requests that hit the deadline, and attempts per call: the extra load hedging costs.
+ * Run with --enable-preview (StructuredTaskScope). Usage:
+ * java --enable-preview Future.TailLatencyBenchmark [requests=1000] [calls=5] [clients=16] [deadlineMillis=500] [hedgeMillis=15]
+ */
+public class TailLatencyBenchmark {
+    private static final double FAST_SHARE = 0.9;
+    private static final double PARETO_SCALE_MILLIS = 20;
+    private static final double PARETO_ALPHA = 1.2;
+    private static final double MAX_MILLIS = 2000;
+    private static final int HEDGE_ATTEMPTS = 3;
+
+    interface Mode {
+        void request(List<Callable<Integer>> calls) throws Exception;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int requests = Harness.intArg(args, 0, 1000);
+        int calls = Harness.intArg(args, 1, 5);
+        int clients = Harness.intArg(args, 2, 16);
+        Duration deadline = Duration.ofMillis(Harness.intArg(args, 3, 500));
+        Duration hedge = Duration.ofMillis(Harness.intArg(args, 4, 15));
+        System.out.printf("%d requests x %d calls from %d clients, deadline %d ms, hedge after %d ms, %d CPUs%n",
+                requests, calls, clients, deadline.toMillis(), hedge.toMillis(),
+                Runtime.getRuntime().availableProcessors());
+        System.out.printf("%-12s %9s %9s %9s %9s %9s %10s%n",
+                "mode", "p50 ms", "p99 ms", "p99.9 ms", "max ms", "timeouts", "tries/call");
+
+        ExecutorService pool = Executors.newFixedThreadPool(clients * calls);
+        try {
+            run("serial", requests, calls, clients, callList -> {
+                for (Callable<Integer> call : callList) {
+                    Harness.consume(call.call());
+                }
+            });
+            run("submit+get", requests, calls, clients, callList -> {
+                List<Future<Integer>> futures = new ArrayList<>(callList.size());
+                for (Callable<Integer> call : callList) {
+                    futures.add(pool.submit(call));
+                }
+                for (Future<Integer> future : futures) {
+                    Harness.consume(future.get());
+                }
+            });
+            run("all", requests, calls, clients,
+                    callList -> Harness.consume(FanOut.all(callList, deadline)));
+            run("all+hedged", requests, calls, clients, callList -> {
+                List<Callable<Integer>> hedged = new ArrayList<>(callList.size());
+                for (Callable<Integer> call : callList) {
+                    hedged.add(() -> FanOut.hedged(call, hedge, HEDGE_ATTEMPTS, deadline));
+                }
+                Harness.consume(FanOut.all(hedged, deadline));
+            });
+            run("all+first2", requests, calls, clients, callList -> {
+                List<Callable<Integer>> replicated = new ArrayList<>(callList.size());
+                for (Callable<Integer> call : callList) {
+                    replicated.add(() -> FanOut.first(List.of(call, call), deadline));
+                }
+                Harness.consume(FanOut.all(replicated, deadline));
+            });
+            run("allAsync", requests, calls, clients,
+                    callList -> Harness.consume(FanOut.allAsync(callList, deadline).get()));
+            run("hedgedAsync", requests, calls, clients, callList -> {
+                CompletableFuture<?>[] futures = new CompletableFuture<?>[callList.size()];
+                for (int i = 0; i < futures.length; i++) {
+                    futures[i] = FanOut.hedgedAsync(callList.get(i), hedge, HEDGE_ATTEMPTS, deadline);
+                }
+                try {
+                    CompletableFuture.allOf(futures).get();
+                } finally {
+                    // the first failure completes allOf early; the other calls are not needed any more
+                    for (CompletableFuture<?> future : futures) {
+                        future.cancel(true);
+                    }
+                }
+            });
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static void run(String name, int requests, int calls, int clients, Mode mode) throws InterruptedException {
+        long[] latencies = new long[requests];
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger timeouts = new AtomicInteger();
+        AtomicInteger failures = new AtomicInteger();
+        AtomicLong attempts = new AtomicLong();
+        List<Callable<Integer>> callList = new ArrayList<>(calls);
+        for (int i = 0; i < calls; i++) {
+            int id = i;
+            callList.add(() -> {
+                attempts.incrementAndGet();
+                Thread.sleep(Duration.ofNanos(sampleNanos()));
+                return id;
+            });
+        }
+
+        try (ExecutorService clientThreads = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < clients; c++) {
+                clientThreads.execute(() -> {
+                    for (int request; (request = next.getAndIncrement()) < requests; ) {
+                        long start = System.nanoTime();
+                        try {
+                            mode.request(callList);
+                        } catch (TimeoutException e) {
+                            timeouts.incrementAndGet();
+                        } catch (ExecutionException e) {
+                            if (e.getCause() instanceof TimeoutException) {
+                                timeouts.incrementAndGet();
+                            } else {
+                                failures.incrementAndGet();
+                            }
+                        } catch (Exception e) {
+                            failures.incrementAndGet();
+                        }
+                        latencies[request] = System.nanoTime() - start;
+                    }
+                });
+            }
+        }
+
+        Arrays.sort(latencies);
+        System.out.printf("%-12s %9.1f %9.1f %9.1f %9.1f %9d %10.2f%s%n", name,
+                percentile(latencies, 0.5), percentile(latencies, 0.99), percentile(latencies, 0.999),
+                latencies[requests - 1] / 1e6, timeouts.get(), (double) attempts.get() / ((long) requests * calls),
+                failures.get() == 0 ? "" : "  " + failures.get() + " failed");
+    }
+
+    // one call's duration: mostly fast, sometimes Pareto-slow
+    private static long sampleNanos() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        double millis;
+        if (random.nextDouble() < FAST_SHARE) {
+            millis = random.nextDouble(2, 8);
+        } else {
+            // inverse CDF of Pareto(scale, alpha); 1 - u keeps the argument in (0, 1]
+            millis = Math.min(MAX_MILLIS, PARETO_SCALE_MILLIS / Math.pow(1 - random.nextDouble(), 1 / PARETO_ALPHA));
+        }
+        return (long) (millis * TimeUnit.MILLISECONDS.toNanos(1));
+    }
+
+    // nearest-rank percentile of sorted nanos, in ms
+    private static double percentile(long[] sorted, double p) {
+        int index = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))] / 1e6;
+    }
+}
@@ -0,0 +1,184 @@
+package OOPs.Generics;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+/**
+ * Growable list of primitive doubles. Same shape as {@link CustomArrayList} but the values live
+ * directly in a double[] (no Double boxing) and the array grows by 1.5x instead of dropping adds.
+ */
+public class DoubleArrayList {
+    private static final int DEFAULT_CAPACITY = 10;
+    // some VMs reserve header words in an array
+    private static final int MAX_CAPACITY = Integer.MAX_VALUE - 8;
+
+    private double[] array;
+    private int index = 0;
+
+    public DoubleArrayList() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public DoubleArrayList(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Illegal capacity: " + capacity);
+        }
+        this.array = new double[capacity];
+    }
+
+    public DoubleArrayList(double[] values) {
+        this.array = Arrays.copyOf(values, Math.max(values.length, DEFAULT_CAPACITY));
+        this.index = values.length;
+    }
+
+    public void add(double element) {
+        if (index == array.length) {
+            grow(index + 1);
+        }
+        array[index++] = element;
+    }
+
+    public void addAll(double[] elements) {
+        addAll(elements, 0, elements.length);
+    }
+
+    public void addAll(double[] elements, int offset, int length) {
+        Objects.checkFromIndexSize(offset, length, elements.length);
+        ensureCapacity(index + length);
+        System.arraycopy(elements, offset, array, index, length);
+        index += length;
+    }
+
+    public void addAll(DoubleArrayList other) {
+        addAll(other.array, 0, other.index);
+    }
+
+    // removes and returns the last element, like CustomArrayList.remove()
+    public double remove() {
+        if (index == 0) {
+            throw new NoSuchElementException("List is empty");
+        }
+        return array[--index];
+    }
+
+    public double removeAt(int position) {
+        Objects.checkIndex(position, index);
+        double old = array[position];
+        System.arraycopy(array, position + 1, array, position, index - position - 1);
+        index--;
+        return old;
+    }
+
+    public double get(int position) {
+        Objects.checkIndex(position, index);
+        return array[position];
+    }
+
+    public double set(int position, double element) {
+        Objects.checkIndex(position, index);
+        double old = array[position];
+        array[position] = element;
+        return old;
+    }
+
+    public int size() {
+        return index;
+    }
+
+    public boolean isEmpty() {
+        return index == 0;
+    }
+
+    public void clear() {
+        index = 0;
+    }
+
+    public void ensureCapacity(int minCapacity) {
+        if (minCapacity > array.length) {
+            grow(minCapacity);
+        }
+    }
+
+    public void trimToSize() {
+        if (index < array.length) {
+            array = Arrays.copyOf(array, index);
+        }
+    }
+
+    public void sort() {
+        Arrays.sort(array, 0, index);
+    }
+
+    public void parallelSort() {
+        Arrays.parallelSort(array, 0, index);
+    }
+
+    /**
+     * Same contract as {@link Arrays#binarySearch(double[], double)}: the list must be sorted,
+     * returns the index of the key or (-(insertion point) - 1).
+     */
+    public int binarySearch(double key) {
+        return Arrays.binarySearch(array, 0, index, key);
+    }
+
+    public int indexOf(double element) {
+        for (int i = 0; i < index; i++) {
+            if (Double.compare(array[i], element) == 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public boolean contains(double element) {
+        return indexOf(element) >= 0;
+    }
+
+    public double sum() {
+        double total = 0;
+        for (int i = 0; i < index; i++) {
+            total += array[i];
+        }
+        return total;
+    }
+
+    public double[] toArray() {
+        return Arrays.copyOf(array, index);
+    }
+
+    public void display() {
+        for (int i = 0; i < index; i++) {
+            System.out.print(array[i] + " ");
+        }
+        System.out.println();
+    }
+
+    private void grow(int minCapacity) {
+        if (minCapacity < 0 || minCapacity > MAX_CAPACITY) {
+            throw new OutOfMemoryError("Required capacity " + Integer.toUnsignedString(minCapacity) + " is too large");
+        }
+        int oldCapacity = array.length;
+        // 1.5x growth keeps add() amortized O(1), same factor as java.util.ArrayList
+        int newCapacity = oldCapacity + (oldCapacity >> 1);
+        if (newCapacity - minCapacity < 0) {
+            newCapacity = Math.max(minCapacity, DEFAULT_CAPACITY);
+        }
+        if (newCapacity - MAX_CAPACITY > 0) {
+            newCapacity = MAX_CAPACITY;
+        }
+        array = Arrays.copyOf(array, newCapacity);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < index; i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append(array[i]);
+        }
+        return sb.append(']').toString();
+    }
+}
@@ -0,0 +1,118 @@
+package OOPs.Generics;
+
+import Benchmark.Harness;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.SplittableRandom;
+
+/**
+ * IntArrayList vs ArrayList<Integer>: append, full scan, sort + binary search, and retained heap.
+ * Usage: java OOPs.Generics.PrimitiveListBenchmark [size ...]   (default 1M and 10M)
+ * 100M boxed Integers needs roughly 4 GB of heap, e.g. -Xmx6g.
+ */
+public class PrimitiveListBenchmark {
+    public static void main(String[] args) {
+        int[] sizes = args.length == 0 ? new int[]{1_000_000, 10_000_000} : new int[args.length];
+        for (int i = 0; i < args.length; i++) {
+            sizes[i] = Integer.parseInt(args[i]);
+        }
+
+        for (int size : sizes) {
+            System.out.println("---- " + size + " elements ----");
+            int[] data = new SplittableRandom(42).ints(size).toArray();
+            int iterations = size >= 50_000_000 ? 3 : 5;
+
+            Harness.run("IntArrayList add", 3, iterations, () -> {
+                IntArrayList list = new IntArrayList();
+                for (int v : data) {
+                    list.add(v);
+                }
+                Harness.consume(list.size());
+            });
+            Harness.run("ArrayList<Integer> add", 3, iterations, () -> {
+                ArrayList<Integer> list = new ArrayList<>();
+                for (int v : data) {
+                    list.add(v);
+                }
+                Harness.consume(list.size());
+            });
+            Harness.run("IntArrayList addAll(int[])", 3, iterations, () -> {
+                IntArrayList list = new IntArrayList();
+                list.addAll(data);
+                Harness.consume(list.size());
+            });
+
+            IntArrayList primitive = new IntArrayList(data);
+            ArrayList<Integer> boxed = new ArrayList<>(size);
+            for (int v : data) {
+                boxed.add(v);
+            }
+
+            Harness.run("IntArrayList scan", 3, iterations, () -> {
+                long sum = 0;
+                for (int i = 0; i < primitive.size(); i++) {
+                    sum += primitive.get(i);
+                }
+                Harness.consume(sum);
+            });
+            Harness.run("ArrayList<Integer> scan", 3, iterations, () -> {
+                long sum = 0;
+                for (int i = 0; i < boxed.size(); i++) {
+                    sum += boxed.get(i);
+                }
+                Harness.consume(sum);
+            });
+
+            Harness.run("IntArrayList sort", 1, iterations, () -> {
+                IntArrayList copy = new IntArrayList(data);
+                copy.sort();
+                Harness.consume(copy.get(0));
+            });
+            Harness.run("ArrayList<Integer> sort", 1, iterations, () -> {
+                ArrayList<Integer> copy = new ArrayList<>(boxed);
+                Collections.sort(copy);
+                Harness.consume(copy.get(0));
+            });
+
+            primitive.sort();
+            Collections.sort(boxed);
+            int[] probes = new SplittableRandom(7).ints(1_000_000).toArray();
+            Harness.run("IntArrayList binarySearch x1M", 3, iterations, () -> {
+                long found = 0;
+                for (int p : probes) {
+                    found += primitive.binarySearch(p);
+                }
+                Harness.consume(found);
+            });
+            Harness.run("Collections.binarySearch x1M", 3, iterations, () -> {
+                long found = 0;
+                for (int p : probes) {
+                    found += Collections.binarySearch(boxed, p);
+                }
+                Harness.consume(found);
+            });
+
+            printFootprint(size, data);
+        }
+    }
+
+    private static void printFootprint(int size, int[] data) {
+        long before = Harness.usedHeap();
+        IntArrayList primitive = new IntArrayList();
+        primitive.addAll(data);
+        long afterPrimitive = Harness.usedHeap();
+        Harness.printFootprint("IntArrayList heap", afterPrimitive - before, size);
+        Harness.consume(primitive);
+        primitive = null;
+
+        before = Harness.usedHeap();
+        ArrayList<Integer> boxed = new ArrayList<>();
+        for (int v : data) {
+            boxed.add(v);
+        }
+        long afterBoxed = Harness.usedHeap();
+        Harness.printFootprint("ArrayList<Integer> heap", afterBoxed - before, size);
+        Harness.consume(boxed);
+    }
+}
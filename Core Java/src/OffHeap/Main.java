@@ -0,0 +1,26 @@
+package OffHeap;
+
+public class Main {
+    public static void main(String[] args) {
+        try (StudentColumnStore store = new StudentColumnStore()) {
+            store.append(101, "Prasu", 21, 93.5);
+            store.append(102, "Preet", 22, 90.0);
+            store.append(103, "Rudra", 20, 78.0);
+            store.append(104, "Prasu", 23, 88.0);
+
+            // random access
+            System.out.println("Row 1: " + store.getId(1) + " " + store.getName(1) + " " + store.getAge(1) + " " + store.getMarks(1));
+
+            // sequential scan, names compared by dictionary code instead of String.equals
+            int prasu = store.codeOf("Prasu");
+            store.scan((row, id, nameCode, age, marks) -> {
+                if (nameCode == prasu) {
+                    System.out.println("Prasu row " + row + ": id=" + id + " marks=" + marks);
+                }
+            });
+
+            System.out.println("Average marks: " + store.sumMarks() / store.size());
+            System.out.println("Distinct names: " + store.dictionarySize());
+        } // off-heap memory is released here
+    }
+}
@@ -0,0 +1,178 @@
+package OffHeap;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Off-heap, column-oriented store for rows shaped like Model.MVC_Student (id, name, age, marks).
+ * <p>
+ * Every fixed-width column lives in native memory, split into chunks of {@link #CHUNK_ROWS} rows so
+ * appending never copies existing data. Names are dictionary-encoded: the column stores an int code,
+ * the distinct Strings are kept once on the heap. The GC only ever sees the chunk tables and the dictionary,
+ * no matter how many rows are stored.
+ * <p>
+ * One thread may append at a time; any number of threads may read rows that were appended before they
+ * started. Call {@link #close()} to free the native memory.
+ */
+public class StudentColumnStore implements AutoCloseable {
+    public static final int CHUNK_SHIFT = 16;
+    public static final int CHUNK_ROWS = 1 << CHUNK_SHIFT;
+    private static final int CHUNK_MASK = CHUNK_ROWS - 1;
+
+    /**
+     * Receives one row per call during {@link #scan(RowVisitor)}; everything is primitive so a scan does not allocate.
+     */
+    @FunctionalInterface
+    public interface RowVisitor {
+        void visit(int row, int id, int nameCode, int age, double marks);
+    }
+
+    private final Arena arena = Arena.ofShared();
+
+    private MemorySegment[] ids = new MemorySegment[4];
+    private MemorySegment[] nameCodes = new MemorySegment[4];
+    private MemorySegment[] ages = new MemorySegment[4];
+    private MemorySegment[] marks = new MemorySegment[4];
+    private int chunks = 0;
+    private int rows = 0;
+
+    private final Map<String, Integer> dictionary = new HashMap<>();
+    private final List<String> names = new ArrayList<>();
+
+    public int append(int id, String name, int age, double mark) {
+        Objects.requireNonNull(name, "name");
+        if (rows == Integer.MAX_VALUE) {
+            throw new IllegalStateException("Store is full");
+        }
+        int row = rows;
+        int offset = row & CHUNK_MASK;
+        if (offset == 0) {
+            addChunk();
+        }
+        int chunk = row >>> CHUNK_SHIFT;
+        ids[chunk].setAtIndex(ValueLayout.JAVA_INT, offset, id);
+        nameCodes[chunk].setAtIndex(ValueLayout.JAVA_INT, offset, encode(name));
+        ages[chunk].setAtIndex(ValueLayout.JAVA_INT, offset, age);
+        marks[chunk].setAtIndex(ValueLayout.JAVA_DOUBLE, offset, mark);
+        rows = row + 1;
+        return row;
+    }
+
+    public int getId(int row) {
+        Objects.checkIndex(row, rows);
+        return ids[row >>> CHUNK_SHIFT].getAtIndex(ValueLayout.JAVA_INT, row & CHUNK_MASK);
+    }
+
+    public int getNameCode(int row) {
+        Objects.checkIndex(row, rows);
+        return nameCodes[row >>> CHUNK_SHIFT].getAtIndex(ValueLayout.JAVA_INT, row & CHUNK_MASK);
+    }
+
+    public String getName(int row) {
+        return names.get(getNameCode(row));
+    }
+
+    public int getAge(int row) {
+        Objects.checkIndex(row, rows);
+        return ages[row >>> CHUNK_SHIFT].getAtIndex(ValueLayout.JAVA_INT, row & CHUNK_MASK);
+    }
+
+    public double getMarks(int row) {
+        Objects.checkIndex(row, rows);
+        return marks[row >>> CHUNK_SHIFT].getAtIndex(ValueLayout.JAVA_DOUBLE, row & CHUNK_MASK);
+    }
+
+    // -1 when the name was never stored, so callers can filter by code instead of comparing Strings
+    public int codeOf(String name) {
+        Integer code = dictionary.get(name);
+        return code == null ? -1 : code;
+    }
+
+    public String nameOf(int code) {
+        return names.get(code);
+    }
+
+    public void scan(RowVisitor visitor) {
+        int remaining = rows;
+        for (int c = 0; remaining > 0; c++) {
+            int n = Math.min(remaining, CHUNK_ROWS);
+            MemorySegment idChunk = ids[c];
+            MemorySegment nameChunk = nameCodes[c];
+            MemorySegment ageChunk = ages[c];
+            MemorySegment marksChunk = marks[c];
+            int base = c << CHUNK_SHIFT;
+            for (int i = 0; i < n; i++) {
+                visitor.visit(base + i,
+                        idChunk.getAtIndex(ValueLayout.JAVA_INT, i),
+                        nameChunk.getAtIndex(ValueLayout.JAVA_INT, i),
+                        ageChunk.getAtIndex(ValueLayout.JAVA_INT, i),
+                        marksChunk.getAtIndex(ValueLayout.JAVA_DOUBLE, i));
+            }
+            remaining -= n;
+        }
+    }
+
+    // Column-only scan: touches just the marks chunks, which is where the columnar layout pays off.
+    public double sumMarks() {
+        double sum = 0;
+        int remaining = rows;
+        for (int c = 0; remaining > 0; c++) {
+            int n = Math.min(remaining, CHUNK_ROWS);
+            MemorySegment chunk = marks[c];
+            for (int i = 0; i < n; i++) {
+                sum += chunk.getAtIndex(ValueLayout.JAVA_DOUBLE, i);
+            }
+            remaining -= n;
+        }
+        return sum;
+    }
+
+    public int size() {
+        return rows;
+    }
+
+    public int dictionarySize() {
+        return names.size();
+    }
+
+    public long offHeapBytes() {
+        return (long) chunks * CHUNK_ROWS * (3 * Integer.BYTES + Double.BYTES);
+    }
+
+    @Override
+    public void close() {
+        arena.close();
+    }
+
+    private int encode(String name) {
+        Integer code = dictionary.get(name);
+        if (code == null) {
+            code = names.size();
+            names.add(name);
+            dictionary.put(name, code);
+        }
+        return code;
+    }
+
+    private void addChunk() {
+        if (chunks == ids.length) {
+            int newLength = chunks * 2;
+            ids = Arrays.copyOf(ids, newLength);
+            nameCodes = Arrays.copyOf(nameCodes, newLength);
+            ages = Arrays.copyOf(ages, newLength);
+            marks = Arrays.copyOf(marks, newLength);
+        }
+        ids[chunks] = arena.allocate((long) CHUNK_ROWS * Integer.BYTES, Integer.BYTES);
+        nameCodes[chunks] = arena.allocate((long) CHUNK_ROWS * Integer.BYTES, Integer.BYTES);
+        ages[chunks] = arena.allocate((long) CHUNK_ROWS * Integer.BYTES, Integer.BYTES);
+        marks[chunks] = arena.allocate((long) CHUNK_ROWS * Double.BYTES, Double.BYTES);
+        chunks++;
+    }
+}
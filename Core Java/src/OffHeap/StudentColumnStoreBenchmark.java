@@ -0,0 +1,132 @@
+package OffHeap;
+
+import Benchmark.Harness;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * StudentColumnStore vs List of heap student objects: bytes per row and full-scan time.
+ * Usage: java OffHeap.StudentColumnStoreBenchmark [rows]   (default 5M)
+ */
+public class StudentColumnStoreBenchmark {
+
+    // Same shape as Model.MVC_Student in the Servlet-JSP module, which this module can not depend on.
+    static class HeapStudent {
+        private final int id;
+        private final String name;
+        private final int age;
+        private final double marks;
+
+        HeapStudent(int id, String name, int age, double marks) {
+            this.id = id;
+            this.name = name;
+            this.age = age;
+            this.marks = marks;
+        }
+    }
+
+    private static final String[] FIRST_NAMES = {"Prasu", "Preet", "Rudra", "Alice", "Bob", "Charlie", "David", "Eve"};
+
+    public static void main(String[] args) {
+        int rows = Harness.intArg(args, 0, 5_000_000);
+        System.out.println("---- " + rows + " rows ----");
+
+        long before = Harness.usedHeap();
+        List<HeapStudent> list = new ArrayList<>();
+        fill(rows, (id, name, age, marks) -> list.add(new HeapStudent(id, name, age, marks)));
+        long heapList = Harness.usedHeap() - before;
+        Harness.printFootprint("List<Student> heap", heapList, rows);
+
+        before = Harness.usedHeap();
+        try (StudentColumnStore store = new StudentColumnStore()) {
+            fill(rows, store::append);
+            long heapStore = Harness.usedHeap() - before;
+            Harness.printFootprint("ColumnStore heap", heapStore, rows);
+            Harness.printFootprint("ColumnStore heap + off-heap", heapStore + store.offHeapBytes(), rows);
+
+            Harness.run("List<Student> sum(marks)", 5, 10, () -> {
+                double sum = 0;
+                for (HeapStudent s : list) {
+                    sum += s.marks;
+                }
+                Harness.consume(sum);
+            });
+            Harness.run("ColumnStore sumMarks()", 5, 10, () -> Harness.consume(store.sumMarks()));
+
+            // a name fill() produces: a first name and i % 1000
+            String target = "Alice7";
+            long[] listMatches = new long[1];
+            Harness.run("List<Student> filter name+age, avg marks", 5, 10, () -> {
+                double sum = 0;
+                long count = 0;
+                long matches = 0;
+                for (HeapStudent s : list) {
+                    if (s.age > 20 && s.name.equals(target)) {
+                        sum += s.marks;
+                        count += s.id & 1;
+                        matches++;
+                    }
+                }
+                listMatches[0] = matches;
+                Harness.consume(sum + count);
+            });
+            int targetCode = store.codeOf(target);
+            double[] acc = new double[3];
+            Harness.run("ColumnStore scan name+age, avg marks", 5, 10, () -> {
+                acc[0] = 0;
+                acc[1] = 0;
+                acc[2] = 0;
+                store.scan((row, id, nameCode, age, marks) -> {
+                    if (age > 20 && nameCode == targetCode) {
+                        acc[0] += marks;
+                        acc[1] += id & 1;
+                        acc[2]++;
+                    }
+                });
+                Harness.consume(acc[0] + acc[1]);
+            });
+            check(listMatches[0], (long) acc[2]);
+
+            SplittableRandom random = new SplittableRandom(3);
+            int[] probes = random.ints(1_000_000, 0, rows).toArray();
+            Harness.run("List<Student> random get x1M", 3, 10, () -> {
+                long sum = 0;
+                for (int p : probes) {
+                    sum += list.get(p).age;
+                }
+                Harness.consume(sum);
+            });
+            Harness.run("ColumnStore random getAge x1M", 3, 10, () -> {
+                long sum = 0;
+                for (int p : probes) {
+                    sum += store.getAge(p);
+                }
+                Harness.consume(sum);
+            });
+        }
+        Harness.consume(list);
+    }
+
+    // both filters must have found the same rows, and some: a target that is not in the data measures nothing
+    private static void check(long expected, long actual) {
+        if (expected == 0 || actual != expected) {
+            throw new IllegalStateException(actual + " matches, expected " + expected + " (and more than 0)");
+        }
+    }
+
+    @FunctionalInterface
+    interface RowSink {
+        void accept(int id, String name, int age, double marks);
+    }
+
+    private static void fill(int rows, RowSink sink) {
+        SplittableRandom random = new SplittableRandom(42);
+        for (int i = 0; i < rows; i++) {
+            // new String per row, like rows materialized from a JDBC ResultSet
+            String name = new String(FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + (i % 1000));
+            sink.accept(i, name, 17 + random.nextInt(10), random.nextInt(10_000) / 100.0);
+        }
+    }
+}
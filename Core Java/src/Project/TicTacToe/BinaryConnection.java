@@ -0,0 +1,86 @@
+package Project.TicTacToe;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+
+/**
+ * Moves as fixed 8-byte MoveFrames over a blocking SocketChannel. Both directions have their own
+ * direct buffer, allocated once, and their own lock, so one thread can wait for the opponent's move
+ * while another sends. Reads fill the receive buffer with as many frames as have arrived; the next
+ * receiveMove() takes them from there without a system call.
+ */
+final class BinaryConnection implements Connection {
+    private static final int RECEIVE_BUFFER = 64 * MoveFrame.SIZE;
+
+    private final SocketChannel channel;
+    private final Object sendLock = new Object();
+    private final Object receiveLock = new Object();
+    private final ByteBuffer sendBuffer = ByteBuffer.allocateDirect(MoveFrame.SIZE);
+    // in read mode between calls: position to limit are received bytes not taken yet
+    private final ByteBuffer receiveBuffer = ByteBuffer.allocateDirect(RECEIVE_BUFFER).limit(0);
+    private int sent;
+    private int received;
+
+    BinaryConnection(SocketChannel channel) throws IOException {
+        if (!channel.isBlocking()) {
+            throw new IllegalArgumentException("channel must be in blocking mode");
+        }
+        this.channel = channel;
+    }
+
+    @Override
+    public void sendMove(Move move) throws IOException {
+        synchronized (sendLock) {
+            MoveFrame.put(sendBuffer, 0, MoveFrame.MOVE, sent, move.x, move.y, move.symbol);
+            sendBuffer.clear();
+            while (sendBuffer.hasRemaining()) {
+                channel.write(sendBuffer);
+            }
+            sent++;
+        }
+    }
+
+    @Override
+    public Move receiveMove() throws IOException {
+        synchronized (receiveLock) {
+            fill();
+            int frame = receiveBuffer.position();
+            MoveFrame.check(receiveBuffer, frame, MoveFrame.MOVE, received);
+            Move move = new Move(MoveFrame.x(receiveBuffer, frame), MoveFrame.y(receiveBuffer, frame),
+                    MoveFrame.symbol(receiveBuffer, frame));
+            receiveBuffer.position(frame + MoveFrame.SIZE);
+            received++;
+            return move;
+        }
+    }
+
+    // reads until a whole frame is buffered
+    private void fill() throws IOException {
+        if (receiveBuffer.remaining() >= MoveFrame.SIZE) {
+            return;
+        }
+        receiveBuffer.compact();
+        try {
+            while (receiveBuffer.position() < MoveFrame.SIZE) {
+                if (channel.read(receiveBuffer) < 0) {
+                    throw new EOFException(receiveBuffer.position() == 0
+                            ? "connection closed by the opponent"
+                            : "connection closed in the middle of a move");
+                }
+                // fail now rather than wait for the rest of a frame that a foreign peer will not send
+                if (receiveBuffer.position() > 0) {
+                    MoveFrame.checkVersion(receiveBuffer.get(0));
+                }
+            }
+        } finally {
+            receiveBuffer.flip();
+        }
+    }
+
+    @Override
+    public void close() {
+        try { channel.close(); } catch (IOException ignored) {}
+    }
+}
@@ -1,39 +1,33 @@
 package Project.TicTacToe;
 
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
 import java.io.IOException;
-import java.net.Socket;
+import java.nio.channels.SocketChannel;
 
-public class Connection {
-    private Socket socket;
-    private ObjectOutputStream out;
-    private ObjectInputStream in;
+/**
+ * Sends and receives the moves of one game. Both players must use the same Protocol: a binary peer
+ * rejects an object stream with a StreamCorruptedException.
+ */
+public interface Connection extends AutoCloseable {
 
-    public Connection(Socket socket) throws IOException {
-        this.socket = socket;
-        // IMPORTANT: create ObjectOutputStream first and flush to avoid deadlock
-        this.out = new ObjectOutputStream(socket.getOutputStream());
-        this.out.flush();
-        this.in = new ObjectInputStream(socket.getInputStream());
+    enum Protocol {
+        // 8-byte frames over the channel, see MoveFrame
+        BINARY,
+        // serialized Move objects over the channel's socket streams, the original protocol
+        OBJECT_STREAM
     }
 
-    public synchronized void sendMove(Move m) throws IOException {
-        out.writeObject(m);
-        out.flush();
+    static Connection open(SocketChannel channel, Protocol protocol) throws IOException {
+        return switch (protocol) {
+            case BINARY -> new BinaryConnection(channel);
+            case OBJECT_STREAM -> new ObjectStreamConnection(channel.socket());
+        };
     }
 
-    public synchronized Move receiveMove() throws IOException, ClassNotFoundException {
-        Object obj = in.readObject();
-        if (obj instanceof Move) {
-            return (Move) obj;
-        }
-        return null;
-    }
+    void sendMove(Move m) throws IOException;
 
-    public void close() {
-        try { if (out != null) out.close(); } catch (IOException ignored) {}
-        try { if (in != null) in.close(); } catch (IOException ignored) {}
-        try { if (socket != null) socket.close(); } catch (IOException ignored) {}
-    }
+    // blocks until the opponent's next move; null if the peer sent something that is not a Move
+    Move receiveMove() throws IOException;
+
+    @Override
+    void close();
 }
@@ -0,0 +1,138 @@
+package Project.TicTacToe;
+
+import Benchmark.Harness;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Both Connection protocols over loopback TCP, with TCP_NODELAY as NetworkManager sets it:
+ * <ul>
+ *     <li>bytes on the wire per move;</li>
+ *     <li>round trip: send a move, wait for the peer to send it back, `roundTrips` times after as many
+ *     for warm-up; p50 / p99 / p99.9 / max;</li>
+ *     <li>throughput: one thread sends `moves` moves as fast as it can, the peer receives them.</li>
+ * </ul>
+ * Each protocol gets a fresh connection per phase, so the object streams start with empty handle tables.
+ * <p>
+ * Usage: java Project.TicTacToe.ConnectionBenchmark [roundTrips=100000] [moves=1000000]
+ */
+public class ConnectionBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int roundTrips = Harness.intArg(args, 0, 100_000);
+        int moves = Harness.intArg(args, 1, 1_000_000);
+        System.out.printf("%d round trips, %d moves, %d CPUs%n", roundTrips, moves, Runtime.getRuntime().availableProcessors());
+        wireSize();
+        for (Connection.Protocol protocol : Connection.Protocol.values()) {
+            roundTrip(protocol, roundTrips);
+            throughput(protocol, moves);
+        }
+    }
+
+    private static void wireSize() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ObjectOutputStream out = new ObjectOutputStream(bytes);
+        out.flush();
+        int header = bytes.size();
+        out.writeObject(new Move(1, 1, 'X'));
+        out.flush();
+        int first = bytes.size() - header;
+        out.writeObject(new Move(0, 2, 'O'));
+        out.flush();
+        int next = bytes.size() - header - first;
+        System.out.printf("%-13s %d bytes per move%n", Connection.Protocol.BINARY, MoveFrame.SIZE);
+        System.out.printf("%-13s %d bytes per move, %d for the first (class descriptor), %d of stream header%n",
+                Connection.Protocol.OBJECT_STREAM, next, first, header);
+    }
+
+    private static void roundTrip(Connection.Protocol protocol, int roundTrips) throws Exception {
+        Connection[] ends = connect(protocol);
+        try (Connection client = ends[0]; Connection server = ends[1]) {
+            CompletableFuture<Void> echo = CompletableFuture.runAsync(() -> {
+                try {
+                    for (int i = 0; i < 2 * roundTrips; i++) {
+                        server.sendMove(server.receiveMove());
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            long[] nanos = new long[roundTrips];
+            for (int round = 0; round < 2; round++) {
+                for (int i = 0; i < roundTrips; i++) {
+                    long begin = System.nanoTime();
+                    client.sendMove(new Move(i % 3, i / 3 % 3, (i & 1) == 0 ? 'X' : 'O'));
+                    Move back = client.receiveMove();
+                    nanos[i] = System.nanoTime() - begin;
+                    Harness.consume(back);
+                }
+            }
+            echo.join();
+            Arrays.sort(nanos);
+            System.out.printf("%-13s round trip p50 %6.1f us, p99 %6.1f us, p99.9 %7.1f us, max %8.1f us; %7.0f round trips/s%n",
+                    protocol, percentile(nanos, 0.5), percentile(nanos, 0.99), percentile(nanos, 0.999),
+                    nanos[roundTrips - 1] / 1e3, roundTrips * 1e9 / Arrays.stream(nanos).sum());
+        }
+    }
+
+    private static void throughput(Connection.Protocol protocol, int moves) throws Exception {
+        Connection[] ends = connect(protocol);
+        try (Connection sender = ends[0]; Connection receiver = ends[1]) {
+            long begin = System.nanoTime();
+            CompletableFuture<Long> received = CompletableFuture.supplyAsync(() -> {
+                long sum = 0;
+                try {
+                    for (int i = 0; i < moves; i++) {
+                        sum += receiver.receiveMove().x;
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                return sum;
+            });
+            for (int i = 0; i < moves; i++) {
+                sender.sendMove(new Move(i % 3, i / 3 % 3, 'X'));
+            }
+            Harness.consume(received.join());
+            long elapsed = System.nanoTime() - begin;
+            System.out.printf("%-13s throughput %10.0f moves/s one way%n", protocol, moves * 1e9 / elapsed);
+        }
+    }
+
+    // { client, server } over a fresh loopback connection
+    private static Connection[] connect(Connection.Protocol protocol) throws Exception {
+        try (ServerSocketChannel listener = ServerSocketChannel.open()) {
+            listener.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+            SocketChannel client = SocketChannel.open(listener.getLocalAddress());
+            SocketChannel server = listener.accept();
+            client.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            server.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            // an object stream connection waits for the peer's stream header, so the ends open concurrently
+            CompletableFuture<Connection> serverEnd = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return Connection.open(server, protocol);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            Connection clientEnd = Connection.open(client, protocol);
+            return new Connection[]{clientEnd, serverEnd.join()};
+        }
+    }
+
+    // nearest-rank percentile of sorted nanos, in us
+    private static double percentile(long[] sorted, double p) {
+        int index = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))] / 1e3;
+    }
+}
@@ -0,0 +1,278 @@
+package Project.TicTacToe;
+
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+
+/**
+ * One thread and one Selector serving a share of a GameServer's sessions; every session lives on exactly
+ * one loop, so its state needs no locks. The first loop also accepts connections and pairs them in arrival
+ * order, handing each new session to the loops in turn.
+ * <p>
+ * All players of a loop read into one direct buffer and send through another, so per move there are two
+ * system calls (read the mover's frame, write it to the opponent) and no allocation. A player whose socket
+ * does not take a frame gets a small queue of its own and write interest until it has drained; one that
+ * lets PENDING_FRAMES pile up is disconnected.
+ */
+final class EventLoop implements Runnable {
+    private static final int READ_BUFFER = 64 * 1024;
+    private static final int PENDING_FRAMES = 64;
+
+    final GameServer server;
+    final Thread thread;
+    private final Selector selector;
+    private final Queue<GameSession> newSessions = new ConcurrentLinkedQueue<>();
+    private final ByteBuffer readBuffer = ByteBuffer.allocateDirect(READ_BUFFER);
+    private final ByteBuffer writeBuffer = ByteBuffer.allocateDirect(MoveFrame.SIZE);
+    private final Consumer<SelectionKey> handler = this::handle;
+    private volatile boolean running = true;
+
+    // first loop only: the listening channel and a client still waiting for an opponent
+    private ServerSocketChannel acceptor;
+    private SocketChannel waiting;
+
+    EventLoop(GameServer server, String name) throws IOException {
+        this.server = server;
+        this.selector = Selector.open();
+        this.thread = new Thread(this, name);
+    }
+
+    // before start()
+    void accept(ServerSocketChannel channel) throws IOException {
+        acceptor = channel;
+        channel.register(selector, SelectionKey.OP_ACCEPT);
+    }
+
+    void start() {
+        thread.start();
+    }
+
+    // from the accepting loop; the session's channels are registered on this loop's thread
+    void register(GameSession session) {
+        newSessions.add(session);
+        selector.wakeup();
+    }
+
+    void shutdown() {
+        running = false;
+        selector.wakeup();
+    }
+
+    @Override
+    public void run() {
+        try {
+            while (running) {
+                selector.select(handler);
+                GameSession session;
+                while ((session = newSessions.poll()) != null) {
+                    open(session);
+                }
+            }
+        } catch (IOException e) {
+            System.err.println(thread.getName() + " stopped: " + e);
+        } finally {
+            for (SelectionKey key : selector.keys()) {
+                closeQuietly(key.channel());
+            }
+            closeQuietly(waiting);
+            GameSession session;
+            while ((session = newSessions.poll()) != null) {
+                closeQuietly(session.first.channel);
+                closeQuietly(session.second.channel);
+            }
+            closeQuietly(selector);
+        }
+    }
+
+    private void handle(SelectionKey key) {
+        if (!key.isValid()) {
+            // the other player's event closed the session earlier in this round
+            return;
+        }
+        if (key.isAcceptable()) {
+            accept();
+            return;
+        }
+        GameSession.Player player = (GameSession.Player) key.attachment();
+        try {
+            if (key.isWritable()) {
+                flush(player);
+            }
+            if (key.isValid() && key.isReadable()) {
+                read(player);
+            }
+        } catch (RuntimeException e) {
+            // one broken session must not end the loop and every other session on it
+            System.err.println(thread.getName() + ": closing a session after " + e);
+            drop(player);
+        }
+    }
+
+    private void accept() {
+        try {
+            SocketChannel channel;
+            while ((channel = acceptor.accept()) != null) {
+                channel.configureBlocking(false);
+                channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                if (waiting == null || !stillWaiting(waiting)) {
+                    waiting = channel;
+                } else {
+                    EventLoop loop = server.nextLoop();
+                    loop.register(new GameSession(loop, waiting, channel));
+                    waiting = null;
+                }
+            }
+        } catch (IOException e) {
+            // typically out of file descriptors; the listening channel stays registered
+            System.err.println("accept failed: " + e);
+        }
+    }
+
+    /**
+     * Whether the client waiting for an opponent is still there. It is not registered anywhere, so this
+     * is the first time anyone looks: a client that hung up is closed and replaced, and so is one that
+     * sent something before its START.
+     */
+    private boolean stillWaiting(SocketChannel channel) {
+        ByteBuffer buffer = readBuffer.clear().limit(1);
+        try {
+            if (channel.read(buffer) == 0) {
+                return true;
+            }
+        } catch (IOException ignored) {
+        }
+        closeQuietly(channel);
+        return false;
+    }
+
+    private void open(GameSession session) {
+        try {
+            session.first.key = session.first.channel.register(selector, SelectionKey.OP_READ, session.first);
+            session.second.key = session.second.channel.register(selector, SelectionKey.OP_READ, session.second);
+        } catch (IOException e) {
+            closeQuietly(session.first.channel);
+            closeQuietly(session.second.channel);
+            return;
+        }
+        server.sessions.incrementAndGet();
+        session.start();
+    }
+
+    private void read(GameSession.Player player) {
+        GameSession session = player.session;
+        ByteBuffer buffer = readBuffer.clear();
+        buffer.put(player.partial, 0, player.partialLength);
+        try {
+            if (player.channel.read(buffer) < 0) {
+                drop(player);
+                return;
+            }
+            buffer.flip();
+            int frame = 0;
+            for (; buffer.limit() - frame >= MoveFrame.SIZE && !session.closed; frame += MoveFrame.SIZE) {
+                MoveFrame.check(buffer, frame, MoveFrame.MOVE, player.received++);
+                session.move(player, MoveFrame.x(buffer, frame), MoveFrame.y(buffer, frame));
+            }
+            if (session.closed) {
+                // dropped while answering: the frames left in the buffer go with it
+                return;
+            }
+            player.partialLength = buffer.limit() - frame;
+            buffer.get(frame, player.partial, 0, player.partialLength);
+        } catch (StreamCorruptedException e) {
+            server.protocolErrors.increment();
+            drop(player);
+        } catch (IOException e) {
+            drop(player);
+        }
+    }
+
+    // sends one frame to player, or queues it behind the ones its socket has not taken yet
+    void send(GameSession.Player player, byte type, int x, int y, char symbol) {
+        if (player.session.closed) {
+            return;
+        }
+        ByteBuffer pending = player.pending;
+        if (pending != null && pending.position() > 0) {
+            if (pending.remaining() < MoveFrame.SIZE) {
+                // not reading: give up on it
+                drop(player);
+                return;
+            }
+            MoveFrame.put(pending, pending.position(), type, player.sent++, x, y, symbol);
+            pending.position(pending.position() + MoveFrame.SIZE);
+            return;
+        }
+        ByteBuffer buffer = writeBuffer.clear();
+        MoveFrame.put(buffer, 0, type, player.sent++, x, y, symbol);
+        try {
+            player.channel.write(buffer);
+        } catch (IOException e) {
+            drop(player);
+            return;
+        }
+        if (buffer.hasRemaining()) {
+            if (pending == null) {
+                pending = player.pending = ByteBuffer.allocate(PENDING_FRAMES * MoveFrame.SIZE);
+            }
+            pending.put(buffer);
+            player.key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+        }
+    }
+
+    private void flush(GameSession.Player player) {
+        ByteBuffer pending = player.pending.flip();
+        try {
+            player.channel.write(pending);
+        } catch (IOException e) {
+            drop(player);
+            return;
+        } finally {
+            pending.compact();
+        }
+        if (pending.position() == 0) {
+            player.key.interestOps(SelectionKey.OP_READ);
+        }
+    }
+
+    /**
+     * Ends the session of a player that left, broke the protocol or stopped reading: the opponent gets an
+     * END it has won, if its socket takes it right away, and both connections are closed.
+     */
+    private void drop(GameSession.Player leaver) {
+        GameSession session = leaver.session;
+        if (session.closed) {
+            return;
+        }
+        session.closed = true;
+        GameSession.Player other = session.opponent(leaver);
+        if (other.pending == null || other.pending.position() == 0) {
+            ByteBuffer buffer = writeBuffer.clear();
+            MoveFrame.put(buffer, 0, MoveFrame.END, other.sent++, MoveFrame.END_OPPONENT_LEFT, 0, other.symbol);
+            try {
+                other.channel.write(buffer);
+            } catch (IOException ignored) {
+            }
+        }
+        closeQuietly(session.first.channel);
+        closeQuietly(session.second.channel);
+        server.sessions.decrementAndGet();
+    }
+
+    private static void closeQuietly(AutoCloseable closeable) {
+        try {
+            if (closeable != null) {
+                closeable.close();
+            }
+        } catch (Exception ignored) {
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package Project.TicTacToe;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.channels.ServerSocketChannel;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A non-blocking TicTacToe server for any number of concurrent games, where NetworkManager.hostAndAccept()
+ * serves exactly one. Clients connect and are paired in arrival order; each pair becomes a GameSession
+ * on one of the EventLoops (one thread and Selector each, by default one per CPU). Everything speaks
+ * MoveFrames, one per message:
+ * <ol>
+ *     <li>the server sends START to both players, with the symbol each plays; X moves first;</li>
+ *     <li>the player whose turn it is sends MOVE; the server checks it (turn, bounds, free cell) and
+ *     forwards it to the opponent;</li>
+ *     <li>after a line or a full board both get END with the winner's symbol or DRAW, and a new game starts
+ *     with the symbols swapped. A move that is not valid loses the game (END_INVALID_MOVE);</li>
+ *     <li>when a player disconnects or breaks the protocol, the opponent gets END_OPPONENT_LEFT and both
+ *     connections are closed.</li>
+ * </ol>
+ * A session costs two sockets and about 200 bytes of heap; a process needs four file descriptors per
+ * game when the clients run in it too (ulimit -n).
+ * <pre>
+ * try (GameServer server = GameServer.newBuilder().port(5000).build()) {
+ *     ...
+ * }
+ * </pre>
+ */
+public final class GameServer implements AutoCloseable {
+    final LongAdder moves = new LongAdder();
+    final LongAdder games = new LongAdder();
+    final LongAdder invalidMoves = new LongAdder();
+    final LongAdder protocolErrors = new LongAdder();
+    final AtomicInteger sessions = new AtomicInteger();
+
+    private final ServerSocketChannel channel;
+    private final EventLoop[] loops;
+    // touched by the accepting loop only
+    private int nextLoop;
+
+    private GameServer(Builder builder) throws IOException {
+        channel = ServerSocketChannel.open();
+        loops = new EventLoop[builder.eventLoops];
+        try {
+            channel.setOption(StandardSocketOptions.SO_REUSEADDR, true);
+            channel.bind(builder.address, builder.backlog);
+            channel.configureBlocking(false);
+            for (int i = 0; i < loops.length; i++) {
+                loops[i] = new EventLoop(this, "game-loop-" + i);
+            }
+            loops[0].accept(channel);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        for (EventLoop loop : loops) {
+            loop.start();
+        }
+    }
+
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    EventLoop nextLoop() {
+        EventLoop loop = loops[nextLoop];
+        nextLoop = (nextLoop + 1) % loops.length;
+        return loop;
+    }
+
+    public InetSocketAddress localAddress() throws IOException {
+        return (InetSocketAddress) channel.getLocalAddress();
+    }
+
+    public int eventLoops() {
+        return loops.length;
+    }
+
+    // sessions with both players connected
+    public int activeSessions() {
+        return sessions.get();
+    }
+
+    // valid moves played in all sessions
+    public long movesPlayed() {
+        return moves.sum();
+    }
+
+    public long gamesFinished() {
+        return games.sum();
+    }
+
+    public long invalidMoves() {
+        return invalidMoves.sum();
+    }
+
+    public long protocolErrors() {
+        return protocolErrors.sum();
+    }
+
+    // bytes allocated so far by the event loop threads
+    long allocatedBytes() {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long bytes = 0;
+        for (EventLoop loop : loops) {
+            bytes += threads.getThreadAllocatedBytes(loop.thread.threadId());
+        }
+        return bytes;
+    }
+
+    /**
+     * Stops accepting, closes every connection and waits for the event loops to finish.
+     */
+    @Override
+    public void close() throws IOException {
+        for (EventLoop loop : loops) {
+            loop.shutdown();
+        }
+        try {
+            for (EventLoop loop : loops) {
+                loop.thread.join();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * Runs a server until the process is stopped.
+     * Usage: java Project.TicTacToe.GameServer [port=5000] [eventLoops=CPUs]
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 5000;
+        Builder builder = newBuilder().port(port);
+        if (args.length > 1) {
+            builder.eventLoops(Integer.parseInt(args[1]));
+        }
+        try (GameServer server = builder.build()) {
+            System.out.println("Game server on " + server.localAddress() + " with " + server.eventLoops() + " event loops");
+            while (true) {
+                Thread.sleep(10_000);
+                System.out.printf("%d sessions, %d moves, %d games, %d invalid moves%n", server.activeSessions(),
+                        server.movesPlayed(), server.gamesFinished(), server.invalidMoves());
+            }
+        }
+    }
+
+    public static final class Builder {
+        private InetSocketAddress address = new InetSocketAddress(5000);
+        private int eventLoops = Runtime.getRuntime().availableProcessors();
+        private int backlog = 4096;
+
+        private Builder() {
+        }
+
+        // port 0 picks a free one, see localAddress()
+        public Builder port(int port) {
+            return address(new InetSocketAddress(port));
+        }
+
+        public Builder address(InetSocketAddress address) {
+            this.address = address;
+            return this;
+        }
+
+        public Builder eventLoops(int eventLoops) {
+            if (eventLoops <= 0) {
+                throw new IllegalArgumentException("eventLoops must be positive: " + eventLoops);
+            }
+            this.eventLoops = eventLoops;
+            return this;
+        }
+
+        // connections the kernel queues until they are accepted
+        public Builder backlog(int backlog) {
+            if (backlog <= 0) {
+                throw new IllegalArgumentException("backlog must be positive: " + backlog);
+            }
+            this.backlog = backlog;
+            return this;
+        }
+
+        // binds and starts the event loops
+        public GameServer build() throws IOException {
+            return new GameServer(this);
+        }
+    }
+}
@@ -0,0 +1,271 @@
+package Project.TicTacToe;
+
+import Benchmark.Harness;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Loopback load test of GameServer: `games` concurrent sessions, two clients each, every client a virtual
+ * thread with a blocking SocketChannel that answers each of the opponent's moves at once with a random
+ * free cell. After `warmup` seconds it measures for `seconds`:
+ * <ul>
+ *     <li>moves/s and games/s, as counted by the server;</li>
+ *     <li>turn latency: from a client sending its move until the opponent's answer arrives, which is two
+ *     passes through the server and one through the opponent, sampled (a reservoir of 64 per client);</li>
+ *     <li>bytes the event loops allocated per move.</li>
+ * </ul>
+ * Before that it reports the heap taken by `games` sessions without their sockets. Every socket is a file
+ * descriptor on both ends, so the games played are capped at what the process limit allows (ulimit -n / 4).
+ * <p>
+ * Usage: java Project.TicTacToe.GameServerBenchmark [games=10000] [seconds=10] [eventLoops=CPUs] [warmup=3]
+ */
+public class GameServerBenchmark {
+    private static final int RESERVOIR = 64;
+
+    private static volatile boolean measuring;
+    private static final LongAdder clientErrors = new LongAdder();
+
+    public static void main(String[] args) throws Exception {
+        int games = Harness.intArg(args, 0, 10_000);
+        int seconds = Harness.intArg(args, 1, 10);
+        int eventLoops = Harness.intArg(args, 2, Runtime.getRuntime().availableProcessors());
+        int warmup = Harness.intArg(args, 3, 3);
+        // sessions need no file descriptors: the footprint is measured for every game asked for
+        footprint(games);
+        int maxGames = maxGames();
+        if (games > maxGames) {
+            System.out.printf("%d games need %d file descriptors; the limit allows %d games%n", games, 4 * games + 256, maxGames);
+            games = maxGames;
+        }
+        System.out.printf("%d games, %d event loops, %d CPUs%n", games, eventLoops, Runtime.getRuntime().availableProcessors());
+
+        InetSocketAddress loopback = new InetSocketAddress(InetAddress.getLoopbackAddress(), 0);
+        GameServer server = GameServer.newBuilder().address(loopback).eventLoops(eventLoops).build();
+        List<Client> clients;
+        long moves, finished, allocated, elapsed;
+        int active;
+        // closing the server ends every client with END_OPPONENT_LEFT or end of stream
+        try (ExecutorService clientThreads = Executors.newVirtualThreadPerTaskExecutor(); server) {
+            clients = connect(server, 2 * games, clientThreads);
+
+            Thread.sleep(warmup * 1000L);
+            moves = server.movesPlayed();
+            finished = server.gamesFinished();
+            allocated = server.allocatedBytes();
+            long begin = System.nanoTime();
+            measuring = true;
+            Thread.sleep(seconds * 1000L);
+            measuring = false;
+            elapsed = System.nanoTime() - begin;
+            moves = server.movesPlayed() - moves;
+            finished = server.gamesFinished() - finished;
+            allocated = server.allocatedBytes() - allocated;
+            active = server.activeSessions();
+        }
+        System.out.printf("%d active sessions: %10.0f moves/s, %8.0f games/s, %.3f bytes allocated per move by the server%n",
+                active, moves * 1e9 / elapsed, finished * 1e9 / elapsed, (double) allocated / moves);
+        printLatency(clients);
+        System.out.printf("invalid moves %d, protocol errors %d, client errors %d%n",
+                server.invalidMoves(), server.protocolErrors(), clientErrors.sum());
+        if (server.invalidMoves() + server.protocolErrors() + clientErrors.sum() > 0) {
+            throw new IllegalStateException("clients and server disagree");
+        }
+    }
+
+    // four descriptors per game (both ends of two connections) and some for the JVM
+    private static int maxGames() {
+        OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+        if (os instanceof com.sun.management.UnixOperatingSystemMXBean unix) {
+            return (int) Math.min(Integer.MAX_VALUE, (unix.getMaxFileDescriptorCount() - 256) / 4);
+        }
+        return Integer.MAX_VALUE;
+    }
+
+    // heap of the session state alone; sockets and their buffers come on top
+    private static void footprint(int games) {
+        long before = Harness.usedHeap();
+        GameSession[] sessions = new GameSession[games];
+        for (int i = 0; i < games; i++) {
+            sessions[i] = new GameSession(null, null, null);
+        }
+        long bytes = Harness.usedHeap() - before;
+        Harness.consume(sessions);
+        Harness.printFootprint("session state, " + games + " games", bytes, games);
+    }
+
+    private static List<Client> connect(GameServer server, int count, ExecutorService clientThreads) throws IOException {
+        InetSocketAddress address = server.localAddress();
+        List<Client> clients = new ArrayList<>(count);
+        long begin = System.nanoTime();
+        for (int i = 0; i < count; i++) {
+            SocketChannel channel = SocketChannel.open(address);
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            Client client = new Client(channel, i);
+            clients.add(client);
+            clientThreads.execute(client);
+        }
+        while (server.activeSessions() < count / 2) {
+            Thread.onSpinWait();
+        }
+        System.out.printf("%d clients connected and paired in %.0f ms%n", count, (System.nanoTime() - begin) / 1e6);
+        return clients;
+    }
+
+    private static void printLatency(List<Client> clients) {
+        long[] samples = clients.stream()
+                .flatMapToLong(client -> Arrays.stream(client.samples, 0, (int) Math.min(client.seen, RESERVOIR)))
+                .sorted()
+                .toArray();
+        if (samples.length == 0) {
+            System.out.println("no turns measured");
+            return;
+        }
+        System.out.printf("turn latency p50 %7.1f us, p90 %7.1f us, p99 %7.1f us, p99.9 %8.1f us, max %8.1f us (%d samples)%n",
+                percentile(samples, 0.5), percentile(samples, 0.9), percentile(samples, 0.99),
+                percentile(samples, 0.999), samples[samples.length - 1] / 1e3, samples.length);
+    }
+
+    // nearest-rank percentile of sorted nanos, in us
+    private static double percentile(long[] sorted, double p) {
+        int index = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))] / 1e3;
+    }
+
+    /**
+     * A player that always moves at once, on a random free cell, and tracks the board itself so that it
+     * never moves after the game is decided.
+     */
+    private static final class Client implements Runnable {
+        private final SocketChannel channel;
+        private final SplittableRandom random;
+        private final ByteBuffer in = ByteBuffer.allocateDirect(16 * MoveFrame.SIZE).limit(0);
+        private final ByteBuffer out = ByteBuffer.allocateDirect(MoveFrame.SIZE);
+        private int sent;
+        private int received;
+        private char symbol;
+        private int mine;
+        private int theirs;
+        // nanoTime of this client's last move in the current game, 0 before its first
+        private long movedAt;
+        // reservoir sample of turn latencies
+        final long[] samples = new long[RESERVOIR];
+        long seen;
+
+        Client(SocketChannel channel, long seed) {
+            this.channel = channel;
+            this.random = new SplittableRandom(seed);
+        }
+
+        @Override
+        public void run() {
+            try (channel) {
+                while (true) {
+                    if (!fill()) {
+                        return;
+                    }
+                    int frame = in.position();
+                    byte type = in.get(frame + 1);
+                    MoveFrame.check(in, frame, type, received++);
+                    in.position(frame + MoveFrame.SIZE);
+                    switch (type) {
+                        case MoveFrame.START -> {
+                            symbol = MoveFrame.symbol(in, frame);
+                            mine = 0;
+                            theirs = 0;
+                            // O's first answer of the game follows no move of its own in this game
+                            movedAt = 0;
+                            if (symbol == 'X') {
+                                move();
+                            }
+                        }
+                        case MoveFrame.MOVE -> {
+                            if (measuring && movedAt != 0) {
+                                record(System.nanoTime() - movedAt);
+                            }
+                            theirs |= 1 << MoveFrame.x(in, frame) * 3 + MoveFrame.y(in, frame);
+                            if (!GameSession.isWin(theirs) && (mine | theirs) != GameSession.FULL_BOARD) {
+                                move();
+                            }
+                        }
+                        case MoveFrame.END -> {
+                            int reason = MoveFrame.x(in, frame);
+                            if (reason == MoveFrame.END_OPPONENT_LEFT) {
+                                return;
+                            }
+                            if (reason != MoveFrame.END_NORMAL) {
+                                clientErrors.increment();
+                            }
+                        }
+                        default -> throw new IOException("unknown frame type " + type);
+                    }
+                }
+            } catch (IOException e) {
+                clientErrors.increment();
+            }
+        }
+
+        private void move() throws IOException {
+            int free = ~(mine | theirs) & GameSession.FULL_BOARD;
+            int cell = -1;
+            for (int skip = random.nextInt(Integer.bitCount(free)); skip >= 0; skip--) {
+                cell = Integer.numberOfTrailingZeros(free);
+                free &= free - 1;
+            }
+            mine |= 1 << cell;
+            MoveFrame.put(out, 0, MoveFrame.MOVE, sent++, cell / 3, cell % 3, symbol);
+            out.clear();
+            movedAt = System.nanoTime();
+            while (out.hasRemaining()) {
+                channel.write(out);
+            }
+        }
+
+        // false at a clean end of stream, between frames
+        private boolean fill() throws IOException {
+            if (in.remaining() >= MoveFrame.SIZE) {
+                return true;
+            }
+            in.compact();
+            try {
+                while (in.position() < MoveFrame.SIZE) {
+                    if (channel.read(in) < 0) {
+                        if (in.position() == 0) {
+                            return false;
+                        }
+                        throw new EOFException("connection closed in the middle of a frame");
+                    }
+                }
+            } finally {
+                in.flip();
+            }
+            return true;
+        }
+
+        private void record(long nanos) {
+            if (seen < RESERVOIR) {
+                samples[(int) seen] = nanos;
+            } else {
+                long slot = random.nextLong(seen + 1);
+                if (slot < RESERVOIR) {
+                    samples[(int) slot] = nanos;
+                }
+            }
+            seen++;
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package Project.TicTacToe;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+
+/**
+ * Two players paired by a GameServer and the game between them, owned by one EventLoop thread. The board
+ * is two 9-bit masks, bit x * 3 + y, so checking, placing and scoring a move is a few int operations and
+ * nothing is allocated per move. When a game ends the next one starts at once on the same connections,
+ * with the symbols swapped, until a player leaves.
+ */
+final class GameSession {
+    static final int FULL_BOARD = 0b111_111_111;
+    private static final int[] LINES = {
+            0b000_000_111, 0b000_111_000, 0b111_000_000,
+            0b001_001_001, 0b010_010_010, 0b100_100_100,
+            0b100_010_001, 0b001_010_100
+    };
+
+    final EventLoop loop;
+    final Player first;
+    final Player second;
+    boolean closed;
+
+    private Player x;
+    private Player turn;
+    private int xCells;
+    private int oCells;
+    private int games;
+
+    GameSession(EventLoop loop, SocketChannel first, SocketChannel second) {
+        this.loop = loop;
+        this.first = new Player(this, first);
+        this.second = new Player(this, second);
+    }
+
+    static boolean isWin(int cells) {
+        for (int line : LINES) {
+            if ((cells & line) == line) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    Player opponent(Player player) {
+        return player == first ? second : first;
+    }
+
+    // a new game; the players take turns at being X, who moves first
+    void start() {
+        xCells = 0;
+        oCells = 0;
+        x = (games++ & 1) == 0 ? first : second;
+        Player o = opponent(x);
+        x.symbol = 'X';
+        o.symbol = 'O';
+        turn = x;
+        loop.send(x, MoveFrame.START, 0, 0, 'X');
+        loop.send(o, MoveFrame.START, 0, 0, 'O');
+    }
+
+    /**
+     * A MOVE from player: applied and forwarded to the opponent if it is valid, otherwise the game is lost.
+     * x and y come straight off the wire, 0..255.
+     */
+    void move(Player player, int px, int py) {
+        Player opponent = opponent(player);
+        if (player != turn || px > 2 || py > 2 || ((xCells | oCells) & 1 << px * 3 + py) != 0) {
+            loop.server.invalidMoves.increment();
+            end(opponent.symbol, MoveFrame.END_INVALID_MOVE);
+            return;
+        }
+        int cells = player == x ? (xCells |= 1 << px * 3 + py) : (oCells |= 1 << px * 3 + py);
+        loop.server.moves.increment();
+        loop.send(opponent, MoveFrame.MOVE, px, py, player.symbol);
+        if (isWin(cells)) {
+            end(player.symbol, MoveFrame.END_NORMAL);
+        } else if ((xCells | oCells) == FULL_BOARD) {
+            end(MoveFrame.DRAW, MoveFrame.END_NORMAL);
+        } else {
+            turn = opponent;
+        }
+    }
+
+    private void end(char winner, int reason) {
+        turn = null;
+        loop.send(first, MoveFrame.END, reason, 0, winner);
+        loop.send(second, MoveFrame.END, reason, 0, winner);
+        loop.server.games.increment();
+        start();
+    }
+
+    /**
+     * One end of a session: its channel and the per-connection protocol state. Received bytes are parsed
+     * in the EventLoop's shared buffer; only the tail of a frame split between two reads waits here.
+     */
+    static final class Player {
+        final GameSession session;
+        final SocketChannel channel;
+        SelectionKey key;
+        char symbol;
+        // sequence numbers of the next frame out and in
+        int sent;
+        int received;
+        final byte[] partial = new byte[MoveFrame.SIZE];
+        int partialLength;
+        // frames the socket did not take yet, in write mode; allocated the first time that happens
+        ByteBuffer pending;
+
+        Player(GameSession session, SocketChannel channel) {
+            this.session = session;
+            this.channel = channel;
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package Project.TicTacToe;
+
+import java.io.StreamCorruptedException;
+import java.nio.ByteBuffer;
+
+/**
+ * The binary wire format of BinaryConnection and GameServer: every message is one fixed-size frame of
+ * 8 bytes, big-endian (network order), read and written with absolute gets and puts so that a reused
+ * buffer holds any number of them.
+ * <pre>
+ * 0     version   1
+ * 1     type      MOVE, or START / END from a GameServer
+ * 2-3   sequence  unsigned, counts the frames sent in one direction from 0 and wraps at 65536
+ * 4     x         0..255; the reason of an END
+ * 5     y         0..255
+ * 6     symbol    one ASCII character: the mover's, the receiver's for START, the winner's or DRAW for END
+ * 7     0         reserved
+ * </pre>
+ * TCP already delivers bytes in order; the sequence number catches a peer that drops, repeats or
+ * mixes up frames, and the version byte a peer speaking something else.
+ */
+final class MoveFrame {
+    static final int SIZE = 8;
+    static final byte VERSION = 1;
+    static final byte MOVE = 1;
+    // a new game: the receiver plays the frame's symbol, X moves first
+    static final byte START = 2;
+    // the game is over, see the END_ reasons
+    static final byte END = 3;
+
+    static final char DRAW = '-';
+    // a line, or a full board
+    static final int END_NORMAL = 0;
+    // the loser moved out of turn, off the board or onto a taken cell
+    static final int END_INVALID_MOVE = 1;
+    // the opponent disconnected or broke the protocol; no new game follows
+    static final int END_OPPONENT_LEFT = 2;
+
+    // the first byte of an ObjectOutputStream (STREAM_MAGIC 0xACED)
+    private static final byte OBJECT_STREAM = (byte) 0xAC;
+
+    private MoveFrame() {
+    }
+
+    // writes a frame at index; the buffer's position is not changed
+    static void put(ByteBuffer buffer, int index, byte type, int sequence, int x, int y, char symbol) {
+        if (x < 0 || x > 0xFF || y < 0 || y > 0xFF) {
+            throw new IllegalArgumentException("coordinates must be in 0..255: " + x + ", " + y);
+        }
+        if (symbol > 0x7F) {
+            throw new IllegalArgumentException("symbol must be ASCII: " + symbol);
+        }
+        buffer.put(index, VERSION)
+                .put(index + 1, type)
+                .putShort(index + 2, (short) sequence)
+                .put(index + 4, (byte) x)
+                .put(index + 5, (byte) y)
+                .put(index + 6, (byte) symbol)
+                .put(index + 7, (byte) 0);
+    }
+
+    /**
+     * Checks the version, type and sequence number of the frame at index; only the low 16 bits of
+     * expectedSequence count.
+     */
+    static void check(ByteBuffer buffer, int index, byte expectedType, int expectedSequence) throws StreamCorruptedException {
+        checkVersion(buffer.get(index));
+        byte type = buffer.get(index + 1);
+        if (type != expectedType) {
+            throw new StreamCorruptedException("frame of type " + type + ", expected " + expectedType);
+        }
+        int sequence = sequence(buffer, index);
+        if (sequence != (expectedSequence & 0xFFFF)) {
+            throw new StreamCorruptedException("frame " + sequence + ", expected " + (expectedSequence & 0xFFFF));
+        }
+    }
+
+    // the first byte of a frame; a peer speaking another protocol may never send a whole one
+    static void checkVersion(byte version) throws StreamCorruptedException {
+        if (version != VERSION) {
+            throw new StreamCorruptedException("unsupported protocol version " + (version & 0xFF)
+                    + (version == OBJECT_STREAM ? " (the peer speaks object streams)" : ""));
+        }
+    }
+
+    static int sequence(ByteBuffer buffer, int index) {
+        return Short.toUnsignedInt(buffer.getShort(index + 2));
+    }
+
+    static int x(ByteBuffer buffer, int index) {
+        return Byte.toUnsignedInt(buffer.get(index + 4));
+    }
+
+    static int y(ByteBuffer buffer, int index) {
+        return Byte.toUnsignedInt(buffer.get(index + 5));
+    }
+
+    static char symbol(ByteBuffer buffer, int index) {
+        return (char) Byte.toUnsignedInt(buffer.get(index + 6));
+    }
+}
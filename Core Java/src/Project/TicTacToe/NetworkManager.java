@@ -2,6 +2,8 @@ package Project.TicTacToe;
 
 import java.io.IOException;
 import java.net.*;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
 
 public class NetworkManager {
     private final int port;
@@ -11,34 +13,44 @@ public class NetworkManager {
     }
 
     /**
-     * Host: start ServerSocket and wait for a single client connection.
-     * Returns a connected Socket.
+     * Host: open a server channel and wait for a single client connection.
+     * Returns the connected, blocking SocketChannel; its socket() works for stream-based protocols.
      */
-    public Socket hostAndAccept() throws IOException {
-        ServerSocket serverSocket = new ServerSocket(port);
-        serverSocket.setReuseAddress(true);
-        // print local IP for the host to share
-        String localIp = InetAddress.getLocalHost().getHostAddress();
-        System.out.println("Host started. Local IP: " + localIp + "  Port: " + port);
-        System.out.println("If you are behind a router and want to play over the internet, share your public IP and forward port " + port);
-        System.out.println("Waiting for opponent to connect...");
-        Socket client = serverSocket.accept();
-        // We don't need serverSocket after accepted (close it)
-        try { serverSocket.close(); } catch (IOException ignored) {}
-        System.out.println("Opponent connected from: " + client.getRemoteSocketAddress());
+    public SocketChannel hostAndAccept() throws IOException {
+        SocketChannel client;
+        try (ServerSocketChannel serverChannel = ServerSocketChannel.open()) {
+            serverChannel.setOption(StandardSocketOptions.SO_REUSEADDR, true);
+            serverChannel.bind(new InetSocketAddress(port));
+            // print local IP for the host to share
+            String localIp = InetAddress.getLocalHost().getHostAddress();
+            System.out.println("Host started. Local IP: " + localIp + "  Port: " + port);
+            System.out.println("If you are behind a router and want to play over the internet, share your public IP and forward port " + port);
+            System.out.println("Waiting for opponent to connect...");
+            // We don't need the server channel after accepted (try-with-resources closes it)
+            client = serverChannel.accept();
+        }
+        // moves are tiny and each one waits for an answer: send them without Nagle's delay
+        client.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        System.out.println("Opponent connected from: " + client.getRemoteAddress());
         return client;
     }
 
     /**
      * Join: connect to hostIp at the configured port.
      */
-    public Socket join(String hostIp) throws IOException {
+    public SocketChannel join(String hostIp) throws IOException {
         System.out.println("Connecting to " + hostIp + ":" + port + " ...");
-        Socket socket = new Socket();
-        // timeout of 10 seconds for connection attempt
-        socket.connect(new InetSocketAddress(hostIp, port), 10000);
-        System.out.println("Connected to host: " + socket.getRemoteSocketAddress());
-        return socket;
+        SocketChannel channel = SocketChannel.open();
+        try {
+            // timeout of 10 seconds for connection attempt
+            channel.socket().connect(new InetSocketAddress(hostIp, port), 10000);
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        System.out.println("Connected to host: " + channel.getRemoteAddress());
+        return channel;
     }
 
     /**
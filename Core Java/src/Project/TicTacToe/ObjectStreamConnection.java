@@ -0,0 +1,52 @@
+package Project.TicTacToe;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.net.Socket;
+
+/**
+ * The original protocol: every Move is a serialized object. The first one carries the class
+ * descriptor, later ones 16 bytes (twice a MoveFrame) plus reflection on both ends, and both streams keep
+ * every Move sent or received reachable until the connection is closed.
+ */
+final class ObjectStreamConnection implements Connection {
+    private Socket socket;
+    private ObjectOutputStream out;
+    private ObjectInputStream in;
+
+    ObjectStreamConnection(Socket socket) throws IOException {
+        this.socket = socket;
+        // IMPORTANT: create ObjectOutputStream first and flush to avoid deadlock
+        this.out = new ObjectOutputStream(socket.getOutputStream());
+        this.out.flush();
+        this.in = new ObjectInputStream(socket.getInputStream());
+    }
+
+    @Override
+    public synchronized void sendMove(Move m) throws IOException {
+        out.writeObject(m);
+        out.flush();
+    }
+
+    @Override
+    public synchronized Move receiveMove() throws IOException {
+        Object obj;
+        try {
+            obj = in.readObject();
+        } catch (ClassNotFoundException e) {
+            throw new IOException("unknown class " + e.getMessage(), e);
+        }
+        if (obj instanceof Move) {
+            return (Move) obj;
+        }
+        return null;
+    }
+
+    @Override
+    public void close() {
+        try { if (out != null) out.close(); } catch (IOException ignored) {}
+        try { if (in != null) in.close(); } catch (IOException ignored) {}
+        try { if (socket != null) socket.close(); } catch (IOException ignored) {}
+    }
+}
@@ -1,7 +1,7 @@
 package Project.TicTacToe;
 
 import java.util.Scanner;
-import java.net.Socket;
+import java.nio.channels.SocketChannel;
 import java.io.IOException;
 
 public class TicTacToe {
@@ -146,7 +146,13 @@ public class TicTacToe {
         System.out.println("Choose: (h)ost or (j)oin ?");
         char choice = input.next().toLowerCase().charAt(0);
 
-        Socket socket = null;
+        // both players must pick the same protocol
+        System.out.println("Protocol: (b)inary or (o)bject streams ?");
+        Connection.Protocol protocol = input.next().toLowerCase().charAt(0) == 'o'
+                ? Connection.Protocol.OBJECT_STREAM
+                : Connection.Protocol.BINARY;
+
+        SocketChannel channel = null;
         Connection conn = null;
         boolean iAmHost = false;
 
@@ -154,16 +160,16 @@ public class TicTacToe {
             if (choice == 'h') {
                 iAmHost = true;
                 // host: start server and accept
-                socket = nm.hostAndAccept();
+                channel = nm.hostAndAccept();
             } else {
                 // join: display local IP (for user's info) and ask for host IP
                 System.out.println("Your local IP (for reference): " + NetworkManager.getLocalIP());
                 System.out.print("Enter host IP to connect: ");
                 String hostIp = input.next();
-                socket = nm.join(hostIp);
+                channel = nm.join(hostIp);
             }
 
-            conn = new Connection(socket);
+            conn = Connection.open(channel, protocol);
 
             // Setup game
             setBoard();
@@ -228,9 +234,6 @@ public class TicTacToe {
                             System.out.println("Opponent (" + remote.symbol + ") WINS!");
                             break;
                         }
-                    } catch (ClassNotFoundException cnfe) {
-                        System.out.println("Error receiving move: " + cnfe.getMessage());
-                        break;
                     } catch (IOException ioe) {
                         System.out.println("Connection error while receiving move: " + ioe.getMessage());
                         break;
@@ -249,7 +252,7 @@ public class TicTacToe {
         } finally {
             if (conn != null) conn.close();
             else {
-                try { if (socket != null) socket.close(); } catch (IOException ignored) {}
+                try { if (channel != null) channel.close(); } catch (IOException ignored) {}
             }
             setBoard();
         }
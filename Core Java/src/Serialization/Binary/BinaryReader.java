@@ -0,0 +1,163 @@
+package Serialization.Binary;
+
+import java.io.EOFException;
+import java.io.StreamCorruptedException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reads what BinaryWriter wrote, from a region of a byte[]. Reading past the region or a malformed varint
+ * throws UncheckedIOException (EOFException / StreamCorruptedException inside), so codecs need no throws
+ * clause. wrap() points the same reader at the next region; nothing is allocated per record except the
+ * Strings themselves.
+ */
+public final class BinaryReader {
+    private byte[] buffer;
+    private int position;
+    private int limit;
+
+    public BinaryReader() {
+        this(new byte[0], 0, 0);
+    }
+
+    public BinaryReader(byte[] buffer) {
+        this(buffer, 0, buffer.length);
+    }
+
+    public BinaryReader(byte[] buffer, int offset, int length) {
+        wrap(buffer, offset, length);
+    }
+
+    public BinaryReader wrap(byte[] buffer, int offset, int length) {
+        if (offset < 0 || length < 0 || offset + length > buffer.length) {
+            throw new IndexOutOfBoundsException("offset " + offset + ", length " + length + ", array " + buffer.length);
+        }
+        this.buffer = buffer;
+        this.position = offset;
+        this.limit = offset + length;
+        return this;
+    }
+
+    public int readByte() {
+        require(1);
+        return buffer[position++];
+    }
+
+    public boolean readBoolean() {
+        return readByte() != 0;
+    }
+
+    public int readVarInt() {
+        int result = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            require(1);
+            byte b = buffer[position++];
+            result |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return result;
+            }
+        }
+        throw corrupted("varint longer than 5 bytes");
+    }
+
+    public long readVarLong() {
+        long result = 0;
+        for (int shift = 0; shift < 70; shift += 7) {
+            require(1);
+            byte b = buffer[position++];
+            result |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return result;
+            }
+        }
+        throw corrupted("varlong longer than 10 bytes");
+    }
+
+    public int readSignedVarInt() {
+        int zigzag = readVarInt();
+        return (zigzag >>> 1) ^ -(zigzag & 1);
+    }
+
+    public long readSignedVarLong() {
+        long zigzag = readVarLong();
+        return (zigzag >>> 1) ^ -(zigzag & 1);
+    }
+
+    public long readLong() {
+        require(Long.BYTES);
+        long value = 0;
+        for (int i = 0; i < Long.BYTES; i++) {
+            value |= (buffer[position++] & 0xFFL) << (8 * i);
+        }
+        return value;
+    }
+
+    public double readDouble() {
+        return Double.longBitsToDouble(readLong());
+    }
+
+    public String readString() {
+        int length = readLength();
+        String value = new String(buffer, position, length, StandardCharsets.UTF_8);
+        position += length;
+        return value;
+    }
+
+    public String readNullableString() {
+        int lengthPlusOne = readVarInt();
+        if (lengthPlusOne == 0) {
+            return null;
+        }
+        int length = lengthPlusOne - 1;
+        if (length < 0) {
+            throw corrupted("string length " + Integer.toUnsignedString(length));
+        }
+        require(length);
+        String value = new String(buffer, position, length, StandardCharsets.UTF_8);
+        position += length;
+        return value;
+    }
+
+    // varint length followed by that many bytes, which stay unread; for fields this codec version ignores
+    public void skipString() {
+        int length = readLength();
+        position += length;
+    }
+
+    public void skip(int bytes) {
+        require(bytes);
+        position += bytes;
+    }
+
+    public int position() {
+        return position;
+    }
+
+    public int remaining() {
+        return limit - position;
+    }
+
+    public boolean hasRemaining() {
+        return position < limit;
+    }
+
+    private int readLength() {
+        int length = readVarInt();
+        if (length < 0) {
+            throw corrupted("length " + Integer.toUnsignedString(length));
+        }
+        require(length);
+        return length;
+    }
+
+    private void require(int bytes) {
+        if (bytes > limit - position) {
+            throw new UncheckedIOException(new EOFException(
+                    "need " + bytes + " bytes at offset " + position + ", " + (limit - position) + " left"));
+        }
+    }
+
+    static UncheckedIOException corrupted(String message) {
+        return new UncheckedIOException(new StreamCorruptedException(message));
+    }
+}
@@ -0,0 +1,211 @@
+package Serialization.Binary;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * Growable byte[] that codecs write fields into. Integers are written as varints (LEB128: 7 bits per
+ * byte, high bit = more bytes follow), signed ones zigzag-encoded first so small negative numbers stay
+ * short; strings as a varint UTF-8 byte length followed by the bytes, encoded straight into the buffer.
+ * <p>
+ * Not thread-safe. Reuse one writer with reset() instead of allocating one per record.
+ */
+public final class BinaryWriter {
+    // the longest varint of a 32-bit value
+    static final int MAX_VARINT_BYTES = 5;
+
+    private byte[] buffer;
+    private int position;
+
+    public BinaryWriter() {
+        this(256);
+    }
+
+    public BinaryWriter(int initialCapacity) {
+        buffer = new byte[Math.max(16, initialCapacity)];
+    }
+
+    public void writeByte(int value) {
+        ensure(1);
+        buffer[position++] = (byte) value;
+    }
+
+    public void writeBoolean(boolean value) {
+        writeByte(value ? 1 : 0);
+    }
+
+    // unsigned varint: 1 byte below 128, 5 bytes at most; negative ints take 5 bytes, use writeSignedVarInt
+    public void writeVarInt(int value) {
+        ensure(MAX_VARINT_BYTES);
+        while ((value & ~0x7F) != 0) {
+            buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[position++] = (byte) value;
+    }
+
+    public void writeVarLong(long value) {
+        ensure(10);
+        while ((value & ~0x7FL) != 0) {
+            buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[position++] = (byte) value;
+    }
+
+    // zigzag: 0, -1, 1, -2 ... become 0, 1, 2, 3 ...
+    public void writeSignedVarInt(int value) {
+        writeVarInt((value << 1) ^ (value >> 31));
+    }
+
+    public void writeSignedVarLong(long value) {
+        writeVarLong((value << 1) ^ (value >> 63));
+    }
+
+    // little-endian fixed width, for values that are rarely small (hashes, doubles)
+    public void writeLong(long value) {
+        ensure(Long.BYTES);
+        for (int i = 0; i < Long.BYTES; i++) {
+            buffer[position++] = (byte) (value >>> (8 * i));
+        }
+    }
+
+    public void writeDouble(double value) {
+        writeLong(Double.doubleToRawLongBits(value));
+    }
+
+    // value must not be null, see writeNullableString
+    public void writeString(String value) {
+        int length = utf8Length(value);
+        writeVarInt(length);
+        ensure(length);
+        encodeUtf8(value);
+    }
+
+    // varint (length + 1), 0 for null
+    public void writeNullableString(String value) {
+        if (value == null) {
+            writeVarInt(0);
+            return;
+        }
+        int length = utf8Length(value);
+        writeVarInt(length + 1);
+        ensure(length);
+        encodeUtf8(value);
+    }
+
+    public void writeBytes(byte[] bytes, int offset, int length) {
+        ensure(length);
+        System.arraycopy(bytes, offset, buffer, position, length);
+        position += length;
+    }
+
+    public int position() {
+        return position;
+    }
+
+    public void reset() {
+        position = 0;
+    }
+
+    // the array backing this writer; valid up to position()
+    public byte[] array() {
+        return buffer;
+    }
+
+    public byte[] toByteArray() {
+        return Arrays.copyOf(buffer, position);
+    }
+
+    public void writeTo(OutputStream out) throws IOException {
+        out.write(buffer, 0, position);
+    }
+
+    /**
+     * Reserves MAX_VARINT_BYTES for a length that is only known after the payload has been written; pass
+     * the returned mark to endLength(). The payload is then moved back over the unused reserved bytes,
+     * a few dozen bytes for a typical record, so the length still costs only as many bytes as it needs.
+     */
+    int beginLength() {
+        ensure(MAX_VARINT_BYTES);
+        int mark = position;
+        position += MAX_VARINT_BYTES;
+        return mark;
+    }
+
+    void endLength(int mark) {
+        int payloadStart = mark + MAX_VARINT_BYTES;
+        int length = position - payloadStart;
+        position = mark;
+        writeVarInt(length);
+        if (position != payloadStart) {
+            System.arraycopy(buffer, payloadStart, buffer, position, length);
+        }
+        position += length;
+    }
+
+    static int varIntSize(int value) {
+        return (31 - Integer.numberOfLeadingZeros(value | 1)) / 7 + 1;
+    }
+
+    static int utf8Length(String value) {
+        int length = value.length();
+        int bytes = length;
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                continue;
+            }
+            if (c < 0x800) {
+                bytes++;
+            } else if (!Character.isSurrogate(c)) {
+                bytes += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                // 4 bytes for the pair of chars
+                bytes += 2;
+                i++;
+            }
+            // a lone surrogate becomes a single '?'
+        }
+        return bytes;
+    }
+
+    // same output as String.getBytes(UTF_8): a lone surrogate becomes '?'
+    private void encodeUtf8(String value) {
+        int length = value.length();
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                buffer[position++] = (byte) c;
+            } else if (c < 0x800) {
+                buffer[position++] = (byte) (0xC0 | (c >> 6));
+                buffer[position++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                    int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                    buffer[position++] = (byte) (0xF0 | (codePoint >> 18));
+                    buffer[position++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                    buffer[position++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                    buffer[position++] = (byte) (0x80 | (codePoint & 0x3F));
+                } else {
+                    buffer[position++] = '?';
+                }
+            } else {
+                buffer[position++] = (byte) (0xE0 | (c >> 12));
+                buffer[position++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                buffer[position++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+    }
+
+    private void ensure(int bytes) {
+        if (bytes > buffer.length - position) {
+            long needed = (long) position + bytes;
+            if (needed > Integer.MAX_VALUE - 8) {
+                throw new IllegalStateException("BinaryWriter over 2 GB");
+            }
+            buffer = Arrays.copyOf(buffer, (int) Math.max(needed, Math.min(Integer.MAX_VALUE - 8, buffer.length * 2L)));
+        }
+    }
+}
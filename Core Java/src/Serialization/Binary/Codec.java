@@ -0,0 +1,22 @@
+package Serialization.Binary;
+
+/**
+ * Writes and reads one class field by field, in a fixed order, with no field names or class descriptors in
+ * the output. Register codecs with a CodecRegistry; RecordCodec generates one for a record, UserCodec is
+ * written by hand.
+ * <p>
+ * Evolution: encode() always writes the current version(), and RecordStreamWriter tags every record with
+ * it. decode() gets the version the record was written with and must read every older version. New fields
+ * go at the end, so an older decoder stops early and the stream skips the rest of the record for it.
+ */
+public interface Codec<T> {
+
+    Class<T> type();
+
+    // bump when encode() changes
+    int version();
+
+    void encode(T value, BinaryWriter out);
+
+    T decode(BinaryReader in, int version);
+}
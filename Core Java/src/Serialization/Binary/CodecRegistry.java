@@ -0,0 +1,64 @@
+package Serialization.Binary;
+
+import Collection.IntObjectHashMap;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Maps classes to their codecs and to the small type ids that stand for them in a stream. Ids are chosen by
+ * the caller and must stay the same for as long as streams written with them are read; a reader needs the
+ * same registrations as the writer, apart from codec versions. Register everything before sharing the
+ * registry between threads, lookups do not lock.
+ */
+public final class CodecRegistry {
+    private final Map<Class<?>, Registration<?>> byType = new HashMap<>();
+    private final IntObjectHashMap<Registration<?>> byId = new IntObjectHashMap<>();
+
+    record Registration<T>(int typeId, Codec<T> codec) {
+    }
+
+    public <T> CodecRegistry register(int typeId, Codec<T> codec) {
+        Objects.requireNonNull(codec);
+        if (typeId < 0) {
+            throw new IllegalArgumentException("typeId must not be negative: " + typeId);
+        }
+        if (byId.containsKey(typeId)) {
+            throw new IllegalArgumentException("typeId " + typeId + " already used by " + byId.get(typeId).codec().type().getName());
+        }
+        if (byType.containsKey(codec.type())) {
+            throw new IllegalArgumentException(codec.type().getName() + " is already registered");
+        }
+        Registration<T> registration = new Registration<>(typeId, codec);
+        byType.put(codec.type(), registration);
+        byId.put(typeId, registration);
+        return this;
+    }
+
+    // registry with User under id 1, the one the examples and benchmarks use
+    public static CodecRegistry withDefaults() {
+        return new CodecRegistry().register(1, new UserCodec());
+    }
+
+    @SuppressWarnings("unchecked")
+    <T> Registration<T> forType(Class<T> type) {
+        Registration<T> registration = (Registration<T>) byType.get(type);
+        if (registration == null) {
+            throw new IllegalArgumentException("No codec registered for " + type.getName());
+        }
+        return registration;
+    }
+
+    Registration<?> forId(int typeId) {
+        Registration<?> registration = byId.get(typeId);
+        if (registration == null) {
+            throw BinaryReader.corrupted("No codec registered for type id " + typeId);
+        }
+        return registration;
+    }
+
+    public <T> Codec<T> codec(Class<T> type) {
+        return forType(type).codec();
+    }
+}
@@ -0,0 +1,192 @@
+package Serialization.Binary;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.RecordComponent;
+
+/**
+ * Codec generated for a record class: its components in declaration order, each with a writer picked once
+ * from its type. Reflection only runs in of(); encode and decode call the accessors and the canonical
+ * constructor through method handles looked up there.
+ * <p>
+ * Supported component types: the primitives (not their boxes), String and enums, both nullable; enums are
+ * written by ordinal, so only append constants. The payload starts with the number of components written, so
+ * adding components at the end is compatible in both directions: a newer decoder fills the missing ones
+ * with 0 / false / null, an older one reads only the ones it knows and leaves the rest to the stream.
+ * Removing, reordering or retyping a component is not.
+ * <pre>
+ * record Point(int x, int y) {}
+ * Codec&lt;Point&gt; codec = RecordCodec.of(Point.class, 1, MethodHandles.lookup());
+ * </pre>
+ */
+public final class RecordCodec<R extends Record> implements Codec<R> {
+    private final Class<R> type;
+    private final int version;
+    private final Component[] components;
+    // (Object[]) -> Object
+    private final MethodHandle constructor;
+
+    private RecordCodec(Class<R> type, int version, Component[] components, MethodHandle constructor) {
+        this.type = type;
+        this.version = version;
+        this.components = components;
+        this.constructor = constructor;
+    }
+
+    /**
+     * @param lookup a lookup with access to the record, MethodHandles.lookup() in its package; the
+     *               public lookup is enough for public records
+     * @throws IllegalArgumentException if a component has an unsupported type
+     */
+    public static <R extends Record> RecordCodec<R> of(Class<R> type, int version, MethodHandles.Lookup lookup) {
+        RecordComponent[] recordComponents = type.getRecordComponents();
+        if (recordComponents == null) {
+            throw new IllegalArgumentException(type.getName() + " is not a record");
+        }
+        Component[] components = new Component[recordComponents.length];
+        Class<?>[] parameterTypes = new Class<?>[recordComponents.length];
+        try {
+            for (int i = 0; i < recordComponents.length; i++) {
+                RecordComponent component = recordComponents[i];
+                parameterTypes[i] = component.getType();
+                MethodHandle accessor = lookup.unreflect(component.getAccessor())
+                        .asType(MethodType.methodType(Object.class, Object.class));
+                Class<?> componentType = component.getType();
+                components[i] = new Component(component.getName(), kindOf(componentType),
+                        componentType.getEnumConstants(), accessor);
+            }
+            MethodHandle constructor = lookup.findConstructor(type, MethodType.methodType(void.class, parameterTypes))
+                    .asSpreader(Object[].class, parameterTypes.length)
+                    .asType(MethodType.methodType(Object.class, Object[].class));
+            return new RecordCodec<>(type, version, components, constructor);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalArgumentException("Cannot access " + type.getName(), e);
+        }
+    }
+
+    @Override
+    public Class<R> type() {
+        return type;
+    }
+
+    @Override
+    public int version() {
+        return version;
+    }
+
+    @Override
+    public void encode(R value, BinaryWriter out) {
+        out.writeVarInt(components.length);
+        try {
+            for (Component component : components) {
+                write(component, (Object) component.accessor.invokeExact((Object) value), out);
+            }
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    @Override
+    public R decode(BinaryReader in, int version) {
+        int written = in.readVarInt();
+        if (written < 0) {
+            throw BinaryReader.corrupted("component count " + Integer.toUnsignedString(written));
+        }
+        Object[] arguments = new Object[components.length];
+        for (int i = 0; i < components.length; i++) {
+            arguments[i] = i < written ? read(components[i], in) : components[i].defaultValue();
+        }
+        try {
+            return type.cast((Object) constructor.invokeExact(arguments));
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    private static void write(Component component, Object value, BinaryWriter out) {
+        switch (component.kind) {
+            case BOOLEAN -> out.writeBoolean((Boolean) value);
+            case BYTE -> out.writeByte((Byte) value);
+            case SHORT -> out.writeSignedVarInt((Short) value);
+            case CHAR -> out.writeVarInt((Character) value);
+            case INT -> out.writeSignedVarInt((Integer) value);
+            case LONG -> out.writeSignedVarLong((Long) value);
+            // widening keeps every float exactly
+            case FLOAT -> out.writeDouble((Float) value);
+            case DOUBLE -> out.writeDouble((Double) value);
+            case STRING -> out.writeNullableString((String) value);
+            // ordinal + 1, 0 for null
+            case ENUM -> out.writeVarInt(value == null ? 0 : ((Enum<?>) value).ordinal() + 1);
+        }
+    }
+
+    private static Object read(Component component, BinaryReader in) {
+        return switch (component.kind) {
+            case BOOLEAN -> in.readBoolean();
+            case BYTE -> (byte) in.readByte();
+            case SHORT -> (short) in.readSignedVarInt();
+            case CHAR -> (char) in.readVarInt();
+            case INT -> in.readSignedVarInt();
+            case LONG -> in.readSignedVarLong();
+            case FLOAT -> (float) in.readDouble();
+            case DOUBLE -> in.readDouble();
+            case STRING -> in.readNullableString();
+            case ENUM -> {
+                int ordinal = in.readVarInt();
+                if (ordinal == 0) {
+                    yield null;
+                }
+                if (ordinal < 0 || ordinal > component.constants.length) {
+                    throw BinaryReader.corrupted(component.name + ": no enum constant " + (ordinal - 1));
+                }
+                yield component.constants[ordinal - 1];
+            }
+        };
+    }
+
+    private static Kind kindOf(Class<?> type) {
+        if (type == boolean.class) return Kind.BOOLEAN;
+        if (type == byte.class) return Kind.BYTE;
+        if (type == short.class) return Kind.SHORT;
+        if (type == char.class) return Kind.CHAR;
+        if (type == int.class) return Kind.INT;
+        if (type == long.class) return Kind.LONG;
+        if (type == float.class) return Kind.FLOAT;
+        if (type == double.class) return Kind.DOUBLE;
+        if (type == String.class) return Kind.STRING;
+        if (type.isEnum()) return Kind.ENUM;
+        throw new IllegalArgumentException("Unsupported component type " + type.getName());
+    }
+
+    private static RuntimeException rethrow(Throwable e) {
+        if (e instanceof RuntimeException runtime) {
+            throw runtime;
+        }
+        if (e instanceof Error error) {
+            throw error;
+        }
+        throw new IllegalStateException(e);
+    }
+
+    private enum Kind {
+        BOOLEAN, BYTE, SHORT, CHAR, INT, LONG, FLOAT, DOUBLE, STRING, ENUM
+    }
+
+    // constants: the enum's, null for other kinds
+    private record Component(String name, Kind kind, Object[] constants, MethodHandle accessor) {
+        Object defaultValue() {
+            return switch (kind) {
+                case BOOLEAN -> false;
+                case BYTE -> (byte) 0;
+                case SHORT -> (short) 0;
+                case CHAR -> (char) 0;
+                case INT -> 0;
+                case LONG -> 0L;
+                case FLOAT -> 0f;
+                case DOUBLE -> 0d;
+                case STRING, ENUM -> null;
+            };
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package Serialization.Binary;
+
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+
+/**
+ * Walks the frames of a whole RecordStreamWriter stream that is already in memory, typically a file mapped
+ * with FileChannel.map(mode, 0, size, arena), without copying or decoding anything: next() moves to the
+ * following frame and the accessors say where its payload is, for a flyweight to wrap.
+ * <pre>
+ * RecordStreamCursor cursor = new RecordStreamCursor(segment);
+ * UserFlyweight user = new UserFlyweight();
+ * while (cursor.next()) {
+ *     if (cursor.typeId() == userTypeId) {
+ *         user.wrap(segment, cursor.payloadOffset(), cursor.payloadLength());
+ *     }
+ * }
+ * </pre>
+ * Truncated or malformed frames throw UncheckedIOException, as BinaryReader does. Not thread-safe.
+ */
+public final class RecordStreamCursor {
+    private final MemorySegment stream;
+    private final long size;
+    // where the next frame starts
+    private long position;
+    private int typeId = -1;
+    private int version;
+    private long payloadOffset;
+    private int payloadLength;
+
+    public RecordStreamCursor(MemorySegment stream) {
+        this.stream = stream;
+        this.size = stream.byteSize();
+        byte[] magic = RecordStreamWriter.MAGIC;
+        if (size < magic.length + 1) {
+            throw BinaryReader.corrupted("no stream header");
+        }
+        for (int i = 0; i < magic.length; i++) {
+            if (stream.get(ValueLayout.JAVA_BYTE, i) != magic[i]) {
+                throw BinaryReader.corrupted("not a record stream");
+            }
+        }
+        int format = stream.get(ValueLayout.JAVA_BYTE, magic.length);
+        if (format != RecordStreamWriter.FORMAT_VERSION) {
+            throw BinaryReader.corrupted("unsupported stream format " + format);
+        }
+        position = magic.length + 1;
+    }
+
+    // moves to the next frame; false at the end of the stream
+    public boolean next() {
+        if (position == size) {
+            return false;
+        }
+        typeId = readVarInt();
+        version = readVarInt();
+        payloadLength = readVarInt();
+        if (payloadLength < 0 || payloadLength > size - position) {
+            throw BinaryReader.corrupted("record of " + Integer.toUnsignedString(payloadLength) + " bytes at "
+                    + position + " runs past the end " + size);
+        }
+        payloadOffset = position;
+        position += payloadLength;
+        return true;
+    }
+
+    public int typeId() {
+        return typeId;
+    }
+
+    // the version of the codec that wrote the current record
+    public int version() {
+        return version;
+    }
+
+    public long payloadOffset() {
+        return payloadOffset;
+    }
+
+    public int payloadLength() {
+        return payloadLength;
+    }
+
+    private int readVarInt() {
+        int result = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            if (position == size) {
+                throw BinaryReader.corrupted("frame header cut off at " + position);
+            }
+            byte b = stream.get(ValueLayout.JAVA_BYTE, position++);
+            result |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return result;
+            }
+        }
+        throw BinaryReader.corrupted("varint longer than 5 bytes");
+    }
+}
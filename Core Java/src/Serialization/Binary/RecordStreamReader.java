@@ -0,0 +1,145 @@
+package Serialization.Binary;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StreamCorruptedException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Reads what RecordStreamWriter wrote. The stream is read in large chunks into one buffer and every frame is
+ * decoded in place, with a BinaryReader limited to the frame's payload: a codec cannot read into the next
+ * record, and payload bytes it leaves unread (fields of a newer version) are skipped.
+ * <pre>
+ * try (RecordStreamReader in = new RecordStreamReader(new FileInputStream(file), registry)) {
+ *     while (in.hasNext()) {
+ *         User user = in.next(User.class);
+ *     }
+ * }
+ * </pre>
+ * Truncated or malformed input throws EOFException or StreamCorruptedException. Not thread-safe.
+ * close() closes the stream.
+ */
+public final class RecordStreamReader implements Closeable {
+    // a frame header: three varints
+    private static final int MAX_HEADER_BYTES = 3 * BinaryWriter.MAX_VARINT_BYTES;
+    private static final int MAX_PAYLOAD_BYTES = 1 << 28;
+
+    private final InputStream in;
+    private final CodecRegistry registry;
+    private final BinaryReader reader = new BinaryReader();
+    private byte[] buffer;
+    // unread bytes are buffer[start, end)
+    private int start;
+    private int end;
+    private boolean eof;
+    private long records;
+
+    public RecordStreamReader(InputStream in, CodecRegistry registry) throws IOException {
+        this(in, registry, 64 * 1024);
+    }
+
+    public RecordStreamReader(InputStream in, CodecRegistry registry, int bufferSize) throws IOException {
+        if (bufferSize <= 0) {
+            throw new IllegalArgumentException("bufferSize must be positive: " + bufferSize);
+        }
+        this.in = in;
+        this.registry = registry;
+        this.buffer = new byte[Math.max(bufferSize, 64)];
+        readStreamHeader();
+    }
+
+    public boolean hasNext() throws IOException {
+        return fill(1);
+    }
+
+    /**
+     * @throws NoSuchElementException at the end of the stream
+     */
+    public Object next() throws IOException {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        try {
+            // the header is at most 15 bytes, but the last frame may be shorter than that
+            fill(MAX_HEADER_BYTES);
+            reader.wrap(buffer, start, end - start);
+            CodecRegistry.Registration<?> registration = registry.forId(reader.readVarInt());
+            int version = reader.readVarInt();
+            int length = reader.readVarInt();
+            if (length < 0 || length > MAX_PAYLOAD_BYTES) {
+                throw new StreamCorruptedException("payload length " + Integer.toUnsignedString(length));
+            }
+            start = reader.position();
+            if (!fill(length)) {
+                throw new EOFException("record of " + length + " bytes cut off after " + (end - start));
+            }
+            reader.wrap(buffer, start, length);
+            Object value = registration.codec().decode(reader, version);
+            start += length;
+            records++;
+            return value;
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * @throws ClassCastException if the next record is of another class
+     */
+    public <T> T next(Class<T> type) throws IOException {
+        return type.cast(next());
+    }
+
+    public long recordsRead() {
+        return records;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private void readStreamHeader() throws IOException {
+        int headerLength = RecordStreamWriter.MAGIC.length + 1;
+        if (!fill(headerLength)) {
+            throw new EOFException("no stream header");
+        }
+        if (!Arrays.equals(buffer, 0, RecordStreamWriter.MAGIC.length,
+                RecordStreamWriter.MAGIC, 0, RecordStreamWriter.MAGIC.length)) {
+            throw new StreamCorruptedException("not a record stream");
+        }
+        int format = buffer[RecordStreamWriter.MAGIC.length];
+        if (format != RecordStreamWriter.FORMAT_VERSION) {
+            throw new StreamCorruptedException("unsupported stream format " + format);
+        }
+        start = headerLength;
+    }
+
+    // tries to have at least `bytes` unread bytes in the buffer; false if the stream ends first
+    private boolean fill(int bytes) throws IOException {
+        if (end - start >= bytes) {
+            return true;
+        }
+        if (start + bytes > buffer.length) {
+            // move the unread bytes to the front, growing the buffer for a large record
+            byte[] target = bytes > buffer.length ? new byte[Math.max(bytes, buffer.length * 2)] : buffer;
+            System.arraycopy(buffer, start, target, 0, end - start);
+            end -= start;
+            start = 0;
+            buffer = target;
+        }
+        while (end - start < bytes && !eof) {
+            int read = in.read(buffer, end, buffer.length - end);
+            if (read < 0) {
+                eof = true;
+            } else {
+                end += read;
+            }
+        }
+        return end - start >= bytes;
+    }
+}
@@ -0,0 +1,97 @@
+package Serialization.Binary;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Writes records of any registered class to a stream, one frame each:
+ * <pre>
+ * stream: MAGIC (4 bytes) FORMAT_VERSION (1 byte) frame*
+ * frame:  typeId (varint) codecVersion (varint) payloadLength (varint) payload
+ * </pre>
+ * The payload length lets a reader skip what it does not understand (fields added by a newer codec
+ * version) and resynchronize on the next frame. Records are encoded into one reused buffer, which goes to
+ * the stream once it holds bufferSize bytes, so the OutputStream sees a few large writes and nothing is
+ * allocated per record. Unlike ObjectOutputStream nothing is remembered between records: no handle table
+ * to reset, no back references, every record is written in full.
+ * <p>
+ * Not thread-safe. close() closes the stream.
+ */
+public final class RecordStreamWriter implements Closeable, Flushable {
+    static final byte[] MAGIC = {'J', 'B', 'I', 'N'};
+    static final int FORMAT_VERSION = 1;
+
+    private final OutputStream out;
+    private final CodecRegistry registry;
+    private final BinaryWriter buffer;
+    private final int bufferSize;
+    private long records;
+
+    public RecordStreamWriter(OutputStream out, CodecRegistry registry) throws IOException {
+        this(out, registry, 64 * 1024);
+    }
+
+    public RecordStreamWriter(OutputStream out, CodecRegistry registry, int bufferSize) throws IOException {
+        if (bufferSize <= 0) {
+            throw new IllegalArgumentException("bufferSize must be positive: " + bufferSize);
+        }
+        this.out = out;
+        this.registry = registry;
+        this.bufferSize = bufferSize;
+        // a record may overshoot bufferSize before it is drained
+        this.buffer = new BinaryWriter(bufferSize + 1024);
+        buffer.writeBytes(MAGIC, 0, MAGIC.length);
+        buffer.writeByte(FORMAT_VERSION);
+    }
+
+    /**
+     * @throws IllegalArgumentException if no codec is registered for the value's class
+     */
+    public <T> void write(T value) throws IOException {
+        @SuppressWarnings("unchecked")
+        CodecRegistry.Registration<T> registration = registry.forType((Class<T>) value.getClass());
+        write(registration, value);
+    }
+
+    // same, without the lookup by value.getClass(); for subclasses of a registered class
+    public <T> void write(Class<T> type, T value) throws IOException {
+        write(registry.forType(type), value);
+    }
+
+    private <T> void write(CodecRegistry.Registration<T> registration, T value) throws IOException {
+        Codec<T> codec = registration.codec();
+        buffer.writeVarInt(registration.typeId());
+        buffer.writeVarInt(codec.version());
+        int mark = buffer.beginLength();
+        codec.encode(value, buffer);
+        buffer.endLength(mark);
+        records++;
+        if (buffer.position() >= bufferSize) {
+            drain();
+        }
+    }
+
+    public long recordsWritten() {
+        return records;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        drain();
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try (out) {
+            drain();
+        }
+    }
+
+    private void drain() throws IOException {
+        buffer.writeTo(out);
+        buffer.reset();
+    }
+}
@@ -0,0 +1,40 @@
+package Serialization.Binary;
+
+import Serialization.User;
+
+/**
+ * Hand-written codec for User: both strings, nullable, nothing else. The static total counter is not state
+ * of a User and is not written, as with Serializable.
+ * <p>
+ * Version 1: name, password.
+ */
+public final class UserCodec implements Codec<User> {
+    public static final int VERSION = 1;
+
+    @Override
+    public Class<User> type() {
+        return User.class;
+    }
+
+    @Override
+    public int version() {
+        return VERSION;
+    }
+
+    @Override
+    public void encode(User user, BinaryWriter out) {
+        out.writeNullableString(user.getName());
+        out.writeNullableString(user.getPassword());
+    }
+
+    @Override
+    public User decode(BinaryReader in, int version) {
+        if (version < 1) {
+            throw BinaryReader.corrupted("unknown User version " + version);
+        }
+        // later versions only append fields
+        String name = in.readNullableString();
+        String password = in.readNullableString();
+        return new User(name, password);
+    }
+}
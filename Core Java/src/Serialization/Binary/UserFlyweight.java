@@ -0,0 +1,277 @@
+package Serialization.Binary;
+
+import Serialization.User;
+
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reads the fields of a User written by UserCodec where the bytes are, SBE-style: wrap() points this object
+ * at a record in a ByteBuffer or MemorySegment, and the accessors read from there. Nothing is copied or
+ * allocated unless a String is asked for (name(), password(), toUser()); the UTF-8 comparisons (nameEquals,
+ * nameStartsWith, compareName and the password ones) run over the raw bytes. One flyweight, re-wrapped for
+ * every record, scans and filters millions of records without garbage:
+ * <pre>
+ * UserFlyweight user = new UserFlyweight();
+ * byte[] wanted = "user42".getBytes(StandardCharsets.UTF_8);
+ * log.scan(0, (offset, payload) -&gt; {
+ *     if (user.wrapLogRecord(payload).nameEquals(wanted)) { ... }
+ *     return true;
+ * });
+ * </pre>
+ * Fields are located lazily: wrap() only remembers where the record is, the password's position is found
+ * by skipping the name the first time it is needed. A record that ends too early throws
+ * UncheckedIOException, as BinaryReader does. Not thread-safe, and only valid while the wrapped bytes are.
+ */
+public final class UserFlyweight {
+    private static final VarHandle LONGS_LITTLE_ENDIAN = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final VarHandle LONGS_BIG_ENDIAN = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+    private static final VarHandle LONGS_NATIVE = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+    // exactly one of the two is set
+    private ByteBuffer buffer;
+    private MemorySegment segment;
+    private long start;
+    private long limit;
+    private int version;
+    // -1 until the name has been skipped once
+    private long passwordOffset;
+
+    // set by stringLength(): where the bytes of the string just looked at begin
+    private long stringStart;
+    // the position after the varint or string read last
+    private long next;
+
+    /**
+     * Points at the UserCodec payload from buffer's position to its limit, which are not changed.
+     */
+    public UserFlyweight wrap(ByteBuffer buffer) {
+        return wrap(buffer, buffer.position(), buffer.remaining());
+    }
+
+    public UserFlyweight wrap(ByteBuffer buffer, int offset, int length) {
+        this.buffer = buffer;
+        this.segment = null;
+        return at(offset, length, UserCodec.VERSION);
+    }
+
+    public UserFlyweight wrap(MemorySegment segment, long offset, long length) {
+        this.segment = segment;
+        this.buffer = null;
+        return at(offset, length, UserCodec.VERSION);
+    }
+
+    /**
+     * Points at a record as RecordLog.append(user, codec) stores it: the codec version as a varint, then
+     * the payload.
+     */
+    public UserFlyweight wrapLogRecord(ByteBuffer payload) {
+        wrap(payload);
+        int recordVersion = varIntAt(start);
+        if (recordVersion < 1) {
+            throw BinaryReader.corrupted("unknown User version " + recordVersion);
+        }
+        // later versions only append fields
+        return at(next, limit - next, recordVersion);
+    }
+
+    private UserFlyweight at(long offset, long length, int version) {
+        if (offset < 0 || length < 0) {
+            throw new IndexOutOfBoundsException("offset " + offset + ", length " + length);
+        }
+        this.start = offset;
+        this.limit = offset + length;
+        this.version = version;
+        this.passwordOffset = -1;
+        return this;
+    }
+
+    // the UserCodec version the record was written with, when known (wrapLogRecord); UserCodec.VERSION otherwise
+    public int version() {
+        return version;
+    }
+
+    // ---- name ----
+
+    public boolean isNameNull() {
+        return stringLength(start) < 0;
+    }
+
+    // bytes of UTF-8, -1 for null
+    public int nameLength() {
+        return stringLength(start);
+    }
+
+    // allocates: decodes the name
+    public String name() {
+        return string(start);
+    }
+
+    // false for a null name
+    public boolean nameEquals(byte[] utf8) {
+        return stringEquals(start, utf8);
+    }
+
+    public boolean nameStartsWith(byte[] utf8Prefix) {
+        return stringStartsWith(start, utf8Prefix);
+    }
+
+    /**
+     * Compares the name to utf8 byte by byte, unsigned, which for valid UTF-8 is the order of code points
+     * (String.compareTo orders by UTF-16 units, which differs only beyond U+FFFF). A null name is less
+     * than everything.
+     */
+    public int compareName(byte[] utf8) {
+        return stringCompare(start, utf8);
+    }
+
+    // ---- password ----
+
+    public boolean isPasswordNull() {
+        return stringLength(passwordOffset()) < 0;
+    }
+
+    public int passwordLength() {
+        return stringLength(passwordOffset());
+    }
+
+    public String password() {
+        return string(passwordOffset());
+    }
+
+    public boolean passwordEquals(byte[] utf8) {
+        return stringEquals(passwordOffset(), utf8);
+    }
+
+    public boolean passwordStartsWith(byte[] utf8Prefix) {
+        return stringStartsWith(passwordOffset(), utf8Prefix);
+    }
+
+    public int comparePassword(byte[] utf8) {
+        return stringCompare(passwordOffset(), utf8);
+    }
+
+    // allocates: a User with both Strings decoded
+    public User toUser() {
+        return new User(name(), password());
+    }
+
+    @Override
+    public String toString() {
+        return "UserFlyweight [name=" + name() + ", password=" + password() + ", version=" + version + "]";
+    }
+
+    private long passwordOffset() {
+        if (passwordOffset < 0) {
+            stringLength(start);
+            passwordOffset = next;
+        }
+        return passwordOffset;
+    }
+
+    // ---- string fields: varint (length + 1, 0 for null), then the UTF-8 bytes ----
+
+    // -1 for null; sets stringStart and next
+    private int stringLength(long fieldOffset) {
+        int lengthPlusOne = varIntAt(fieldOffset);
+        if (lengthPlusOne == 0) {
+            stringStart = next;
+            return -1;
+        }
+        long length = Integer.toUnsignedLong(lengthPlusOne) - 1;
+        stringStart = next;
+        if (length > limit - stringStart) {
+            throw BinaryReader.corrupted("string of " + length + " bytes at " + stringStart + " runs past " + limit);
+        }
+        next = stringStart + length;
+        return (int) length;
+    }
+
+    private String string(long fieldOffset) {
+        int length = stringLength(fieldOffset);
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        if (buffer != null) {
+            buffer.get((int) stringStart, bytes);
+        } else {
+            MemorySegment.copy(segment, ValueLayout.JAVA_BYTE, stringStart, bytes, 0, length);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private boolean stringEquals(long fieldOffset, byte[] utf8) {
+        int length = stringLength(fieldOffset);
+        return length == utf8.length && mismatch(stringStart, utf8, length) < 0;
+    }
+
+    private boolean stringStartsWith(long fieldOffset, byte[] utf8Prefix) {
+        int length = stringLength(fieldOffset);
+        return length >= utf8Prefix.length && mismatch(stringStart, utf8Prefix, utf8Prefix.length) < 0;
+    }
+
+    private int stringCompare(long fieldOffset, byte[] utf8) {
+        int length = stringLength(fieldOffset);
+        if (length < 0) {
+            return -1;
+        }
+        int common = Math.min(length, utf8.length);
+        int index = mismatch(stringStart, utf8, common);
+        if (index < 0) {
+            return Integer.compare(length, utf8.length);
+        }
+        return Integer.compare(byteAt(stringStart + index) & 0xFF, utf8[index] & 0xFF);
+    }
+
+    // first index below length where the bytes differ, -1 if none; 8 bytes at a time, then the rest
+    private int mismatch(long from, byte[] other, int length) {
+        int i = 0;
+        if (buffer != null) {
+            VarHandle longs = buffer.order() == ByteOrder.LITTLE_ENDIAN ? LONGS_LITTLE_ENDIAN : LONGS_BIG_ENDIAN;
+            for (; i <= length - Long.BYTES; i += Long.BYTES) {
+                if (buffer.getLong((int) from + i) != (long) longs.get(other, i)) {
+                    break;
+                }
+            }
+        } else {
+            for (; i <= length - Long.BYTES; i += Long.BYTES) {
+                if (segment.get(ValueLayout.JAVA_LONG_UNALIGNED, from + i) != (long) LONGS_NATIVE.get(other, i)) {
+                    break;
+                }
+            }
+        }
+        for (; i < length; i++) {
+            if (byteAt(from + i) != other[i]) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // reads the varint at position and sets next to the byte after it
+    private int varIntAt(long position) {
+        int result = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            byte b = byteAt(position++);
+            result |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                next = position;
+                return result;
+            }
+        }
+        throw BinaryReader.corrupted("varint longer than 5 bytes");
+    }
+
+    private byte byteAt(long position) {
+        if (position >= limit) {
+            throw BinaryReader.corrupted("record ends at " + limit);
+        }
+        return buffer != null ? buffer.get((int) position) : segment.get(ValueLayout.JAVA_BYTE, position);
+    }
+}
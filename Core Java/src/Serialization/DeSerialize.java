@@ -8,7 +8,8 @@ public class DeSerialize {
     public static void main(String[] args) throws IOException, ClassNotFoundException {
         User user;
 
-        FileInputStream fileInputStream = new FileInputStream("C:\\Users\\Dell\\Desktop\\Projects\\Java\\Core Java\\UserInfo.ser");
+        // the file Serialize wrote into the working directory, unless another one is given
+        FileInputStream fileInputStream = new FileInputStream(args.length > 0 ? args[0] : "UserInfo.ser");
         ObjectInputStream in = new ObjectInputStream(fileInputStream);
         user = (User) in.readObject();
         in.close();
@@ -0,0 +1,156 @@
+package Serialization;
+
+import Benchmark.Harness;
+import Serialization.Binary.BinaryReader;
+import Serialization.Binary.CodecRegistry;
+import Serialization.Binary.RecordStreamCursor;
+import Serialization.Binary.RecordStreamWriter;
+import Serialization.Binary.UserCodec;
+import Serialization.Binary.UserFlyweight;
+import Serialization.Log.RecordLog;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.SplittableRandom;
+import java.util.function.LongSupplier;
+import java.util.stream.Stream;
+
+/**
+ * One filter over `records` Users, run three ways: names starting with "user12" whose password sorts
+ * before "m", which touches both fields of every record.
+ * <ul>
+ *     <li>decode: RecordLog.scan, every record decoded by UserCodec into a User with two Strings, then
+ *     String.startsWith / compareTo;</li>
+ *     <li>flyweight over the log: RecordLog.scan with one UserFlyweight re-wrapped on each ByteBuffer view,
+ *     comparing raw UTF-8;</li>
+ *     <li>flyweight over a mapped stream: the same records written by RecordStreamWriter to a file mapped
+ *     as a MemorySegment, walked by RecordStreamCursor.</li>
+ * </ul>
+ * Each reports records/s and the bytes its thread allocated per record (ThreadMXBean, measured over a
+ * whole scan after warm-up), and fails if a flyweight scan allocates anything per record.
+ * <p>
+ * Usage: java --enable-preview Serialization.FlyweightBenchmark [records=10000000] (preview for
+ * java.lang.foreign on Java 21, final since 22)
+ */
+public class FlyweightBenchmark {
+    private static final byte[] NAME_PREFIX = "user12".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] PASSWORD_BOUND = "m".getBytes(StandardCharsets.UTF_8);
+
+    public static void main(String[] args) throws IOException {
+        int records = Harness.intArg(args, 0, 10_000_000);
+        System.out.printf("%d records, %d CPUs%n", records, Runtime.getRuntime().availableProcessors());
+        Path directory = Files.createTempDirectory("flyweight");
+        UserCodec codec = new UserCodec();
+        try (RecordLog log = RecordLog.newBuilder(directory.resolve("log")).syncInterval(Duration.ZERO).build();
+             Arena arena = Arena.ofConfined()) {
+            Path streamFile = directory.resolve("users.bin");
+            fill(log, streamFile, records, codec);
+            MemorySegment stream;
+            try (FileChannel channel = FileChannel.open(streamFile, StandardOpenOption.READ)) {
+                stream = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size(), arena);
+            }
+
+            long expected = measure("decode to User", records, false, () -> decode(log, codec));
+            check(expected, measure("flyweight, log ByteBuffer", records, true, () -> flyweight(log)));
+            check(expected, measure("flyweight, MemorySegment", records, true, () -> flyweight(stream)));
+            System.out.printf("%d matching records%n", expected);
+        } finally {
+            delete(directory);
+        }
+    }
+
+    private static void fill(RecordLog log, Path streamFile, int records, UserCodec codec) throws IOException {
+        SplittableRandom random = new SplittableRandom(42);
+        CodecRegistry registry = CodecRegistry.withDefaults();
+        try (RecordStreamWriter stream = new RecordStreamWriter(new BufferedOutputStream(Files.newOutputStream(streamFile)), registry)) {
+            for (int i = 0; i < records; i++) {
+                User user = new User("user" + i, Long.toString(random.nextLong(1L << 40, 1L << 50), 36));
+                log.append(user, codec);
+                stream.write(user);
+            }
+        }
+    }
+
+    private static long decode(RecordLog log, UserCodec codec) {
+        String prefix = new String(NAME_PREFIX, StandardCharsets.UTF_8);
+        String bound = new String(PASSWORD_BOUND, StandardCharsets.UTF_8);
+        long[] matches = {0};
+        log.scan(0, (offset, payload) -> {
+            byte[] bytes = new byte[payload.remaining()];
+            payload.get(bytes);
+            BinaryReader reader = new BinaryReader(bytes);
+            User user = codec.decode(reader, reader.readVarInt());
+            if (user.getName().startsWith(prefix) && user.getPassword().compareTo(bound) < 0) {
+                matches[0]++;
+            }
+            return true;
+        });
+        return matches[0];
+    }
+
+    private static long flyweight(RecordLog log) {
+        UserFlyweight user = new UserFlyweight();
+        long[] matches = {0};
+        log.scan(0, (offset, payload) -> {
+            user.wrapLogRecord(payload);
+            if (user.nameStartsWith(NAME_PREFIX) && user.comparePassword(PASSWORD_BOUND) < 0) {
+                matches[0]++;
+            }
+            return true;
+        });
+        return matches[0];
+    }
+
+    private static long flyweight(MemorySegment stream) {
+        RecordStreamCursor cursor = new RecordStreamCursor(stream);
+        UserFlyweight user = new UserFlyweight();
+        long matches = 0;
+        while (cursor.next()) {
+            user.wrap(stream, cursor.payloadOffset(), cursor.payloadLength());
+            if (user.nameStartsWith(NAME_PREFIX) && user.comparePassword(PASSWORD_BOUND) < 0) {
+                matches++;
+            }
+        }
+        return matches;
+    }
+
+    // prints time and allocation per record; returns the number of matches
+    private static long measure(String label, int records, boolean mustNotAllocate, LongSupplier scan) {
+        long[] matches = new long[1];
+        double bestMs = Harness.run(label, 3, 5, () -> matches[0] = scan.getAsLong());
+        long before = Harness.threadAllocatedBytes();
+        scan.getAsLong();
+        long allocated = Harness.threadAllocatedBytes() - before;
+        double perRecord = (double) allocated / records;
+        System.out.printf("%-45s %7.1f M records/s, %8.3f bytes allocated per record (%d in total)%n",
+                label, records / bestMs / 1e3, perRecord, allocated);
+        // a scan may allocate a few objects up front (cursor, flyweight, lambda, buffer views), never per record
+        if (mustNotAllocate && allocated > 16 * 1024) {
+            throw new IllegalStateException(label + " allocated " + allocated + " bytes for " + records + " records");
+        }
+        return matches[0];
+    }
+
+    private static void check(long expected, long actual) {
+        if (actual != expected) {
+            throw new IllegalStateException(actual + " matches, expected " + expected);
+        }
+    }
+
+    private static void delete(Path directory) throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+}
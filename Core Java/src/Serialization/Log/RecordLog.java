@@ -0,0 +1,479 @@
+package Serialization.Log;
+
+import Serialization.Binary.BinaryReader;
+import Serialization.Binary.BinaryWriter;
+import Serialization.Binary.Codec;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Durable append-only log of byte records in a directory, the store for many Users that a single
+ * UserInfo.ser is not. Records are numbered from 0 (their offset) and never change once appended.
+ * <ul>
+ *     <li>The log is split into segment files of segmentSize bytes, named after the offset of their first
+ *     record. Each is memory-mapped once: an append is a copy into the mapping, with no system call, and
+ *     a read hands out a view of the mapping, with no copy (read, scan).</li>
+ *     <li>Each segment has a sparse index, an entry every indexInterval bytes. A lookup by offset finds
+ *     the segment by binary search over the base offsets, then the nearest index entry, then walks a few
+ *     records. The index of a full segment is saved next to it, so opening the log only scans the
+ *     last segment.</li>
+ *     <li>Appends reach the page cache at once, but the disk only on a sync. sync() forces the mapping,
+ *     and callers that need a record on disk call awaitDurable(offset): while one thread forces, the others
+ *     wait on it and its force covers their records too (group commit). The builder adds a sync every
+ *     syncEveryRecords appends, and a background one every syncInterval.</li>
+ *     <li>Every record carries a CRC32C. Opening the log after a crash checks the last segment and cuts it at
+ *     the first record that was torn, so the log is always a prefix of what was appended.</li>
+ * </ul>
+ * Appends from several threads are serialized; reads need no lock and see every record whose append
+ * returned. Not for more than one process at a time.
+ * <pre>
+ * try (RecordLog log = RecordLog.newBuilder(Path.of("users")).syncInterval(Duration.ofMillis(10)).build()) {
+ *     long offset = log.append(user, new UserCodec());
+ *     log.awaitDurable(offset);
+ *     User again = log.read(offset, new UserCodec());
+ * }
+ * </pre>
+ */
+public final class RecordLog implements AutoCloseable {
+    private final Path directory;
+    private final int segmentSize;
+    private final int indexInterval;
+    private final int syncEveryRecords;
+
+    private final Object appendLock = new Object();
+    private final Object syncLock = new Object();
+    private final CRC32C crc = new CRC32C();
+    private final BinaryWriter scratch = new BinaryWriter();
+    private final Thread syncer;
+
+    // replaced, never changed, when a segment is added
+    private volatile Segment[] segments;
+    private volatile long nextOffset;
+    private volatile long durableOffset;
+    // set by a failed sync; every later append and sync fails with it
+    private volatile IOException syncFailure;
+    private volatile boolean closed;
+    private int appendsSinceSync;
+
+    // receives the records of scan(), one at a time
+    @FunctionalInterface
+    public interface RecordVisitor {
+        /**
+         * @param payload read-only view of the record, valid only during this call
+         * @return false to stop the scan
+         */
+        boolean visit(long offset, ByteBuffer payload);
+    }
+
+    private RecordLog(Builder builder) throws IOException {
+        directory = builder.directory;
+        segmentSize = builder.segmentSize;
+        indexInterval = builder.indexInterval;
+        syncEveryRecords = builder.syncEveryRecords;
+        Files.createDirectories(directory);
+        segments = open();
+        Segment last = segments[segments.length - 1];
+        nextOffset = last.baseOffset + last.recordCount;
+        durableOffset = nextOffset;
+        if (builder.syncIntervalNanos > 0) {
+            long intervalNanos = builder.syncIntervalNanos;
+            syncer = new Thread(() -> syncPeriodically(intervalNanos), "record-log-sync");
+            syncer.setDaemon(true);
+            syncer.start();
+        } else {
+            syncer = null;
+        }
+    }
+
+    public static Builder newBuilder(Path directory) {
+        return new Builder(directory);
+    }
+
+    // segments in offset order; every one but the last is sealed
+    private Segment[] open() throws IOException {
+        List<Long> baseOffsets = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.matches("\\d{20}\\.log"))
+                    .forEach(name -> baseOffsets.add(Long.parseLong(name.substring(0, 20))));
+        }
+        baseOffsets.sort(null);
+        List<Segment> opened = new ArrayList<>();
+        long expectedBase = 0;
+        for (int i = 0; i < baseOffsets.size(); i++) {
+            long base = baseOffsets.get(i);
+            Path path = Segment.logFile(directory, base);
+            if (base != expectedBase) {
+                // segments are only ever added at the end, so this was not a crash
+                throw new IOException(path + " should start at offset " + expectedBase + ", the log is damaged");
+            }
+            boolean last = i == baseOffsets.size() - 1;
+            Segment segment = last
+                    ? Segment.reopen(path, base, segmentSize, indexInterval)
+                    : Segment.openSealed(path, base, indexInterval);
+            if (segment == null) {
+                segment = Segment.recover(path, base, segmentSize, indexInterval);
+                if (!last) {
+                    // lost its index file: rebuilt by the scan, saved again
+                    segment.seal();
+                }
+            }
+            opened.add(segment);
+            expectedBase = base + segment.recordCount;
+        }
+        if (opened.isEmpty()) {
+            opened.add(Segment.create(directory, 0, segmentSize, indexInterval));
+        }
+        return opened.toArray(new Segment[0]);
+    }
+
+    /**
+     * Appends payload's remaining bytes as one record and returns its offset. The record is readable at
+     * once, and durable after the next sync.
+     *
+     * @throws IllegalArgumentException if the record does not fit into a segment
+     * @throws IOException if a new segment could not be created, or a sync failed
+     */
+    public long append(ByteBuffer payload) throws IOException {
+        int length = payload.remaining();
+        if (length > segmentSize - Segment.HEADER_BYTES) {
+            throw new IllegalArgumentException("record of " + length + " bytes does not fit a segment of " + segmentSize);
+        }
+        long offset;
+        boolean sync;
+        synchronized (appendLock) {
+            offset = appendLocked(payload);
+            sync = syncDue();
+        }
+        // outside the lock, so other appends can join this sync
+        if (sync) {
+            awaitDurable(offset);
+        }
+        return offset;
+    }
+
+    public long append(byte[] payload, int offset, int length) throws IOException {
+        return append(ByteBuffer.wrap(payload, offset, length));
+    }
+
+    /**
+     * Appends value as written by codec, after the codec's version as a varint, so read() can hand the
+     * version back to decode().
+     */
+    public <T> long append(T value, Codec<T> codec) throws IOException {
+        long offset;
+        boolean sync;
+        // the scratch writer is only touched under the append lock
+        synchronized (appendLock) {
+            scratch.reset();
+            scratch.writeVarInt(codec.version());
+            codec.encode(value, scratch);
+            if (scratch.position() > segmentSize - Segment.HEADER_BYTES) {
+                throw new IllegalArgumentException("record of " + scratch.position() + " bytes does not fit a segment of " + segmentSize);
+            }
+            offset = appendLocked(ByteBuffer.wrap(scratch.array(), 0, scratch.position()));
+            sync = syncDue();
+        }
+        if (sync) {
+            awaitDurable(offset);
+        }
+        return offset;
+    }
+
+    private long appendLocked(ByteBuffer payload) throws IOException {
+        ensureOpen();
+        Segment[] current = segments;
+        Segment active = current[current.length - 1];
+        if (!active.hasRoomFor(payload.remaining())) {
+            active = roll(current, active);
+        }
+        active.append(payload, crc);
+        long offset = nextOffset;
+        // publishes the record and its index entry
+        nextOffset = offset + 1;
+        return offset;
+    }
+
+    private boolean syncDue() {
+        if (syncEveryRecords > 0 && ++appendsSinceSync >= syncEveryRecords) {
+            appendsSinceSync = 0;
+            return true;
+        }
+        return false;
+    }
+
+    // seals the full segment and starts the next one; appender only
+    private Segment roll(Segment[] current, Segment full) throws IOException {
+        full.seal();
+        Segment next = Segment.create(directory, full.baseOffset + full.recordCount, segmentSize, indexInterval);
+        Segment[] grown = Arrays.copyOf(current, current.length + 1);
+        grown[current.length] = next;
+        segments = grown;
+        return next;
+    }
+
+    /**
+     * A read-only view of the record at offset, straight from the mapping: no copy, valid for as long as
+     * the log is open.
+     *
+     * @throws IndexOutOfBoundsException if offset is negative or not appended yet
+     */
+    public ByteBuffer read(long offset) {
+        long end = nextOffset;
+        if (offset < 0 || offset >= end) {
+            throw new IndexOutOfBoundsException("offset " + offset + " not in [0, " + end + ")");
+        }
+        Segment segment = segmentOf(segments, offset);
+        int position = segment.position((int) (offset - segment.baseOffset));
+        return segment.map.slice(position + Segment.HEADER_BYTES, segment.length(position))
+                .asReadOnlyBuffer()
+                .order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    // a record appended with append(value, codec)
+    public <T> T read(long offset, Codec<T> codec) {
+        ByteBuffer payload = read(offset);
+        byte[] bytes = new byte[payload.remaining()];
+        payload.get(bytes);
+        BinaryReader reader = new BinaryReader(bytes);
+        return codec.decode(reader, reader.readVarInt());
+    }
+
+    /**
+     * Hands the records from fromOffset to the end of the log, as it was when the scan started, to
+     * visitor in order. The records are views of the mapping, one reused buffer per segment: a scan
+     * copies nothing and allocates nothing per record.
+     */
+    public void scan(long fromOffset, RecordVisitor visitor) {
+        long end = nextOffset;
+        if (fromOffset < 0 || fromOffset > end) {
+            throw new IndexOutOfBoundsException("offset " + fromOffset + " not in [0, " + end + "]");
+        }
+        Segment[] current = segments;
+        long offset = fromOffset;
+        for (int i = indexOf(current, fromOffset); i < current.length && offset < end; i++) {
+            Segment segment = current[i];
+            ByteBuffer view = segment.map.asReadOnlyBuffer().order(ByteOrder.LITTLE_ENDIAN);
+            int position = segment.position((int) (offset - segment.baseOffset));
+            long segmentEnd = Math.min(end, segment.baseOffset + segment.recordCount);
+            for (; offset < segmentEnd; offset++) {
+                int length = segment.length(position);
+                int payloadStart = position + Segment.HEADER_BYTES;
+                view.limit(payloadStart + length).position(payloadStart);
+                if (!visitor.visit(offset, view)) {
+                    return;
+                }
+                position = payloadStart + length;
+            }
+        }
+    }
+
+    private static Segment segmentOf(Segment[] segments, long offset) {
+        return segments[indexOf(segments, offset)];
+    }
+
+    // the last segment whose base offset is at most offset
+    private static int indexOf(Segment[] segments, long offset) {
+        int low = 0;
+        int high = segments.length - 1;
+        while (low < high) {
+            int middle = (low + high + 1) >>> 1;
+            if (segments[middle].baseOffset <= offset) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Blocks until the record at offset is on disk. Forces the active segment unless another thread's
+     * force already covered it; callers that arrive during a force wait for it and usually find their
+     * record covered when it ends, so concurrent appenders share one force.
+     */
+    public void awaitDurable(long offset) throws IOException {
+        if (offset < durableOffset) {
+            return;
+        }
+        synchronized (syncLock) {
+            checkSyncFailure();
+            if (offset < durableOffset) {
+                return;
+            }
+            // everything appended up to now; sealed segments were forced when they were sealed
+            long target = nextOffset;
+            Segment[] current = segments;
+            try {
+                current[current.length - 1].force();
+            } catch (UncheckedIOException e) {
+                // a failed force may have dropped dirty pages: nothing after it can be trusted to be durable
+                syncFailure = e.getCause();
+                throw e.getCause();
+            }
+            durableOffset = target;
+        }
+    }
+
+    // makes every record appended so far durable
+    public void sync() throws IOException {
+        long end = nextOffset;
+        if (end > 0) {
+            awaitDurable(end - 1);
+        }
+    }
+
+    // the offset the next append gets, the number of records in the log
+    public long nextOffset() {
+        return nextOffset;
+    }
+
+    // records below this offset are on disk
+    public long durableOffset() {
+        return durableOffset;
+    }
+
+    // bytes of all records with their headers, without the unused end of the last segment; exact once appends stop
+    public long sizeInBytes() {
+        long bytes = 0;
+        for (Segment segment : segments) {
+            bytes += segment.end;
+        }
+        return bytes;
+    }
+
+    public int segmentCount() {
+        return segments.length;
+    }
+
+    /**
+     * Syncs, saves the index of the last segment so the next open need not scan it, and closes the
+     * files. Views handed out by read() and scan() must not be used afterwards.
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (appendLock) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        }
+        if (syncer != null) {
+            LockSupport.unpark(syncer);
+            boolean interrupted = false;
+            while (syncer.isAlive()) {
+                try {
+                    syncer.join();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        Segment[] current = segments;
+        try {
+            checkSyncFailure();
+            current[current.length - 1].seal();
+        } finally {
+            for (Segment segment : current) {
+                segment.close();
+            }
+        }
+    }
+
+    private void syncPeriodically(long intervalNanos) {
+        while (!closed) {
+            LockSupport.parkNanos(this, intervalNanos);
+            if (closed || syncFailure != null) {
+                return;
+            }
+            try {
+                sync();
+            } catch (IOException e) {
+                // kept in syncFailure, the appenders see it
+                return;
+            }
+        }
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("Record log is closed");
+        }
+        checkSyncFailure();
+    }
+
+    private void checkSyncFailure() throws IOException {
+        IOException failure = syncFailure;
+        if (failure != null) {
+            throw new IOException("Background sync failed", failure);
+        }
+    }
+
+    public static final class Builder {
+        private final Path directory;
+        private int segmentSize = 256 * 1024 * 1024;
+        private int indexInterval = 4096;
+        private int syncEveryRecords;
+        private long syncIntervalNanos = Duration.ofSeconds(1).toNanos();
+
+        private Builder(Path directory) {
+            this.directory = Objects.requireNonNull(directory);
+        }
+
+        // bytes per segment file, the largest record plus its 8-byte header must fit
+        public Builder segmentSize(int segmentSize) {
+            if (segmentSize < 4096) {
+                throw new IllegalArgumentException("segmentSize must be at least 4096: " + segmentSize);
+            }
+            this.segmentSize = segmentSize;
+            return this;
+        }
+
+        // bytes between two index entries: larger is a smaller index and a longer walk per lookup
+        public Builder indexInterval(int indexInterval) {
+            if (indexInterval <= 0) {
+                throw new IllegalArgumentException("indexInterval must be positive: " + indexInterval);
+            }
+            this.indexInterval = indexInterval;
+            return this;
+        }
+
+        // sync inside append() every n records; 1 makes every append durable before it returns, 0 never
+        public Builder syncEveryRecords(int syncEveryRecords) {
+            if (syncEveryRecords < 0) {
+                throw new IllegalArgumentException("syncEveryRecords must not be negative: " + syncEveryRecords);
+            }
+            this.syncEveryRecords = syncEveryRecords;
+            return this;
+        }
+
+        // background sync period, at most this much is lost in a crash; Duration.ZERO turns it off
+        public Builder syncInterval(Duration syncInterval) {
+            if (syncInterval.isNegative()) {
+                throw new IllegalArgumentException("syncInterval must not be negative: " + syncInterval);
+            }
+            this.syncIntervalNanos = syncInterval.toNanos();
+            return this;
+        }
+
+        public RecordLog build() throws IOException {
+            return new RecordLog(this);
+        }
+    }
+}
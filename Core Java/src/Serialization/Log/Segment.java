@@ -0,0 +1,300 @@
+package Serialization.Log;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.CRC32C;
+
+/**
+ * One file of the log: records from baseOffset on, each framed as
+ * <pre>
+ * length (int) crc32c (int, over length and payload) payload
+ * </pre>
+ * little-endian, back to back from position 0. The file is created at its full capacity and mapped once;
+ * after the last record it holds zeros, which never pass the CRC check (the CRC32C of a zero length is not
+ * zero), so a scan stops there.
+ * <p>
+ * The sparse index keeps (record number in this segment, position) every indexInterval bytes, packed into
+ * one long each. The appender writes the data and the index before RecordLog publishes the new record count,
+ * so readers that only look at published records need no lock here. The index array is replaced when it
+ * grows, independently of those publications, so both the array and its size are written with release
+ * semantics (the array after its copied entries, the size after the new entry) and read with acquire
+ * semantics, the size first. A reader therefore gets an array at least as new as the size it read, with
+ * every entry below that size visible.
+ */
+final class Segment {
+    static final int HEADER_BYTES = 8;
+    private static final int INDEX_MAGIC = 0x4C4F4749; // "LOGI"
+    private static final int INDEX_HEADER_BYTES = 16;
+    private static final byte[] ZEROS = new byte[64 * 1024];
+    private static final VarHandle INDEX;
+    private static final VarHandle INDEX_SIZE;
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            INDEX = lookup.findVarHandle(Segment.class, "index", long[].class);
+            INDEX_SIZE = lookup.findVarHandle(Segment.class, "indexSize", int.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    final long baseOffset;
+    final Path path;
+    private final FileChannel channel;
+    final MappedByteBuffer map;
+    final int capacity;
+    private final int indexInterval;
+
+    // appender only, published through RecordLog.nextOffset
+    int end;
+    int recordCount;
+    // both written with setRelease, read by readers with getAcquire
+    private long[] index = new long[64];
+    private int indexSize;
+    private int lastIndexedPosition = -1;
+
+    private Segment(long baseOffset, Path path, FileChannel channel, MappedByteBuffer map, int indexInterval) {
+        this.baseOffset = baseOffset;
+        this.path = path;
+        this.channel = channel;
+        this.map = map;
+        this.capacity = map.capacity();
+        this.indexInterval = indexInterval;
+        map.order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    static Path logFile(Path directory, long baseOffset) {
+        return directory.resolve(String.format("%020d.log", baseOffset));
+    }
+
+    static Path indexFile(Path logFile) {
+        String name = logFile.getFileName().toString();
+        return logFile.resolveSibling(name.substring(0, name.length() - ".log".length()) + ".idx");
+    }
+
+    static Segment create(Path directory, long baseOffset, int capacity, int indexInterval) throws IOException {
+        Path path = logFile(directory, baseOffset);
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        // mapping past the end grows the file; the new bytes read as zeros
+        return new Segment(baseOffset, path, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity), indexInterval);
+    }
+
+    /**
+     * Opens a segment that has a successor. Its index file, written when it was sealed, gives the record
+     * count and end; returns null if that file is missing or damaged, and the caller recovers the segment.
+     */
+    static Segment openSealed(Path path, long baseOffset, int indexInterval) throws IOException {
+        return openIndexed(path, baseOffset, indexInterval, false, 0);
+    }
+
+    /**
+     * Opens the last segment for appends after a clean close, which sealed it too: its index file can be
+     * trusted and nothing needs to be scanned. The file is deleted, since the index changes with the next
+     * append. Returns null if there is no valid index file, after a crash, and the caller recovers it.
+     */
+    static Segment reopen(Path path, long baseOffset, int minCapacity, int indexInterval) throws IOException {
+        Segment segment = openIndexed(path, baseOffset, indexInterval, true, minCapacity);
+        if (segment != null) {
+            Files.delete(indexFile(path));
+        }
+        return segment;
+    }
+
+    private static Segment openIndexed(Path path, long baseOffset, int indexInterval, boolean writable, int minCapacity)
+            throws IOException {
+        Path indexPath = indexFile(path);
+        if (!Files.exists(indexPath)) {
+            return null;
+        }
+        ByteBuffer bytes = ByteBuffer.wrap(Files.readAllBytes(indexPath)).order(ByteOrder.LITTLE_ENDIAN);
+        if (bytes.remaining() < INDEX_HEADER_BYTES || bytes.getInt(0) != INDEX_MAGIC) {
+            return null;
+        }
+        int recordCount = bytes.getInt(4);
+        int end = bytes.getInt(8);
+        int entries = bytes.getInt(12);
+        if (entries < 0 || bytes.remaining() != INDEX_HEADER_BYTES + (long) entries * Long.BYTES) {
+            return null;
+        }
+        FileChannel channel = writable
+                ? FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)
+                : FileChannel.open(path, StandardOpenOption.READ);
+        long size = Math.max(channel.size(), minCapacity);
+        if (end < 0 || end > channel.size() || size > Integer.MAX_VALUE) {
+            channel.close();
+            return null;
+        }
+        FileChannel.MapMode mode = writable ? FileChannel.MapMode.READ_WRITE : FileChannel.MapMode.READ_ONLY;
+        Segment segment = new Segment(baseOffset, path, channel, channel.map(mode, 0, size), indexInterval);
+        segment.recordCount = recordCount;
+        segment.end = end;
+        segment.index = new long[Math.max(entries, 1)];
+        bytes.position(INDEX_HEADER_BYTES).asLongBuffer().get(segment.index, 0, entries);
+        segment.indexSize = entries;
+        if (entries > 0) {
+            segment.lastIndexedPosition = (int) segment.index[entries - 1];
+        }
+        return segment;
+    }
+
+    /**
+     * Opens the last segment after a crash. Scans every record and checks its CRC; the first one that
+     * does not check out, a record torn by the crash, ends the log. Everything from there on is zeroed, so
+     * records that reached the disk after the torn one can never resurface behind new appends.
+     */
+    static Segment recover(Path path, long baseOffset, int minCapacity, int indexInterval) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long size = Math.max(channel.size(), minCapacity);
+        if (size > Integer.MAX_VALUE) {
+            channel.close();
+            throw new IOException(path + " is larger than a segment can be: " + size);
+        }
+        Segment segment = new Segment(baseOffset, path, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, size), indexInterval);
+        CRC32C crc = new CRC32C();
+        int position = 0;
+        while (true) {
+            int length = segment.validRecordLength(position, crc);
+            if (length < 0) {
+                break;
+            }
+            segment.indexRecord(position);
+            position += HEADER_BYTES + length;
+            segment.recordCount++;
+        }
+        segment.end = position;
+        segment.zeroFrom(position);
+        // a damaged index file, if any, would vouch for a different end
+        Files.deleteIfExists(indexFile(path));
+        return segment;
+    }
+
+    // the payload length of a complete record at position, -1 if there is none
+    private int validRecordLength(int position, CRC32C crc) {
+        if (position > capacity - HEADER_BYTES) {
+            return -1;
+        }
+        int length = map.getInt(position);
+        if (length < 0 || length > capacity - position - HEADER_BYTES) {
+            return -1;
+        }
+        crc.reset();
+        updateLength(crc, length);
+        crc.update(map.slice(position + HEADER_BYTES, length));
+        return (int) crc.getValue() == map.getInt(position + 4) ? length : -1;
+    }
+
+    private static void updateLength(CRC32C crc, int length) {
+        crc.update(length);
+        crc.update(length >>> 8);
+        crc.update(length >>> 16);
+        crc.update(length >>> 24);
+    }
+
+    private void zeroFrom(int position) {
+        for (int i = position; i < capacity; i += ZEROS.length) {
+            map.put(i, ZEROS, 0, Math.min(ZEROS.length, capacity - i));
+        }
+        map.force(position, capacity - position);
+    }
+
+    boolean hasRoomFor(int payloadLength) {
+        return (long) end + HEADER_BYTES + payloadLength <= capacity;
+    }
+
+    // appender only; the caller checked hasRoomFor. Consumes payload like a channel write.
+    void append(ByteBuffer payload, CRC32C crc) {
+        int position = end;
+        int start = payload.position();
+        int length = payload.remaining();
+        crc.reset();
+        updateLength(crc, length);
+        crc.update(payload);
+        map.putInt(position, length);
+        map.putInt(position + 4, (int) crc.getValue());
+        map.put(position + HEADER_BYTES, payload, start, length);
+        indexRecord(position);
+        end = position + HEADER_BYTES + length;
+        recordCount++;
+    }
+
+    private void indexRecord(int position) {
+        if (lastIndexedPosition >= 0 && position - lastIndexedPosition < indexInterval) {
+            return;
+        }
+        if (indexSize == index.length) {
+            INDEX.setRelease(this, Arrays.copyOf(index, indexSize * 2));
+        }
+        index[indexSize] = (long) recordCount << 32 | position;
+        // the entry and the array are written before the size, see the class comment
+        INDEX_SIZE.setRelease(this, indexSize + 1);
+        lastIndexedPosition = position;
+    }
+
+    /**
+     * Position of the record relativeOffset records into this segment, which must be published: binary
+     * search for the closest index entry at or before it, then a walk over at most indexInterval bytes.
+     */
+    int position(int relativeOffset) {
+        int high = (int) INDEX_SIZE.getAcquire(this) - 1;
+        long[] entries = (long[]) INDEX.getAcquire(this);
+        int low = 0;
+        while (low < high) {
+            int middle = (low + high + 1) >>> 1;
+            if ((int) (entries[middle] >>> 32) <= relativeOffset) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+        int record = (int) (entries[low] >>> 32);
+        int position = (int) entries[low];
+        while (record < relativeOffset) {
+            position += HEADER_BYTES + map.getInt(position);
+            record++;
+        }
+        return position;
+    }
+
+    int length(int position) {
+        return map.getInt(position);
+    }
+
+    // appender only: makes this segment's records durable and writes the index file next to it
+    void seal() throws IOException {
+        map.force();
+        Path indexPath = indexFile(path);
+        Path temporary = indexPath.resolveSibling(indexPath.getFileName() + ".tmp");
+        ByteBuffer bytes = ByteBuffer.allocate(INDEX_HEADER_BYTES + indexSize * Long.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        bytes.putInt(INDEX_MAGIC).putInt(recordCount).putInt(end).putInt(indexSize);
+        bytes.asLongBuffer().put(index, 0, indexSize);
+        bytes.rewind();
+        try (FileChannel out = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (bytes.hasRemaining()) {
+                out.write(bytes);
+            }
+            out.force(true);
+        }
+        Files.move(temporary, indexPath, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    void force() {
+        map.force();
+    }
+
+    // the mapping itself is only released when the buffer is garbage collected
+    void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,169 @@
+package Serialization;
+
+import Benchmark.Harness;
+import Serialization.Binary.UserCodec;
+import Serialization.Log.RecordLog;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.SplittableRandom;
+import java.util.stream.Stream;
+
+/**
+ * RecordLog with `records` Users (UserCodec, about 30 bytes a record with its header):
+ * <ul>
+ *     <li>append all, with the default background sync every second, then one final sync;</li>
+ *     <li>reopen after a clean close (index files, no scan but the last segment);</li>
+ *     <li>scan all records, zero-copy;</li>
+ *     <li>`lookups` reads at random offsets, as raw views and decoded to Users;</li>
+ *     <li>group commit: every append waits until it is on disk, from 1 and from `threads` threads;</li>
+ *     <li>recovery: reopen a log that was never closed, which scans and checks its last segment.</li>
+ * </ul>
+ * Usage: java -Xmx1g Serialization.RecordLogBenchmark [records=100000000] [lookups=1000000] [threads=8] [indexInterval=4096] [directory=temp]
+ * The log takes about 3 GB of disk for 100M records and is deleted at the end.
+ */
+public class RecordLogBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        long records = Harness.longArg(args, 0, 100_000_000);
+        int lookups = Harness.intArg(args, 1, 1_000_000);
+        int threads = Harness.intArg(args, 2, 8);
+        int indexInterval = Harness.intArg(args, 3, 4096);
+        Path directory = args.length > 4 ? Path.of(args[4]) : Files.createTempDirectory("record-log");
+        System.out.printf("%d records in %s, %d CPUs%n", records, directory, Runtime.getRuntime().availableProcessors());
+        UserCodec codec = new UserCodec();
+        try {
+            Path bulk = directory.resolve("bulk");
+            append(bulk, records, indexInterval, codec);
+            try (RecordLog log = timedOpen("reopen", bulk, indexInterval)) {
+                scan(log);
+                lookups(log, lookups, codec);
+            }
+            groupCommit(directory.resolve("group-1"), 1, 2_000, codec);
+            groupCommit(directory.resolve("group-" + threads), threads, 2_000, codec);
+            recovery(directory.resolve("crash"), Math.min(records, 5_000_000), codec);
+        } finally {
+            delete(directory);
+        }
+    }
+
+    private static void append(Path directory, long records, int indexInterval, UserCodec codec) throws IOException {
+        SplittableRandom random = new SplittableRandom(42);
+        User user = new User("", "");
+        long begin = System.nanoTime();
+        long bytes;
+        try (RecordLog log = RecordLog.newBuilder(directory).indexInterval(indexInterval).build()) {
+            for (long i = 0; i < records; i++) {
+                user.setName("user" + i);
+                user.setPassword(Long.toString(random.nextLong(1L << 40, 1L << 50), 36));
+                log.append(user, codec);
+            }
+            long appended = System.nanoTime();
+            log.sync();
+            long synced = System.nanoTime();
+            bytes = log.sizeInBytes();
+            System.out.printf("append       %7.2f M records/s, %6.1f MB/s; final sync %.0f ms; %d segments%n",
+                    records * 1e3 / (appended - begin), bytes * 1e9 / (1 << 20) / (appended - begin),
+                    (synced - appended) / 1e6, log.segmentCount());
+        }
+        System.out.printf("             total %.1f s with close, %.1f bytes/record with header%n",
+                (System.nanoTime() - begin) / 1e9, (double) bytes / records);
+    }
+
+    private static RecordLog timedOpen(String label, Path directory, int indexInterval) throws IOException {
+        long begin = System.nanoTime();
+        RecordLog log = RecordLog.newBuilder(directory).indexInterval(indexInterval).build();
+        System.out.printf("%-12s %7.0f ms for %d records%n", label, (System.nanoTime() - begin) / 1e6, log.nextOffset());
+        return log;
+    }
+
+    private static void scan(RecordLog log) {
+        long records = log.nextOffset();
+        for (int round = 0; round < 3; round++) {
+            long[] payloadBytes = {0};
+            long begin = System.nanoTime();
+            log.scan(0, (offset, payload) -> {
+                payloadBytes[0] += payload.remaining() + payload.get(payload.position());
+                return true;
+            });
+            long elapsed = System.nanoTime() - begin;
+            Harness.consume(payloadBytes[0]);
+            System.out.printf("scan #%d      %7.2f M records/s%n", round + 1, records * 1e3 / elapsed);
+        }
+    }
+
+    private static void lookups(RecordLog log, int lookups, UserCodec codec) {
+        long records = log.nextOffset();
+        long[] offsets = new SplittableRandom(7).longs(lookups, 0, records).toArray();
+        Harness.run("lookup, raw view", 2, 3, () -> {
+            long sum = 0;
+            for (long offset : offsets) {
+                ByteBuffer payload = log.read(offset);
+                sum += payload.get(payload.position());
+            }
+            Harness.consume(sum);
+        });
+        double decodedMs = Harness.run("lookup, decoded User", 2, 3, () -> {
+            long sum = 0;
+            for (long offset : offsets) {
+                sum += log.read(offset, codec).getName().length();
+            }
+            Harness.consume(sum);
+        });
+        System.out.printf("lookup       %7.0f ns per decoded User, random over %d records%n", decodedMs * 1e6 / lookups, records);
+    }
+
+    private static void groupCommit(Path directory, int threads, int perThread, UserCodec codec) throws Exception {
+        try (RecordLog log = RecordLog.newBuilder(directory).syncInterval(Duration.ZERO).build()) {
+            Thread[] workers = new Thread[threads];
+            long begin = System.nanoTime();
+            for (int t = 0; t < threads; t++) {
+                String name = "writer" + t;
+                workers[t] = new Thread(() -> {
+                    try {
+                        for (int i = 0; i < perThread; i++) {
+                            log.awaitDurable(log.append(new User(name, "p" + i), codec));
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                workers[t].start();
+            }
+            for (Thread worker : workers) {
+                worker.join();
+            }
+            long elapsed = System.nanoTime() - begin;
+            long total = (long) threads * perThread;
+            System.out.printf("durable x%-3d %7.0f appends/s, %6.1f us each as seen by one writer%n",
+                    threads, total * 1e9 / elapsed, elapsed / 1e3 / perThread);
+        }
+    }
+
+    private static void recovery(Path directory, long records, UserCodec codec) throws IOException {
+        // left open, like a crashed process would
+        RecordLog crashed = RecordLog.newBuilder(directory).syncInterval(Duration.ZERO).build();
+        for (long i = 0; i < records; i++) {
+            crashed.append(new User("user" + i, "secret"), codec);
+        }
+        crashed.sync();
+        try (RecordLog recovered = timedOpen("recover", directory, 4096)) {
+            if (recovered.nextOffset() != records) {
+                throw new IllegalStateException("recovered " + recovered.nextOffset() + " of " + records);
+            }
+        }
+    }
+
+    private static void delete(Path directory) throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+}
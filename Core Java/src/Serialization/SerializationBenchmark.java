@@ -0,0 +1,251 @@
+package Serialization;
+
+import Benchmark.Harness;
+import Serialization.Binary.BinaryWriter;
+import Serialization.Binary.CodecRegistry;
+import Serialization.Binary.RecordCodec;
+import Serialization.Binary.RecordStreamReader;
+import Serialization.Binary.RecordStreamWriter;
+import Serialization.Binary.UserCodec;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutput;
+import java.io.ObjectOutputStream;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * The same users written and read back four ways, all in memory so only the encoding is measured:
+ * <ul>
+ *     <li>ObjectOutputStream with User as it is (Serializable, reflective, class descriptor per stream);</li>
+ *     <li>ObjectOutputStream with an Externalizable copy of User (writeUTF per field, no reflection on the
+ *     fields, but still the object stream's framing);</li>
+ *     <li>RecordStreamWriter with the hand-written UserCodec;</li>
+ *     <li>RecordStreamWriter with a RecordCodec generated for an equivalent record.</li>
+ * </ul>
+ * Both object streams are reset every `resetEvery` users, as a long-running writer has to: without it the
+ * stream keeps every object it wrote reachable. Reports the size of a single user written alone (what
+ * Serialize writes to UserInfo.ser), the bytes per user in the bulk stream, and encode/decode throughput.
+ * <p>
+ * Usage: java -Xmx2g Serialization.SerializationBenchmark [users=1000000] [resetEvery=10000]
+ */
+public class SerializationBenchmark {
+
+    public static final class ExternalUser implements Externalizable {
+        private static final long serialVersionUID = 1L;
+
+        private String name;
+        private String password;
+
+        // required by Externalizable
+        public ExternalUser() {
+        }
+
+        ExternalUser(String name, String password) {
+            this.name = name;
+            this.password = password;
+        }
+
+        @Override
+        public void writeExternal(ObjectOutput out) throws IOException {
+            out.writeUTF(name);
+            out.writeUTF(password);
+        }
+
+        @Override
+        public void readExternal(ObjectInput in) throws IOException {
+            name = in.readUTF();
+            password = in.readUTF();
+        }
+    }
+
+    public record UserRecord(String name, String password) {
+    }
+
+    // one way of writing users: the encoded bytes, and back
+    interface Format {
+        String name();
+
+        byte[] encode() throws IOException;
+
+        // number of characters in all names, to check the round trip and keep the decoded users alive
+        long decode(byte[] bytes) throws IOException;
+
+        int singleSize() throws IOException;
+    }
+
+    public static void main(String[] args) throws IOException {
+        int count = Harness.intArg(args, 0, 1_000_000);
+        int resetEvery = Harness.intArg(args, 1, 10_000);
+
+        SplittableRandom random = new SplittableRandom(42);
+        List<User> users = new ArrayList<>(count);
+        long expected = 0;
+        for (int i = 0; i < count; i++) {
+            String name = "user" + i;
+            users.add(new User(name, randomPassword(random)));
+            expected += name.length();
+        }
+        System.out.printf("%d users, object streams reset every %d, %d CPUs%n",
+                count, resetEvery, Runtime.getRuntime().availableProcessors());
+
+        CodecRegistry registry = CodecRegistry.withDefaults()
+                .register(2, RecordCodec.of(UserRecord.class, 1, MethodHandles.lookup()));
+        List<Format> formats = List.of(
+                serializable(users, resetEvery),
+                externalizable(users, resetEvery),
+                binary("Binary UserCodec", users, User.class, registry),
+                binary("Binary RecordCodec", users.stream().map(u -> new UserRecord(u.getName(), u.getPassword())).toList(),
+                        UserRecord.class, registry));
+
+        BinaryWriter sizeOfCodec = new BinaryWriter();
+        new UserCodec().encode(users.get(0), sizeOfCodec);
+        System.out.printf("UserCodec payload alone for %s: %d bytes%n%n", users.get(0).getName(), sizeOfCodec.position());
+
+        for (Format format : formats) {
+            byte[] encoded = format.encode();
+            if (format.decode(encoded) != expected) {
+                throw new IllegalStateException(format.name() + " did not round-trip");
+            }
+            System.out.printf("%-20s single user %4d bytes, stream %6.2f bytes/user (%.1f MB)%n", format.name(),
+                    format.singleSize(), (double) encoded.length / count, encoded.length / (1024.0 * 1024.0));
+            double encodeMs = Harness.run(format.name() + " encode", 3, 5, () -> Harness.consume(unchecked(format::encode)));
+            double decodeMs = Harness.run(format.name() + " decode", 3, 5, () -> Harness.consume(unchecked(() -> format.decode(encoded))));
+            System.out.printf("%-20s encode %6.2f M users/s, decode %6.2f M users/s%n%n",
+                    format.name(), count / encodeMs / 1e3, count / decodeMs / 1e3);
+        }
+    }
+
+    private static Format serializable(List<User> users, int resetEvery) {
+        return objectStream("Serializable", new ArrayList<>(users), resetEvery);
+    }
+
+    private static Format externalizable(List<User> users, int resetEvery) {
+        List<Object> copies = new ArrayList<>(users.size());
+        for (User user : users) {
+            copies.add(new ExternalUser(user.getName(), user.getPassword()));
+        }
+        return objectStream("Externalizable", copies, resetEvery);
+    }
+
+    private static Format objectStream(String name, List<Object> values, int resetEvery) {
+        return new Format() {
+            private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+            @Override
+            public String name() {
+                return name;
+            }
+
+            @Override
+            public byte[] encode() throws IOException {
+                bytes.reset();
+                try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+                    out.writeInt(values.size());
+                    for (int i = 0; i < values.size(); i++) {
+                        if (i % resetEvery == 0 && i > 0) {
+                            out.reset();
+                        }
+                        out.writeObject(values.get(i));
+                    }
+                }
+                return bytes.toByteArray();
+            }
+
+            @Override
+            public long decode(byte[] encoded) throws IOException {
+                long chars = 0;
+                try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(encoded))) {
+                    int count = in.readInt();
+                    for (int i = 0; i < count; i++) {
+                        Object value = in.readObject();
+                        chars += value instanceof User user ? user.getName().length() : ((ExternalUser) value).name.length();
+                    }
+                } catch (ClassNotFoundException e) {
+                    throw new IOException(e);
+                }
+                return chars;
+            }
+
+            @Override
+            public int singleSize() throws IOException {
+                ByteArrayOutputStream single = new ByteArrayOutputStream();
+                try (ObjectOutputStream out = new ObjectOutputStream(single)) {
+                    out.writeObject(values.get(0));
+                }
+                return single.size();
+            }
+        };
+    }
+
+    private static <T> Format binary(String name, List<T> values, Class<T> type, CodecRegistry registry) {
+        return new Format() {
+            private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+            @Override
+            public String name() {
+                return name;
+            }
+
+            @Override
+            public byte[] encode() throws IOException {
+                bytes.reset();
+                try (RecordStreamWriter out = new RecordStreamWriter(bytes, registry)) {
+                    for (T value : values) {
+                        out.write(type, value);
+                    }
+                }
+                return bytes.toByteArray();
+            }
+
+            @Override
+            public long decode(byte[] encoded) throws IOException {
+                long chars = 0;
+                try (RecordStreamReader in = new RecordStreamReader(new ByteArrayInputStream(encoded), registry)) {
+                    while (in.hasNext()) {
+                        Object value = in.next();
+                        chars += value instanceof User user ? user.getName().length() : ((UserRecord) value).name().length();
+                    }
+                }
+                return chars;
+            }
+
+            @Override
+            public int singleSize() throws IOException {
+                ByteArrayOutputStream single = new ByteArrayOutputStream();
+                try (RecordStreamWriter out = new RecordStreamWriter(single, registry)) {
+                    out.write(type, values.get(0));
+                }
+                return single.size();
+            }
+        };
+    }
+
+    private static String randomPassword(SplittableRandom random) {
+        char[] chars = new char[random.nextInt(8, 13)];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = (char) random.nextInt('!', '~' + 1);
+        }
+        return new String(chars);
+    }
+
+    interface IOSupplier<T> {
+        T get() throws IOException;
+    }
+
+    private static <T> T unchecked(IOSupplier<T> supplier) {
+        try {
+            return supplier.get();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package StreamAPI;
+
+import Benchmark.Harness;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Parallel scan of a generated log file: MappedLineSpliterator vs Files.lines().parallel(), with the stream
+ * run inside ForkJoinPools of 1, 2, 4, ... N threads.
+ * Pipeline (in the style of Operations): keep ERROR lines, extract the user, count distinct users.
+ * Usage: java StreamAPI.LineSpliteratorBenchmark [file size in GB] [max threads] [log file to reuse]
+ */
+public class LineSpliteratorBenchmark {
+    private static final String[] LEVELS = {"INFO ", "INFO ", "INFO ", "DEBUG", "WARN ", "ERROR"};
+
+    public static void main(String[] args) throws IOException {
+        double gigabytes = args.length > 0 ? Double.parseDouble(args[0]) : 1.0;
+        int maxThreads = Harness.intArg(args, 1, Runtime.getRuntime().availableProcessors());
+        Path file = args.length > 2 ? Path.of(args[2]) : Files.createTempFile("app", ".log");
+        boolean generated = args.length <= 2;
+        try {
+            if (generated) {
+                generate(file, (long) (gigabytes * (1L << 30)));
+            }
+            System.out.printf("---- %s, %.2f GB, %d cpus ----%n", file, Files.size(file) / (double) (1L << 30),
+                    Runtime.getRuntime().availableProcessors());
+            for (int threads = 1; threads <= maxThreads; threads = threads < maxThreads ? Math.min(threads * 2, maxThreads) : threads + 1) {
+                ForkJoinPool pool = new ForkJoinPool(threads);
+                try {
+                    run("Files.lines().parallel(), " + threads + " threads", pool, file, path -> Files.lines(path).parallel());
+                    run("MappedLineSpliterator, " + threads + " threads", pool, file,
+                            path -> MappedLineSpliterator.lines(path).parallel());
+                } finally {
+                    pool.shutdown();
+                }
+            }
+        } finally {
+            if (generated) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    interface LineSource {
+        Stream<String> open(Path path) throws IOException;
+    }
+
+    private static void run(String label, ForkJoinPool pool, Path file, LineSource source) {
+        double bestMs = Harness.run(label, 1, 3, () -> {
+            try {
+                // a parallel stream started from inside a pool runs its tasks in that pool
+                long users = pool.submit(() -> {
+                    try (Stream<String> lines = source.open(file)) {
+                        return lines.filter(line -> line.contains("ERROR"))
+                                .map(userOf())
+                                .distinct()
+                                .count();
+                    }
+                }).get();
+                Harness.consume(users);
+            } catch (InterruptedException | ExecutionException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        try {
+            System.out.printf("%-45s %10.1f MB/s%n", "", Files.size(file) / (bestMs / 1000) / (1 << 20));
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Function<String, String> userOf() {
+        return line -> {
+            int start = line.indexOf("user=") + 5;
+            int stop = line.indexOf(' ', start);
+            return line.substring(start, stop < 0 ? line.length() : stop);
+        };
+    }
+
+    // ~90 byte lines: timestamp, level, thread, user, action, latency
+    private static void generate(Path file, long bytes) throws IOException {
+        SplittableRandom random = new SplittableRandom(42);
+        long written = 0;
+        long millis = 1_700_000_000_000L;
+        try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            StringBuilder line = new StringBuilder(128);
+            while (written < bytes) {
+                millis += random.nextInt(5);
+                line.setLength(0);
+                line.append(millis).append(' ')
+                        .append(LEVELS[random.nextInt(LEVELS.length)])
+                        .append(" [worker-").append(random.nextInt(64)).append("] user=u")
+                        .append(random.nextInt(1_000_000))
+                        .append(" action=").append(random.nextBoolean() ? "login" : "checkout")
+                        .append(" latency=").append(random.nextInt(2000)).append("ms\n");
+                out.append(line);
+                written += line.length();
+            }
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package StreamAPI;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Spliterator over the lines of a memory-mapped UTF-8 text file, built to split evenly for parallel streams.
+ * <p>
+ * Files.lines() reads through one BufferedReader; in parallel it has to read ahead and copy batches of lines
+ * into arrays before other threads get any work. Here the whole file is one MemorySegment, so trySplit()
+ * just picks the middle byte offset and moves it forward past the next '\n'. No line is ever cut in two,
+ * and no bytes are read or decoded while splitting. Each line is decoded to a String only when the stream
+ * asks for it.
+ * <p>
+ * Lines end with "\n" or "\r\n" (the terminator is not part of the line). A final line without a
+ * terminator is still returned, and a terminator at the very end does not produce an empty last line,
+ * the same as BufferedReader.
+ * <pre>
+ * try (Stream&lt;String&gt; lines = MappedLineSpliterator.lines(Path.of("app.log")).parallel()) {
+ *     long errors = lines.filter(line -&gt; line.contains("ERROR")).count();
+ * }
+ * </pre>
+ */
+public class MappedLineSpliterator implements Spliterator<String> {
+    // below this many bytes a split is not worth a task
+    private static final long MIN_SPLIT_BYTES = 1 << 20;
+    private static final ValueLayout.OfLong WORD = ValueLayout.JAVA_LONG_UNALIGNED.withOrder(ByteOrder.LITTLE_ENDIAN);
+    private static final long NEWLINES = 0x0A0A_0A0A_0A0A_0A0AL;
+    private static final long LOW_BITS = 0x0101_0101_0101_0101L;
+    private static final long HIGH_BITS = 0x8080_8080_8080_8080L;
+
+    private final MemorySegment file;
+    private long position;
+    private final long end;
+
+    public MappedLineSpliterator(MemorySegment file) {
+        this(file, 0, file.byteSize());
+    }
+
+    private MappedLineSpliterator(MemorySegment file, long position, long end) {
+        this.file = file;
+        this.position = position;
+        this.end = end;
+    }
+
+    /**
+     * Maps path and streams its lines. The mapping stays valid until the stream is closed, so use
+     * try-with-resources; reading a line after close() throws IllegalStateException.
+     */
+    public static Stream<String> lines(Path path) throws IOException {
+        Arena arena = Arena.ofShared();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MemorySegment file = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size(), arena);
+            return StreamSupport.stream(new MappedLineSpliterator(file), false).onClose(arena::close);
+        } catch (IOException | RuntimeException e) {
+            arena.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super String> action) {
+        if (position >= end) {
+            return false;
+        }
+        long newline = indexOfNewline(position);
+        action.accept(decode(position, newline));
+        position = newline + 1;
+        return true;
+    }
+
+    @Override
+    public void forEachRemaining(Consumer<? super String> action) {
+        long current = position;
+        // the spliterator is consumed whatever happens
+        position = end;
+        while (current < end) {
+            long newline = indexOfNewline(current);
+            action.accept(decode(current, newline));
+            current = newline + 1;
+        }
+    }
+
+    @Override
+    public Spliterator<String> trySplit() {
+        long remaining = end - position;
+        if (remaining < MIN_SPLIT_BYTES) {
+            return null;
+        }
+        long middle = indexOfNewline(position + remaining / 2) + 1;
+        if (middle >= end) {
+            return null;
+        }
+        MappedLineSpliterator prefix = new MappedLineSpliterator(file, position, middle);
+        position = middle;
+        return prefix;
+    }
+
+    // in bytes, not lines: good enough for the stream to size its splits
+    @Override
+    public long estimateSize() {
+        return end - position;
+    }
+
+    @Override
+    public int characteristics() {
+        return ORDERED | NONNULL | IMMUTABLE;
+    }
+
+    // a line is [from, newline), without a trailing '\r'
+    private String decode(long from, long newline) {
+        long to = newline;
+        if (to > from && file.get(ValueLayout.JAVA_BYTE, to - 1) == '\r') {
+            to--;
+        }
+        long length = to - from;
+        if (length > Integer.MAX_VALUE - 8) {
+            throw new UncheckedIOException(new IOException("Line longer than 2 GB at byte " + from));
+        }
+        byte[] bytes = new byte[(int) length];
+        MemorySegment.copy(file, ValueLayout.JAVA_BYTE, from, bytes, 0, bytes.length);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Offset of the first '\n' at or after from, or end if there is none. Reads 8 bytes at a time and finds
+     * a '\n' byte with the usual "has zero byte" bit trick on word ^ 0x0A0A...
+     */
+    private long indexOfNewline(long from) {
+        long i = from;
+        while (i + Long.BYTES <= end) {
+            long word = file.get(WORD, i) ^ NEWLINES;
+            long found = (word - LOW_BITS) & ~word & HIGH_BITS;
+            if (found != 0) {
+                return i + (Long.numberOfTrailingZeros(found) >>> 3);
+            }
+            i += Long.BYTES;
+        }
+        while (i < end) {
+            if (file.get(ValueLayout.JAVA_BYTE, i) == '\n') {
+                return i;
+            }
+            i++;
+        }
+        return end;
+    }
+}
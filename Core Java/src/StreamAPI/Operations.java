@@ -1,6 +1,7 @@
 package StreamAPI;
 
 import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -48,5 +49,28 @@ public class Operations {
                 .mapToDouble(Double::doubleValue)        // Convert to double
                 .sum();                                  // Sum the remaining numbers
         System.out.println("Hard Result (Sum): " + hardResult);
+
+        System.out.println();
+
+        // Same pipelines with bounded top-K collectors: only skip + limit elements are kept, nothing is fully sorted
+        List<Integer> topKEasy = list.stream()
+                .filter(x -> x % 2 == 0)
+                .map(x -> x * 2)
+                .collect(TopKCollectors.distinctSortedLimit(5, Comparator.naturalOrder()));
+        System.out.println("Top-K Easy Result: " + topKEasy);
+
+        List<String> topKMedium = names.stream()
+                .filter(name -> name.length() > 3)
+                .map(String::toUpperCase)
+                .collect(TopKCollectors.distinctSortedSkipLimit(1, names.size(), Comparator.naturalOrder()));
+        System.out.println("Top-K Medium Result: " + topKMedium);
+
+        // primitive version: no boxing, works on parallel streams; largest 3 + 5, then skip the first 3
+        double[] largest = TopKCollectors.distinctSortedDescendingLimit(
+                numbers.parallelStream()
+                        .filter(x -> x > 5)
+                        .mapToDouble(x -> Math.pow(x, 2)), 3 + 5);
+        double topKHard = Arrays.stream(largest).skip(3).sum();
+        System.out.println("Top-K Hard Result (Sum): " + topKHard);
     }
 }
@@ -0,0 +1,261 @@
+package StreamAPI;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Spliterator;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Consumer;
+import java.util.function.DoubleConsumer;
+import java.util.function.IntConsumer;
+import java.util.function.Supplier;
+import java.util.stream.DoubleStream;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Runs parallel stream pipelines in a dedicated ForkJoinPool of a chosen size, with a chosen split granularity.
+ * <p>
+ * parallelStream() always runs in ForkJoinPool.commonPool(), shared with every other parallel stream and
+ * CompletableFuture in the JVM, and splits its source down to tiny pieces. A terminal operation started
+ * from inside a ForkJoinPool task runs in that pool instead, which is what invoke() does.
+ * <p>
+ * The stream(...) methods create parallel streams whose source is split only while a piece has more than
+ * splitThreshold elements: fewer, bigger tasks when the per-element work is cheap. Splits halve a piece, so
+ * the leaves hold between about splitThreshold / 2 and splitThreshold elements. Pass ordered = false when
+ * encounter order does not matter; distinct(), limit(), findAny() and unordered collectors get cheaper.
+ * <pre>
+ * try (ParallelExecutor executor = new ParallelExecutor(4, 10_000)) {
+ *     long sum = executor.invoke(() -&gt; executor.stream(array).map(x -&gt; x * 2).asLongStream().sum());
+ * }
+ * </pre>
+ */
+public class ParallelExecutor implements AutoCloseable {
+    // 0: split as far as the source likes, like a plain parallel stream
+    public static final int DEFAULT_GRANULARITY = 0;
+
+    private final ForkJoinPool pool;
+    private final boolean ownsPool;
+    private final int splitThreshold;
+
+    public ParallelExecutor(int parallelism) {
+        this(parallelism, DEFAULT_GRANULARITY);
+    }
+
+    public ParallelExecutor(int parallelism, int splitThreshold) {
+        this(new ForkJoinPool(parallelism), true, splitThreshold);
+    }
+
+    // runs in an existing pool; close() leaves it running
+    public ParallelExecutor(ForkJoinPool pool, int splitThreshold) {
+        this(pool, false, splitThreshold);
+    }
+
+    private ParallelExecutor(ForkJoinPool pool, boolean ownsPool, int splitThreshold) {
+        if (splitThreshold < 0) {
+            throw new IllegalArgumentException("splitThreshold must not be negative: " + splitThreshold);
+        }
+        this.pool = pool;
+        this.ownsPool = ownsPool;
+        this.splitThreshold = splitThreshold;
+    }
+
+    /**
+     * Runs pipeline (which should end in a terminal operation) as a task of this executor's pool and returns its
+     * result. Runtime exceptions thrown by the pipeline propagate to the caller, as with ForkJoinPool.invoke().
+     */
+    public <R> R invoke(Supplier<R> pipeline) {
+        if (ForkJoinTask.inForkJoinPool() && ForkJoinTask.getPool() == pool) {
+            return pipeline.get();
+        }
+        return pool.invoke(ForkJoinTask.adapt((Callable<R>) pipeline::get));
+    }
+
+    public void execute(Runnable pipeline) {
+        invoke(() -> {
+            pipeline.run();
+            return null;
+        });
+    }
+
+    public <T> Stream<T> stream(Collection<T> source) {
+        return stream(source, true);
+    }
+
+    public <T> Stream<T> stream(Collection<T> source, boolean ordered) {
+        Stream<T> stream = StreamSupport.stream(new ChunkedSpliterator<>(source.spliterator(), splitThreshold), true);
+        return ordered ? stream : stream.unordered();
+    }
+
+    // primitive sources: no boxing anywhere in the pipeline as long as it stays an IntStream/DoubleStream
+    public IntStream stream(int[] source) {
+        return stream(source, true);
+    }
+
+    public IntStream stream(int[] source, boolean ordered) {
+        IntStream stream = StreamSupport.intStream(
+                new ChunkedIntSpliterator(Arrays.spliterator(source), splitThreshold), true);
+        return ordered ? stream : stream.unordered();
+    }
+
+    public IntStream range(int startInclusive, int endExclusive) {
+        return StreamSupport.intStream(
+                new ChunkedIntSpliterator(IntStream.range(startInclusive, endExclusive).spliterator(), splitThreshold), true);
+    }
+
+    public DoubleStream stream(double[] source) {
+        return stream(source, true);
+    }
+
+    public DoubleStream stream(double[] source, boolean ordered) {
+        DoubleStream stream = StreamSupport.doubleStream(
+                new ChunkedDoubleSpliterator(Arrays.spliterator(source), splitThreshold), true);
+        return ordered ? stream : stream.unordered();
+    }
+
+    public int getParallelism() {
+        return pool.getParallelism();
+    }
+
+    public int getSplitThreshold() {
+        return splitThreshold;
+    }
+
+    @Override
+    public void close() {
+        if (ownsPool) {
+            pool.shutdown();
+        }
+    }
+
+    // delegates everything except trySplit, which refuses once the piece is small enough
+    private static final class ChunkedSpliterator<T> implements Spliterator<T> {
+        private final Spliterator<T> delegate;
+        private final int splitThreshold;
+
+        ChunkedSpliterator(Spliterator<T> delegate, int splitThreshold) {
+            this.delegate = delegate;
+            this.splitThreshold = splitThreshold;
+        }
+
+        @Override
+        public Spliterator<T> trySplit() {
+            if (delegate.estimateSize() <= splitThreshold) {
+                return null;
+            }
+            Spliterator<T> prefix = delegate.trySplit();
+            return prefix == null ? null : new ChunkedSpliterator<>(prefix, splitThreshold);
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            return delegate.tryAdvance(action);
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super T> action) {
+            delegate.forEachRemaining(action);
+        }
+
+        @Override
+        public long estimateSize() {
+            return delegate.estimateSize();
+        }
+
+        @Override
+        public long getExactSizeIfKnown() {
+            return delegate.getExactSizeIfKnown();
+        }
+
+        @Override
+        public int characteristics() {
+            return delegate.characteristics();
+        }
+
+        @Override
+        public Comparator<? super T> getComparator() {
+            return delegate.getComparator();
+        }
+    }
+
+    private static final class ChunkedIntSpliterator implements Spliterator.OfInt {
+        private final Spliterator.OfInt delegate;
+        private final int splitThreshold;
+
+        ChunkedIntSpliterator(Spliterator.OfInt delegate, int splitThreshold) {
+            this.delegate = delegate;
+            this.splitThreshold = splitThreshold;
+        }
+
+        @Override
+        public Spliterator.OfInt trySplit() {
+            if (delegate.estimateSize() <= splitThreshold) {
+                return null;
+            }
+            Spliterator.OfInt prefix = delegate.trySplit();
+            return prefix == null ? null : new ChunkedIntSpliterator(prefix, splitThreshold);
+        }
+
+        @Override
+        public boolean tryAdvance(IntConsumer action) {
+            return delegate.tryAdvance(action);
+        }
+
+        @Override
+        public void forEachRemaining(IntConsumer action) {
+            delegate.forEachRemaining(action);
+        }
+
+        @Override
+        public long estimateSize() {
+            return delegate.estimateSize();
+        }
+
+        @Override
+        public int characteristics() {
+            return delegate.characteristics();
+        }
+    }
+
+    private static final class ChunkedDoubleSpliterator implements Spliterator.OfDouble {
+        private final Spliterator.OfDouble delegate;
+        private final int splitThreshold;
+
+        ChunkedDoubleSpliterator(Spliterator.OfDouble delegate, int splitThreshold) {
+            this.delegate = delegate;
+            this.splitThreshold = splitThreshold;
+        }
+
+        @Override
+        public Spliterator.OfDouble trySplit() {
+            if (delegate.estimateSize() <= splitThreshold) {
+                return null;
+            }
+            Spliterator.OfDouble prefix = delegate.trySplit();
+            return prefix == null ? null : new ChunkedDoubleSpliterator(prefix, splitThreshold);
+        }
+
+        @Override
+        public boolean tryAdvance(DoubleConsumer action) {
+            return delegate.tryAdvance(action);
+        }
+
+        @Override
+        public void forEachRemaining(DoubleConsumer action) {
+            delegate.forEachRemaining(action);
+        }
+
+        @Override
+        public long estimateSize() {
+            return delegate.estimateSize();
+        }
+
+        @Override
+        public int characteristics() {
+            return delegate.characteristics();
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package StreamAPI;
+
+import Benchmark.Harness;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntUnaryOperator;
+import java.util.function.LongSupplier;
+
+/**
+ * When does a parallel stream pay off? Sums map(f) over n ints for every combination of
+ * <ul>
+ *     <li>n: 1K, 100K, 10M</li>
+ *     <li>per-element cost: cheap (x * 2) or expensive (~100 multiply/xorshift steps)</li>
+ *     <li>source: List&lt;Integer&gt; (boxed) or int[] (primitive)</li>
+ *     <li>execution: sequential, parallelStream() on the common pool, ParallelExecutor with default splitting,
+ *     ParallelExecutor with pieces of n / (4 * threads)</li>
+ * </ul>
+ * Each row repeats the pipeline so that it covers about 10M elements, and reports ns per element.
+ * Usage: java StreamAPI.ParallelStreamBenchmark [threads]
+ */
+public class ParallelStreamBenchmark {
+    private static final int[] SIZES = {1_000, 100_000, 10_000_000};
+    private static final long ELEMENTS_PER_ROW = 10_000_000;
+
+    public static void main(String[] args) {
+        int threads = Harness.intArg(args, 0, Runtime.getRuntime().availableProcessors());
+        System.out.printf("threads=%d, common pool parallelism=%d%n", threads,
+                ForkJoinPool.getCommonPoolParallelism());
+        IntUnaryOperator cheap = x -> x * 2;
+        IntUnaryOperator expensive = ParallelStreamBenchmark::expensive;
+
+        for (int n : SIZES) {
+            int[] values = new SplittableRandom(n).ints(n, 0, 1000).toArray();
+            List<Integer> boxed = new ArrayList<>(n);
+            for (int value : values) {
+                boxed.add(value);
+            }
+            int reps = (int) Math.max(1, ELEMENTS_PER_ROW / n);
+            int chunk = Math.max(1, n / (4 * threads));
+            try (ParallelExecutor auto = new ParallelExecutor(threads);
+                 ParallelExecutor chunked = new ParallelExecutor(threads, chunk)) {
+                for (String cost : new String[]{"cheap", "expensive"}) {
+                    IntUnaryOperator f = cost.equals("cheap") ? cheap : expensive;
+                    // the expensive rows cover fewer elements so they finish in similar time
+                    int rowReps = cost.equals("cheap") ? reps : Math.max(1, reps / 20);
+                    String prefix = String.format("n=%-9d %-9s ", n, cost);
+
+                    row(prefix + "boxed  sequential", n, rowReps,
+                            () -> boxed.stream().mapToLong(x -> f.applyAsInt(x)).sum());
+                    row(prefix + "boxed  commonPool", n, rowReps,
+                            () -> boxed.parallelStream().mapToLong(x -> f.applyAsInt(x)).sum());
+                    row(prefix + "boxed  executor", n, rowReps,
+                            () -> auto.invoke(() -> auto.stream(boxed).mapToLong(x -> f.applyAsInt(x)).sum()));
+                    row(prefix + "boxed  executor chunk=" + chunk, n, rowReps,
+                            () -> chunked.invoke(() -> chunked.stream(boxed).mapToLong(x -> f.applyAsInt(x)).sum()));
+
+                    row(prefix + "int[]  sequential", n, rowReps,
+                            () -> Arrays.stream(values).map(f).asLongStream().sum());
+                    row(prefix + "int[]  commonPool", n, rowReps,
+                            () -> Arrays.stream(values).parallel().map(f).asLongStream().sum());
+                    row(prefix + "int[]  executor", n, rowReps,
+                            () -> auto.invoke(() -> auto.stream(values).map(f).asLongStream().sum()));
+                    row(prefix + "int[]  executor chunk=" + chunk, n, rowReps,
+                            () -> chunked.invoke(() -> chunked.stream(values).map(f).asLongStream().sum()));
+                    row(prefix + "int[]  executor unordered", n, rowReps,
+                            () -> chunked.invoke(() -> chunked.stream(values, false).map(f).asLongStream().sum()));
+                }
+            }
+        }
+    }
+
+    private static void row(String label, int n, int reps, LongSupplier pipeline) {
+        double bestMs = Harness.run(label, 1, 3, () -> {
+            long sum = 0;
+            for (int r = 0; r < reps; r++) {
+                sum += pipeline.getAsLong();
+            }
+            Harness.consume(sum);
+        });
+        System.out.printf("%-45s %10.2f ns/element%n", "", bestMs * 1e6 / ((double) n * reps));
+    }
+
+    private static int expensive(int x) {
+        long h = x;
+        for (int i = 0; i < 100; i++) {
+            h ^= h << 13;
+            h ^= h >>> 7;
+            h *= 0x9E3779B97F4A7C15L;
+        }
+        return (int) h;
+    }
+}
@@ -2,13 +2,35 @@ package StreamAPI;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.stream.Collectors;
 
 public class ParallelStreamExample {
     public static void main(String[] args) {
         List<Integer> list = Arrays.asList(45, 46, 78, 1, 545, 95, 56, 34);
 
+        // common pool; forEach prints in whatever order the threads finish, and every println takes the stdout lock
         list.parallelStream()
                 .map(x -> x * 2)
                 .forEach(System.out::println);
+
+        System.out.println();
+
+        // dedicated pool of 2 threads, pieces of at least 2 elements, results collected first and printed once
+        try (ParallelExecutor executor = new ParallelExecutor(2, 2)) {
+            String doubled = executor.invoke(() -> executor.stream(list)
+                    .map(x -> x * 2)
+                    .map(String::valueOf)
+                    .collect(Collectors.joining(", ")));
+            System.out.println("Doubled (ordered): " + doubled);
+
+            // primitive version: no Integer boxing
+            int[] values = {45, 46, 78, 1, 545, 95, 56, 34};
+            long sum = executor.invoke(() -> executor.stream(values).map(x -> x * 2).asLongStream().sum());
+            System.out.println("Sum of doubled values: " + sum);
+
+            // unordered: any element is fine, so the stream does not have to find the first one
+            int anyLarge = executor.invoke(() -> executor.stream(values, false).filter(x -> x > 50).findAny().orElse(-1));
+            System.out.println("Some value > 50: " + anyLarge);
+        }
     }
-}
\ No newline at end of file
+}
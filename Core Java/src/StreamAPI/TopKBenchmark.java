@@ -0,0 +1,92 @@
+package StreamAPI;
+
+import Benchmark.Harness;
+
+import java.lang.management.ManagementFactory;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Chained distinct()/sorted()/limit() vs TopKCollectors on random int streams, sequential and parallel.
+ * Reports time and bytes allocated by all threads during one run (the chained versions allocate, and keep,
+ * a buffer of the whole stream).
+ * Usage: java -Xmx4g StreamAPI.TopKBenchmark [sizes, comma separated] [k]
+ * e.g.   java -Xmx4g StreamAPI.TopKBenchmark 10000000,100000000,1000000000 100
+ * <p>
+ * Chained boxed pipelines are only run up to 20M elements and chained primitive ones up to 200M; beyond
+ * that the buffered stream does not fit a few GB of heap, which is the point.
+ */
+public class TopKBenchmark {
+    private static final long MAX_CHAINED_BOXED = 20_000_000;
+    private static final long MAX_CHAINED_PRIMITIVE = 200_000_000;
+
+    public static void main(String[] args) {
+        String[] sizes = (args.length > 0 ? args[0] : "10000000").split(",");
+        int k = Harness.intArg(args, 1, 100);
+        for (String size : sizes) {
+            long n = Long.parseLong(size);
+            // values from a range of n/2, so distinct() really removes something
+            int bound = (int) Math.min(Integer.MAX_VALUE, Math.max(2, n / 2));
+            System.out.printf("---- %,d elements, k=%d ----%n", n, k);
+            for (boolean parallel : new boolean[]{false, true}) {
+                String mode = parallel ? " (parallel)" : "";
+                Supplier<IntStream> ints = () -> {
+                    IntStream stream = new SplittableRandom(42).ints(n, 0, bound);
+                    return parallel ? stream.parallel() : stream;
+                };
+                Supplier<Stream<Integer>> boxed = () -> ints.get().boxed();
+
+                if (n <= MAX_CHAINED_BOXED) {
+                    measure("sorted().limit()" + mode, () -> boxed.get().sorted().limit(k).toList());
+                }
+                measure("sortedLimit collector" + mode,
+                        () -> boxed.get().collect(TopKCollectors.sortedLimit(k, Comparator.<Integer>naturalOrder())));
+                if (n <= MAX_CHAINED_BOXED) {
+                    measure("distinct().sorted().limit()" + mode, () -> boxed.get().distinct().sorted().limit(k).toList());
+                }
+                measure("distinctSortedLimit collector" + mode,
+                        () -> boxed.get().collect(TopKCollectors.distinctSortedLimit(k, Comparator.<Integer>naturalOrder())));
+                if (n <= MAX_CHAINED_PRIMITIVE) {
+                    measure("IntStream sorted().limit()" + mode, () -> ints.get().sorted().limit(k).toArray());
+                }
+                measure("IntStream sortedLimit" + mode, () -> TopKCollectors.sortedLimit(ints.get(), k));
+                if (n <= MAX_CHAINED_PRIMITIVE) {
+                    measure("IntStream distinct().sorted().limit()" + mode,
+                            () -> ints.get().distinct().sorted().limit(k).toArray());
+                }
+                measure("IntStream distinctSortedLimit" + mode, () -> TopKCollectors.distinctSortedLimit(ints.get(), k));
+            }
+        }
+    }
+
+    private static void measure(String label, Supplier<Object> pipeline) {
+        long before = allocatedBytes();
+        Object result = pipeline.get();
+        long allocated = allocatedBytes() - before;
+        Harness.consume(result);
+        Harness.run(label, 1, 3, () -> Harness.consume(pipeline.get()));
+        System.out.printf("%-45s %,14.1f MB allocated%n", "", allocated / (1024.0 * 1024.0));
+        checkSize(result);
+    }
+
+    private static void checkSize(Object result) {
+        int size = result instanceof List<?> list ? list.size() : result instanceof int[] array ? array.length : -1;
+        if (size < 0) {
+            throw new IllegalStateException("Unexpected result " + result);
+        }
+    }
+
+    // bytes allocated so far by all live threads (HotSpot-specific bean)
+    private static long allocatedBytes() {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long total = 0;
+        for (long allocated : threads.getThreadAllocatedBytes(threads.getAllThreadIds())) {
+            total += Math.max(0, allocated);
+        }
+        return total;
+    }
+}
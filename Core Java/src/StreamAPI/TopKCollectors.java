@@ -0,0 +1,359 @@
+package StreamAPI;
+
+import Collection.LongLongHashMap;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collector;
+import java.util.stream.DoubleStream;
+import java.util.stream.IntStream;
+
+/**
+ * Replacements for `.sorted().limit(k)` style pipelines that only keep k elements in memory.
+ * <p>
+ * sorted() has to buffer and sort the whole stream before limit() can take anything. These collectors keep a
+ * bounded max-heap of the best skip + limit elements instead: O(n log k) time, O(k) memory, and on a parallel
+ * stream every thread fills its own heap and the heaps are merged at the end.
+ * <pre>
+ * .sorted(cmp).limit(k)                    -> .collect(sortedLimit(k, cmp))
+ * .sorted(cmp).skip(s).limit(k)            -> .collect(sortedSkipLimit(s, k, cmp))
+ * .distinct().sorted(cmp).limit(k)         -> .collect(distinctSortedLimit(k, cmp))
+ * .distinct().sorted(cmp).skip(s).limit(k) -> .collect(distinctSortedSkipLimit(s, k, cmp))
+ * </pre>
+ * The results are identical to the chained operators, including which of several equal elements come first
+ * (encounter order, like the stable sorted()). The distinct variants assume the comparator returns 0 for
+ * elements that are equals(), which holds for natural ordering of String, Integer, Double and friends.
+ * <p>
+ * The IntStream/DoubleStream methods do the same on a primitive heap without boxing anything.
+ */
+public final class TopKCollectors {
+
+    private TopKCollectors() {
+    }
+
+    public static <T> Collector<T, ?, List<T>> sortedLimit(int limit, Comparator<? super T> comparator) {
+        return sortedSkipLimit(0, limit, comparator);
+    }
+
+    public static <T> Collector<T, ?, List<T>> sortedSkipLimit(int skip, int limit, Comparator<? super T> comparator) {
+        return collector(skip, limit, comparator, false);
+    }
+
+    public static <T> Collector<T, ?, List<T>> distinctSortedLimit(int limit, Comparator<? super T> comparator) {
+        return distinctSortedSkipLimit(0, limit, comparator);
+    }
+
+    public static <T> Collector<T, ?, List<T>> distinctSortedSkipLimit(int skip, int limit,
+                                                                        Comparator<? super T> comparator) {
+        return collector(skip, limit, comparator, true);
+    }
+
+    private static <T> Collector<T, ?, List<T>> collector(int skip, int limit, Comparator<? super T> comparator,
+                                                          boolean distinct) {
+        int capacity = capacity(skip, limit);
+        if (comparator == null) {
+            throw new NullPointerException("comparator");
+        }
+        return Collector.of(
+                () -> new BoundedHeap<T>(capacity, comparator, distinct),
+                BoundedHeap::accept,
+                BoundedHeap::combine,
+                heap -> heap.sortedList(skip));
+    }
+
+    // ---- primitive streams: ascending = smallest first, descending = largest first ----
+
+    public static int[] sortedLimit(IntStream stream, int limit) {
+        return toInts(collect(stream, limit, false, false), false);
+    }
+
+    public static int[] sortedDescendingLimit(IntStream stream, int limit) {
+        return toInts(collect(stream, limit, true, false), true);
+    }
+
+    public static int[] distinctSortedLimit(IntStream stream, int limit) {
+        return toInts(collect(stream, limit, false, true), false);
+    }
+
+    public static int[] distinctSortedDescendingLimit(IntStream stream, int limit) {
+        return toInts(collect(stream, limit, true, true), true);
+    }
+
+    // Double.compare order (-0.0 before 0.0, NaN last) and Double.equals distinctness, like DoubleStream.sorted()/distinct()
+    public static double[] sortedLimit(DoubleStream stream, int limit) {
+        return toDoubles(collect(stream, limit, false, false), false);
+    }
+
+    public static double[] sortedDescendingLimit(DoubleStream stream, int limit) {
+        return toDoubles(collect(stream, limit, true, false), true);
+    }
+
+    public static double[] distinctSortedLimit(DoubleStream stream, int limit) {
+        return toDoubles(collect(stream, limit, false, true), false);
+    }
+
+    public static double[] distinctSortedDescendingLimit(DoubleStream stream, int limit) {
+        return toDoubles(collect(stream, limit, true, true), true);
+    }
+
+    // ints are kept as longs; ~x reverses the order exactly, so descending is the smallest of the complements
+    private static long[] collect(IntStream stream, int limit, boolean descending, boolean distinct) {
+        int capacity = capacity(0, limit);
+        return stream.collect(
+                () -> new LongBoundedHeap(capacity, distinct),
+                (heap, value) -> heap.accept(descending ? ~(long) value : value),
+                LongBoundedHeap::combine).sorted();
+    }
+
+    private static long[] collect(DoubleStream stream, int limit, boolean descending, boolean distinct) {
+        int capacity = capacity(0, limit);
+        return stream.collect(
+                () -> new LongBoundedHeap(capacity, distinct),
+                (heap, value) -> {
+                    long key = sortableBits(value);
+                    heap.accept(descending ? ~key : key);
+                },
+                LongBoundedHeap::combine).sorted();
+    }
+
+    private static int[] toInts(long[] keys, boolean descending) {
+        int[] result = new int[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            result[i] = (int) (descending ? ~keys[i] : keys[i]);
+        }
+        return result;
+    }
+
+    private static double[] toDoubles(long[] keys, boolean descending) {
+        double[] result = new double[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            long key = descending ? ~keys[i] : keys[i];
+            result[i] = Double.longBitsToDouble(key ^ ((key >> 63) & Long.MAX_VALUE));
+        }
+        return result;
+    }
+
+    // signed long order of the result is Double.compare order; NaNs are collapsed to one value like Double.equals does
+    private static long sortableBits(double value) {
+        long bits = Double.doubleToLongBits(value);
+        return bits ^ ((bits >> 63) & Long.MAX_VALUE);
+    }
+
+    private static int capacity(int skip, int limit) {
+        if (skip < 0 || limit < 0) {
+            throw new IllegalArgumentException("skip and limit must not be negative: " + skip + ", " + limit);
+        }
+        long capacity = (long) skip + limit;
+        if (capacity > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("skip + limit too large: " + capacity);
+        }
+        return (int) capacity;
+    }
+
+    /**
+     * Max-heap of the best `capacity` elements seen so far; the root is the worst one kept, so a new element
+     * only has to beat the root. Each element carries its arrival number, which breaks comparator ties
+     * in encounter order.
+     */
+    static final class BoundedHeap<T> {
+        private final int capacity;
+        private final Comparator<? super T> comparator;
+        private final Set<T> members;
+        private Object[] elements;
+        private long[] sequences;
+        private int size;
+        // elements offered so far, including rejected ones; the next arrival number
+        private long count;
+
+        BoundedHeap(int capacity, Comparator<? super T> comparator, boolean distinct) {
+            this.capacity = capacity;
+            this.comparator = comparator;
+            this.members = distinct ? new HashSet<>() : null;
+            int initial = Math.min(capacity, 16);
+            this.elements = new Object[initial];
+            this.sequences = new long[initial];
+        }
+
+        void accept(T element) {
+            offer(element, count++);
+        }
+
+        private void offer(T element, long sequence) {
+            if (capacity == 0) {
+                return;
+            }
+            if (size == capacity && !better(element, sequence, 0)) {
+                // not better than the worst kept element; a duplicate of a kept element never is either
+                return;
+            }
+            if (members != null && !members.add(element)) {
+                return;
+            }
+            if (size < capacity) {
+                if (size == elements.length) {
+                    int newLength = (int) Math.min(capacity, elements.length * 2L);
+                    elements = Arrays.copyOf(elements, newLength);
+                    sequences = Arrays.copyOf(sequences, newLength);
+                }
+                siftUp(size++, element, sequence);
+            } else {
+                if (members != null) {
+                    members.remove(elementAt(0));
+                }
+                siftDown(0, element, sequence);
+            }
+        }
+
+        // everything in other arrived after everything in this heap
+        BoundedHeap<T> combine(BoundedHeap<T> other) {
+            for (int i = 0; i < other.size; i++) {
+                offer(other.elementAt(i), count + other.sequences[i]);
+            }
+            count += other.count;
+            return this;
+        }
+
+        List<T> sortedList(int skip) {
+            Integer[] order = new Integer[size];
+            for (int i = 0; i < size; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, (a, b) -> compare(elementAt(a), sequences[a], elementAt(b), sequences[b]));
+            List<T> result = new ArrayList<>(Math.max(0, size - skip));
+            for (int i = skip; i < size; i++) {
+                result.add(elementAt(order[i]));
+            }
+            return result;
+        }
+
+        private boolean better(T element, long sequence, int position) {
+            return compare(element, sequence, elementAt(position), sequences[position]) < 0;
+        }
+
+        private int compare(T a, long sequenceA, T b, long sequenceB) {
+            int comparison = comparator.compare(a, b);
+            return comparison != 0 ? comparison : Long.compare(sequenceA, sequenceB);
+        }
+
+        private void siftUp(int position, T element, long sequence) {
+            while (position > 0) {
+                int parent = (position - 1) >>> 1;
+                if (compare(element, sequence, elementAt(parent), sequences[parent]) <= 0) {
+                    break;
+                }
+                elements[position] = elements[parent];
+                sequences[position] = sequences[parent];
+                position = parent;
+            }
+            elements[position] = element;
+            sequences[position] = sequence;
+        }
+
+        private void siftDown(int position, T element, long sequence) {
+            while (true) {
+                int child = 2 * position + 1;
+                if (child >= size) {
+                    break;
+                }
+                int right = child + 1;
+                if (right < size && compare(elementAt(right), sequences[right], elementAt(child), sequences[child]) > 0) {
+                    child = right;
+                }
+                if (compare(elementAt(child), sequences[child], element, sequence) <= 0) {
+                    break;
+                }
+                elements[position] = elements[child];
+                sequences[position] = sequences[child];
+                position = child;
+            }
+            elements[position] = element;
+            sequences[position] = sequence;
+        }
+
+        @SuppressWarnings("unchecked")
+        private T elementAt(int position) {
+            return (T) elements[position];
+        }
+    }
+
+    /**
+     * The same bounded max-heap over primitive longs (smallest values are kept). Equal values are
+     * interchangeable, so no arrival numbers are needed. Distinct mode tracks the kept values in a
+     * LongLongHashMap used as a set.
+     */
+    static final class LongBoundedHeap {
+        private final int capacity;
+        private final LongLongHashMap members;
+        private long[] heap;
+        private int size;
+
+        LongBoundedHeap(int capacity, boolean distinct) {
+            this.capacity = capacity;
+            this.members = distinct ? new LongLongHashMap(Math.min(capacity, 1 << 16)) : null;
+            this.heap = new long[Math.min(capacity, 16)];
+        }
+
+        void accept(long value) {
+            if (capacity == 0 || (size == capacity && value >= heap[0])) {
+                return;
+            }
+            if (members != null) {
+                if (members.containsKey(value)) {
+                    return;
+                }
+                members.put(value, 1);
+            }
+            if (size < capacity) {
+                if (size == heap.length) {
+                    heap = Arrays.copyOf(heap, (int) Math.min(capacity, heap.length * 2L));
+                }
+                int position = size++;
+                while (position > 0) {
+                    int parent = (position - 1) >>> 1;
+                    if (heap[parent] >= value) {
+                        break;
+                    }
+                    heap[position] = heap[parent];
+                    position = parent;
+                }
+                heap[position] = value;
+            } else {
+                if (members != null) {
+                    members.remove(heap[0]);
+                }
+                int position = 0;
+                while (true) {
+                    int child = 2 * position + 1;
+                    if (child >= size) {
+                        break;
+                    }
+                    if (child + 1 < size && heap[child + 1] > heap[child]) {
+                        child++;
+                    }
+                    if (heap[child] <= value) {
+                        break;
+                    }
+                    heap[position] = heap[child];
+                    position = child;
+                }
+                heap[position] = value;
+            }
+        }
+
+        void combine(LongBoundedHeap other) {
+            for (int i = 0; i < other.size; i++) {
+                accept(other.heap[i]);
+            }
+        }
+
+        long[] sorted() {
+            long[] result = Arrays.copyOf(heap, size);
+            Arrays.sort(result);
+            return result;
+        }
+    }
+}
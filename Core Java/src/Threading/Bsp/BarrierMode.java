@@ -0,0 +1,17 @@
+package Threading.Bsp;
+
+/**
+ * How a worker waits for the others at the end of a phase.
+ * <ul>
+ *     <li>PARK: Phaser.arriveAndAwaitAdvance(). A waiting thread is parked and unparked by the last arrival;
+ *     no CPU wasted, but waking up takes tens of microseconds, which adds up over thousands of short phases.</li>
+ *     <li>SPIN_THEN_PARK: arrive(), then poll the phase number for a while (Thread.onSpinWait()) and park only
+ *     if the phase has not advanced by then. Fast when phases are short and every worker has its own core.
+ *     When workers outnumber the available processors a spinning worker only delays the ones it waits for,
+ *     so PhaseRunner parks right away instead.</li>
+ * </ul>
+ */
+public enum BarrierMode {
+    PARK,
+    SPIN_THEN_PARK
+}
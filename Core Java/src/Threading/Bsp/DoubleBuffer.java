@@ -0,0 +1,33 @@
+package Threading.Bsp;
+
+/**
+ * Two copies of a phase's state: workers read current() and write next(), so no worker ever reads a value
+ * another worker is writing in the same phase. swap() in PhaseKernel.afterPhase() makes the new state
+ * current; nothing is copied.
+ */
+public final class DoubleBuffer<T> {
+    private T current;
+    private T next;
+
+    public DoubleBuffer(T current, T next) {
+        if (current == next) {
+            throw new IllegalArgumentException("The two buffers must be different objects");
+        }
+        this.current = current;
+        this.next = next;
+    }
+
+    public T current() {
+        return current;
+    }
+
+    public T next() {
+        return next;
+    }
+
+    public void swap() {
+        T previous = current;
+        current = next;
+        next = previous;
+    }
+}
@@ -0,0 +1,133 @@
+package Threading.Bsp;
+
+/**
+ * Sample PhaseKernel: heat spreading over a rectangular metal plate. The top edge is held at 100 degrees,
+ * the other edges at 0, the inside starts at 0. Every phase is one explicit finite-difference step of the
+ * 2D heat equation (a 5-point stencil):
+ * <pre>
+ * next[r][c] = t + ALPHA * (up + down + left + right - 4 * t)     t = current[r][c]
+ * </pre>
+ * The grid is stored row-major in two double[] (DoubleBuffer) and workers split the interior rows.
+ * The job stops once no cell changes by more than epsilon in a phase (epsilon 0: run until maxPhases).
+ * Each cell only depends on the previous phase, so the result is bit-for-bit the same for any number of
+ * workers.
+ */
+public class HeatDiffusion implements PhaseKernel {
+    // the explicit scheme is stable for ALPHA <= 0.25
+    private static final double ALPHA = 0.25;
+    private static final double HOT = 100.0;
+
+    private final int rows;
+    private final int cols;
+    private final double epsilon;
+    private final DoubleBuffer<double[]> grid;
+    // largest change per worker in the current phase
+    private double[] workerChange = new double[1];
+    private double maxChange = Double.POSITIVE_INFINITY;
+    private int phases;
+
+    public HeatDiffusion(int rows, int cols, double epsilon) {
+        if (rows < 3 || cols < 3) {
+            throw new IllegalArgumentException("Plate must be at least 3 x 3: " + rows + " x " + cols);
+        }
+        this.rows = rows;
+        this.cols = cols;
+        this.epsilon = epsilon;
+        double[] current = new double[rows * cols];
+        double[] next = new double[rows * cols];
+        for (int c = 0; c < cols; c++) {
+            current[c] = HOT;
+            next[c] = HOT;
+        }
+        grid = new DoubleBuffer<>(current, next);
+    }
+
+    @Override
+    public void start(int workers) {
+        workerChange = new double[workers];
+    }
+
+    // interior rows only; the boundary never changes
+    @Override
+    public int size() {
+        return rows - 2;
+    }
+
+    @Override
+    public void compute(int phase, int worker, int from, int to) {
+        double[] current = grid.current();
+        double[] next = grid.next();
+        double change = 0;
+        for (int r = from + 1; r <= to; r++) {
+            int row = r * cols;
+            for (int i = row + 1; i < row + cols - 1; i++) {
+                double t = current[i];
+                double updated = t + ALPHA * (current[i - cols] + current[i + cols] + current[i - 1] + current[i + 1] - 4 * t);
+                next[i] = updated;
+                change = Math.max(change, Math.abs(updated - t));
+            }
+        }
+        workerChange[worker] = change;
+    }
+
+    @Override
+    public boolean afterPhase(int phase) {
+        grid.swap();
+        phases = phase + 1;
+        double max = 0;
+        for (int w = 0; w < workerChange.length; w++) {
+            max = Math.max(max, workerChange[w]);
+            // a worker that does not run the next phase must not report this phase's change again
+            workerChange[w] = 0;
+        }
+        maxChange = max;
+        return max <= epsilon;
+    }
+
+    public int rows() {
+        return rows;
+    }
+
+    public int cols() {
+        return cols;
+    }
+
+    public double temperature(int row, int col) {
+        return grid.current()[row * cols + col];
+    }
+
+    // largest change of any cell in the last phase
+    public double maxChange() {
+        return maxChange;
+    }
+
+    public int phases() {
+        return phases;
+    }
+
+    // sum of all temperatures, to compare runs with different worker counts
+    public double checksum() {
+        double sum = 0;
+        for (double t : grid.current()) {
+            sum += t;
+        }
+        return sum;
+    }
+
+    // renders a small plate as characters from cold ' ' to hot '@'
+    public static void main(String[] args) throws InterruptedException {
+        HeatDiffusion plate = new HeatDiffusion(20, 40, 1e-3);
+        PhaseTimings timings = PhaseRunner.newBuilder().workers(4).maxPhases(100_000).build().run(plate);
+        String shades = " .:-=+*#%@";
+        for (int r = 0; r < plate.rows(); r++) {
+            StringBuilder line = new StringBuilder();
+            for (int c = 0; c < plate.cols(); c++) {
+                int shade = (int) Math.min(shades.length() - 1, plate.temperature(r, c) / HOT * shades.length());
+                line.append(shades.charAt(shade));
+            }
+            System.out.println(line);
+        }
+        System.out.printf("converged after %d phases (max change %.4f)%n", plate.phases(), plate.maxChange());
+        System.out.println(timings);
+    }
+}
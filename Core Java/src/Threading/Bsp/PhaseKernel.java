@@ -0,0 +1,30 @@
+package Threading.Bsp;
+
+/**
+ * One bulk-synchronous job for PhaseRunner: a state of size() items (rows, vertices, particles) that is
+ * recomputed phase after phase.
+ * <p>
+ * In every phase each worker calls compute() once for its own contiguous slice of the items, all at the
+ * same time. Then, after all workers have finished and before any starts the next phase, exactly one
+ * thread calls afterPhase(): the place to swap buffers and check convergence. Everything workers wrote in
+ * compute() is visible in afterPhase(), and everything afterPhase() wrote is visible to the next compute().
+ */
+public interface PhaseKernel {
+    int size();
+
+    // compute items [from, to) of the next state for the given phase; worker is 0 .. workers - 1
+    void compute(int phase, int worker, int from, int to);
+
+    // return true to stop after this phase
+    boolean afterPhase(int phase);
+
+    // called once before the first phase, with the most workers that will run it (the runner's maxWorkers)
+    default void start(int workers) {
+    }
+
+    // called right after afterPhase() returned false: how many workers run the next phase, from 1 to the
+    // runner's maxWorkers; the slices are recomputed for the new count
+    default int workers(int nextPhase, int workers) {
+        return workers;
+    }
+}
@@ -0,0 +1,279 @@
+package Threading.Bsp;
+
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Phaser;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Runs a PhaseKernel bulk-synchronously: `workers` threads each own a contiguous slice of the kernel's
+ * items and meet at a Phaser after every phase, until the kernel says stop or maxPhases is reached.
+ * <pre>
+ * PhaseRunner runner = PhaseRunner.newBuilder()
+ *         .workers(8)
+ *         .maxPhases(10_000)
+ *         .barrier(BarrierMode.SPIN_THEN_PARK)
+ *         .build();
+ * PhaseTimings timings = runner.run(new HeatDiffusion(1024, 1024, 1e-4));
+ * </pre>
+ * Why a Phaser and not CyclicBarrier: phasers can be tiered, parties can register and deregister between
+ * phases, onAdvance() decides whether there is another phase, and forceTermination() releases every waiting
+ * worker at once. Every Phaser arrival updates one shared state word, so when more than tierSize workers
+ * may run they are spread over child phasers of a root phaser and only the children's last arrivals touch
+ * the root.
+ * <p>
+ * The worker count can change between phases, up to maxWorkers: after afterPhase() the kernel's workers()
+ * says how many run the next phase, and the slices are recomputed for that count. Surplus workers
+ * arriveAndDeregister() at the start of the next phase and exit. New workers are registered at the start of
+ * the next phase by a worker that has not arrived yet: the first worker of their child phaser, or worker 0
+ * if that child has no workers. Registering on a phaser whose parties have all arrived would wait for the
+ * advance, and the advance would wait for the registering worker.
+ * <p>
+ * If a worker's compute() or the kernel's afterPhase() or workers() throws, the phaser is terminated, every
+ * worker stops after its current phase and run() throws IllegalStateException with that exception as the
+ * cause. A runner holds no threads between runs and can be reused.
+ */
+public final class PhaseRunner {
+    private final int workers;
+    private final int maxWorkers;
+    private final int maxPhases;
+    private final BarrierMode barrier;
+    private final int spinLimit;
+    private final int tierSize;
+    // SPIN_THEN_PARK and at most one worker per processor
+    private final boolean spin;
+
+    private PhaseRunner(Builder builder) {
+        workers = builder.workers;
+        maxWorkers = Math.max(builder.maxWorkers, workers);
+        maxPhases = builder.maxPhases;
+        barrier = builder.barrier;
+        spinLimit = builder.spinLimit;
+        tierSize = builder.tierSize;
+        spin = barrier == BarrierMode.SPIN_THEN_PARK && maxWorkers <= Runtime.getRuntime().availableProcessors();
+    }
+
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    public PhaseTimings run(PhaseKernel kernel) throws InterruptedException {
+        kernel.start(maxWorkers);
+        Job job = new Job(kernel);
+        // the first workers register before any starts, so phase 0 waits for all of them
+        for (int w = 0; w < workers; w++) {
+            job.phasers[w].register();
+        }
+        job.phaseStart = System.nanoTime();
+        for (int w = 0; w < workers; w++) {
+            job.start(w, 0);
+        }
+        try {
+            // a worker adds the workers it starts before it ends, so once joined they are in the queue
+            Thread thread;
+            while ((thread = job.threads.poll()) != null) {
+                thread.join();
+            }
+        } catch (InterruptedException e) {
+            job.root.forceTermination();
+            throw e;
+        }
+        if (job.failure.get() != null) {
+            throw new IllegalStateException("Phase job failed", job.failure.get());
+        }
+        return job.timings;
+    }
+
+    // the state of one run()
+    private final class Job {
+        final PhaseKernel kernel;
+        final int size;
+        final PhaseTimings timings;
+        final Phaser root;
+        // the phaser each worker index registers with: the root, or child phaser w / tierSize
+        final Phaser[] phasers = new Phaser[maxWorkers];
+        // written by each worker for the phase it just finished, read in onAdvance
+        final long[] computeNanos = new long[maxWorkers];
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+        final Queue<Thread> threads = new ConcurrentLinkedQueue<>();
+        // workers of the current and the previous phase; written in onAdvance, read by the workers after it
+        int active = workers;
+        int previous = workers;
+        long phaseStart;
+
+        Job(PhaseKernel kernel) {
+            this.kernel = kernel;
+            size = kernel.size();
+            timings = new PhaseTimings(workers, maxPhases);
+            root = new Phaser() {
+                @Override
+                protected boolean onAdvance(int phase, int registeredParties) {
+                    return advance(phase, registeredParties);
+                }
+            };
+            Phaser tier = root;
+            for (int w = 0; w < maxWorkers; w++) {
+                if (maxWorkers > tierSize && w % tierSize == 0) {
+                    // no parties yet, so not registered with the root until its first worker registers
+                    tier = new Phaser(root);
+                }
+                phasers[w] = tier;
+            }
+        }
+
+        private boolean advance(int phase, int registeredParties) {
+            long now = System.nanoTime();
+            timings.record(phase, now - phaseStart, computeNanos, active);
+            phaseStart = now;
+            boolean stop;
+            try {
+                stop = kernel.afterPhase(phase);
+                if (!stop) {
+                    int next = kernel.workers(phase + 1, active);
+                    if (next < 1 || next > maxWorkers) {
+                        throw new IllegalStateException("workers must be between 1 and " + maxWorkers + ": " + next);
+                    }
+                    previous = active;
+                    active = next;
+                }
+            } catch (RuntimeException | Error e) {
+                failure.compareAndSet(null, e);
+                stop = true;
+            }
+            return stop || phase + 1 >= maxPhases || registeredParties == 0;
+        }
+
+        void start(int worker, int phase) {
+            Thread thread = new Thread(() -> work(worker, phase), "phase-worker-" + worker);
+            threads.add(thread);
+            thread.start();
+        }
+
+        private void work(int worker, int phase) {
+            Phaser phaser = phasers[worker];
+            try {
+                while (phase >= 0) {
+                    int count = active;
+                    if (worker >= count) {
+                        // not part of this phase; arrive for it and leave
+                        phaser.arriveAndDeregister();
+                        return;
+                    }
+                    if (count > previous) {
+                        registerNew(worker, previous, count, phase);
+                    }
+                    int from = (int) ((long) size * worker / count);
+                    int to = (int) ((long) size * (worker + 1) / count);
+                    long start = System.nanoTime();
+                    kernel.compute(phase, worker, from, to);
+                    computeNanos[worker] = System.nanoTime() - start;
+                    phase = awaitPhase(phaser, phase);
+                }
+            } catch (RuntimeException | Error e) {
+                failure.compareAndSet(null, e);
+                root.forceTermination();
+            }
+        }
+
+        // before worker arrives for phase: registers and starts the new workers [from, to) it is responsible
+        // for, one child phaser at a time in a single bulkRegister, so none of them can arrive in between
+        private void registerNew(int worker, int from, int to, int phase) {
+            int w = from;
+            while (w < to) {
+                int first = maxWorkers > tierSize ? w - w % tierSize : 0;
+                int end = maxWorkers > tierSize ? Math.min(to, first + tierSize) : to;
+                int registrar = first < from ? first : 0;
+                if (registrar == worker && phasers[w].bulkRegister(end - w) >= 0) {
+                    for (int i = w; i < end; i++) {
+                        start(i, phase);
+                    }
+                }
+                w = end;
+            }
+        }
+    }
+
+    // arrives for phase and returns the next phase number, negative once the phaser is terminated
+    private int awaitPhase(Phaser phaser, int phase) {
+        int arrived = phaser.arrive();
+        if (arrived < 0) {
+            return arrived;
+        }
+        if (spin) {
+            for (int i = 0; i < spinLimit; i++) {
+                // getPhase() reads the root's state even on a child phaser
+                int current = phaser.getPhase();
+                if (current != arrived) {
+                    return current;
+                }
+                Thread.onSpinWait();
+            }
+        }
+        return phaser.awaitAdvance(arrived);
+    }
+
+    public static final class Builder {
+        private int workers = Runtime.getRuntime().availableProcessors();
+        private int maxWorkers;
+        private int maxPhases = Integer.MAX_VALUE;
+        private BarrierMode barrier = BarrierMode.PARK;
+        private int spinLimit = 10_000;
+        private int tierSize = 32;
+
+        private Builder() {
+        }
+
+        // number of worker threads; default one per available processor
+        public Builder workers(int workers) {
+            checkPositive(workers, "workers");
+            this.workers = workers;
+            return this;
+        }
+
+        // most workers the kernel's workers() may ask for; default (and at least) the first phase's workers
+        public Builder maxWorkers(int maxWorkers) {
+            checkPositive(maxWorkers, "maxWorkers");
+            this.maxWorkers = maxWorkers;
+            return this;
+        }
+
+        // stop after this many phases even if the kernel has not converged
+        public Builder maxPhases(int maxPhases) {
+            checkPositive(maxPhases, "maxPhases");
+            this.maxPhases = maxPhases;
+            return this;
+        }
+
+        public Builder barrier(BarrierMode barrier) {
+            this.barrier = Objects.requireNonNull(barrier);
+            return this;
+        }
+
+        // how many times SPIN_THEN_PARK polls the phase before parking (about 10-50 ns each)
+        public Builder spinLimit(int spinLimit) {
+            checkPositive(spinLimit, "spinLimit");
+            this.spinLimit = spinLimit;
+            return this;
+        }
+
+        // most workers on one phaser before child phasers are used
+        public Builder tierSize(int tierSize) {
+            if (tierSize < 2) {
+                throw new IllegalArgumentException("tierSize must be at least 2: " + tierSize);
+            }
+            this.tierSize = tierSize;
+            return this;
+        }
+
+        public PhaseRunner build() {
+            return new PhaseRunner(this);
+        }
+
+        private static void checkPositive(long value, String name) {
+            if (value <= 0) {
+                throw new IllegalArgumentException(name + " must be positive: " + value);
+            }
+        }
+    }
+}
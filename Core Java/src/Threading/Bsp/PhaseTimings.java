@@ -0,0 +1,118 @@
+package Threading.Bsp;
+
+import java.util.Arrays;
+
+/**
+ * Per-phase timing of a PhaseRunner run. For every phase: wall time (from the previous phase advance to this
+ * one), the slowest worker's compute time and the sum of all workers' compute times. The difference between
+ * wall and slowest compute is barrier overhead; the difference between slowest and average is load imbalance.
+ */
+public final class PhaseTimings {
+    private final int workers;
+    private final long[] wallNanos;
+    private final long[] maxComputeNanos;
+    private final long[] totalComputeNanos;
+    private final int[] phaseWorkers;
+    private int phases;
+
+    PhaseTimings(int workers, int maxPhases) {
+        this.workers = workers;
+        int capacity = Math.min(maxPhases, 1 << 16);
+        wallNanos = new long[capacity];
+        maxComputeNanos = new long[capacity];
+        totalComputeNanos = new long[capacity];
+        phaseWorkers = new int[capacity];
+    }
+
+    // called from PhaseRunner's onAdvance, one thread at a time, with the workers that ran the phase;
+    // phases beyond the capacity are dropped
+    void record(int phase, long wall, long[] computeNanos, int workers) {
+        phases = phase + 1;
+        if (phase >= wallNanos.length) {
+            return;
+        }
+        long max = 0;
+        long total = 0;
+        for (int w = 0; w < workers; w++) {
+            max = Math.max(max, computeNanos[w]);
+            total += computeNanos[w];
+        }
+        wallNanos[phase] = wall;
+        maxComputeNanos[phase] = max;
+        totalComputeNanos[phase] = total;
+        phaseWorkers[phase] = workers;
+    }
+
+    // workers of the first phase
+    public int workers() {
+        return workers;
+    }
+
+    // workers of the given phase; differs from workers() if the kernel changed the count
+    public int workers(int phase) {
+        return phaseWorkers[phase];
+    }
+
+    public int phases() {
+        return phases;
+    }
+
+    public long wallNanos(int phase) {
+        return wallNanos[phase];
+    }
+
+    public long maxComputeNanos(int phase) {
+        return maxComputeNanos[phase];
+    }
+
+    public long totalComputeNanos(int phase) {
+        return totalComputeNanos[phase];
+    }
+
+    public long totalWallNanos() {
+        return sum(wallNanos);
+    }
+
+    // share of the wall time spent waiting at barriers instead of in the slowest worker's compute()
+    public double barrierShare() {
+        long wall = totalWallNanos();
+        return wall == 0 ? 0 : 1.0 - (double) sum(maxComputeNanos) / wall;
+    }
+
+    // slowest worker / average worker, over all phases; 1.0 is perfect balance
+    public double imbalance() {
+        long total = sum(totalComputeNanos);
+        long weighted = 0;
+        for (int i = 0; i < Math.min(phases, maxComputeNanos.length); i++) {
+            weighted += maxComputeNanos[i] * phaseWorkers[i];
+        }
+        return total == 0 ? 1.0 : (double) weighted / total;
+    }
+
+    public long percentileWallNanos(double fraction) {
+        int recorded = Math.min(phases, wallNanos.length);
+        if (recorded == 0) {
+            return 0;
+        }
+        long[] sorted = Arrays.copyOf(wallNanos, recorded);
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(fraction * recorded) - 1;
+        return sorted[Math.max(0, Math.min(recorded - 1, index))];
+    }
+
+    @Override
+    public String toString() {
+        return String.format("PhaseTimings{phases=%d, workers=%d, wall=%.1fms, phase p50=%.1fus p99=%.1fus, "
+                        + "barrier=%.1f%%, imbalance=%.2f}",
+                phases, workers, totalWallNanos() / 1e6, percentileWallNanos(0.5) / 1e3,
+                percentileWallNanos(0.99) / 1e3, barrierShare() * 100, imbalance());
+    }
+
+    private long sum(long[] values) {
+        long sum = 0;
+        for (int i = 0; i < Math.min(phases, values.length); i++) {
+            sum += values[i];
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,340 @@
+package Threading.Combinatorics;
+
+import Collection.Cache.BoundedCache;
+import Collection.Cache.CacheStats;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Supplier;
+
+/**
+ * Exact factorials and binomial coefficients as BigInteger, computed from their prime factorizations.
+ * <p>
+ * factorial(n) uses Luschny's prime swing: n! = (n/2)!^2 * swing(n), where the swing n! / (n/2)!^2 is
+ * a product of prime powers that can be read off n directly, each power at most n. Leaving out the
+ * factors of 2 and shifting them in at the end (n! has n - bitCount(n) of them):
+ * <pre>
+ * n! = oddSwing(n) * oddSwing(n/2)^2 * oddSwing(n/4)^4 * ... &lt;&lt; (n - bitCount(n))
+ * </pre>
+ * Squaring is cheaper than a general multiplication, and the swings are short products of small
+ * factors, multiplied with a {@link ProductTree}. binomial(n, k) is one product tree over the prime powers
+ * p^e of C(n, k), where e is the number of carries when adding k and n - k in base p (Kummer).
+ * <p>
+ * With parallelism &gt; 1 the engine owns a ForkJoinPool: the swings of all levels are computed at once,
+ * product trees split into fork/join tasks and the large multiplications use BigInteger.parallelMultiply.
+ * Results for n &gt;= {@value #MIN_CACHED_N} are kept in a BoundedCache weighted by their size in bytes;
+ * concurrent callers asking for the same value wait for one computation instead of repeating it.
+ */
+public final class CombinatoricsEngine implements AutoCloseable {
+    public static final long DEFAULT_CACHE_BYTES = 64L << 20;
+    // smaller results are quicker to recompute than to look up
+    static final int MIN_CACHED_N = 1000;
+    // n! fits a long up to 20!
+    private static final int SMALL_N = 20;
+    private static final long[] SMALL_FACTORIALS = new long[SMALL_N + 1];
+
+    static {
+        SMALL_FACTORIALS[0] = 1;
+        for (int i = 1; i <= SMALL_N; i++) {
+            SMALL_FACTORIALS[i] = SMALL_FACTORIALS[i - 1] * i;
+        }
+    }
+
+    // k == -1 for n!
+    private record Query(int n, int k) {
+    }
+
+    private final ForkJoinPool pool;
+    private final BoundedCache<Query, BigInteger> cache;
+    private final ConcurrentHashMap<Query, CompletableFuture<BigInteger>> inFlight = new ConcurrentHashMap<>();
+    // the largest sieve so far; any smaller one is a prefix of it
+    private volatile int[] primes = new int[0];
+    private volatile int sievedUpTo;
+
+    public CombinatoricsEngine(int parallelism) {
+        this(parallelism, DEFAULT_CACHE_BYTES);
+    }
+
+    // parallelism 1 computes in the calling thread; cacheBytes 0 turns the cache off
+    public CombinatoricsEngine(int parallelism, long cacheBytes) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism must be positive: " + parallelism);
+        }
+        if (cacheBytes < 0) {
+            throw new IllegalArgumentException("cacheBytes must not be negative: " + cacheBytes);
+        }
+        this.pool = parallelism > 1 ? new ForkJoinPool(parallelism) : null;
+        this.cache = cacheBytes == 0 ? null : BoundedCache.<Query, BigInteger>newBuilder()
+                .maximumWeight(cacheBytes, (query, value) -> (int) Math.min(Integer.MAX_VALUE, value.bitLength() / 8L + 16))
+                .build();
+    }
+
+    public BigInteger factorial(int n) {
+        checkNotNegative(n, "n");
+        if (n <= SMALL_N) {
+            return BigInteger.valueOf(SMALL_FACTORIALS[n]);
+        }
+        return memo(new Query(n, -1), () -> invoke(() -> primeSwingFactorial(n)));
+    }
+
+    /**
+     * n! for every n in ns, in the same order. Instead of computing each one on its own, the values are
+     * taken in ascending order and a value close above the previous one is computed as
+     * previous! * (previous + 1) * ... * n, one product tree and one multiplication.
+     */
+    public BigInteger[] factorials(int... ns) {
+        int[] sorted = ns.clone();
+        Arrays.sort(sorted);
+        if (sorted.length > 0) {
+            checkNotNegative(sorted[0], "n");
+        }
+        BigInteger[] ascending = new BigInteger[sorted.length];
+        for (int i = 0; i < sorted.length; i++) {
+            int n = sorted[i];
+            if (i > 0 && sorted[i - 1] == n) {
+                ascending[i] = ascending[i - 1];
+            } else if (i > 0 && sorted[i - 1] > SMALL_N && (long) (n - sorted[i - 1]) * 4 <= n) {
+                BigInteger previous = ascending[i - 1];
+                int from = sorted[i - 1] + 1;
+                ascending[i] = memo(new Query(n, -1), () -> invoke(() -> multiply(previous, rangeProduct(from, n))));
+            } else {
+                ascending[i] = factorial(n);
+            }
+        }
+        BigInteger[] result = new BigInteger[ns.length];
+        for (int i = 0; i < ns.length; i++) {
+            result[i] = ascending[Arrays.binarySearch(sorted, ns[i])];
+        }
+        return result;
+    }
+
+    // n choose k; 0 if k > n
+    public BigInteger binomial(int n, int k) {
+        checkNotNegative(n, "n");
+        checkNotNegative(k, "k");
+        if (k > n) {
+            return BigInteger.ZERO;
+        }
+        int smaller = Math.min(k, n - k);
+        if (n <= SMALL_N) {
+            return BigInteger.valueOf(SMALL_FACTORIALS[n] / SMALL_FACTORIALS[smaller] / SMALL_FACTORIALS[n - smaller]);
+        }
+        return memo(new Query(n, smaller), () -> invoke(() -> kummerBinomial(n, smaller)));
+    }
+
+    // hits, misses and evictions of the memo cache; null when it is off
+    public CacheStats cacheStats() {
+        return cache == null ? null : cache.stats();
+    }
+
+    @Override
+    public void close() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+
+    // ---- the reference algorithms the benchmark compares against ----
+
+    // 2 * 3 * ... * n into one running product: O(n^2 log n) word operations
+    public static BigInteger naiveFactorial(int n) {
+        checkNotNegative(n, "n");
+        BigInteger result = BigInteger.ONE;
+        for (int i = 2; i <= n; i++) {
+            result = result.multiply(BigInteger.valueOf(i));
+        }
+        return result;
+    }
+
+    // 2 * 3 * ... * n by binary splitting, single-threaded, without the prime factorization
+    public static BigInteger productTreeFactorial(int n) {
+        checkNotNegative(n, "n");
+        return rangeProduct(2, n);
+    }
+
+    // ---- algorithms ----
+
+    private BigInteger primeSwingFactorial(int n) {
+        int[] primes = primesUpTo(n);
+        // levels n, n/2, n/4, ... down to the first that fits in a long
+        List<Integer> levels = new ArrayList<>();
+        for (int m = n; m > SMALL_N; m >>>= 1) {
+            levels.add(m);
+        }
+        int bottom = levels.get(levels.size() - 1) >>> 1;
+        long smallOdd = SMALL_FACTORIALS[bottom] >>> Long.numberOfTrailingZeros(SMALL_FACTORIALS[bottom]);
+
+        BigInteger[] swings = new BigInteger[levels.size()];
+        if (pool != null) {
+            List<RecursiveTask<BigInteger>> tasks = new ArrayList<>(levels.size());
+            for (int m : levels) {
+                tasks.add(task(() -> oddSwing(m, primes)));
+            }
+            ForkJoinTask.invokeAll(tasks);
+            for (int i = 0; i < swings.length; i++) {
+                swings[i] = tasks.get(i).join();
+            }
+        } else {
+            for (int i = 0; i < swings.length; i++) {
+                swings[i] = oddSwing(levels.get(i), primes);
+            }
+        }
+
+        BigInteger odd = BigInteger.valueOf(smallOdd);
+        for (int i = swings.length - 1; i >= 0; i--) {
+            odd = multiply(multiply(odd, odd), swings[i]);
+        }
+        return odd.shiftLeft(n - Integer.bitCount(n));
+    }
+
+    // m! / (m/2)!^2 without its factors of 2: p^e over the odd primes p <= m, e = number of odd floor(m / p^i)
+    private BigInteger oddSwing(int m, int[] primes) {
+        int end = upperBound(primes, m);
+        long[] factors = new long[end];
+        int count = 0;
+        for (int i = 1; i < end; i++) {
+            int p = primes[i];
+            long power = 1;
+            for (int q = m / p; q > 0; q /= p) {
+                if ((q & 1) == 1) {
+                    power *= p;
+                }
+            }
+            if (power > 1) {
+                factors[count++] = power;
+            }
+        }
+        return product(factors, count);
+    }
+
+    private BigInteger kummerBinomial(int n, int k) {
+        int[] primes = primesUpTo(n);
+        int end = upperBound(primes, n);
+        long[] factors = new long[end];
+        int count = 0;
+        int rest = n - k;
+        for (int i = 0; i < end; i++) {
+            int p = primes[i];
+            // one factor p per carry, digit by digit in base p; p^e <= n always
+            long power = 1;
+            int carry = 0;
+            for (int a = n, b = k, c = rest; a > 0; a /= p, b /= p, c /= p) {
+                carry = b % p + c % p + carry >= p ? 1 : 0;
+                if (carry == 1) {
+                    power *= p;
+                }
+            }
+            if (power > 1) {
+                factors[count++] = power;
+            }
+        }
+        return product(factors, count);
+    }
+
+    // from * (from + 1) * ... * to, 1 if the range is empty
+    private static BigInteger rangeProduct(int from, int to) {
+        int count = Math.max(0, to - from + 1);
+        if (count == 0) {
+            return BigInteger.ONE;
+        }
+        long[] factors = new long[count];
+        for (int i = 0; i < count; i++) {
+            factors[i] = from + i;
+        }
+        return ProductTree.product(factors, 0, ProductTree.pack(factors, count));
+    }
+
+    private BigInteger product(long[] factors, int count) {
+        if (count == 0) {
+            return BigInteger.ONE;
+        }
+        int words = ProductTree.pack(factors, count);
+        if (pool != null && words > ProductTree.PARALLEL_THRESHOLD) {
+            return new ProductTree.Task(factors, 0, words).invoke();
+        }
+        return ProductTree.product(factors, 0, words);
+    }
+
+    private BigInteger multiply(BigInteger a, BigInteger b) {
+        return pool != null ? a.parallelMultiply(b) : a.multiply(b);
+    }
+
+    // ---- plumbing ----
+
+    private BigInteger memo(Query query, Supplier<BigInteger> compute) {
+        if (cache == null || query.n() < MIN_CACHED_N) {
+            return compute.get();
+        }
+        BigInteger cached = cache.getIfPresent(query);
+        if (cached != null) {
+            return cached;
+        }
+        // not BoundedCache.get(key, loader): that loads inside ConcurrentHashMap.compute, blocking every key
+        // in the same bin for the whole computation
+        CompletableFuture<BigInteger> mine = new CompletableFuture<>();
+        CompletableFuture<BigInteger> running = inFlight.putIfAbsent(query, mine);
+        if (running != null) {
+            return running.join();
+        }
+        // another thread may have finished between getIfPresent and putIfAbsent; computing twice is harmless
+        try {
+            BigInteger value = compute.get();
+            cache.put(query, value);
+            mine.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(query, mine);
+        }
+    }
+
+    // runs in the pool, or right here if there is none or this already is one of its workers
+    private BigInteger invoke(Supplier<BigInteger> computation) {
+        if (pool == null || ForkJoinTask.getPool() == pool) {
+            return computation.get();
+        }
+        return pool.invoke(task(computation));
+    }
+
+    private static RecursiveTask<BigInteger> task(Supplier<BigInteger> computation) {
+        return new RecursiveTask<>() {
+            @Override
+            protected BigInteger compute() {
+                return computation.get();
+            }
+        };
+    }
+
+    private int[] primesUpTo(int n) {
+        if (sievedUpTo < n) {
+            synchronized (this) {
+                if (sievedUpTo < n) {
+                    primes = PrimeSieve.primesUpTo(n);
+                    sievedUpTo = n;
+                }
+            }
+        }
+        return primes;
+    }
+
+    // index of the first prime > n
+    private static int upperBound(int[] primes, int n) {
+        int index = Arrays.binarySearch(primes, n);
+        return index >= 0 ? index + 1 : -index - 1;
+    }
+
+    private static void checkNotNegative(int value, String name) {
+        if (value < 0) {
+            throw new IllegalArgumentException(name + " must not be negative: " + value);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package Threading.Combinatorics;
+
+import java.util.Arrays;
+
+/**
+ * Sieve of Eratosthenes over odd numbers only: bit i stands for 2i + 1, so 10^7 needs 625 KB of bits.
+ * The primes come out as an int[] in ascending order.
+ */
+final class PrimeSieve {
+
+    private PrimeSieve() {
+    }
+
+    // all primes <= n
+    static int[] primesUpTo(int n) {
+        if (n < 2) {
+            return new int[0];
+        }
+        int bits = (n - 1) / 2 + 1;
+        // set bit: composite
+        long[] composite = new long[(bits + 63) >>> 6];
+        for (long p = 3; p * p <= n; p += 2) {
+            if ((composite[(int) (p >>> 7)] & (1L << (p >>> 1))) == 0) {
+                // odd multiples only, from p * p, 2p apart
+                for (long multiple = p * p; multiple <= n; multiple += 2 * p) {
+                    composite[(int) (multiple >>> 7)] |= 1L << (multiple >>> 1);
+                }
+            }
+        }
+        int[] primes = new int[estimateCount(n)];
+        int count = 0;
+        primes[count++] = 2;
+        for (int i = 1; i < bits; i++) {
+            if ((composite[i >>> 6] & (1L << i)) == 0) {
+                if (count == primes.length) {
+                    primes = Arrays.copyOf(primes, count + count / 8 + 16);
+                }
+                primes[count++] = 2 * i + 1;
+            }
+        }
+        return count == primes.length ? primes : Arrays.copyOf(primes, count);
+    }
+
+    // upper bound of pi(n) (Rosser and Schoenfeld, n >= 17), a little generous below
+    private static int estimateCount(int n) {
+        if (n < 17) {
+            return 7;
+        }
+        return (int) (1.25506 * n / Math.log(n)) + 1;
+    }
+}
@@ -0,0 +1,84 @@
+package Threading.Combinatorics;
+
+import java.math.BigInteger;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Product of many small factors by binary splitting: multiply the left half, multiply the right half, then
+ * the two results. Multiplying into one running product costs O(size of product) per factor, O(n^2) in
+ * total; splitting keeps both operands of every multiplication about the same size, where BigInteger's
+ * Karatsuba and Toom-Cook multiplication pay off.
+ * <p>
+ * The factors are first packed: neighbours are multiplied together in a long as long as that does not
+ * overflow, so the tree starts from full 63-bit words instead of one BigInteger per factor.
+ */
+final class ProductTree {
+    // below this many words a subtree is not worth a fork/join task
+    static final int PARALLEL_THRESHOLD = 1 << 11;
+
+    private ProductTree() {
+    }
+
+    // multiplies factors[0, count) (all positive) into the first words of the array; returns the word count
+    static int pack(long[] factors, int count) {
+        int words = 0;
+        long word = 1;
+        for (int i = 0; i < count; i++) {
+            long factor = factors[i];
+            if (Math.multiplyHigh(word, factor) == 0 && word * factor > 0) {
+                word *= factor;
+            } else {
+                factors[words++] = word;
+                word = factor;
+            }
+        }
+        factors[words++] = word;
+        return words;
+    }
+
+    static BigInteger product(long[] words, int from, int to) {
+        int length = to - from;
+        if (length == 0) {
+            return BigInteger.ONE;
+        }
+        if (length == 1) {
+            return BigInteger.valueOf(words[from]);
+        }
+        if (length == 2) {
+            return BigInteger.valueOf(words[from]).multiply(BigInteger.valueOf(words[from + 1]));
+        }
+        int middle = (from + to) >>> 1;
+        return product(words, from, middle).multiply(product(words, middle, to));
+    }
+
+    /**
+     * The same product as a fork/join task: subtrees above PARALLEL_THRESHOLD words run in parallel, and
+     * the large multiplications near the root use BigInteger.parallelMultiply, which splits Toom-Cook's
+     * sub-multiplications over the same pool.
+     */
+    static final class Task extends RecursiveTask<BigInteger> {
+        private static final long serialVersionUID = 1L;
+
+        private final long[] words;
+        private final int from;
+        private final int to;
+
+        Task(long[] words, int from, int to) {
+            this.words = words;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected BigInteger compute() {
+            if (to - from <= PARALLEL_THRESHOLD) {
+                return product(words, from, to);
+            }
+            int middle = (from + to) >>> 1;
+            Task left = new Task(words, from, middle);
+            left.fork();
+            BigInteger right = new Task(words, middle, to).compute();
+            return left.join().parallelMultiply(right);
+        }
+    }
+}
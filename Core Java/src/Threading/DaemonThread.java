@@ -1,5 +1,9 @@
 package Threading;
 
+import Threading.TimingWheel.TimingWheel;
+
+import java.util.concurrent.TimeUnit;
+
 public class DaemonThread extends Thread {
     DaemonThread(String name) {
         super(name);
@@ -7,17 +11,36 @@ public class DaemonThread extends Thread {
 
     @Override
     public void run() {
+        // ten lines a second instead of as fast as the console takes them; still only ends with the JVM
         while (true) {
             System.out.println("Printing");
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                return;
+            }
         }
     }
 
-    public static void main(String[] args) {
+    public static void main(String[] args) throws InterruptedException {
         DaemonThread dt = new DaemonThread("DaemonThread");
 //        if main thread is terminated daemon will be terminated automatically.
         dt.setDaemon(true);
         dt.start();
 
+//        the same periodic job without a thread of its own: TimingWheel runs all its timeouts on one
+//        daemon worker, so millions of them cost no more threads than one
+        TimingWheel wheel = TimingWheel.newBuilder().threadName("DaemonWheel").build();
+        printEvery(wheel, 100);
+
+        Thread.sleep(350);
         System.out.println("Main Done");
     }
+
+    private static void printEvery(TimingWheel wheel, long millis) {
+        wheel.schedule(() -> {
+            System.out.println("Printing from " + Thread.currentThread().getName());
+            printEvery(wheel, millis);
+        }, millis, TimeUnit.MILLISECONDS);
+    }
 }
@@ -0,0 +1,53 @@
+package Threading;
+
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * The ways ThreadPooling and ThreadPoolingBenchmark can run their tasks.
+ * <ul>
+ *     <li>PLATFORM_FIXED: newFixedThreadPool(threads). A task that sleeps or does I/O holds one of the threads,
+ *     so at most `threads` blocking tasks are in flight and the rest wait in the queue.</li>
+ *     <li>VIRTUAL_PER_TASK: newVirtualThreadPerTaskExecutor(). Every task gets its own virtual thread; a
+ *     blocked virtual thread gives its carrier back, so blocking tasks are limited by memory, not threads.
+ *     `threads` is ignored.</li>
+ *     <li>FORK_JOIN: a work-stealing ForkJoinPool of `threads` workers. Built for short CPU-bound tasks; a
+ *     Thread.sleep() blocks the worker just like in a fixed pool.</li>
+ * </ul>
+ * Every executor returned is a fresh ExecutorService; close() it (try-with-resources) to wait for all submitted
+ * tasks and release the threads.
+ */
+public enum ExecutorMode {
+    PLATFORM_FIXED {
+        @Override
+        public ExecutorService newExecutor(int threads) {
+            return Executors.newFixedThreadPool(threads);
+        }
+    },
+    VIRTUAL_PER_TASK {
+        @Override
+        public ExecutorService newExecutor(int threads) {
+            return Executors.newVirtualThreadPerTaskExecutor();
+        }
+    },
+    FORK_JOIN {
+        @Override
+        public ExecutorService newExecutor(int threads) {
+            return new ForkJoinPool(threads);
+        }
+    };
+
+    public abstract ExecutorService newExecutor(int threads);
+
+    // accepts the constant name in any case, or the short names "platform", "virtual" and "forkjoin"
+    public static ExecutorMode parse(String name) {
+        return switch (name.toLowerCase(Locale.ROOT)) {
+            case "platform" -> PLATFORM_FIXED;
+            case "virtual" -> VIRTUAL_PER_TASK;
+            case "forkjoin" -> FORK_JOIN;
+            default -> valueOf(name.toUpperCase(Locale.ROOT));
+        };
+    }
+}
@@ -0,0 +1,76 @@
+package Threading;
+
+import Benchmark.Harness;
+import Threading.Combinatorics.CombinatoricsEngine;
+
+import java.math.BigInteger;
+import java.util.function.Supplier;
+
+/**
+ * n! for n = 10^4, 10^5, ... up to maxN, five ways:
+ * <ul>
+ *     <li>naive: 2 * 3 * ... * n into one running BigInteger, the obvious fix for the overflowing long loop</li>
+ *     <li>product tree: the same factors, multiplied by binary splitting</li>
+ *     <li>prime swing: CombinatoricsEngine with parallelism 1 and no cache</li>
+ *     <li>prime swing parallel: CombinatoricsEngine with `threads` workers and no cache</li>
+ *     <li>cached: the same query again on an engine that has it in its memo cache</li>
+ * </ul>
+ * plus binomial(n, n/2). Every result is compared with the product tree's. naive is quadratic: it is skipped once
+ * 100 times its previous time would exceed maxSeconds. Usage:
+ * java -Xmx4g Threading.FactorialBenchmark [maxN=10000000] [threads=max(2, CPUs)] [maxSeconds=60]
+ */
+public class FactorialBenchmark {
+
+    public static void main(String[] args) {
+        int maxN = Harness.intArg(args, 0, 10_000_000);
+        int threads = Harness.intArg(args, 1, Math.max(2, Runtime.getRuntime().availableProcessors()));
+        int maxSeconds = Harness.intArg(args, 2, 60);
+        System.out.printf("%d CPUs, %d threads for the parallel engine%n", Runtime.getRuntime().availableProcessors(), threads);
+
+        try (CombinatoricsEngine sequential = new CombinatoricsEngine(1, 0);
+             CombinatoricsEngine parallel = new CombinatoricsEngine(threads, 0);
+             CombinatoricsEngine cached = new CombinatoricsEngine(threads, 256L << 20)) {
+            double naiveMs = 0;
+            for (long size = 10_000; size <= maxN; size *= 10) {
+                int n = (int) size;
+                int iterations = n <= 100_000 ? 5 : 1;
+                BigInteger expected = time(n + "! product tree", iterations,
+                        () -> CombinatoricsEngine.productTreeFactorial(n));
+                System.out.printf("   %d! has %d bits%n", n, expected.bitLength());
+
+                if (naiveMs * 100 > maxSeconds * 1000.0) {
+                    System.out.printf("%-45s skipped, needs about %.0f s%n", n + "! naive", naiveMs * 100 / 1000);
+                } else {
+                    long start = System.nanoTime();
+                    check(expected, time(n + "! naive", 1, () -> CombinatoricsEngine.naiveFactorial(n)));
+                    naiveMs = (System.nanoTime() - start) / 1e6;
+                }
+                check(expected, time(n + "! prime swing", iterations, () -> sequential.factorial(n)));
+                check(expected, time(n + "! prime swing, " + threads + " threads", iterations, () -> parallel.factorial(n)));
+                cached.factorial(n);
+                check(expected, time(n + "! cached", iterations, () -> cached.factorial(n)));
+
+                BigInteger binomial = time("C(" + n + ", " + n / 2 + ") prime swing, " + threads + " threads", iterations,
+                        () -> parallel.binomial(n, n / 2));
+                if (n <= 100_000) {
+                    check(expected.divide(CombinatoricsEngine.productTreeFactorial(n / 2)
+                            .multiply(CombinatoricsEngine.productTreeFactorial(n - n / 2))), binomial);
+                }
+                System.out.println();
+            }
+            System.out.println("cache: " + cached.cacheStats());
+        }
+    }
+
+    private static BigInteger time(String label, int iterations, Supplier<BigInteger> computation) {
+        BigInteger[] result = new BigInteger[1];
+        Harness.run(label, 0, iterations, () -> result[0] = computation.get());
+        return result[0];
+    }
+
+    private static void check(BigInteger expected, BigInteger actual) {
+        if (!expected.equals(actual)) {
+            throw new AssertionError("Wrong result: " + actual.bitLength() + " bits, expected " + expected.bitLength());
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package Threading;
+
+import Benchmark.Harness;
+import Threading.Bsp.BarrierMode;
+import Threading.Bsp.HeatDiffusion;
+import Threading.Bsp.PhaseKernel;
+import Threading.Bsp.PhaseRunner;
+import Threading.Bsp.PhaseTimings;
+
+/**
+ * Scaling of the Threading.Bsp heat-diffusion kernel from 1 to maxWorkers workers, with both barrier modes:
+ * <ul>
+ *     <li>large: a big plate and few phases, where compute dominates and speedup should follow the cores;</li>
+ *     <li>small: a small plate and thousands of phases, where each phase is short and the barrier is the
+ *     cost that decides whether more workers help.</li>
+ * </ul>
+ * Reports wall time, speedup over 1 worker, barrier share and load imbalance from PhaseTimings, and checks
+ * that every run ends with the same plate (the kernel is deterministic whatever the partition). A last run
+ * changes the worker count between phases, across child phasers, and must end with the same plate too.
+ * <p>
+ * Usage: java Threading.HeatDiffusionBenchmark [maxWorkers, default max(4, cores)] [large side, default 1024]
+ */
+public class HeatDiffusionBenchmark {
+
+    public static void main(String[] args) throws InterruptedException {
+        int cores = Runtime.getRuntime().availableProcessors();
+        int maxWorkers = Harness.intArg(args, 0, Math.max(4, cores));
+        int largeSide = Harness.intArg(args, 1, 1024);
+        System.out.printf("%d CPUs%n", cores);
+        scale("large", largeSide, 200, maxWorkers);
+        scale("small", 128, 5000, maxWorkers);
+        resizing(128, 2000, maxWorkers);
+    }
+
+    // grows from 1 to maxWorkers and back, one worker per phase, with tierSize 2 so workers join and
+    // leave child phasers that empty and refill
+    private static void resizing(int side, int phases, int maxWorkers) throws InterruptedException {
+        double expected = run(side, phases, 1, BarrierMode.PARK).checksum();
+        HeatDiffusion plate = new HeatDiffusion(side, side, 0);
+        int period = 2 * (maxWorkers - 1);
+        PhaseKernel kernel = new PhaseKernel() {
+            @Override
+            public int size() {
+                return plate.size();
+            }
+
+            @Override
+            public void compute(int phase, int worker, int from, int to) {
+                plate.compute(phase, worker, from, to);
+            }
+
+            @Override
+            public boolean afterPhase(int phase) {
+                return plate.afterPhase(phase);
+            }
+
+            @Override
+            public void start(int workers) {
+                plate.start(workers);
+            }
+
+            @Override
+            public int workers(int nextPhase, int workers) {
+                int step = period == 0 ? 0 : nextPhase % period;
+                return 1 + Math.min(step, period - step);
+            }
+        };
+        long start = System.nanoTime();
+        PhaseTimings timings = PhaseRunner.newBuilder()
+                .workers(1)
+                .maxWorkers(maxWorkers)
+                .maxPhases(phases)
+                .tierSize(2)
+                .build()
+                .run(kernel);
+        double ms = (System.nanoTime() - start) / 1e6;
+        for (int phase = 0; phase < timings.phases(); phase++) {
+            if (timings.workers(phase) != kernel.workers(phase, 0)) {
+                throw new IllegalStateException("phase " + phase + " ran " + timings.workers(phase)
+                        + " workers, expected " + kernel.workers(phase, 0));
+            }
+        }
+        if (plate.checksum() != expected) {
+            throw new IllegalStateException("plate differs after resizing: " + plate.checksum() + " vs " + expected);
+        }
+        System.out.printf("%nresizing: %d x %d plate, %d phases, 1 to %d workers and back: %.1f ms, same plate%n",
+                side, side, timings.phases(), maxWorkers, ms);
+    }
+
+    private static void scale(String name, int side, int phases, int maxWorkers) throws InterruptedException {
+        System.out.printf("%n%s: %d x %d plate, %d phases%n", name, side, side, phases);
+        System.out.printf("%-15s %7s %10s %8s %9s %10s %9s%n",
+                "barrier", "workers", "wall ms", "speedup", "barrier%", "imbalance", "checksum");
+        // warm-up, also the reference result
+        double expected = run(side, phases, 1, BarrierMode.PARK).checksum();
+        double baseline = 0;
+        for (BarrierMode barrier : BarrierMode.values()) {
+            for (int workers = 1; workers <= maxWorkers; workers *= 2) {
+                long start = System.nanoTime();
+                HeatDiffusion plate = new HeatDiffusion(side, side, 0);
+                PhaseTimings timings = PhaseRunner.newBuilder()
+                        .workers(workers)
+                        .maxPhases(phases)
+                        .barrier(barrier)
+                        .build()
+                        .run(plate);
+                double ms = (System.nanoTime() - start) / 1e6;
+                if (baseline == 0) {
+                    baseline = ms;
+                }
+                System.out.printf("%-15s %7d %10.1f %8.2f %8.1f%% %10.2f %9s%n",
+                        barrier, workers, ms, baseline / ms, timings.barrierShare() * 100, timings.imbalance(),
+                        plate.checksum() == expected ? "same" : "DIFFERS");
+            }
+        }
+    }
+
+    private static HeatDiffusion run(int side, int phases, int workers, BarrierMode barrier) throws InterruptedException {
+        HeatDiffusion plate = new HeatDiffusion(side, side, 0);
+        PhaseRunner.newBuilder().workers(workers).maxPhases(phases).barrier(barrier).build().run(plate);
+        return plate;
+    }
+}
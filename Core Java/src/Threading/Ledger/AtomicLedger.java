@@ -0,0 +1,141 @@
+package Threading.Ledger;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Objects;
+
+/**
+ * Lock-free ledger: every balance is a long updated with compare-and-set, so no thread ever waits for
+ * another one that was descheduled, and there are no locks to deadlock on.
+ * <p>
+ * A transfer is a debit followed by a credit. The debit is a CAS loop that fails rather than go below zero;
+ * the credit is an unconditional getAndAdd that can not fail, so once the money has left one account it
+ * always arrives in the other. Between the two steps the money is in flight: a concurrent balance() or
+ * totalBalance() may miss it, which is the price for not locking two accounts at once (use LockingLedger
+ * when every reader must see transfers atomically). At rest the books always balance.
+ * <p>
+ * Hot accounts, given to the constructor, use a StripedBalance instead of a single cell.
+ */
+public class AtomicLedger implements Ledger {
+    private static final VarHandle BALANCES = MethodHandles.arrayElementVarHandle(long[].class);
+
+    private final long[] balances;
+    // null for ordinary accounts
+    private final StripedBalance[] hot;
+
+    public AtomicLedger(int accounts, long initialBalance) {
+        this(accounts, initialBalance, new int[0], 1);
+    }
+
+    public AtomicLedger(int accounts, long initialBalance, int[] hotAccounts, int stripes) {
+        if (initialBalance < 0) {
+            throw new IllegalArgumentException("Initial balance must not be negative: " + initialBalance);
+        }
+        balances = new long[accounts];
+        hot = new StripedBalance[accounts];
+        for (int i = 0; i < accounts; i++) {
+            balances[i] = initialBalance;
+        }
+        for (int account : hotAccounts) {
+            hot[Objects.checkIndex(account, accounts)] = new StripedBalance(stripes, initialBalance);
+            balances[account] = 0;
+        }
+    }
+
+    @Override
+    public int accounts() {
+        return balances.length;
+    }
+
+    @Override
+    public long balance(int account) {
+        StripedBalance striped = hot[Objects.checkIndex(account, balances.length)];
+        return striped != null ? striped.sum() : (long) BALANCES.getVolatile(balances, account);
+    }
+
+    @Override
+    public void deposit(int account, long amount) {
+        LockingLedger.checkAmount(amount);
+        credit(Objects.checkIndex(account, balances.length), amount);
+    }
+
+    @Override
+    public boolean withdraw(int account, long amount) {
+        LockingLedger.checkAmount(amount);
+        return debit(Objects.checkIndex(account, balances.length), amount);
+    }
+
+    @Override
+    public boolean transfer(int from, int to, long amount) {
+        LockingLedger.checkAmount(amount);
+        Objects.checkIndex(from, balances.length);
+        Objects.checkIndex(to, balances.length);
+        if (from == to) {
+            return balance(from) >= amount;
+        }
+        if (!debit(from, amount)) {
+            return false;
+        }
+        credit(to, amount);
+        return true;
+    }
+
+    // all debits first, undone if one of them fails; then the credits, which can not fail
+    @Override
+    public boolean transfer(TransferBatch batch) {
+        batch.computeNet(balances.length);
+        int count = batch.involvedCount();
+        for (int i = 0; i < count; i++) {
+            long net = batch.net(i);
+            if (net < 0 && !debit(batch.involved(i), -net)) {
+                for (int j = 0; j < i; j++) {
+                    if (batch.net(j) < 0) {
+                        credit(batch.involved(j), -batch.net(j));
+                    }
+                }
+                return false;
+            }
+        }
+        for (int i = 0; i < count; i++) {
+            long net = batch.net(i);
+            if (net > 0) {
+                credit(batch.involved(i), net);
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public long totalBalance() {
+        long total = 0;
+        for (int i = 0; i < balances.length; i++) {
+            total += balance(i);
+        }
+        return total;
+    }
+
+    private boolean debit(int account, long amount) {
+        StripedBalance striped = hot[account];
+        if (striped != null) {
+            return striped.tryTake(amount);
+        }
+        long current = (long) BALANCES.getVolatile(balances, account);
+        while (current >= amount) {
+            long witness = (long) BALANCES.compareAndExchange(balances, account, current, current - amount);
+            if (witness == current) {
+                return true;
+            }
+            current = witness;
+        }
+        return false;
+    }
+
+    private void credit(int account, long amount) {
+        StripedBalance striped = hot[account];
+        if (striped != null) {
+            striped.add(amount);
+        } else {
+            BALANCES.getAndAdd(balances, account, amount);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package Threading.Ledger;
+
+/**
+ * Accounts 0 .. accounts() - 1 holding whole-unit balances that never go negative.
+ * <p>
+ * Amounts must be positive; bad account numbers throw IndexOutOfBoundsException, bad amounts
+ * IllegalArgumentException. An operation that lacks funds returns false and changes nothing. No operation
+ * blocks on another account's slow work or can deadlock, whatever order callers use the accounts in.
+ */
+public interface Ledger {
+    int accounts();
+
+    long balance(int account);
+
+    // adds money to the ledger
+    void deposit(int account, long amount);
+
+    // takes money out of the ledger; false if the balance is too small
+    boolean withdraw(int account, long amount);
+
+    // moves money between two accounts; false if from has too little
+    boolean transfer(int from, int to, long amount);
+
+    /**
+     * Applies all transfers of the batch or none. The batch is netted per account first, so it succeeds
+     * when every account can cover its net outflow, even if the transfers one by one would have dipped
+     * below zero in between.
+     */
+    boolean transfer(TransferBatch batch);
+
+    // sum of all balances; exact when no operation is running at the same time
+    long totalBalance();
+}
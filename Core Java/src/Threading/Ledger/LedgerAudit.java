@@ -0,0 +1,96 @@
+package Threading.Ledger;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Conservation checker for a Ledger under concurrent transfers.
+ * <p>
+ * Created while the ledger is at rest, it remembers every balance. Each worker thread gets its own Recorder
+ * and reports the transfers that succeeded; the recorders only touch thread-local arrays, so checking adds
+ * no contention. Once the workers are done, verify() checks that
+ * <ul>
+ *     <li>the total is unchanged: transfers neither create nor destroy money,</li>
+ *     <li>every account holds exactly its start balance plus the recorded net flow, so no update was lost or
+ *     applied twice, and</li>
+ *     <li>no balance is negative.</li>
+ * </ul>
+ */
+public final class LedgerAudit {
+    private static final int MAX_REPORTED = 10;
+
+    private final Ledger ledger;
+    private final long[] start;
+    private final long startTotal;
+    private final List<Recorder> recorders = new ArrayList<>();
+
+    public LedgerAudit(Ledger ledger) {
+        this.ledger = ledger;
+        start = new long[ledger.accounts()];
+        long total = 0;
+        for (int i = 0; i < start.length; i++) {
+            start[i] = ledger.balance(i);
+            total += start[i];
+        }
+        startTotal = total;
+    }
+
+    public synchronized Recorder newRecorder() {
+        Recorder recorder = new Recorder(start.length);
+        recorders.add(recorder);
+        return recorder;
+    }
+
+    // call only after every recording thread has finished (joined); throws IllegalStateException on a violation
+    public synchronized void verify() {
+        long[] expected = start.clone();
+        for (Recorder recorder : recorders) {
+            for (int i = 0; i < expected.length; i++) {
+                expected[i] += recorder.deltas[i];
+            }
+        }
+        List<String> violations = new ArrayList<>();
+        int reported = 0;
+        long total = 0;
+        for (int i = 0; i < expected.length; i++) {
+            long actual = ledger.balance(i);
+            total += actual;
+            if ((actual != expected[i] || actual < 0) && reported++ < MAX_REPORTED) {
+                violations.add("account " + i + ": expected " + expected[i] + ", actual " + actual);
+            }
+        }
+        if (total != startTotal) {
+            violations.add(0, "total " + total + " != " + startTotal + " at start");
+        }
+        if (!violations.isEmpty()) {
+            throw new IllegalStateException("Ledger audit failed: " + String.join("; ", violations)
+                    + (reported > MAX_REPORTED ? "; and " + (reported - MAX_REPORTED) + " more accounts" : ""));
+        }
+    }
+
+    public long startTotal() {
+        return startTotal;
+    }
+
+    // one per thread, not thread-safe
+    public static final class Recorder {
+        private final long[] deltas;
+
+        private Recorder(int accounts) {
+            deltas = new long[accounts];
+        }
+
+        // call for transfers that returned true
+        public void transferred(int from, int to, long amount) {
+            deltas[from] -= amount;
+            deltas[to] += amount;
+        }
+
+        // call right after Ledger.transfer(batch) returned true, before the batch is changed
+        public void transferred(TransferBatch batch) {
+            for (int i = 0; i < batch.involvedCount(); i++) {
+                deltas[batch.involved(i)] += batch.net(i);
+            }
+        }
+    }
+}
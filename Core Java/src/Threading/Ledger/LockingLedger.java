@@ -0,0 +1,152 @@
+package Threading.Ledger;
+
+import java.util.Objects;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The lock-per-account ledger, Locking.BankAccount grown up: every account has its own ReentrantLock, but
+ * nothing slow happens under it and lock() waits instead of giving up after a timeout.
+ * <p>
+ * Operations that need several accounts lock them in ascending account order. Two transfers A -> B and
+ * B -> A both take A first, so neither can hold one lock while waiting for the other: no deadlock.
+ * A transfer is atomic: nobody sees the money gone from one account but not yet in the other.
+ */
+public class LockingLedger implements Ledger {
+    private final ReentrantLock[] locks;
+    // balances[i] is guarded by locks[i]
+    private final long[] balances;
+
+    public LockingLedger(int accounts, long initialBalance) {
+        if (initialBalance < 0) {
+            throw new IllegalArgumentException("Initial balance must not be negative: " + initialBalance);
+        }
+        locks = new ReentrantLock[accounts];
+        balances = new long[accounts];
+        for (int i = 0; i < accounts; i++) {
+            locks[i] = new ReentrantLock();
+            balances[i] = initialBalance;
+        }
+    }
+
+    @Override
+    public int accounts() {
+        return balances.length;
+    }
+
+    @Override
+    public long balance(int account) {
+        ReentrantLock lock = locks[Objects.checkIndex(account, balances.length)];
+        lock.lock();
+        try {
+            return balances[account];
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void deposit(int account, long amount) {
+        checkAmount(amount);
+        ReentrantLock lock = locks[Objects.checkIndex(account, balances.length)];
+        lock.lock();
+        try {
+            balances[account] += amount;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean withdraw(int account, long amount) {
+        checkAmount(amount);
+        ReentrantLock lock = locks[Objects.checkIndex(account, balances.length)];
+        lock.lock();
+        try {
+            if (balances[account] < amount) {
+                return false;
+            }
+            balances[account] -= amount;
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean transfer(int from, int to, long amount) {
+        checkAmount(amount);
+        Objects.checkIndex(from, balances.length);
+        Objects.checkIndex(to, balances.length);
+        if (from == to) {
+            return balance(from) >= amount;
+        }
+        ReentrantLock first = locks[Math.min(from, to)];
+        ReentrantLock second = locks[Math.max(from, to)];
+        first.lock();
+        try {
+            second.lock();
+            try {
+                if (balances[from] < amount) {
+                    return false;
+                }
+                balances[from] -= amount;
+                balances[to] += amount;
+                return true;
+            } finally {
+                second.unlock();
+            }
+        } finally {
+            first.unlock();
+        }
+    }
+
+    @Override
+    public boolean transfer(TransferBatch batch) {
+        batch.computeNet(balances.length);
+        int count = batch.involvedCount();
+        int locked = 0;
+        try {
+            // involved accounts come out of computeNet() ascending: the global lock order again
+            for (; locked < count; locked++) {
+                locks[batch.involved(locked)].lock();
+            }
+            for (int i = 0; i < count; i++) {
+                if (balances[batch.involved(i)] + batch.net(i) < 0) {
+                    return false;
+                }
+            }
+            for (int i = 0; i < count; i++) {
+                balances[batch.involved(i)] += batch.net(i);
+            }
+            return true;
+        } finally {
+            while (locked > 0) {
+                locks[batch.involved(--locked)].unlock();
+            }
+        }
+    }
+
+    // locks every account in order, so this is an exact snapshot even while transfers run
+    @Override
+    public long totalBalance() {
+        int locked = 0;
+        try {
+            long total = 0;
+            for (; locked < locks.length; locked++) {
+                locks[locked].lock();
+                total += balances[locked];
+            }
+            return total;
+        } finally {
+            while (locked > 0) {
+                locks[--locked].unlock();
+            }
+        }
+    }
+
+    static void checkAmount(long amount) {
+        if (amount <= 0) {
+            throw new IllegalArgumentException("Amount must be positive: " + amount);
+        }
+    }
+}
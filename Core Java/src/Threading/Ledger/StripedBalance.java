@@ -0,0 +1,81 @@
+package Threading.Ledger;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * The balance of a hot account (one that most transfers touch, like a merchant or fee account) spread over
+ * several counters in different cache lines, like LongAdder. Each thread credits its own stripe, so
+ * concurrent credits do not fight over one cache line; the balance is the sum of the stripes.
+ * <p>
+ * A debit takes from the thread's own stripe first and then from the others, never letting a stripe go
+ * negative. If it can not collect the whole amount it puts back what it took and fails. While two debits
+ * are collecting at the same time, one may fail although the account holds enough for it; hot accounts are
+ * meant for mostly-credit traffic.
+ */
+final class StripedBalance {
+    private static final VarHandle CELLS = MethodHandles.arrayElementVarHandle(long[].class);
+    // stripes are 16 longs (128 bytes) apart, so no two share a cache line or an adjacent-line prefetch pair
+    private static final int PAD = 16;
+    // 16 MiB of cells; far more stripes than threads only costs memory
+    static final int MAX_STRIPES = 1 << 17;
+
+    private final long[] cells;
+    private final int mask;
+
+    StripedBalance(int stripes, long initialBalance) {
+        if (stripes < 1 || stripes > MAX_STRIPES) {
+            throw new IllegalArgumentException("stripes must be between 1 and " + MAX_STRIPES + ": " + stripes);
+        }
+        // rounded up to a power of two
+        int count = stripes == 1 ? 1 : Integer.highestOneBit(stripes - 1) << 1;
+        cells = new long[count * PAD];
+        mask = count - 1;
+        cells[0] = initialBalance;
+    }
+
+    void add(long amount) {
+        CELLS.getAndAdd(cells, home() * PAD, amount);
+    }
+
+    boolean tryTake(long amount) {
+        int home = home();
+        long remaining = amount;
+        for (int i = 0; i <= mask && remaining > 0; i++) {
+            int index = ((home + i) & mask) * PAD;
+            long current = (long) CELLS.getVolatile(cells, index);
+            while (current > 0) {
+                long take = Math.min(current, remaining);
+                long witness = (long) CELLS.compareAndExchange(cells, index, current, current - take);
+                if (witness == current) {
+                    remaining -= take;
+                    break;
+                }
+                current = witness;
+            }
+        }
+        if (remaining > 0) {
+            if (remaining < amount) {
+                add(amount - remaining);
+            }
+            return false;
+        }
+        return true;
+    }
+
+    long sum() {
+        long sum = 0;
+        for (int i = 0; i <= mask; i++) {
+            sum += (long) CELLS.getVolatile(cells, i * PAD);
+        }
+        return sum;
+    }
+
+    int stripes() {
+        return mask + 1;
+    }
+
+    private int home() {
+        return (int) ((Thread.currentThread().threadId() * 0x9E3779B97F4A7C15L) >>> 40) & mask;
+    }
+}
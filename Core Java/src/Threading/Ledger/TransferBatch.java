@@ -0,0 +1,114 @@
+package Threading.Ledger;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * A reusable list of transfers applied together by Ledger.transfer(TransferBatch). Adding, netting and
+ * clearing allocate nothing once the arrays have grown to the batch size, so one batch per thread can be
+ * reused for millions of transfers.
+ * Not thread-safe.
+ */
+public final class TransferBatch {
+    private int size;
+    private int[] from;
+    private int[] to;
+    private long[] amounts;
+
+    // filled by computeNet(): the distinct accounts involved, ascending, and their net balance change
+    private int involvedCount;
+    private int[] involved;
+    private long[] net;
+
+    public TransferBatch() {
+        this(16);
+    }
+
+    public TransferBatch(int initialCapacity) {
+        int capacity = Math.max(1, initialCapacity);
+        from = new int[capacity];
+        to = new int[capacity];
+        amounts = new long[capacity];
+        involved = new int[2 * capacity];
+        net = new long[2 * capacity];
+    }
+
+    public TransferBatch add(int from, int to, long amount) {
+        if (amount <= 0) {
+            throw new IllegalArgumentException("Amount must be positive: " + amount);
+        }
+        if (size == this.from.length) {
+            int capacity = size * 2;
+            this.from = Arrays.copyOf(this.from, capacity);
+            this.to = Arrays.copyOf(this.to, capacity);
+            amounts = Arrays.copyOf(amounts, capacity);
+            involved = new int[2 * capacity];
+            net = new long[2 * capacity];
+        }
+        this.from[size] = from;
+        this.to[size] = to;
+        amounts[size] = amount;
+        size++;
+        return this;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        size = 0;
+        involvedCount = 0;
+    }
+
+    /**
+     * Computes the net change per involved account. Ascending account order is also the order in which
+     * LockingLedger takes the locks, which is what makes batches deadlock-free there.
+     */
+    void computeNet(int accounts) {
+        int distinct = 0;
+        for (int i = 0; i < size; i++) {
+            distinct = accumulate(Objects.checkIndex(from[i], accounts), -amounts[i], distinct);
+            distinct = accumulate(Objects.checkIndex(to[i], accounts), amounts[i], distinct);
+        }
+        // insertion sort: batches are small, and this beats Arrays.sort plus binary searches several times over
+        for (int i = 1; i < distinct; i++) {
+            int account = involved[i];
+            long delta = net[i];
+            int j = i - 1;
+            while (j >= 0 && involved[j] > account) {
+                involved[j + 1] = involved[j];
+                net[j + 1] = net[j];
+                j--;
+            }
+            involved[j + 1] = account;
+            net[j + 1] = delta;
+        }
+        involvedCount = distinct;
+    }
+
+    // linear search of the accounts seen so far; returns the new distinct count
+    private int accumulate(int account, long delta, int distinct) {
+        for (int i = 0; i < distinct; i++) {
+            if (involved[i] == account) {
+                net[i] += delta;
+                return distinct;
+            }
+        }
+        involved[distinct] = account;
+        net[distinct] = delta;
+        return distinct + 1;
+    }
+
+    int involvedCount() {
+        return involvedCount;
+    }
+
+    int involved(int index) {
+        return involved[index];
+    }
+
+    long net(int index) {
+        return net[index];
+    }
+}
@@ -0,0 +1,139 @@
+package Threading;
+
+import Benchmark.Harness;
+import Threading.Ledger.AtomicLedger;
+import Threading.Ledger.Ledger;
+import Threading.Ledger.LedgerAudit;
+import Threading.Ledger.LockingLedger;
+import Threading.Ledger.TransferBatch;
+
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntFunction;
+
+/**
+ * Transfers per second for the Threading.Ledger implementations over thread counts, with every run checked
+ * by LedgerAudit (money conserved, every account exactly at its expected balance, nothing negative).
+ * <p>
+ * Workloads: "uniform" picks both accounts at random; "hot" routes half of the transfers into or out of
+ * account 0, the way fee or merchant accounts are hit in a real ledger. Ledgers: lock per account, CAS,
+ * CAS with account 0 striped (one stripe per thread), and both base ledgers with batches of 16 transfers.
+ * <p>
+ * Usage: java Threading.LedgerBenchmark [threads list, default 1,4,16,64] [accounts, default 10000] [millis, default 500]
+ */
+public class LedgerBenchmark {
+    private static final long INITIAL_BALANCE = 10_000;
+    private static final int BATCH = 16;
+    private static final int HOT = 0;
+
+    private record Config(String name, int batch, IntFunction<Ledger> ledger) {
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        int[] threadCounts = args.length > 0
+                ? Arrays.stream(args[0].split(",")).mapToInt(Integer::parseInt).toArray()
+                : new int[]{1, 4, 16, 64};
+        int accounts = Harness.intArg(args, 1, 10_000);
+        int millis = Harness.intArg(args, 2, 500);
+        System.out.printf("%d CPUs, %d accounts, %d ms per run, million transfers/s%n",
+                Runtime.getRuntime().availableProcessors(), accounts, millis);
+
+        for (boolean hot : new boolean[]{false, true}) {
+            System.out.printf("%n%-8s %7s", hot ? "hot" : "uniform", "threads");
+            for (Config config : configs(accounts, 1)) {
+                System.out.printf(" %16s", config.name());
+            }
+            System.out.printf(" %7s%n", "audit");
+            for (int threads : threadCounts) {
+                System.out.printf("%-8s %7d", "", threads);
+                for (Config config : configs(accounts, threads)) {
+                    // the first run of each row is only there to warm up the code
+                    if (threads == threadCounts[0]) {
+                        run(config.ledger().apply(accounts), config.batch(), threads, hot, millis / 2);
+                    }
+                    double transfersPerSecond = run(config.ledger().apply(accounts), config.batch(), threads, hot, millis);
+                    System.out.printf(" %16.2f", transfersPerSecond / 1e6);
+                }
+                System.out.printf(" %7s%n", "ok");
+            }
+        }
+    }
+
+    private static Config[] configs(int accounts, int threads) {
+        return new Config[]{
+                new Config("lock/account", 1, n -> new LockingLedger(n, INITIAL_BALANCE)),
+                new Config("CAS", 1, n -> new AtomicLedger(n, INITIAL_BALANCE)),
+                new Config("CAS+striped", 1, n -> new AtomicLedger(n, INITIAL_BALANCE, new int[]{HOT}, threads)),
+                new Config("lock batch" + BATCH, BATCH, n -> new LockingLedger(n, INITIAL_BALANCE)),
+                new Config("CAS batch" + BATCH, BATCH, n -> new AtomicLedger(n, INITIAL_BALANCE)),
+        };
+    }
+
+    // returns transfers per second (successful or refused for lack of funds); throws if the audit fails
+    private static double run(Ledger ledger, int batchSize, int threads, boolean hot, int millis)
+            throws InterruptedException {
+        LedgerAudit audit = new LedgerAudit(ledger);
+        LongAdder transfers = new LongAdder();
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] workers = new Thread[threads];
+        long[] deadline = new long[1];
+        for (int t = 0; t < threads; t++) {
+            LedgerAudit.Recorder recorder = audit.newRecorder();
+            workers[t] = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                TransferBatch batch = new TransferBatch(batchSize);
+                int accounts = ledger.accounts();
+                long done = 0;
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                while ((done & 255) != 0 || System.nanoTime() < deadline[0]) {
+                    int from = random.nextInt(accounts);
+                    int to = random.nextInt(accounts);
+                    if (hot) {
+                        switch (random.nextInt(4)) {
+                            case 0 -> to = HOT;
+                            case 1 -> from = HOT;
+                            default -> {
+                            }
+                        }
+                    }
+                    if (from == to) {
+                        continue;
+                    }
+                    long amount = 1 + random.nextInt(100);
+                    if (batchSize == 1) {
+                        if (ledger.transfer(from, to, amount)) {
+                            recorder.transferred(from, to, amount);
+                        }
+                        done++;
+                    } else {
+                        batch.add(from, to, amount);
+                        if (batch.size() == batchSize) {
+                            if (ledger.transfer(batch)) {
+                                recorder.transferred(batch);
+                            }
+                            batch.clear();
+                            done += batchSize;
+                        }
+                    }
+                }
+                transfers.add(done);
+            });
+            workers[t].start();
+        }
+        long begin = System.nanoTime();
+        deadline[0] = begin + millis * 1_000_000L;
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        long elapsed = System.nanoTime() - begin;
+        audit.verify();
+        return transfers.sum() / (elapsed / 1e9);
+    }
+}
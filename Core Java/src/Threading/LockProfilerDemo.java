@@ -0,0 +1,149 @@
+package Threading;
+
+import Benchmark.Harness;
+import Threading.Profiling.LockProfiler;
+import Threading.Profiling.MonitorProfiler;
+import Threading.Profiling.ProfiledLock;
+import Threading.Profiling.ProfiledReadWriteLock;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Runs the Threading.Profiling lock profiler over contended code and prints what it found:
+ * <ol>
+ *     <li>the overhead of ProfiledLock on an uncontended lock/unlock, disabled and enabled;</li>
+ *     <li>TableSync's `synchronized` printTable() with two threads, seen by MonitorProfiler through
+ *     ThreadMXBean sampling and JFR jdk.JavaMonitorEnter events;</li>
+ *     <li>a ProfiledLock and a ProfiledReadWriteLock under contention, with their own JFR events recorded to a
+ *     file and counted.</li>
+ * </ol>
+ */
+public class LockProfilerDemo {
+    private static long counter;
+
+    public static void main(String[] args) throws Exception {
+        overhead();
+
+        Path jfrFile = Files.createTempFile("locks", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("Threading.LockWait").withThreshold(Duration.ofMillis(1));
+            recording.enable("Threading.LockStatistics").withPeriod(Duration.ofSeconds(1));
+            recording.start();
+
+            MonitorProfiler monitors = MonitorProfiler.start(Duration.ofMillis(10), Duration.ofMillis(1));
+            try {
+                synchronizedTable();
+                profiledLocks();
+            } finally {
+                monitors.close();
+            }
+            recording.stop();
+            recording.dump(jfrFile);
+        }
+
+        LockProfiler.report(System.out);
+        countEvents(jfrFile);
+        Files.delete(jfrFile);
+    }
+
+    private static void overhead() {
+        int operations = 10_000_000;
+        Lock plain = new ReentrantLock();
+        Lock profiled = new ProfiledLock("overhead");
+        System.out.println("Uncontended lock/unlock, " + operations + " times:");
+        Harness.run("ReentrantLock", 2, 5, () -> lockLoop(plain, operations));
+        Harness.run("ProfiledLock, profiler disabled", 2, 5, () -> lockLoop(profiled, operations));
+        LockProfiler.enable();
+        Harness.run("ProfiledLock, profiler enabled", 2, 5, () -> lockLoop(profiled, operations));
+        LockProfiler.reset();
+        System.out.println();
+    }
+
+    private static void lockLoop(Lock lock, int operations) {
+        for (int i = 0; i < operations; i++) {
+            lock.lock();
+            try {
+                counter++;
+            } finally {
+                lock.unlock();
+            }
+        }
+        Harness.consume(counter);
+    }
+
+    // the original TableSync example: two threads take turns on one synchronized method
+    private static void synchronizedTable() throws InterruptedException {
+        TableSync.Table table = new TableSync.Table();
+        TableSync.Print t1 = new TableSync.Print(table, 5);
+        TableSync.Print t2 = new TableSync.Print(table, 100);
+        t1.start();
+        t2.start();
+        t1.join();
+        t2.join();
+    }
+
+    private static void profiledLocks() throws InterruptedException {
+        Lock lock = new ProfiledLock("demo counter");
+        ProfiledReadWriteLock rwLock = new ProfiledReadWriteLock("demo cache");
+        Thread[] threads = new Thread[6];
+        for (int t = 0; t < threads.length; t++) {
+            boolean writer = t == 0;
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 200; i++) {
+                    lock.lock();
+                    try {
+                        counter++;
+                        sleepQuietly(i % 20 == 0 ? 2 : 0);
+                    } finally {
+                        lock.unlock();
+                    }
+                    Lock cacheLock = writer ? rwLock.writeLock() : rwLock.readLock();
+                    cacheLock.lock();
+                    try {
+                        sleepQuietly(writer ? 3 : 1);
+                    } finally {
+                        cacheLock.unlock();
+                    }
+                }
+            }, (writer ? "writer-" : "reader-") + t);
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+    }
+
+    private static void countEvents(Path jfrFile) throws IOException {
+        int waits = 0;
+        int statistics = 0;
+        for (RecordedEvent event : RecordingFile.readAllEvents(jfrFile)) {
+            switch (event.getEventType().getName()) {
+                case "Threading.LockWait" -> waits++;
+                case "Threading.LockStatistics" -> statistics++;
+                default -> {
+                }
+            }
+        }
+        System.out.printf("%nJFR recording: %d Threading.LockWait events (>= 1 ms), %d Threading.LockStatistics events%n",
+                waits, statistics);
+    }
+
+    private static void sleepQuietly(long millis) {
+        if (millis == 0) {
+            return;
+        }
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
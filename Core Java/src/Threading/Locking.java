@@ -1,5 +1,8 @@
 package Threading;
 
+import Threading.Ledger.AtomicLedger;
+import Threading.Ledger.TransferBatch;
+
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
@@ -52,5 +55,23 @@ public class Locking {
 
         t1.start();
         t2.start();
+        t1.join();
+        t2.join();
+
+        // the same two withdrawals on a lock-free ledger (Threading.Ledger): nobody waits, nobody gives up
+        AtomicLedger ledger = new AtomicLedger(2, 100);
+        Runnable ledgerTask = () -> System.out.println(Thread.currentThread().getName()
+                + (ledger.withdraw(0, 50) ? " successfully withdrawn" : " unsuccessful - insufficient balance"));
+        Thread t3 = new Thread(ledgerTask, "Thread3");
+        Thread t4 = new Thread(ledgerTask, "Thread4");
+        t3.start();
+        t4.start();
+        t3.join();
+        t4.join();
+
+        // a batch is netted per account (0 pays 30 but receives 80) and applied all or nothing
+        TransferBatch batch = new TransferBatch().add(1, 0, 80).add(0, 1, 30);
+        System.out.println("Batch applied: " + ledger.transfer(batch)
+                + ", balances " + ledger.balance(0) + " / " + ledger.balance(1));
     }
 }
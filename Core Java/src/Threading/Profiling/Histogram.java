@@ -0,0 +1,86 @@
+package Threading.Profiling;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free histogram of durations in nanoseconds with power-of-two buckets: bucket b > 0 counts values
+ * in [2^(b-1), 2^b), bucket 0 counts zeros. Coarse (percentiles are only known to within a factor of two),
+ * but recording is a few atomic adds, cheap enough to run on every lock acquisition.
+ */
+public final class Histogram {
+    private static final int BUCKETS = 64;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder total = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        // 0 -> bucket 0, 1 -> 1, 2..3 -> 2, ..., up to 2^63 - 1 -> 63
+        counts.incrementAndGet(Long.SIZE - Long.numberOfLeadingZeros(value));
+        total.add(value);
+        max.accumulate(value);
+    }
+
+    public long count() {
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            count += counts.get(i);
+        }
+        return count;
+    }
+
+    public long totalNanos() {
+        return total.sum();
+    }
+
+    public long maxNanos() {
+        return max.get();
+    }
+
+    // upper bound of the bucket holding the given fraction (0..1) of the values; 0 when empty
+    public long percentileNanos(double fraction) {
+        long count = count();
+        if (count == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(fraction * count);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= Math.max(1, rank)) {
+                return Math.min(maxNanos(), i == 0 ? 0 : (1L << i) - 1);
+            }
+        }
+        return maxNanos();
+    }
+
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts.set(i, 0);
+        }
+        total.reset();
+        max.reset();
+    }
+
+    // "p50 1.0us  p99 262us  max 1.2ms"
+    public String summary() {
+        return String.format("p50 %7s  p99 %7s  max %7s",
+                format(percentileNanos(0.50)), format(percentileNanos(0.99)), format(maxNanos()));
+    }
+
+    static String format(long nanos) {
+        if (nanos < 1_000) {
+            return nanos + "ns";
+        }
+        if (nanos < 1_000_000) {
+            return String.format("%.1fus", nanos / 1e3);
+        }
+        if (nanos < 1_000_000_000) {
+            return String.format("%.1fms", nanos / 1e6);
+        }
+        return String.format("%.2fs", nanos / 1e9);
+    }
+}
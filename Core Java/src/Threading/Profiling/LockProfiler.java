@@ -0,0 +1,105 @@
+package Threading.Profiling;
+
+import jdk.jfr.FlightRecorder;
+
+import java.io.PrintStream;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registry and on/off switch for the lock contention profiler.
+ * <p>
+ * ProfiledLock and ProfiledReadWriteLock record into LockStats only while the profiler is enabled. Disabled,
+ * each lock operation costs one extra volatile read, so the wrappers can stay in production code. It starts
+ * enabled when the JVM runs with -Dthreading.lockprofiler=true, or is switched with enable()/disable().
+ * MonitorProfiler adds `synchronized` monitors, which can not be wrapped.
+ * <p>
+ * Results come out as a text dump (report()) and as JFR events: a Threading.LockWait event per contended
+ * acquisition and a Threading.LockStatistics summary per lock every second, in any JFR recording that
+ * enables them (-XX:StartFlightRecording, jcmd JFR.start).
+ */
+public final class LockProfiler {
+    private static final Map<String, LockStats> STATS = new ConcurrentHashMap<>();
+    private static volatile boolean enabled = Boolean.getBoolean("threading.lockprofiler");
+    private static volatile long enabledAt = enabled ? System.nanoTime() : 0;
+    private static boolean periodicEventRegistered;
+
+    static {
+        if (enabled) {
+            registerPeriodicEvent();
+        }
+    }
+
+    private LockProfiler() {
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    public static void enable() {
+        registerPeriodicEvent();
+        enabledAt = System.nanoTime();
+        enabled = true;
+    }
+
+    public static void disable() {
+        enabled = false;
+    }
+
+    // the stats of the lock called name, created on first use; locks sharing a name share their stats
+    public static LockStats stats(String name, String kind) {
+        return STATS.computeIfAbsent(name, n -> new LockStats(n, kind));
+    }
+
+    public static List<LockStats> allStats() {
+        return STATS.values().stream()
+                .sorted(Comparator.comparingLong((LockStats stats) -> stats.waits().totalNanos()).reversed()
+                        .thenComparing(LockStats::name))
+                .toList();
+    }
+
+    // clears the numbers but keeps the locks registered
+    public static void reset() {
+        STATS.values().forEach(LockStats::reset);
+        enabledAt = System.nanoTime();
+    }
+
+    /**
+     * Prints every lock that was used, most total wait time first: acquisitions, contended acquisitions, wait and hold
+     * histograms, and the most frequent stacks seen under contention.
+     */
+    public static void report(PrintStream out) {
+        long since = enabledAt;
+        out.printf("Lock contention profile, %s since enabled/reset%n",
+                since == 0 ? "never enabled" : Histogram.format(System.nanoTime() - since));
+        for (LockStats stats : allStats()) {
+            if (stats.acquisitions() == 0 && stats.contended() == 0) {
+                continue;
+            }
+            out.printf("%n%s [%s]%n", stats.name(), stats.kind());
+            out.printf("  acquired %d, contended %d, timed out %d, total wait %s%n",
+                    stats.acquisitions(), stats.contended(), stats.timeouts(),
+                    Histogram.format(stats.waits().totalNanos()));
+            if (stats.waits().count() > 0) {
+                out.printf("  wait  %s%n", stats.waits().summary());
+            }
+            if (stats.holds().count() > 0) {
+                out.printf("  hold  %s%n", stats.holds().summary());
+            }
+            List<Map.Entry<String, Long>> stacks = stats.stacks();
+            for (int i = 0; i < Math.min(3, stacks.size()); i++) {
+                out.printf("  %5dx %s%n", stacks.get(i).getValue(), stacks.get(i).getKey());
+            }
+        }
+    }
+
+    private static synchronized void registerPeriodicEvent() {
+        if (!periodicEventRegistered) {
+            FlightRecorder.addPeriodicEvent(LockStatisticsEvent.class, LockStatisticsEvent::emitAll);
+            periodicEventRegistered = true;
+        }
+    }
+}
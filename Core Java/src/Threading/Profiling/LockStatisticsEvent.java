@@ -0,0 +1,60 @@
+package Threading.Profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Period;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Per-lock totals, emitted every second by JFR while a recording enables the event. Counts and times are
+ * cumulative since the profiler was enabled or reset; percentiles are power-of-two bucket bounds.
+ */
+@Name("Threading.LockStatistics")
+@Label("Lock Statistics")
+@Category({"Threading", "Locks"})
+@Description("Acquisition counts and wait/hold percentiles of a profiled lock")
+@Period("1 s")
+@StackTrace(false)
+class LockStatisticsEvent extends Event {
+    @Label("Lock")
+    String lock;
+
+    @Label("Kind")
+    String kind;
+
+    @Label("Acquisitions")
+    long acquisitions;
+
+    @Label("Contended")
+    long contended;
+
+    @Label("Total Wait")
+    @Timespan(Timespan.NANOSECONDS)
+    long totalWait;
+
+    @Label("Wait p99")
+    @Timespan(Timespan.NANOSECONDS)
+    long waitP99;
+
+    @Label("Hold p99")
+    @Timespan(Timespan.NANOSECONDS)
+    long holdP99;
+
+    static void emitAll() {
+        for (LockStats stats : LockProfiler.allStats()) {
+            LockStatisticsEvent event = new LockStatisticsEvent();
+            event.lock = stats.name();
+            event.kind = stats.kind();
+            event.acquisitions = stats.acquisitions();
+            event.contended = stats.contended();
+            event.totalWait = stats.waits().totalNanos();
+            event.waitP99 = stats.waits().percentileNanos(0.99);
+            event.holdP99 = stats.holds().percentileNanos(0.99);
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package Threading.Profiling;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Everything recorded for one lock: acquisitions, contended acquisitions, wait and hold time histograms,
+ * and the stacks seen while the lock was contended (the owner's stack where it is known, else the waiter's).
+ * Created and registered by LockProfiler.stats().
+ */
+public final class LockStats {
+    // stack traces are expensive (the target thread has to reach a safepoint): the first few, then every 64th
+    private static final int ALWAYS_SAMPLED = 8;
+    private static final int SAMPLE_EVERY = 64;
+    private static final int MAX_DISTINCT_STACKS = 32;
+    private static final int STACK_DEPTH = 6;
+
+    private final String name;
+    private final String kind;
+    private final LongAdder acquisitions = new LongAdder();
+    private final LongAdder contended = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final Histogram waits = new Histogram();
+    private final Histogram holds = new Histogram();
+    private final Map<String, LongAdder> stacks = new ConcurrentHashMap<>();
+
+    LockStats(String name, String kind) {
+        this.name = name;
+        this.kind = kind;
+    }
+
+    public String name() {
+        return name;
+    }
+
+    // "ReentrantLock", "monitor (sampled)", ...
+    public String kind() {
+        return kind;
+    }
+
+    public long acquisitions() {
+        return acquisitions.sum();
+    }
+
+    public long contended() {
+        return contended.sum();
+    }
+
+    public long timeouts() {
+        return timeouts.sum();
+    }
+
+    public Histogram waits() {
+        return waits;
+    }
+
+    public Histogram holds() {
+        return holds;
+    }
+
+    // stacks seen while contended, most frequent first
+    public List<Map.Entry<String, Long>> stacks() {
+        return stacks.entrySet().stream()
+                .map(entry -> Map.entry(entry.getKey(), entry.getValue().sum()))
+                .sorted(Map.Entry.<String, Long>comparingByValue(Comparator.reverseOrder()))
+                .toList();
+    }
+
+    void acquired() {
+        acquisitions.increment();
+    }
+
+    void held(long nanos) {
+        holds.record(nanos);
+    }
+
+    void timedOut() {
+        timeouts.increment();
+    }
+
+    /**
+     * The stack of owner, the thread holding the lock, if the wait about to start will be sampled; null
+     * otherwise or if there is no owner. Called before blocking: once the lock is acquired the owner has
+     * left the critical section and its stack would show wherever it went next.
+     */
+    StackTraceElement[] ownerStack(Thread owner) {
+        return owner != null && shouldSample(contended.sum() + 1) ? owner.getStackTrace() : null;
+    }
+
+    // stack: the owner's, taken when the wait started (ownerStack) or observed from outside (sampling, JFR)
+    void contended(long waitNanos, StackTraceElement[] stack) {
+        contended.increment();
+        waits.record(waitNanos);
+        if (stack != null && shouldSample(contended.sum())) {
+            recordStack(stack);
+        }
+    }
+
+    void reset() {
+        acquisitions.reset();
+        contended.reset();
+        timeouts.reset();
+        waits.reset();
+        holds.reset();
+        stacks.clear();
+    }
+
+    private static boolean shouldSample(long count) {
+        return count <= ALWAYS_SAMPLED || count % SAMPLE_EVERY == 0;
+    }
+
+    private void recordStack(StackTraceElement[] stack) {
+        StringBuilder key = new StringBuilder();
+        int depth = 0;
+        for (StackTraceElement frame : stack) {
+            // the profiler's and the lock implementation's own frames say nothing about the caller
+            String className = frame.getClassName();
+            if (className.startsWith("Threading.Profiling.")
+                    || className.startsWith("java.util.concurrent.locks.")
+                    || className.startsWith("jdk.internal.misc.")) {
+                continue;
+            }
+            if (depth > 0) {
+                key.append(" <- ");
+            }
+            key.append(frame);
+            if (++depth == STACK_DEPTH) {
+                break;
+            }
+        }
+        if (depth == 0) {
+            return;
+        }
+        String stackKey = key.toString();
+        LongAdder count = stacks.get(stackKey);
+        if (count == null) {
+            if (stacks.size() >= MAX_DISTINCT_STACKS) {
+                stackKey = "(other stacks)";
+            }
+            count = stacks.computeIfAbsent(stackKey, k -> new LongAdder());
+        }
+        count.increment();
+    }
+}
@@ -0,0 +1,52 @@
+package Threading.Profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * One contended acquisition of a profiled lock; the event's duration is the wait. Committed only while
+ * LockProfiler is enabled and a recording enables the event, and only above its threshold (20 ms by default,
+ * like jdk.JavaMonitorEnter).
+ */
+@Name("Threading.LockWait")
+@Label("Lock Wait")
+@Category({"Threading", "Locks"})
+@Description("A thread waited for a ProfiledLock or ProfiledReadWriteLock")
+@StackTrace
+class LockWaitEvent extends Event {
+    @Label("Lock")
+    String lock;
+
+    @Label("Kind")
+    String kind;
+
+    @Label("Owner")
+    @Description("Thread holding the lock when the wait started")
+    Thread owner;
+
+    // begins the event; returns null when no recording wants it, so the uncontended path allocates nothing
+    static LockWaitEvent begin(LockStats stats, Thread owner) {
+        LockWaitEvent event = new LockWaitEvent();
+        if (!event.isEnabled()) {
+            return null;
+        }
+        event.lock = stats.name();
+        event.kind = stats.kind();
+        event.owner = owner;
+        event.begin();
+        return event;
+    }
+
+    static void end(LockWaitEvent event) {
+        if (event != null) {
+            event.end();
+            if (event.shouldCommit()) {
+                event.commit();
+            }
+        }
+    }
+}
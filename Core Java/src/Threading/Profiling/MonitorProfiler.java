@@ -0,0 +1,169 @@
+package Threading.Profiling;
+
+import jdk.jfr.consumer.RecordedClass;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+
+import java.lang.management.LockInfo;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Contention on `synchronized` monitors, which can not be wrapped like a Lock. Two independent sources,
+ * both reporting into LockProfiler:
+ * <ul>
+ *     <li>Sampling through ThreadMXBean: every period a daemon thread dumps all threads and, for each one
+ *     BLOCKED on a monitor, notes the monitor and the stack of its owner. A thread seen blocked on the same
+ *     monitor in consecutive samples is one wait, so wait times are known to within one period.
+ *     Stats are named "monitor Class@identityHash".</li>
+ *     <li>JFR: an in-process RecordingStream of jdk.JavaMonitorEnter events, which the JVM itself emits for
+ *     every monitor wait above the threshold, with the exact wait time and the waiter's stack.
+ *     Stats are named "monitor Class@address".</li>
+ * </ul>
+ * Neither source sees uncontended acquisitions or hold times. Costs nothing until started; close() stops
+ * both sources.
+ */
+public final class MonitorProfiler implements AutoCloseable {
+    private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    private final long periodNanos;
+    private final Thread sampler;
+    private final RecordingStream jfr;
+    // thread id -> wait in progress, only touched by the sampler thread
+    private final Map<Long, Wait> waits = new HashMap<>();
+
+    private record Wait(LockStats stats, long firstSeen, StackTraceElement[] ownerStack) {
+    }
+
+    private MonitorProfiler(Duration samplePeriod, Duration jfrThreshold) {
+        periodNanos = samplePeriod.toNanos();
+        if (samplePeriod.isZero()) {
+            sampler = null;
+        } else {
+            sampler = new Thread(this::sampleLoop, "monitor-profiler-sampler");
+            sampler.setDaemon(true);
+        }
+        if (jfrThreshold == null) {
+            jfr = null;
+        } else {
+            jfr = new RecordingStream();
+            jfr.enable("jdk.JavaMonitorEnter").withThreshold(jfrThreshold).withStackTrace();
+            jfr.onEvent("jdk.JavaMonitorEnter", this::onMonitorEnter);
+        }
+    }
+
+    /**
+     * Starts sampling every samplePeriod (Duration.ZERO: no sampling) and streaming JFR monitor events above
+     * jfrThreshold (null: no JFR). Also enables LockProfiler.
+     */
+    public static MonitorProfiler start(Duration samplePeriod, Duration jfrThreshold) {
+        LockProfiler.enable();
+        MonitorProfiler profiler = new MonitorProfiler(samplePeriod, jfrThreshold);
+        if (profiler.sampler != null) {
+            profiler.sampler.start();
+        }
+        if (profiler.jfr != null) {
+            profiler.jfr.startAsync();
+        }
+        return profiler;
+    }
+
+    // stops both sources; JFR events still buffered are delivered first
+    @Override
+    public void close() {
+        if (sampler != null) {
+            sampler.interrupt();
+            try {
+                sampler.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (jfr != null) {
+            jfr.stop();
+            jfr.close();
+        }
+    }
+
+    private void sampleLoop() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                sample(System.nanoTime());
+                Thread.sleep(Duration.ofNanos(periodNanos));
+            }
+        } catch (InterruptedException e) {
+            // close() asked us to stop
+        }
+        // waits still in progress end now
+        long now = System.nanoTime();
+        for (Wait wait : waits.values()) {
+            wait.stats().contended(now - wait.firstSeen(), wait.ownerStack());
+        }
+        waits.clear();
+    }
+
+    private void sample(long now) {
+        ThreadInfo[] infos = threads.dumpAllThreads(true, false);
+        Map<Long, ThreadInfo> byId = new HashMap<>();
+        for (ThreadInfo info : infos) {
+            byId.put(info.getThreadId(), info);
+        }
+        Map<Long, LockStats> blocked = new HashMap<>();
+        for (ThreadInfo info : infos) {
+            LockInfo lock = info.getLockInfo();
+            if (info.getThreadState() == Thread.State.BLOCKED && lock != null) {
+                blocked.put(info.getThreadId(), LockProfiler.stats("monitor " + lock, "monitor (sampled)"));
+            }
+        }
+        // waits that ended since the last sample: not blocked any more, or blocked on another monitor now
+        for (Iterator<Map.Entry<Long, Wait>> it = waits.entrySet().iterator(); it.hasNext(); ) {
+            Map.Entry<Long, Wait> entry = it.next();
+            if (blocked.get(entry.getKey()) != entry.getValue().stats()) {
+                Wait wait = entry.getValue();
+                wait.stats().contended(now - wait.firstSeen(), wait.ownerStack());
+                it.remove();
+            }
+        }
+        for (Map.Entry<Long, LockStats> entry : blocked.entrySet()) {
+            if (!waits.containsKey(entry.getKey())) {
+                ThreadInfo owner = byId.get(byId.get(entry.getKey()).getLockOwnerId());
+                // the wait began somewhere in the last period; count it from the middle
+                waits.put(entry.getKey(), new Wait(entry.getValue(), now - periodNanos / 2,
+                        owner == null ? null : owner.getStackTrace()));
+            }
+        }
+    }
+
+    private void onMonitorEnter(RecordedEvent event) {
+        RecordedClass monitorClass = event.getClass("monitorClass");
+        String name = "monitor " + (monitorClass == null ? "?" : monitorClass.getName())
+                + "@" + Long.toHexString(event.getLong("address"));
+        LockProfiler.stats(name, "monitor (JFR)").contended(event.getDuration().toNanos(), stack(event));
+    }
+
+    private static StackTraceElement[] stack(RecordedEvent event) {
+        RecordedStackTrace trace = event.getStackTrace();
+        if (trace == null) {
+            return null;
+        }
+        List<RecordedFrame> frames = trace.getFrames();
+        StackTraceElement[] stack = new StackTraceElement[frames.size()];
+        for (int i = 0; i < stack.length; i++) {
+            RecordedFrame frame = frames.get(i);
+            String className = frame.getMethod().getType().getName();
+            // JFR has no file names; Outer$Inner lives in Outer.java
+            String simpleName = className.substring(className.lastIndexOf('.') + 1);
+            int nested = simpleName.indexOf('$');
+            String fileName = (nested < 0 ? simpleName : simpleName.substring(0, nested)) + ".java";
+            stack[i] = new StackTraceElement(className, frame.getMethod().getName(), fileName, frame.getLineNumber());
+        }
+        return stack;
+    }
+}
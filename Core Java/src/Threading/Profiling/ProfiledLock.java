@@ -0,0 +1,128 @@
+package Threading.Profiling;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A ReentrantLock that reports to LockProfiler: a drop-in replacement for `new ReentrantLock()` with a name.
+ * <p>
+ * An acquisition first tries the lock without waiting; only if that fails it counts as contended, and then
+ * the wait is timed and a LockWaitEvent begun. The owner (ReentrantLock knows it, getOwner() is protected)
+ * has its stack sampled before blocking, while it is still inside the critical section. Hold time runs from
+ * the outermost acquisition to the matching unlock. For a fair lock the initial try barges, like tryLock()
+ * does.
+ */
+public class ProfiledLock extends ReentrantLock {
+    private static final long serialVersionUID = 1L;
+
+    private final transient LockStats stats;
+    // nanoTime of the outermost acquisition, 0 if not profiled; only the owner reads and writes it
+    private long acquiredAt;
+
+    public ProfiledLock(String name) {
+        this(name, false);
+    }
+
+    public ProfiledLock(String name, boolean fair) {
+        super(fair);
+        stats = LockProfiler.stats(name, "ReentrantLock");
+    }
+
+    public LockStats stats() {
+        return stats;
+    }
+
+    @Override
+    public void lock() {
+        if (!LockProfiler.isEnabled()) {
+            super.lock();
+            return;
+        }
+        if (!super.tryLock()) {
+            Thread owner = getOwner();
+            StackTraceElement[] ownerStack = stats.ownerStack(owner);
+            LockWaitEvent event = LockWaitEvent.begin(stats, owner);
+            long start = System.nanoTime();
+            super.lock();
+            stats.contended(System.nanoTime() - start, ownerStack);
+            LockWaitEvent.end(event);
+        }
+        acquired();
+    }
+
+    @Override
+    public void lockInterruptibly() throws InterruptedException {
+        if (!LockProfiler.isEnabled()) {
+            super.lockInterruptibly();
+            return;
+        }
+        if (!super.tryLock()) {
+            Thread owner = getOwner();
+            StackTraceElement[] ownerStack = stats.ownerStack(owner);
+            LockWaitEvent event = LockWaitEvent.begin(stats, owner);
+            long start = System.nanoTime();
+            try {
+                super.lockInterruptibly();
+            } finally {
+                // an interrupted wait was still a wait
+                stats.contended(System.nanoTime() - start, ownerStack);
+                LockWaitEvent.end(event);
+            }
+        }
+        acquired();
+    }
+
+    @Override
+    public boolean tryLock() {
+        if (!super.tryLock()) {
+            return false;
+        }
+        if (LockProfiler.isEnabled()) {
+            acquired();
+        }
+        return true;
+    }
+
+    @Override
+    public boolean tryLock(long timeout, TimeUnit unit) throws InterruptedException {
+        if (!LockProfiler.isEnabled()) {
+            return super.tryLock(timeout, unit);
+        }
+        if (!super.tryLock()) {
+            Thread owner = getOwner();
+            StackTraceElement[] ownerStack = stats.ownerStack(owner);
+            LockWaitEvent event = LockWaitEvent.begin(stats, owner);
+            long start = System.nanoTime();
+            boolean locked;
+            try {
+                locked = super.tryLock(timeout, unit);
+            } finally {
+                stats.contended(System.nanoTime() - start, ownerStack);
+                LockWaitEvent.end(event);
+            }
+            if (!locked) {
+                stats.timedOut();
+                return false;
+            }
+        }
+        acquired();
+        return true;
+    }
+
+    @Override
+    public void unlock() {
+        long at = acquiredAt;
+        if (at != 0 && getHoldCount() == 1) {
+            acquiredAt = 0;
+            stats.held(System.nanoTime() - at);
+        }
+        super.unlock();
+    }
+
+    private void acquired() {
+        stats.acquired();
+        if (getHoldCount() == 1) {
+            acquiredAt = System.nanoTime();
+        }
+    }
+}
@@ -0,0 +1,261 @@
+package Threading.Profiling;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * A ReentrantReadWriteLock that reports to LockProfiler, with separate stats for "name (read)" and
+ * "name (write)". A waiting reader or writer records the current write owner; readers hold no ownership,
+ * so a writer blocked by readers records no owner stack. Read hold times are tracked per thread.
+ */
+public class ProfiledReadWriteLock extends ReentrantReadWriteLock {
+    private static final long serialVersionUID = 1L;
+
+    private final ProfiledReadLock readLock;
+    private final ProfiledWriteLock writeLock;
+
+    public ProfiledReadWriteLock(String name) {
+        this(name, false);
+    }
+
+    public ProfiledReadWriteLock(String name, boolean fair) {
+        super(fair);
+        readLock = new ProfiledReadLock(this, LockProfiler.stats(name + " (read)", "ReentrantReadWriteLock"));
+        writeLock = new ProfiledWriteLock(this, LockProfiler.stats(name + " (write)", "ReentrantReadWriteLock"));
+    }
+
+    @Override
+    public ReentrantReadWriteLock.ReadLock readLock() {
+        return readLock;
+    }
+
+    @Override
+    public ReentrantReadWriteLock.WriteLock writeLock() {
+        return writeLock;
+    }
+
+    Thread writer() {
+        return getOwner();
+    }
+
+    static final class ProfiledReadLock extends ReentrantReadWriteLock.ReadLock {
+        private static final long serialVersionUID = 1L;
+
+        private final ProfiledReadWriteLock lock;
+        private final transient LockStats stats;
+        // nanoTime of this thread's outermost read acquisition
+        private final transient ThreadLocal<long[]> acquiredAt = ThreadLocal.withInitial(() -> new long[1]);
+
+        ProfiledReadLock(ProfiledReadWriteLock lock, LockStats stats) {
+            super(lock);
+            this.lock = lock;
+            this.stats = stats;
+        }
+
+        @Override
+        public void lock() {
+            if (!LockProfiler.isEnabled()) {
+                super.lock();
+                return;
+            }
+            if (!super.tryLock()) {
+                Thread owner = lock.writer();
+                StackTraceElement[] ownerStack = stats.ownerStack(owner);
+                LockWaitEvent event = LockWaitEvent.begin(stats, owner);
+                long start = System.nanoTime();
+                super.lock();
+                stats.contended(System.nanoTime() - start, ownerStack);
+                LockWaitEvent.end(event);
+            }
+            acquired();
+        }
+
+        @Override
+        public void lockInterruptibly() throws InterruptedException {
+            if (!LockProfiler.isEnabled()) {
+                super.lockInterruptibly();
+                return;
+            }
+            if (!super.tryLock()) {
+                Thread owner = lock.writer();
+                StackTraceElement[] ownerStack = stats.ownerStack(owner);
+                LockWaitEvent event = LockWaitEvent.begin(stats, owner);
+                long start = System.nanoTime();
+                try {
+                    super.lockInterruptibly();
+                } finally {
+                    // an interrupted wait was still a wait
+                    stats.contended(System.nanoTime() - start, ownerStack);
+                    LockWaitEvent.end(event);
+                }
+            }
+            acquired();
+        }
+
+        @Override
+        public boolean tryLock() {
+            if (!super.tryLock()) {
+                return false;
+            }
+            if (LockProfiler.isEnabled()) {
+                acquired();
+            }
+            return true;
+        }
+
+        @Override
+        public boolean tryLock(long timeout, TimeUnit unit) throws InterruptedException {
+            if (!LockProfiler.isEnabled()) {
+                return super.tryLock(timeout, unit);
+            }
+            if (!super.tryLock()) {
+                Thread owner = lock.writer();
+                StackTraceElement[] ownerStack = stats.ownerStack(owner);
+                LockWaitEvent event = LockWaitEvent.begin(stats, owner);
+                long start = System.nanoTime();
+                boolean locked;
+                try {
+                    locked = super.tryLock(timeout, unit);
+                } finally {
+                    stats.contended(System.nanoTime() - start, ownerStack);
+                    LockWaitEvent.end(event);
+                }
+                if (!locked) {
+                    stats.timedOut();
+                    return false;
+                }
+            }
+            acquired();
+            return true;
+        }
+
+        @Override
+        public void unlock() {
+            // the ThreadLocal is only touched while profiling; a hold that spans disable() is not recorded
+            if (LockProfiler.isEnabled() && lock.getReadHoldCount() == 1) {
+                long[] at = acquiredAt.get();
+                if (at[0] != 0) {
+                    stats.held(System.nanoTime() - at[0]);
+                    at[0] = 0;
+                }
+            }
+            super.unlock();
+        }
+
+        private void acquired() {
+            stats.acquired();
+            if (lock.getReadHoldCount() == 1) {
+                acquiredAt.get()[0] = System.nanoTime();
+            }
+        }
+    }
+
+    static final class ProfiledWriteLock extends ReentrantReadWriteLock.WriteLock {
+        private static final long serialVersionUID = 1L;
+
+        private final ProfiledReadWriteLock lock;
+        private final transient LockStats stats;
+        // only the owner reads and writes it
+        private long acquiredAt;
+
+        ProfiledWriteLock(ProfiledReadWriteLock lock, LockStats stats) {
+            super(lock);
+            this.lock = lock;
+            this.stats = stats;
+        }
+
+        @Override
+        public void lock() {
+            if (!LockProfiler.isEnabled()) {
+                super.lock();
+                return;
+            }
+            if (!super.tryLock()) {
+                Thread owner = lock.writer();
+                StackTraceElement[] ownerStack = stats.ownerStack(owner);
+                LockWaitEvent event = LockWaitEvent.begin(stats, owner);
+                long start = System.nanoTime();
+                super.lock();
+                stats.contended(System.nanoTime() - start, ownerStack);
+                LockWaitEvent.end(event);
+            }
+            acquired();
+        }
+
+        @Override
+        public void lockInterruptibly() throws InterruptedException {
+            if (!LockProfiler.isEnabled()) {
+                super.lockInterruptibly();
+                return;
+            }
+            if (!super.tryLock()) {
+                Thread owner = lock.writer();
+                StackTraceElement[] ownerStack = stats.ownerStack(owner);
+                LockWaitEvent event = LockWaitEvent.begin(stats, owner);
+                long start = System.nanoTime();
+                try {
+                    super.lockInterruptibly();
+                } finally {
+                    // an interrupted wait was still a wait
+                    stats.contended(System.nanoTime() - start, ownerStack);
+                    LockWaitEvent.end(event);
+                }
+            }
+            acquired();
+        }
+
+        @Override
+        public boolean tryLock() {
+            if (!super.tryLock()) {
+                return false;
+            }
+            if (LockProfiler.isEnabled()) {
+                acquired();
+            }
+            return true;
+        }
+
+        @Override
+        public boolean tryLock(long timeout, TimeUnit unit) throws InterruptedException {
+            if (!LockProfiler.isEnabled()) {
+                return super.tryLock(timeout, unit);
+            }
+            if (!super.tryLock()) {
+                Thread owner = lock.writer();
+                StackTraceElement[] ownerStack = stats.ownerStack(owner);
+                LockWaitEvent event = LockWaitEvent.begin(stats, owner);
+                long start = System.nanoTime();
+                boolean locked;
+                try {
+                    locked = super.tryLock(timeout, unit);
+                } finally {
+                    stats.contended(System.nanoTime() - start, ownerStack);
+                    LockWaitEvent.end(event);
+                }
+                if (!locked) {
+                    stats.timedOut();
+                    return false;
+                }
+            }
+            acquired();
+            return true;
+        }
+
+        @Override
+        public void unlock() {
+            long at = acquiredAt;
+            if (at != 0 && getHoldCount() == 1) {
+                acquiredAt = 0;
+                stats.held(System.nanoTime() - at);
+            }
+            super.unlock();
+        }
+
+        private void acquired() {
+            stats.acquired();
+            if (getHoldCount() == 1) {
+                acquiredAt = System.nanoTime();
+            }
+        }
+    }
+}
@@ -1,18 +1,40 @@
 package Threading;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.locks.StampedLock;
 
 public class ReadWrite {
 
-    static class DataBase {
+    // value plus the number of writes that produced it, read together as one consistent pair
+    record Snapshot(int value, long version) {
+    }
+
+    // the quiet operations shared by all three databases, used by ReadWriteBenchmark
+    interface Store {
+        int get();
+
+        void set(int v);
+
+        // value += delta; version++ as one write, so value == version as long as only add(1) is used
+        void add(int delta);
+
+        Snapshot snapshot();
+    }
+
+    static class DataBase implements Store {
         private final ReadWriteLock rwLock = new ReentrantReadWriteLock();
         private int value = 0;
+        private long version = 0;
 
         public void write(int v) {
             rwLock.writeLock().lock();
             try {
                 this.value = v;
+                version++;
                 System.out.println("Written value: " + v);
             } finally {
                 rwLock.writeLock().unlock();
@@ -27,6 +49,242 @@ public class ReadWrite {
                 rwLock.readLock().unlock();
             }
         }
+
+        @Override
+        public int get() {
+            rwLock.readLock().lock();
+            try {
+                return value;
+            } finally {
+                rwLock.readLock().unlock();
+            }
+        }
+
+        @Override
+        public void set(int v) {
+            rwLock.writeLock().lock();
+            try {
+                value = v;
+                version++;
+            } finally {
+                rwLock.writeLock().unlock();
+            }
+        }
+
+        @Override
+        public void add(int delta) {
+            rwLock.writeLock().lock();
+            try {
+                value += delta;
+                version++;
+            } finally {
+                rwLock.writeLock().unlock();
+            }
+        }
+
+        @Override
+        public Snapshot snapshot() {
+            rwLock.readLock().lock();
+            try {
+                return new Snapshot(value, version);
+            } finally {
+                rwLock.readLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * Same database on a StampedLock. Every readLock() above is a CAS on the lock's shared reader count, so
+     * readers on different cores keep stealing that cache line from each other. An optimistic read only
+     * reads the lock state: read the fields, then validate() that no write started in between. Only if one
+     * did, the read is repeated under a real read lock.
+     * StampedLock is not reentrant: nothing inside the locked sections may call back into this object.
+     */
+    static class StampedDataBase implements Store {
+        private final StampedLock lock = new StampedLock();
+        private int value = 0;
+        private long version = 0;
+
+        public void write(int v) {
+            set(v);
+            System.out.println("Written value: " + v);
+        }
+
+        public void read() {
+            System.out.println("Read value: " + get());
+        }
+
+        @Override
+        public int get() {
+            long stamp = lock.tryOptimisticRead();
+            int v = value;
+            if (!lock.validate(stamp)) {
+                stamp = lock.readLock();
+                try {
+                    v = value;
+                } finally {
+                    lock.unlockRead(stamp);
+                }
+            }
+            return v;
+        }
+
+        @Override
+        public void set(int v) {
+            long stamp = lock.writeLock();
+            try {
+                value = v;
+                version++;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        @Override
+        public void add(int delta) {
+            long stamp = lock.writeLock();
+            try {
+                value += delta;
+                version++;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        @Override
+        public Snapshot snapshot() {
+            long stamp = lock.tryOptimisticRead();
+            // the fields may be torn or stale here; they are only used if validate() succeeds
+            int v = value;
+            long ver = version;
+            if (!lock.validate(stamp)) {
+                stamp = lock.readLock();
+                try {
+                    v = value;
+                    ver = version;
+                } finally {
+                    lock.unlockRead(stamp);
+                }
+            }
+            return new Snapshot(v, ver);
+        }
+    }
+
+    /**
+     * Sequence lock: readers never write anything and never block writers. A writer makes the sequence odd,
+     * writes the fields and makes it even again. A reader reads the sequence, the fields and the sequence
+     * again, and retries if the two differ or were odd (a write was in progress). Writers are serialized
+     * with a plain lock. Readers may spin for as long as a write takes, so writes must stay short.
+     */
+    static class SeqLockDataBase implements Store {
+        private static final VarHandle SEQUENCE;
+        private static final VarHandle VALUE;
+        private static final VarHandle VERSION;
+
+        static {
+            try {
+                MethodHandles.Lookup lookup = MethodHandles.lookup();
+                SEQUENCE = lookup.findVarHandle(SeqLockDataBase.class, "sequence", long.class);
+                VALUE = lookup.findVarHandle(SeqLockDataBase.class, "value", int.class);
+                VERSION = lookup.findVarHandle(SeqLockDataBase.class, "version", long.class);
+            } catch (ReflectiveOperationException e) {
+                throw new ExceptionInInitializerError(e);
+            }
+        }
+
+        // readers give the CPU away after this many retries, in case the writer is not running
+        private static final int SPINS_BEFORE_YIELD = 100;
+
+        private final ReentrantLock writeLock = new ReentrantLock();
+        // even: stable, odd: write in progress
+        private long sequence;
+        // read and written through the VarHandles only, opaque so a racing read can not be torn or hoisted
+        private int value;
+        private long version;
+
+        public void write(int v) {
+            set(v);
+            System.out.println("Written value: " + v);
+        }
+
+        public void read() {
+            System.out.println("Read value: " + get());
+        }
+
+        @Override
+        public int get() {
+            for (int spins = 0; ; spins++) {
+                long before = (long) SEQUENCE.getAcquire(this);
+                if ((before & 1) == 0) {
+                    int v = (int) VALUE.getOpaque(this);
+                    VarHandle.loadLoadFence();
+                    if ((long) SEQUENCE.getOpaque(this) == before) {
+                        return v;
+                    }
+                }
+                backOff(spins);
+            }
+        }
+
+        @Override
+        public void set(int v) {
+            writeLock.lock();
+            try {
+                long start = beginWrite();
+                VALUE.setOpaque(this, v);
+                VERSION.setOpaque(this, (long) VERSION.getOpaque(this) + 1);
+                SEQUENCE.setRelease(this, start + 2);
+            } finally {
+                writeLock.unlock();
+            }
+        }
+
+        @Override
+        public void add(int delta) {
+            writeLock.lock();
+            try {
+                long start = beginWrite();
+                VALUE.setOpaque(this, (int) VALUE.getOpaque(this) + delta);
+                VERSION.setOpaque(this, (long) VERSION.getOpaque(this) + 1);
+                SEQUENCE.setRelease(this, start + 2);
+            } finally {
+                writeLock.unlock();
+            }
+        }
+
+        @Override
+        public Snapshot snapshot() {
+            for (int spins = 0; ; spins++) {
+                long before = (long) SEQUENCE.getAcquire(this);
+                if ((before & 1) == 0) {
+                    int v = (int) VALUE.getOpaque(this);
+                    long ver = (long) VERSION.getOpaque(this);
+                    // the field reads may not move below the second sequence read
+                    VarHandle.loadLoadFence();
+                    if ((long) SEQUENCE.getOpaque(this) == before) {
+                        return new Snapshot(v, ver);
+                    }
+                }
+                backOff(spins);
+            }
+        }
+
+        // caller holds writeLock; returns the even sequence the write started from
+        private long beginWrite() {
+            long start = (long) SEQUENCE.getOpaque(this);
+            SEQUENCE.setOpaque(this, start + 1);
+            // the odd sequence must be visible before any field changes
+            VarHandle.storeStoreFence();
+            return start;
+        }
+
+        private static void backOff(int spins) {
+            if (spins < SPINS_BEFORE_YIELD) {
+                Thread.onSpinWait();
+            } else {
+                Thread.yield();
+            }
+        }
     }
 
     public static void main(String[] args) {
@@ -38,5 +296,14 @@ public class ReadWrite {
         // Reading in multiple threads
         new Thread(() -> db.read()).start();
         new Thread(() -> db.read()).start();
+
+        // same program on the optimistic-read and sequence-lock variants
+        StampedDataBase stamped = new StampedDataBase();
+        new Thread(() -> stamped.write(43)).start();
+        new Thread(() -> stamped.read()).start();
+
+        SeqLockDataBase seqLock = new SeqLockDataBase();
+        new Thread(() -> seqLock.write(44)).start();
+        new Thread(() -> System.out.println("Snapshot: " + seqLock.snapshot())).start();
     }
-}
\ No newline at end of file
+}
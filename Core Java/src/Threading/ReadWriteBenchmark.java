@@ -0,0 +1,102 @@
+package Threading;
+
+import Benchmark.Harness;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Contention benchmark for the ReadWrite databases: ReentrantReadWriteLock (the original DataBase),
+ * StampedLock with optimistic reads, and the sequence lock.
+ * <p>
+ * Every thread runs for a fixed time; each operation is a snapshot() read with probability readPercent and
+ * an add(1) write otherwise. Reported in million operations per second over all threads, for read:write mixes
+ * from 100:0 to 50:50 and each thread count. Since only add(1) writes, every consistent snapshot has
+ * value == version; a read that sees anything else is counted as torn (there should never be one).
+ * <p>
+ * Usage: java Threading.ReadWriteBenchmark [threads list, default 1,2,4,8] [millis per run, default 500]
+ */
+public class ReadWriteBenchmark {
+    private static final int[] READ_PERCENTS = {100, 99, 90, 75, 50};
+    private static final String[] NAMES = {"ReadWriteLock", "StampedLock", "SeqLock"};
+    private static final List<Supplier<ReadWrite.Store>> STORES = List.of(
+            ReadWrite.DataBase::new, ReadWrite.StampedDataBase::new, ReadWrite.SeqLockDataBase::new);
+
+    public static void main(String[] args) throws InterruptedException {
+        int[] threadCounts = args.length > 0
+                ? Arrays.stream(args[0].split(",")).mapToInt(Integer::parseInt).toArray()
+                : new int[]{1, 2, 4, 8};
+        int millis = Harness.intArg(args, 1, 500);
+        System.out.printf("%d CPUs, %d ms per run, Mops/s%n", Runtime.getRuntime().availableProcessors(), millis);
+
+        // warm-up: every store, every code path
+        for (Supplier<ReadWrite.Store> store : STORES) {
+            run(store.get(), 2, 90, millis);
+        }
+
+        System.out.printf("%-8s %7s", "read:wr", "threads");
+        for (String name : NAMES) {
+            System.out.printf(" %14s", name);
+        }
+        System.out.printf(" %6s%n", "torn");
+        for (int readPercent : READ_PERCENTS) {
+            for (int threads : threadCounts) {
+                System.out.printf("%-8s %7d", readPercent + ":" + (100 - readPercent), threads);
+                long torn = 0;
+                for (Supplier<ReadWrite.Store> store : STORES) {
+                    long[] result = run(store.get(), threads, readPercent, millis);
+                    System.out.printf(" %14.2f", result[0] / (millis * 1e3));
+                    torn += result[1];
+                }
+                System.out.printf(" %6d%n", torn);
+            }
+        }
+    }
+
+    // returns {operations, torn reads}
+    private static long[] run(ReadWrite.Store store, int threads, int readPercent, int millis)
+            throws InterruptedException {
+        LongAdder operations = new LongAdder();
+        LongAdder torn = new LongAdder();
+        CountDownLatch start = new CountDownLatch(1);
+        long deadline = System.nanoTime() + millis * 1_000_000L;
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            workers[t] = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                long ops = 0;
+                long bad = 0;
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                // the clock is checked every 256 operations, so it does not dominate the cost
+                while ((ops & 255) != 0 || System.nanoTime() < deadline) {
+                    if (random.nextInt(100) < readPercent) {
+                        ReadWrite.Snapshot snapshot = store.snapshot();
+                        if (snapshot.value() != snapshot.version()) {
+                            bad++;
+                        }
+                    } else {
+                        store.add(1);
+                    }
+                    ops++;
+                }
+                operations.add(ops);
+                torn.add(bad);
+            });
+            workers[t].start();
+        }
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        ReadWrite.Snapshot last = store.snapshot();
+        return new long[]{operations.sum(), torn.sum() + (last.value() == last.version() ? 0 : 1)};
+    }
+}
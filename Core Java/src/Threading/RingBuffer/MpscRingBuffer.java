@@ -0,0 +1,99 @@
+package Threading.RingBuffer;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * Multi-producer/single-consumer ring buffer. Any number of threads may call offer/put; exactly one
+ * thread may call poll/take/drain.
+ * <p>
+ * Producers claim a slot by CAS on tail and then store the element into it with a release write.
+ * Between the CAS and the store the slot is claimed but still null, so the consumer treats the slot
+ * itself (not tail) as the signal that an element is ready. Producers share a cached upper bound
+ * (head + capacity) and only read the consumer's head when they reach it.
+ */
+public final class MpscRingBuffer<E> extends RingBuffer<E> {
+    private static final VarHandle SLOT = MethodHandles.arrayElementVarHandle(Object[].class);
+
+    private final Sequence producerLimit;
+
+    public MpscRingBuffer(int capacity) {
+        this(capacity, WaitStrategy.parking());
+    }
+
+    public MpscRingBuffer(int capacity, WaitStrategy waitStrategy) {
+        super(capacity, waitStrategy);
+        producerLimit = new Sequence(buffer.length);
+    }
+
+    @Override
+    public boolean offer(E e) {
+        Objects.requireNonNull(e);
+        long limit = producerLimit.get();
+        long currentTail;
+        do {
+            currentTail = tail.get();
+            if (currentTail >= limit) {
+                limit = head.getAcquire() + buffer.length;
+                if (currentTail >= limit) {
+                    return false;
+                }
+                // racing producers may store a smaller limit than ours; that only costs an extra head read
+                producerLimit.set(limit);
+            }
+        } while (!tail.compareAndSet(currentTail, currentTail + 1));
+        SLOT.setRelease(buffer, (int) currentTail & mask, e);
+        return true;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E poll() {
+        long currentHead = head.getPlain();
+        int index = (int) currentHead & mask;
+        Object e = SLOT.getAcquire(buffer, index);
+        if (e == null) {
+            if (currentHead == tail.get()) {
+                return null;
+            }
+            // a producer has claimed this slot but not stored into it yet; it is only a few instructions away
+            int spins = 0;
+            while ((e = SLOT.getAcquire(buffer, index)) == null) {
+                if (++spins < 64) {
+                    Thread.onSpinWait();
+                } else {
+                    Thread.yield();
+                }
+            }
+        }
+        SLOT.set(buffer, index, null);
+        head.setRelease(currentHead + 1);
+        return (E) e;
+    }
+
+    // stops early at a claimed but not yet stored slot instead of waiting for it
+    @Override
+    @SuppressWarnings("unchecked")
+    public int drain(Consumer<? super E> handler, int limit) {
+        checkLimit(limit);
+        long currentHead = head.getPlain();
+        int drained = 0;
+        try {
+            while (drained < limit) {
+                int index = (int) (currentHead + drained) & mask;
+                Object e = SLOT.getAcquire(buffer, index);
+                if (e == null) {
+                    break;
+                }
+                SLOT.set(buffer, index, null);
+                drained++;
+                handler.accept((E) e);
+            }
+        } finally {
+            head.setRelease(currentHead + drained);
+        }
+        return drained;
+    }
+}
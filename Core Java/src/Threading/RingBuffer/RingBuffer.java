@@ -0,0 +1,115 @@
+package Threading.RingBuffer;
+
+import java.util.function.Consumer;
+
+/**
+ * Bounded array queue with a power-of-two capacity, indexed by two ever-increasing counters:
+ * head (next slot the consumer reads) and tail (next slot a producer writes). slot = counter & mask,
+ * size = tail - head, so there is no wrap-around flag and no modulo.
+ * <p>
+ * offer/poll/drain never block and never take a lock. put/take/waitAndDrain loop on them and call
+ * the WaitStrategy in between, and they respond to interrupts. Null elements are not allowed.
+ * Subclasses decide how many producers may call offer at the same time; there is always one consumer.
+ */
+public abstract class RingBuffer<E> {
+    private static final int MAXIMUM_CAPACITY = 1 << 30;
+
+    final Object[] buffer;
+    final int mask;
+    final Sequence head = new Sequence();
+    final Sequence tail = new Sequence();
+    private final WaitStrategy waitStrategy;
+
+    RingBuffer(int capacity, WaitStrategy waitStrategy) {
+        if (capacity < 2 || capacity > MAXIMUM_CAPACITY) {
+            throw new IllegalArgumentException("Capacity must be in [2, 2^30]: " + capacity);
+        }
+        if (waitStrategy == null) {
+            throw new NullPointerException("waitStrategy");
+        }
+        // round up to the next power of two
+        int size = Integer.highestOneBit(capacity - 1) << 1;
+        this.buffer = new Object[size];
+        this.mask = size - 1;
+        this.waitStrategy = waitStrategy;
+    }
+
+    // adds e if there is room; returns false when the buffer is full
+    public abstract boolean offer(E e);
+
+    // removes the oldest element, or returns null when the buffer is empty
+    public abstract E poll();
+
+    /**
+     * Hands up to limit available elements to handler and returns how many it handed over.
+     * The consumer index is published once per batch instead of once per element, which is what makes
+     * batched consumption cheaper than calling poll() in a loop.
+     */
+    public abstract int drain(Consumer<? super E> handler, int limit);
+
+    public void put(E e) throws InterruptedException {
+        int idleCount = 0;
+        while (!offer(e)) {
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+            idleCount = waitStrategy.idle(idleCount);
+        }
+    }
+
+    public E take() throws InterruptedException {
+        int idleCount = 0;
+        E e;
+        while ((e = poll()) == null) {
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+            idleCount = waitStrategy.idle(idleCount);
+        }
+        return e;
+    }
+
+    // like drain(), but waits until at least one element is available
+    public int waitAndDrain(Consumer<? super E> handler, int limit) throws InterruptedException {
+        int idleCount = 0;
+        int drained;
+        while ((drained = drain(handler, limit)) == 0) {
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+            idleCount = waitStrategy.idle(idleCount);
+        }
+        return drained;
+    }
+
+    // a snapshot; may be stale by the time it is returned if other threads are active
+    public int size() {
+        while (true) {
+            long before = head.get();
+            long currentTail = tail.get();
+            long after = head.get();
+            if (before == after) {
+                return (int) Math.max(0, Math.min(currentTail - after, buffer.length));
+            }
+        }
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public int capacity() {
+        return buffer.length;
+    }
+
+    static void checkLimit(int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("limit must be positive: " + limit);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "[size=" + size() + ", capacity=" + capacity() + "]";
+    }
+}
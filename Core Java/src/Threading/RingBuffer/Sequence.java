@@ -0,0 +1,78 @@
+package Threading.RingBuffer;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+// The JVM lays out superclass fields before subclass fields, so the padding classes below keep
+// `value` away from whatever object happens to be allocated next to a Sequence.
+class SequenceLeftPadding {
+    protected long p01, p02, p03, p04, p05, p06, p07;
+}
+
+class SequenceValue extends SequenceLeftPadding {
+    protected volatile long value;
+}
+
+class SequenceRightPadding extends SequenceValue {
+    protected long p11, p12, p13, p14, p15, p16, p17;
+}
+
+/**
+ * A long counter that owns a whole cache line (64 bytes either side), so a producer updating its
+ * index does not invalidate the line holding the consumer's index (false sharing).
+ * Offers plain, release/acquire and volatile access; the ring buffers pick the cheapest one that is
+ * still correct for each read and write.
+ */
+public final class Sequence extends SequenceRightPadding {
+    private static final VarHandle VALUE;
+
+    static {
+        try {
+            VALUE = MethodHandles.lookup().findVarHandle(SequenceValue.class, "value", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    public Sequence() {
+    }
+
+    public Sequence(long initialValue) {
+        VALUE.set(this, initialValue);
+    }
+
+    public long get() {
+        return value;
+    }
+
+    // for the thread that is the only writer of this sequence
+    public long getPlain() {
+        return (long) VALUE.get(this);
+    }
+
+    public long getAcquire() {
+        return (long) VALUE.getAcquire(this);
+    }
+
+    public void set(long newValue) {
+        value = newValue;
+    }
+
+    public void setPlain(long newValue) {
+        VALUE.set(this, newValue);
+    }
+
+    // publishes every write made before it, without the full fence of a volatile store
+    public void setRelease(long newValue) {
+        VALUE.setRelease(this, newValue);
+    }
+
+    public boolean compareAndSet(long expected, long newValue) {
+        return VALUE.compareAndSet(this, expected, newValue);
+    }
+
+    @Override
+    public String toString() {
+        return Long.toString(value);
+    }
+}
@@ -0,0 +1,86 @@
+package Threading.RingBuffer;
+
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * Single-producer/single-consumer ring buffer. Exactly one thread may call offer/put and exactly one
+ * (other) thread may call poll/take/drain.
+ * <p>
+ * Because each index has a single writer, no compare-and-swap is needed: the producer stores the
+ * element with a plain write and publishes it with a release store of tail; the consumer acquires
+ * tail before reading. Each side also keeps a private cached copy of the other side's index and only
+ * re-reads the shared one when the cached value says full (producer) or empty (consumer), so in a
+ * steady stream the two threads rarely touch each other's cache lines.
+ */
+public final class SpscRingBuffer<E> extends RingBuffer<E> {
+    private final Sequence headCache = new Sequence();  // producer's view of head
+    private final Sequence tailCache = new Sequence();  // consumer's view of tail
+
+    public SpscRingBuffer(int capacity) {
+        this(capacity, WaitStrategy.parking());
+    }
+
+    public SpscRingBuffer(int capacity, WaitStrategy waitStrategy) {
+        super(capacity, waitStrategy);
+    }
+
+    @Override
+    public boolean offer(E e) {
+        Objects.requireNonNull(e);
+        long currentTail = tail.getPlain();
+        if (currentTail - headCache.getPlain() >= buffer.length) {
+            headCache.setPlain(head.getAcquire());
+            if (currentTail - headCache.getPlain() >= buffer.length) {
+                return false;
+            }
+        }
+        buffer[(int) currentTail & mask] = e;
+        tail.setRelease(currentTail + 1);
+        return true;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E poll() {
+        long currentHead = head.getPlain();
+        if (currentHead >= tailCache.getPlain()) {
+            tailCache.setPlain(tail.getAcquire());
+            if (currentHead >= tailCache.getPlain()) {
+                return null;
+            }
+        }
+        int index = (int) currentHead & mask;
+        E e = (E) buffer[index];
+        buffer[index] = null;
+        head.setRelease(currentHead + 1);
+        return e;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public int drain(Consumer<? super E> handler, int limit) {
+        checkLimit(limit);
+        long currentHead = head.getPlain();
+        long available = tailCache.getPlain() - currentHead;
+        if (available < limit) {
+            tailCache.setPlain(tail.getAcquire());
+            available = tailCache.getPlain() - currentHead;
+        }
+        int count = (int) Math.min(available, limit);
+        int drained = 0;
+        try {
+            while (drained < count) {
+                int index = (int) (currentHead + drained) & mask;
+                E e = (E) buffer[index];
+                buffer[index] = null;
+                drained++;
+                handler.accept(e);
+            }
+        } finally {
+            // also runs if handler throws, so the elements it already received are not delivered twice
+            head.setRelease(currentHead + drained);
+        }
+        return drained;
+    }
+}
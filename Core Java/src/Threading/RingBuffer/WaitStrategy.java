@@ -0,0 +1,62 @@
+package Threading.RingBuffer;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * What a thread does while a ring buffer is full (producer) or empty (consumer).
+ * <p>
+ * idle() is called once per failed attempt with the number of failed attempts so far and returns the
+ * new count; the caller resets it to 0 once it makes progress. Strategies trade latency for CPU:
+ * <ul>
+ *     <li>busySpin: lowest latency, burns a whole core; only when each thread has its own core</li>
+ *     <li>yielding: spins briefly, then Thread.yield(); good when threads roughly match cores</li>
+ *     <li>parking: spins, yields, then parks with growing timeouts; near-idle CPU when there is no traffic</li>
+ * </ul>
+ * None of them needs the other side to signal, so offer/poll never pay for a wake-up call.
+ */
+@FunctionalInterface
+public interface WaitStrategy {
+
+    int idle(int idleCount);
+
+    static WaitStrategy busySpin() {
+        return idleCount -> {
+            Thread.onSpinWait();
+            return idleCount + 1;
+        };
+    }
+
+    static WaitStrategy yielding() {
+        return idleCount -> {
+            if (idleCount < 100) {
+                Thread.onSpinWait();
+            } else {
+                Thread.yield();
+            }
+            return idleCount + 1;
+        };
+    }
+
+    static WaitStrategy parking() {
+        return parking(TimeUnit.MILLISECONDS.toNanos(1));
+    }
+
+    // park times double from 1 microsecond up to maxParkNanos
+    static WaitStrategy parking(long maxParkNanos) {
+        if (maxParkNanos <= 0) {
+            throw new IllegalArgumentException("maxParkNanos must be positive: " + maxParkNanos);
+        }
+        return idleCount -> {
+            if (idleCount < 100) {
+                Thread.onSpinWait();
+            } else if (idleCount < 200) {
+                Thread.yield();
+            } else {
+                int doublings = Math.min(idleCount - 200, 30);
+                LockSupport.parkNanos(Math.min(1_000L << doublings, maxParkNanos));
+            }
+            return idleCount + 1;
+        };
+    }
+}
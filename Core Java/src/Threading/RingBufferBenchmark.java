@@ -0,0 +1,221 @@
+package Threading;
+
+import Benchmark.Harness;
+import Threading.RingBuffer.MpscRingBuffer;
+import Threading.RingBuffer.RingBuffer;
+import Threading.RingBuffer.SpscRingBuffer;
+import Threading.RingBuffer.WaitStrategy;
+
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedTransferQueue;
+import java.util.function.IntConsumer;
+import java.util.function.Supplier;
+
+/**
+ * Hand-off throughput and latency: ThreadCommunication.ItemQueue (wait/notify) vs ArrayBlockingQueue vs
+ * LinkedTransferQueue vs SpscRingBuffer/MpscRingBuffer with each wait strategy, consumed one at a time
+ * (take) and in batches (waitAndDrain).
+ * Usage: java Threading.RingBufferBenchmark [messages] [producers for the MPSC runs] [latency interval in us]
+ * <p>
+ * Busy-spin runs are skipped on machines with fewer than 2 CPUs: a spinning thread that shares a core
+ * with the thread it waits for just burns its time slice.
+ */
+public class RingBufferBenchmark {
+    private static final int CAPACITY = 1024;
+    private static final int BATCH = 256;
+    // pre-boxed payloads so no run pays for Integer allocation
+    private static final Integer[] PAYLOADS = new Integer[1 << 20];
+
+    static {
+        for (int i = 0; i < PAYLOADS.length; i++) {
+            PAYLOADS[i] = i;
+        }
+    }
+
+    interface Channel {
+        void send(int value) throws InterruptedException;
+
+        // waits for at least one value, hands every received value to sink and returns how many
+        int receive(IntConsumer sink) throws InterruptedException;
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        int messages = Harness.intArg(args, 0, 5_000_000);
+        int producers = Harness.intArg(args, 1, 3);
+        int intervalMicros = Harness.intArg(args, 2, 20);
+        boolean spin = Runtime.getRuntime().availableProcessors() >= 2;
+        System.out.printf("messages=%d capacity=%d batch=%d cpus=%d%n",
+                messages, CAPACITY, BATCH, Runtime.getRuntime().availableProcessors());
+
+        System.out.println("---- throughput, 1 producer -> 1 consumer ----");
+        // the monitor hand-off needs two context switches per item, so it gets a smaller run
+        throughput("ItemQueue (wait/notify)", 1, messages / 20, RingBufferBenchmark::itemQueue);
+        throughput("ArrayBlockingQueue", 1, messages, () -> blockingQueue(new ArrayBlockingQueue<>(CAPACITY)));
+        throughput("LinkedTransferQueue", 1, messages, () -> blockingQueue(new LinkedTransferQueue<>()));
+        for (String strategy : strategies(spin)) {
+            throughput("SpscRingBuffer take, " + strategy, 1, messages,
+                    () -> ringBuffer(new SpscRingBuffer<>(CAPACITY, waitStrategy(strategy)), 1));
+            throughput("SpscRingBuffer drain, " + strategy, 1, messages,
+                    () -> ringBuffer(new SpscRingBuffer<>(CAPACITY, waitStrategy(strategy)), BATCH));
+        }
+
+        System.out.println("---- throughput, " + producers + " producers -> 1 consumer ----");
+        throughput("ItemQueue (wait/notify)", producers, messages / 20, RingBufferBenchmark::itemQueue);
+        throughput("ArrayBlockingQueue", producers, messages, () -> blockingQueue(new ArrayBlockingQueue<>(CAPACITY)));
+        throughput("LinkedTransferQueue", producers, messages, () -> blockingQueue(new LinkedTransferQueue<>()));
+        for (String strategy : strategies(spin)) {
+            throughput("MpscRingBuffer take, " + strategy, producers, messages,
+                    () -> ringBuffer(new MpscRingBuffer<>(CAPACITY, waitStrategy(strategy)), 1));
+            throughput("MpscRingBuffer drain, " + strategy, producers, messages,
+                    () -> ringBuffer(new MpscRingBuffer<>(CAPACITY, waitStrategy(strategy)), BATCH));
+        }
+
+        System.out.println("---- one-way latency, 1 message every " + intervalMicros + " us ----");
+        System.out.printf("%-40s %10s %10s %10s %10s%n", "queue", "p50 us", "p99 us", "p99.9 us", "max us");
+        int latencyMessages = Math.min(100_000, PAYLOADS.length);
+        latency("ItemQueue (wait/notify)", latencyMessages, intervalMicros, itemQueue());
+        latency("ArrayBlockingQueue", latencyMessages, intervalMicros, blockingQueue(new ArrayBlockingQueue<>(CAPACITY)));
+        latency("LinkedTransferQueue", latencyMessages, intervalMicros, blockingQueue(new LinkedTransferQueue<>()));
+        for (String strategy : strategies(spin)) {
+            latency("SpscRingBuffer, " + strategy, latencyMessages, intervalMicros,
+                    ringBuffer(new SpscRingBuffer<>(CAPACITY, waitStrategy(strategy)), BATCH));
+        }
+    }
+
+    private static void throughput(String label, int producers, int messages, Supplier<Channel> factory) {
+        int perProducer = messages / producers;
+        int total = perProducer * producers;
+        double bestMs = Harness.run(label, 1, 3, () -> {
+            Channel channel = factory.get();
+            Thread[] threads = new Thread[producers];
+            for (int p = 0; p < producers; p++) {
+                threads[p] = new Thread(() -> {
+                    try {
+                        for (int i = 0; i < perProducer; i++) {
+                            channel.send(i);
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+                threads[p].start();
+            }
+            long[] sum = new long[1];
+            try {
+                int received = 0;
+                while (received < total) {
+                    received += channel.receive(value -> sum[0] += value);
+                }
+                for (Thread thread : threads) {
+                    thread.join();
+                }
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+            Harness.consume(sum[0]);
+        });
+        System.out.printf("%-45s %,14.0f msgs/s%n", "", total / (bestMs / 1000));
+    }
+
+    private static void latency(String label, int messages, int intervalMicros, Channel channel)
+            throws InterruptedException {
+        long[] sentAt = new long[messages];
+        long[] latencies = new long[messages];
+        long interval = intervalMicros * 1_000L;
+        Thread producer = new Thread(() -> {
+            try {
+                long next = System.nanoTime();
+                for (int i = 0; i < messages; i++) {
+                    sentAt[i] = System.nanoTime();
+                    channel.send(i);
+                    next += interval;
+                    // pace without holding the CPU, so a consumer sharing the core can run
+                    while (System.nanoTime() < next) {
+                        Thread.yield();
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        producer.start();
+        int received = 0;
+        while (received < messages) {
+            received += channel.receive(id -> latencies[id] = System.nanoTime() - sentAt[id]);
+        }
+        producer.join();
+        // the first half is warm-up
+        long[] measured = Arrays.copyOfRange(latencies, messages / 2, messages);
+        Arrays.sort(measured);
+        System.out.printf("%-40s %10.1f %10.1f %10.1f %10.1f%n", label,
+                percentile(measured, 0.50), percentile(measured, 0.99),
+                percentile(measured, 0.999), measured[measured.length - 1] / 1e3);
+    }
+
+    private static double percentile(long[] sorted, double fraction) {
+        return sorted[(int) Math.min(sorted.length - 1, sorted.length * fraction)] / 1e3;
+    }
+
+    private static String[] strategies(boolean spin) {
+        return spin ? new String[]{"busySpin", "yielding", "parking"} : new String[]{"yielding", "parking"};
+    }
+
+    private static WaitStrategy waitStrategy(String name) {
+        return switch (name) {
+            case "busySpin" -> WaitStrategy.busySpin();
+            case "yielding" -> WaitStrategy.yielding();
+            default -> WaitStrategy.parking();
+        };
+    }
+
+    private static Channel itemQueue() {
+        ThreadCommunication.ItemQueue queue = new ThreadCommunication.ItemQueue();
+        return new Channel() {
+            @Override
+            public void send(int value) {
+                queue.produce(value);
+            }
+
+            @Override
+            public int receive(IntConsumer sink) {
+                sink.accept(queue.consume());
+                return 1;
+            }
+        };
+    }
+
+    private static Channel blockingQueue(BlockingQueue<Integer> queue) {
+        return new Channel() {
+            @Override
+            public void send(int value) throws InterruptedException {
+                queue.put(PAYLOADS[value & (PAYLOADS.length - 1)]);
+            }
+
+            @Override
+            public int receive(IntConsumer sink) throws InterruptedException {
+                sink.accept(queue.take());
+                return 1;
+            }
+        };
+    }
+
+    private static Channel ringBuffer(RingBuffer<Integer> queue, int batch) {
+        return new Channel() {
+            @Override
+            public void send(int value) throws InterruptedException {
+                queue.put(PAYLOADS[value & (PAYLOADS.length - 1)]);
+            }
+
+            @Override
+            public int receive(IntConsumer sink) throws InterruptedException {
+                if (batch == 1) {
+                    sink.accept(queue.take());
+                    return 1;
+                }
+                return queue.waitAndDrain(sink::accept, batch);
+            }
+        };
+    }
+}
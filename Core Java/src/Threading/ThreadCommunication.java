@@ -1,7 +1,15 @@
 package Threading;
 
+import Threading.RingBuffer.MpscRingBuffer;
+import Threading.RingBuffer.RingBuffer;
+import Threading.RingBuffer.SpscRingBuffer;
+import Threading.RingBuffer.WaitStrategy;
+
 public class ThreadCommunication {
 
+    // Classic single-slot wait()/notify() hand-off: every item costs two context switches.
+    // Kept as the baseline for RingBufferBenchmark. notifyAll(), because with several producers
+    // notify() can wake another producer instead of the consumer and every thread ends up waiting.
     static class ItemQueue {
         private int item;
         private boolean available = false;
@@ -16,8 +24,7 @@ public class ThreadCommunication {
             }
             this.item = item;
             available = true;
-            System.out.println("Produced: " + item);
-            notify();
+            notifyAll();
         }
 
         public synchronized int consume() {
@@ -29,48 +36,76 @@ public class ThreadCommunication {
                 }
             }
             available = false;
-            System.out.println("Consumed: " + item);
-            notify();
+            notifyAll();
 
             return item;
         }
     }
 
     static class Producer extends Thread {
-        private final ItemQueue queue;
+        private final RingBuffer<Integer> queue;
+        private final int from;
+        private final int count;
 
-        Producer(ItemQueue queue) {
+        Producer(RingBuffer<Integer> queue, int from, int count) {
             this.queue = queue;
+            this.from = from;
+            this.count = count;
         }
 
         @Override
         public void run() {
-            for (int i = 1; i <= 5; i++) {
-                queue.produce(i);
+            try {
+                for (int i = from; i < from + count; i++) {
+                    System.out.println(getName() + " producing: " + i);
+                    queue.put(i);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
             }
         }
     }
 
     static class Consumer extends Thread {
-        private final ItemQueue queue;
+        private final RingBuffer<Integer> queue;
+        private final int count;
 
-        Consumer(ItemQueue queue) {
+        Consumer(RingBuffer<Integer> queue, int count) {
             this.queue = queue;
+            this.count = count;
         }
 
         @Override
         public void run() {
-            for (int i = 1; i <= 5; i++) {
-                queue.consume();
+            try {
+                int consumed = 0;
+                while (consumed < count) {
+                    // takes everything that is ready in one go (at most 4 items)
+                    consumed += queue.waitAndDrain(item -> System.out.println("Consumed: " + item), 4);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
             }
         }
     }
 
-    public static void main(String[] args) {
-        ItemQueue queue = new ItemQueue();
-        Producer producer = new Producer(queue);
-        Consumer consumer = new Consumer(queue);
+    public static void main(String[] args) throws InterruptedException {
+        // one producer, one consumer: lock-free single-producer/single-consumer ring buffer
+        RingBuffer<Integer> spsc = new SpscRingBuffer<>(4, WaitStrategy.yielding());
+        Producer producer = new Producer(spsc, 1, 5);
+        Consumer consumer = new Consumer(spsc, 5);
         producer.start();
         consumer.start();
+        producer.join();
+        consumer.join();
+
+        // several producers, one consumer: multi-producer ring buffer, parking when idle
+        RingBuffer<Integer> mpsc = new MpscRingBuffer<>(8, WaitStrategy.parking());
+        Consumer mpscConsumer = new Consumer(mpsc, 9);
+        mpscConsumer.start();
+        for (int p = 0; p < 3; p++) {
+            new Producer(mpsc, 100 * (p + 1), 3).start();
+        }
+        mpscConsumer.join();
     }
-}
\ No newline at end of file
+}
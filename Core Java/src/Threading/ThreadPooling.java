@@ -1,5 +1,10 @@
 package Threading;
 
+import Threading.Combinatorics.CombinatoricsEngine;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.*;
 
 public class ThreadPooling {
@@ -7,13 +12,14 @@ public class ThreadPooling {
     public static void main(String[] args) throws InterruptedException {
 
 //        long startTime = System.currentTimeMillis();
+//        CombinatoricsEngine engine = new CombinatoricsEngine(1);
 ////        Created 10 different thread to do one task
 ////        starting and joining is also done by us.
 ////        Thread head overload is too much for init and starting and destroying
 //        for (int i = 0; i < 10; i++) {
 //            int finalI = i; // variable inside lambda can not change
 //            Thread thread = new Thread(() -> {
-//                long result = factorial(finalI);
+//                BigInteger result = engine.factorial(finalI);
 //                System.out.println(result);
 //            });
 //            thread.start();
@@ -23,30 +29,43 @@ public class ThreadPooling {
 //        System.out.println("Time taken: " + (endTime - startTime) + "\n");
 
 //        instead use Thread pooling
-        ExecutorService service = Executors.newFixedThreadPool(5);
-        for (int i = 0; i < 10; i++) {
-            int finalI = i;
-            Future<?> future = service.submit(() -> {
-                System.out.println(factorial(finalI));
-            });
-            System.out.println(future.state());
+//        mode from the command line: platform (default), virtual or forkjoin, see ExecutorMode
+        ExecutorMode mode = args.length > 0 ? ExecutorMode.parse(args[0]) : ExecutorMode.PLATFORM_FIXED;
+        // a long overflows after 20!; repeated n are computed once and then come from the engine's cache
+        int[] ns = {0, 1, 20, 21, 25, 10_000, 50_000, 10_000, 200_000, 50_000};
+        List<Future<BigInteger>> futures = new ArrayList<>();
+        long startTime = System.currentTimeMillis();
+        // close() at the end of the try waits for every submitted task, however long they take;
+        // shutdown() + awaitTermination(1000 ms) used to give up after a second and drop the slower results
+        try (CombinatoricsEngine engine = new CombinatoricsEngine(Runtime.getRuntime().availableProcessors());
+             ExecutorService service = mode.newExecutor(5)) {
+            for (int n : ns) {
+                Future<BigInteger> future = service.submit(() -> {
+                    awaitInput();
+                    return engine.factorial(n);
+                });
+                futures.add(future);
+                System.out.println(future.state());
+            }
+            // results in submission order; get() blocks until that task is done and rethrows its failure
+            for (int i = 0; i < futures.size(); i++) {
+                try {
+                    BigInteger result = futures.get(i).get();
+                    System.out.println(ns[i] + "! = " + (result.bitLength() <= 128 ? result : "(" + result.bitLength() + " bits)"));
+                } catch (ExecutionException e) {
+                    System.out.println(ns[i] + "! failed: " + e.getCause());
+                }
+            }
+            System.out.println("cache: " + engine.cacheStats());
         }
-        service.shutdown(); // does not wait for services to finish and continue main thread.
-        service.awaitTermination(1000, TimeUnit.MILLISECONDS); // to stop main thread to run
+        long endTime = System.currentTimeMillis();
+        System.out.println(mode + " time taken: " + (endTime - startTime) + " ms");
         System.out.println("Main method");
     }
 
-    private static long factorial(long n) {
-        try {
-            Thread.sleep(500);
-        } catch (InterruptedException e) {
-            throw new RuntimeException(e);
-        }
-        long result = 1;
-        for (int i = 1; i <= n; i++) {
-            result *= i;
-        }
-
-        return n <= 0 ? 0 : result;
+    // every task first blocks for 500 ms, like a remote call fetching its input; this is what the executor
+    // modes differ in, the computation after it is cheap
+    private static void awaitInput() throws InterruptedException {
+        Thread.sleep(500);
     }
 }
@@ -0,0 +1,127 @@
+package Threading;
+
+import Benchmark.Harness;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Load generator for the ExecutorMode options: pushes n blocking tasks (sleep, then a small factorial like
+ * ThreadPooling) through each executor, for n = 10, 100, ... up to maxTasks, and reports
+ * <ul>
+ *     <li>throughput: tasks completed per second, from the first submit to the last completion</li>
+ *     <li>p50/p99 latency: submit to completion of each task, queueing included</li>
+ *     <li>peak in-flight: most tasks blocked at the same time, i.e. the concurrency the mode really gives</li>
+ *     <li>peak platform threads (ThreadMXBean) and peak heap above the idle baseline (heap pool peaks)</li>
+ * </ul>
+ * Every task counts down a latch in a finally block and writes its result to its own slot, so the run only ends
+ * when all n tasks are done, and a lost or failed task shows up in the "lost" column instead of vanishing.
+ * <p>
+ * A bounded pool needs about n * blockMillis / threads ms; runs that would take longer than maxSeconds are
+ * skipped and marked so. Usage:
+ * java -Xmx2g Threading.ThreadPoolingBenchmark [maxTasks=1000000] [blockMillis=10] [threads=200] [maxSeconds=30]
+ */
+public class ThreadPoolingBenchmark {
+    private static final int FACTORIAL_OF = 20;
+
+    public static void main(String[] args) throws InterruptedException {
+        int maxTasks = Harness.intArg(args, 0, 1_000_000);
+        int blockMillis = Harness.intArg(args, 1, 10);
+        int threads = Harness.intArg(args, 2, 200);
+        int maxSeconds = Harness.intArg(args, 3, 30);
+        System.out.printf("blocking %d ms per task, %d threads for the bounded pools, %d CPUs%n",
+                blockMillis, threads, Runtime.getRuntime().availableProcessors());
+        System.out.printf("%-17s %8s %12s %9s %9s %9s %8s %9s %5s%n",
+                "mode", "tasks", "tasks/s", "p50 ms", "p99 ms", "in-flight", "threads", "heap MB", "lost");
+
+        for (int tasks = 10; tasks <= maxTasks; tasks *= 10) {
+            for (ExecutorMode mode : ExecutorMode.values()) {
+                int concurrency = mode == ExecutorMode.VIRTUAL_PER_TASK ? tasks : Math.min(tasks, threads);
+                long estimatedMillis = (long) Math.ceil((double) tasks / concurrency) * blockMillis;
+                if (estimatedMillis > maxSeconds * 1000L) {
+                    System.out.printf("%-17s %8d   skipped, needs about %d s%n", mode, tasks, estimatedMillis / 1000);
+                    continue;
+                }
+                run(mode, tasks, blockMillis, threads);
+            }
+            System.out.println();
+        }
+    }
+
+    private static void run(ExecutorMode mode, int tasks, int blockMillis, int threads) throws InterruptedException {
+        ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+        List<MemoryPoolMXBean> heapPools = ManagementFactory.getMemoryPoolMXBeans().stream()
+                .filter(pool -> pool.getType() == MemoryType.HEAP)
+                .toList();
+        long baselineHeap = Harness.usedHeap();
+        heapPools.forEach(MemoryPoolMXBean::resetPeakUsage);
+        threadBean.resetPeakThreadCount();
+
+        long[] results = new long[tasks];
+        long[] latencies = new long[tasks];
+        CountDownLatch done = new CountDownLatch(tasks);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger peakRunning = new AtomicInteger();
+        AtomicInteger failures = new AtomicInteger();
+
+        long start = System.nanoTime();
+        long elapsed;
+        try (ExecutorService executor = mode.newExecutor(threads)) {
+            for (int i = 0; i < tasks; i++) {
+                int index = i;
+                long submitted = System.nanoTime();
+                executor.execute(() -> {
+                    peakRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                    try {
+                        Thread.sleep(blockMillis);
+                        results[index] = factorial(FACTORIAL_OF);
+                    } catch (InterruptedException e) {
+                        failures.incrementAndGet();
+                        Thread.currentThread().interrupt();
+                    } catch (RuntimeException e) {
+                        failures.incrementAndGet();
+                    } finally {
+                        running.decrementAndGet();
+                        latencies[index] = System.nanoTime() - submitted;
+                        done.countDown();
+                    }
+                });
+            }
+            if (!done.await(10, TimeUnit.MINUTES)) {
+                System.out.printf("%-17s %8d   did not finish, %d tasks outstanding%n", mode, tasks, done.getCount());
+                executor.shutdownNow();
+                return;
+            }
+            elapsed = System.nanoTime() - start;
+        }
+
+        long peakHeap = heapPools.stream().mapToLong(pool -> pool.getPeakUsage().getUsed()).sum();
+        long expected = factorial(FACTORIAL_OF);
+        long lost = Arrays.stream(results).filter(result -> result != expected).count();
+        Arrays.sort(latencies);
+        System.out.printf("%-17s %8d %12.0f %9.1f %9.1f %9d %8d %9.1f %5d%n",
+                mode, tasks, tasks / (elapsed / 1e9),
+                latencies[tasks / 2] / 1e6, latencies[(int) Math.min(tasks - 1, (long) tasks * 99 / 100)] / 1e6,
+                peakRunning.get(), threadBean.getPeakThreadCount(),
+                Math.max(0, peakHeap - baselineHeap) / (1024.0 * 1024.0), lost);
+        if (failures.get() != 0) {
+            System.out.printf("%-17s %d tasks failed%n", "", failures.get());
+        }
+    }
+
+    private static long factorial(int n) {
+        long result = 1;
+        for (int i = 2; i <= n; i++) {
+            result *= i;
+        }
+        return result;
+    }
+}
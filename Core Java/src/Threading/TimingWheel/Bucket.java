@@ -0,0 +1,43 @@
+package Threading.TimingWheel;
+
+// Doubly linked list of the timeouts in one wheel slot, through Timeout.previous/next. Worker thread only.
+final class Bucket {
+    Timeout head;
+    Timeout tail;
+
+    void add(Timeout timeout) {
+        timeout.bucket = this;
+        timeout.previous = tail;
+        timeout.next = null;
+        if (tail == null) {
+            head = timeout;
+        } else {
+            tail.next = timeout;
+        }
+        tail = timeout;
+    }
+
+    void remove(Timeout timeout) {
+        if (timeout.previous == null) {
+            head = timeout.next;
+        } else {
+            timeout.previous.next = timeout.next;
+        }
+        if (timeout.next == null) {
+            tail = timeout.previous;
+        } else {
+            timeout.next.previous = timeout.previous;
+        }
+        timeout.bucket = null;
+        timeout.previous = null;
+        timeout.next = null;
+    }
+
+    // detaches the whole list and returns its first timeout; the timeouts keep their next links
+    Timeout clear() {
+        Timeout first = head;
+        head = null;
+        tail = null;
+        return first;
+    }
+}
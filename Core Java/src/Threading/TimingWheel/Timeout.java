@@ -0,0 +1,85 @@
+package Threading.TimingWheel;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * Handle of one scheduled task. It is also the node the wheel links into its pending stack, its
+ * cancellation stack and a bucket, so scheduling allocates nothing else.
+ */
+public final class Timeout {
+    private static final int PENDING = 0;
+    private static final int CANCELLED = 1;
+    private static final int EXPIRED = 2;
+    private static final VarHandle STATE;
+
+    static {
+        try {
+            STATE = MethodHandles.lookup().findVarHandle(Timeout.class, "state", int.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    final TimingWheel wheel;
+    final Runnable task;
+    // in ticks since the wheel started
+    final long deadlineTick;
+    private volatile int state;
+
+    // links for the stacks producers push to; written before the push CAS publishes the node
+    Timeout nextPending;
+    Timeout nextCancelled;
+
+    // worker thread only
+    Bucket bucket;
+    Timeout previous;
+    Timeout next;
+
+    Timeout(TimingWheel wheel, Runnable task, long deadlineTick) {
+        this.wheel = wheel;
+        this.task = task;
+        this.deadlineTick = deadlineTick;
+    }
+
+    /**
+     * Stops the task from running. Returns false if it already ran, is running or was cancelled before.
+     * The wheel unlinks the timeout on its next tick, so a cancelled timeout holds no memory for longer
+     * than one tick.
+     */
+    public boolean cancel() {
+        if (!STATE.compareAndSet(this, PENDING, CANCELLED)) {
+            return false;
+        }
+        wheel.cancelled(this);
+        return true;
+    }
+
+    public boolean isCancelled() {
+        return state == CANCELLED;
+    }
+
+    // the task was handed to the executor
+    public boolean isExpired() {
+        return state == EXPIRED;
+    }
+
+    public Runnable task() {
+        return task;
+    }
+
+    // worker thread: wins against a concurrent cancel() or loses to it
+    boolean expire() {
+        return STATE.compareAndSet(this, PENDING, EXPIRED);
+    }
+
+    @Override
+    public String toString() {
+        String status = switch (state) {
+            case PENDING -> "pending";
+            case CANCELLED -> "cancelled";
+            default -> "expired";
+        };
+        return "Timeout[tick " + deadlineTick + ", " + status + "]";
+    }
+}
@@ -0,0 +1,344 @@
+package Threading.TimingWheel;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Hierarchical hashed timing wheel: a timer for very many timeouts that mostly get cancelled, like request
+ * and idle timeouts.
+ * <p>
+ * ScheduledThreadPoolExecutor keeps its tasks in a binary heap behind one lock: every schedule and cancel
+ * is an O(log n) sift while holding it, and all producers queue up on that lock. Here:
+ * <ul>
+ *     <li>schedule() pushes the new Timeout onto a lock-free stack (one CAS) and cancel() pushes it onto
+ *     another; neither touches the wheel.</li>
+ *     <li>One daemon worker thread owns the wheel. Once per tick it takes both stacks with a single swap
+ *     each (tick batching), puts the new timeouts into buckets and unlinks the cancelled ones, both O(1).</li>
+ *     <li>Level 0 has wheelSize buckets of one tick each. Each higher level has wheelSize buckets that each
+ *     cover a whole turn of the level below; when the level below completes a turn, the next bucket of the
+ *     level above is spread over it (cascading). With 1 ms ticks, 512 buckets and 4 levels a timeout can
+ *     be 2^36 ms (2 years) away; anything further waits in the top level and is placed again later.</li>
+ *     <li>Due tasks run on the worker thread itself, or are handed to the executor of the builder.</li>
+ * </ul>
+ * Timeouts fire up to one tick late, never early. The worker wakes up every tick while the wheel is open;
+ * close() stops it, and timeouts that have not fired by then never will.
+ * <pre>
+ * try (TimingWheel wheel = TimingWheel.newBuilder().tickDuration(Duration.ofMillis(1)).build()) {
+ *     Timeout timeout = wheel.schedule(() -&gt; System.out.println("timed out"), 30, TimeUnit.SECONDS);
+ *     ...
+ *     timeout.cancel();
+ * }
+ * </pre>
+ */
+public final class TimingWheel implements AutoCloseable {
+    private static final VarHandle PENDING_HEAD;
+    private static final VarHandle CANCELLED_HEAD;
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            PENDING_HEAD = lookup.findVarHandle(TimingWheel.class, "pendingHead", Timeout.class);
+            CANCELLED_HEAD = lookup.findVarHandle(TimingWheel.class, "cancelledHead", Timeout.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final long tickNanos;
+    private final int bits;
+    private final int mask;
+    private final Bucket[][] levels;
+    // null: run tasks on the worker thread
+    private final Executor executor;
+    private final Thread worker;
+    private final long startNanos;
+    private final LongAdder pendingCount = new LongAdder();
+    private volatile boolean closed;
+
+    // stacks of timeouts not yet seen by the worker, linked through nextPending/nextCancelled
+    private volatile Timeout pendingHead;
+    private volatile Timeout cancelledHead;
+
+    // worker thread only: the last tick processed
+    private long tick;
+
+    private TimingWheel(Builder builder) {
+        tickNanos = builder.tickNanos;
+        bits = Integer.numberOfTrailingZeros(builder.wheelSize);
+        mask = builder.wheelSize - 1;
+        levels = new Bucket[builder.levels][builder.wheelSize];
+        for (Bucket[] level : levels) {
+            for (int i = 0; i < level.length; i++) {
+                level[i] = new Bucket();
+            }
+        }
+        executor = builder.executor;
+        startNanos = System.nanoTime();
+        worker = new Thread(this::run, builder.threadName);
+        // like DaemonThread: a forgotten wheel must not keep the JVM alive
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    /**
+     * Runs task once, delay from now (rounded up to whole ticks). Safe to call from any thread, including
+     * from a task of this wheel.
+     *
+     * @throws RejectedExecutionException if the wheel is closed
+     */
+    public Timeout schedule(Runnable task, long delay, TimeUnit unit) {
+        Objects.requireNonNull(task);
+        if (closed) {
+            throw new RejectedExecutionException("Timing wheel is closed");
+        }
+        long deadlineNanos = System.nanoTime() - startNanos + Math.max(0, unit.toNanos(delay));
+        if (deadlineNanos < 0) {
+            // overflowed: as good as never
+            deadlineNanos = Long.MAX_VALUE;
+        }
+        long deadlineTick = deadlineNanos / tickNanos + (deadlineNanos % tickNanos == 0 ? 0 : 1);
+        Timeout timeout = new Timeout(this, task, deadlineTick);
+        pendingCount.increment();
+        Timeout head;
+        do {
+            head = pendingHead;
+            timeout.nextPending = head;
+        } while (!PENDING_HEAD.compareAndSet(this, head, timeout));
+        return timeout;
+    }
+
+    public Timeout schedule(Runnable task, Duration delay) {
+        return schedule(task, delay.toNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    // scheduled and neither fired nor cancelled
+    public long pendingTimeouts() {
+        return pendingCount.sum();
+    }
+
+    public long tickNanos() {
+        return tickNanos;
+    }
+
+    /**
+     * Stops the worker thread and waits for it unless called from a task on it. Timeouts that have not
+     * fired are dropped; a running task finishes.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        LockSupport.unpark(worker);
+        if (Thread.currentThread() != worker) {
+            boolean interrupted = false;
+            while (worker.isAlive()) {
+                try {
+                    worker.join();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    // called by Timeout.cancel() after it won the state change
+    void cancelled(Timeout timeout) {
+        pendingCount.decrement();
+        Timeout head;
+        do {
+            head = cancelledHead;
+            timeout.nextCancelled = head;
+        } while (!CANCELLED_HEAD.compareAndSet(this, head, timeout));
+    }
+
+    // ---- worker thread ----
+
+    private void run() {
+        while (!closed) {
+            long targetTick = awaitNextTick();
+            transferPending();
+            removeCancelled();
+            // more than one tick if the worker fell behind, e.g. after a slow task
+            while (tick < targetTick && !closed) {
+                tick++;
+                cascade();
+                expire(levels[0][(int) tick & mask]);
+            }
+        }
+    }
+
+    // parks until the next tick is due; returns the tick the clock is at
+    private long awaitNextTick() {
+        long due = startNanos + (tick + 1) * tickNanos;
+        while (true) {
+            long now = System.nanoTime();
+            if (now - due >= 0 || closed) {
+                return (now - startNanos) / tickNanos;
+            }
+            LockSupport.parkNanos(this, due - now);
+        }
+    }
+
+    private void transferPending() {
+        Timeout timeout = (Timeout) PENDING_HEAD.getAndSet(this, null);
+        while (timeout != null) {
+            Timeout next = timeout.nextPending;
+            timeout.nextPending = null;
+            // cancelled before it got here: never enters a bucket
+            if (!timeout.isCancelled()) {
+                insert(timeout, tick + 1);
+            }
+            timeout = next;
+        }
+    }
+
+    private void removeCancelled() {
+        Timeout timeout = (Timeout) CANCELLED_HEAD.getAndSet(this, null);
+        while (timeout != null) {
+            Timeout next = timeout.nextCancelled;
+            timeout.nextCancelled = null;
+            if (timeout.bucket != null) {
+                timeout.bucket.remove(timeout);
+            }
+            timeout = next;
+        }
+    }
+
+    /*
+     * level = the lowest whose range still reaches the deadline; bucket = the deadline's digit at that level.
+     * earliest is tick + 1 for a new timeout (the current tick's bucket has been expired already) and tick
+     * during cascade(), whose level-0 bucket for this tick is expired right after it.
+     */
+    private void insert(Timeout timeout, long earliest) {
+        long deadline = Math.max(timeout.deadlineTick, earliest);
+        long delta = deadline - tick;
+        int level = 0;
+        while (level < levels.length - 1 && delta >= 1L << (bits * (level + 1))) {
+            level++;
+        }
+        levels[level][(int) (deadline >>> (bits * level)) & mask].add(timeout);
+    }
+
+    // on a turn of level i - 1, the next bucket of level i moves down; highest level first
+    private void cascade() {
+        int top = 0;
+        while (top < levels.length - 1 && (tick & ((1L << (bits * (top + 1))) - 1)) == 0) {
+            top++;
+        }
+        for (int level = top; level >= 1; level--) {
+            Timeout timeout = levels[level][(int) (tick >>> (bits * level)) & mask].clear();
+            while (timeout != null) {
+                Timeout next = timeout.next;
+                unlinked(timeout);
+                if (!timeout.isCancelled()) {
+                    insert(timeout, tick);
+                }
+                timeout = next;
+            }
+        }
+    }
+
+    private void expire(Bucket bucket) {
+        Timeout timeout = bucket.clear();
+        while (timeout != null) {
+            Timeout next = timeout.next;
+            unlinked(timeout);
+            if (timeout.deadlineTick > tick) {
+                // beyond the top level's range when it was inserted: one more round
+                insert(timeout, tick + 1);
+            } else if (timeout.expire()) {
+                pendingCount.decrement();
+                dispatch(timeout.task);
+            }
+            timeout = next;
+        }
+    }
+
+    private static void unlinked(Timeout timeout) {
+        timeout.bucket = null;
+        timeout.previous = null;
+        timeout.next = null;
+    }
+
+    // a failing task is reported like an uncaught exception and does not stop the wheel
+    private void dispatch(Runnable task) {
+        try {
+            if (executor == null) {
+                task.run();
+            } else {
+                executor.execute(task);
+            }
+        } catch (Throwable e) {
+            worker.getUncaughtExceptionHandler().uncaughtException(worker, e);
+        }
+    }
+
+    public static final class Builder {
+        private long tickNanos = TimeUnit.MILLISECONDS.toNanos(1);
+        private int wheelSize = 512;
+        private int levels = 4;
+        private Executor executor;
+        private String threadName = "timing-wheel";
+
+        private Builder() {
+        }
+
+        // resolution: timeouts fire up to one tick late
+        public Builder tickDuration(Duration tickDuration) {
+            long nanos = tickDuration.toNanos();
+            if (nanos <= 0) {
+                throw new IllegalArgumentException("tickDuration must be positive: " + tickDuration);
+            }
+            this.tickNanos = nanos;
+            return this;
+        }
+
+        // buckets per level, a power of two
+        public Builder wheelSize(int wheelSize) {
+            if (wheelSize < 2 || Integer.bitCount(wheelSize) != 1) {
+                throw new IllegalArgumentException("wheelSize must be a power of two >= 2: " + wheelSize);
+            }
+            this.wheelSize = wheelSize;
+            return this;
+        }
+
+        public Builder levels(int levels) {
+            if (levels < 1) {
+                throw new IllegalArgumentException("levels must be positive: " + levels);
+            }
+            this.levels = levels;
+            return this;
+        }
+
+        // runs the due tasks; by default they run on the worker thread and must be short
+        public Builder executor(Executor executor) {
+            this.executor = Objects.requireNonNull(executor);
+            return this;
+        }
+
+        public Builder threadName(String threadName) {
+            this.threadName = Objects.requireNonNull(threadName);
+            return this;
+        }
+
+        public TimingWheel build() {
+            if ((long) Integer.numberOfTrailingZeros(wheelSize) * levels > 62) {
+                throw new IllegalArgumentException("wheelSize^levels must stay below 2^62 ticks");
+            }
+            return new TimingWheel(this);
+        }
+    }
+}
@@ -0,0 +1,219 @@
+package Threading;
+
+import Benchmark.Harness;
+import Threading.TimingWheel.Timeout;
+import Threading.TimingWheel.TimingWheel;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * TimingWheel against ScheduledThreadPoolExecutor (one thread, removeOnCancelPolicy on, so cancelled tasks
+ * leave its queue at once as they leave the wheel) in three runs:
+ * <ul>
+ *     <li>churn: `producers` threads schedule `timeouts` timeouts in total, 1-60 s ahead like request timeouts,
+ *     and each cancels the one it scheduled `window` operations earlier, the way responses cancel their timeouts.
+ *     At most producers * window are pending at once. Reports ns per schedule + cancel pair.</li>
+ *     <li>footprint: heap per pending timeout, with `pending` timeouts an hour ahead.</li>
+ *     <li>firing: `pending` timeouts spread over the next second; how late they run, p50/p99/max.</li>
+ * </ul>
+ * Before that, levelBoundaries() checks that timeouts cascading onto a level boundary fire on their tick.
+ * Usage: java -Xmx2g Threading.TimingWheelBenchmark [timeouts=10000000] [producers=4] [window=10000] [pending=1000000]
+ */
+public class TimingWheelBenchmark {
+
+    // schedules a no-op delayMillis ahead and returns something that cancels it
+    interface Timer extends AutoCloseable {
+        Runnable schedule(Runnable task, long delayMillis);
+
+        @Override
+        void close();
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        int timeouts = Harness.intArg(args, 0, 10_000_000);
+        int producers = Harness.intArg(args, 1, 4);
+        int window = Harness.intArg(args, 2, 10_000);
+        int pending = Harness.intArg(args, 3, 1_000_000);
+        System.out.printf("%d timeouts from %d producers, window %d, %d CPUs%n",
+                timeouts, producers, window, Runtime.getRuntime().availableProcessors());
+        levelBoundaries();
+
+        for (String name : new String[]{"TimingWheel", "ScheduledThreadPoolExecutor"}) {
+            Supplier<Timer> factory = () -> newTimer(name);
+            churn(name, factory, timeouts, producers, window);
+            footprint(name, factory, pending);
+            firing(name, factory, pending);
+            System.out.println();
+        }
+    }
+
+    private static Timer newTimer(String name) {
+        if (name.equals("TimingWheel")) {
+            TimingWheel wheel = TimingWheel.newBuilder().build();
+            return new Timer() {
+                @Override
+                public Runnable schedule(Runnable task, long delayMillis) {
+                    Timeout timeout = wheel.schedule(task, delayMillis, TimeUnit.MILLISECONDS);
+                    return timeout::cancel;
+                }
+
+                @Override
+                public void close() {
+                    wheel.close();
+                }
+            };
+        }
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1);
+        executor.setRemoveOnCancelPolicy(true);
+        return new Timer() {
+            @Override
+            public Runnable schedule(Runnable task, long delayMillis) {
+                ScheduledFuture<?> future = executor.schedule(task, delayMillis, TimeUnit.MILLISECONDS);
+                return () -> future.cancel(false);
+            }
+
+            @Override
+            public void close() {
+                executor.shutdownNow();
+            }
+        };
+    }
+
+    private static void churn(String name, Supplier<Timer> factory, int timeouts, int producers, int window)
+            throws InterruptedException {
+        Runnable noop = () -> {
+        };
+        int perProducer = timeouts / producers;
+        try (Timer timer = factory.get()) {
+            Thread[] threads = new Thread[producers];
+            CountDownLatch start = new CountDownLatch(1);
+            for (int p = 0; p < producers; p++) {
+                long seed = p;
+                threads[p] = new Thread(() -> {
+                    SplittableRandom random = new SplittableRandom(seed);
+                    Runnable[] outstanding = new Runnable[window];
+                    awaitQuietly(start);
+                    for (int i = 0; i < perProducer; i++) {
+                        int slot = i % window;
+                        if (outstanding[slot] != null) {
+                            outstanding[slot].run();
+                        }
+                        outstanding[slot] = timer.schedule(noop, random.nextLong(1_000, 60_000));
+                    }
+                    for (Runnable cancel : outstanding) {
+                        if (cancel != null) {
+                            cancel.run();
+                        }
+                    }
+                });
+                threads[p].start();
+            }
+            long begin = System.nanoTime();
+            start.countDown();
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            long elapsed = System.nanoTime() - begin;
+            long total = (long) perProducer * producers;
+            System.out.printf("%-28s churn     %6.0f ns per schedule+cancel, %5.1f M pairs/s%n",
+                    name, (double) elapsed / total, total * 1e3 / elapsed);
+        }
+    }
+
+    private static void footprint(String name, Supplier<Timer> factory, int pending) {
+        Runnable noop = () -> {
+        };
+        try (Timer timer = factory.get()) {
+            Runnable[] cancels = new Runnable[pending];
+            long before = Harness.usedHeap();
+            for (int i = 0; i < pending; i++) {
+                cancels[i] = timer.schedule(noop, 3_600_000 + i % 1000);
+            }
+            long after = Harness.usedHeap();
+            // the handles the caller keeps are part of the cost
+            Harness.printFootprint(name + " pending", after - before, pending);
+            Harness.consume(cancels);
+        }
+    }
+
+    private static void firing(String name, Supplier<Timer> factory, int pending) throws InterruptedException {
+        long[] lateness = new long[pending];
+        CountDownLatch done = new CountDownLatch(pending);
+        SplittableRandom random = new SplittableRandom(42);
+        try (Timer timer = factory.get()) {
+            for (int i = 0; i < pending; i++) {
+                int index = i;
+                long delayMillis = random.nextLong(100, 1_100);
+                long due = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delayMillis);
+                timer.schedule(() -> {
+                    lateness[index] = System.nanoTime() - due;
+                    done.countDown();
+                }, delayMillis);
+            }
+            if (!done.await(30, TimeUnit.SECONDS)) {
+                System.out.printf("%-28s firing    %d timeouts did not fire within 30 s%n", name, done.getCount());
+                return;
+            }
+        }
+        Arrays.sort(lateness);
+        System.out.printf("%-28s firing    late p50 %6.2f ms, p99 %6.2f ms, max %7.2f ms%n", name,
+                lateness[pending / 2] / 1e6, lateness[(int) (pending * 0.99)] / 1e6, lateness[pending - 1] / 1e6);
+    }
+
+    /**
+     * A wheel of 4 buckets and 3 levels with 50 ms ticks. A task on the worker, which runs just after its
+     * tick T began, schedules timeouts k - 1/2 ticks ahead for k = 4..51; they fall due on tick T + k, so
+     * every fourth is on a level boundary and gets there by cascading. Each one has to run less than a
+     * tick after it was due; one that fired a tick late would be 1.5 ticks late here.
+     */
+    private static void levelBoundaries() throws InterruptedException {
+        long tickNanos = TimeUnit.MILLISECONDS.toNanos(50);
+        int count = 48;
+        long[] lateness = new long[count];
+        CountDownLatch done = new CountDownLatch(count);
+        try (TimingWheel wheel = TimingWheel.newBuilder()
+                .tickDuration(Duration.ofNanos(tickNanos)).wheelSize(4).levels(3).build()) {
+            wheel.schedule(() -> {
+                for (int i = 0; i < count; i++) {
+                    int index = i;
+                    long delay = (i + 4) * tickNanos - tickNanos / 2;
+                    long due = System.nanoTime() + delay;
+                    wheel.schedule(() -> {
+                        lateness[index] = System.nanoTime() - due;
+                        done.countDown();
+                    }, delay, TimeUnit.NANOSECONDS);
+                }
+            }, 0, TimeUnit.NANOSECONDS);
+            if (!done.await(30, TimeUnit.SECONDS)) {
+                throw new IllegalStateException(done.getCount() + " timeouts did not fire within 30 s");
+            }
+        }
+        int late = 0;
+        for (long nanos : lateness) {
+            if (nanos >= tickNanos) {
+                late++;
+            }
+        }
+        Arrays.sort(lateness);
+        System.out.printf("level boundaries: %d of %d timeouts a tick late, lateness %.1f to %.1f ms%n",
+                late, count, lateness[0] / 1e6, lateness[count - 1] / 1e6);
+        if (late > 0) {
+            throw new IllegalStateException("timeouts fired a tick late");
+        }
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}